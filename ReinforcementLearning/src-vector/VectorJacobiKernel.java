@@ -0,0 +1,61 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * A JacobiKernel that backs up several cells of a row at once with the
+ * Vector API. The arithmetic is the same as the scalar kernel of
+ * StencilGridModel, lane by lane, so both give the same utilities.
+ * 
+ * The Vector API is an incubator module, so this class lives outside src and
+ * is built and run with it added:
+ * 
+ * javac --add-modules jdk.incubator.vector -cp bin -d bin src-vector/*.java
+ * java --add-modules jdk.incubator.vector -cp bin ...
+ * 
+ * StencilGridModel loads it by name and keeps its scalar kernel when the
+ * class or the module is missing.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class VectorJacobiKernel implements JacobiKernel
+{
+    private static final VectorSpecies<Double> SPECIES =
+        DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void interior(double[] u, double[] next, int numRows, int numCols,
+        double alpha, double beta, double c, double d, double r, double g)
+    {
+        final int w = numCols;
+        for (int row = 1; row < numRows - 1; row++)
+        {
+            int s = row * w + 1;
+            int end = (row + 1) * w - 1;
+            for (int bound = end - SPECIES.length(); s <= bound;
+                s += SPECIES.length())
+            {
+                DoubleVector un = DoubleVector.fromArray(SPECIES, u, s - w);
+                DoubleVector ue = DoubleVector.fromArray(SPECIES, u, s + 1);
+                DoubleVector us = DoubleVector.fromArray(SPECIES, u, s + w);
+                DoubleVector uw = DoubleVector.fromArray(SPECIES, u, s - 1);
+                DoubleVector sumNS = un.add(us);
+                DoubleVector sumEW = ue.add(uw);
+                DoubleVector diffNS = un.sub(us);
+                DoubleVector diffEW = ue.sub(uw);
+                DoubleVector ns = sumNS.mul(alpha).add(sumEW.mul(beta))
+                    .add(diffNS.mul(c).add(diffEW.mul(d))
+                        .lanewise(VectorOperators.ABS));
+                DoubleVector ew = sumEW.mul(alpha).add(sumNS.mul(beta))
+                    .add(diffEW.mul(c).sub(diffNS.mul(d))
+                        .lanewise(VectorOperators.ABS));
+                ns.add(ew).add(ns.sub(ew).lanewise(VectorOperators.ABS))
+                    .mul(g).add(r).intoArray(next, s);
+            }
+            StencilGridModel.scalarInterior(u, next, w, s, end, alpha, beta,
+                c, d, r, g);
+        }
+    }
+}
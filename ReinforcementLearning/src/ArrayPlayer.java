@@ -0,0 +1,248 @@
+import java.util.HashMap;
+
+/**
+ * Base class for players that solve an index-based TransitionModel and keep
+ * their solution in primitive arrays. The HashMaps returned by getU() and
+ * getPi() are only built when they are asked for.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public abstract class ArrayPlayer extends Player
+{
+    protected TransitionModel model;
+    private boolean keepQ;
+    private QTable qTable;
+
+    /**
+     * Constructor takes the name.
+     * 
+     * @param name
+     *            the name of the player.
+     */
+    public ArrayPlayer(String name)
+    {
+        super(name);
+    }
+
+    /**
+     * Solves the model, replacing any previous solution.
+     * 
+     * @param m
+     *            the model to solve.
+     */
+    public void solve(TransitionModel m)
+    {
+        model = m;
+        utility = null;
+        policy = null;
+        qTable = null;
+        solveModel(m);
+        updateQ();
+    }
+
+    /**
+     * Rebuilds the kept action values from the current solution. solve()
+     * calls this, and so must any subclass that changes its solution in
+     * another way.
+     */
+    protected void updateQ()
+    {
+        qTable = null;
+        if (keepQ && model != null)
+        {
+            double[] u = new double[model.numStates()];
+            for (int s = 0; s < u.length; s++)
+            {
+                u[s] = (model.isState(s) && covers(s)) ? utility(s)
+                    : Double.NaN;
+            }
+            qTable = new QTable(model, u);
+        }
+    }
+
+    /**
+     * Chooses whether solve() keeps the action values of every state after
+     * it finishes, for ranked action queries.
+     * 
+     * @param keepQ
+     *            true to keep a QTable.
+     */
+    public void setKeepQ(boolean keepQ)
+    {
+        this.keepQ = keepQ;
+    }
+
+    /**
+     * @return the action values from the last solve, or null if they were
+     *         not kept.
+     */
+    public QTable getQ()
+    {
+        return qTable;
+    }
+
+    /**
+     * Computes the solution for the model.
+     * 
+     * @param m
+     *            the model to solve.
+     */
+    protected abstract void solveModel(TransitionModel m);
+
+    /**
+     * @param s
+     *            the state index.
+     * @return the utility of the state.
+     */
+    public abstract double utility(int s);
+
+    /**
+     * @param s
+     *            the state index.
+     * @return the index of the best action in the state, or -1 if none.
+     */
+    public abstract int action(int s);
+
+    /**
+     * Tells whether the solution includes a state. Players that only solve
+     * part of the model override this.
+     * 
+     * @param s
+     *            the state index.
+     * @return true if the state has a utility and action.
+     */
+    protected boolean covers(int s)
+    {
+        return true;
+    }
+
+    /**
+     * Converts the MDP into the model that will be solved. Subclasses can
+     * override this to choose a different representation.
+     * 
+     * @param mdp
+     *            the MDP.
+     * @return the model.
+     */
+    protected TransitionModel compile(MarkovDecisionProcess mdp)
+    {
+        return FactoredModel.fromMDP(mdp);
+    }
+
+    /**
+     * @return the model that was solved, or null if nothing is solved yet.
+     */
+    public TransitionModel getModel()
+    {
+        return model;
+    }
+
+    @Override
+    public HashMap<State, Double> getU()
+    {
+        if (utility == null && model != null)
+        {
+            HashMap<State, Double> map = new HashMap<State, Double>();
+            for (int s = 0; s < model.numStates(); s++)
+            {
+                if (!model.isState(s) || !covers(s))
+                {
+                    continue;
+                }
+                map.put(toState(s), utility(s));
+            }
+            utility = map;
+        }
+        return utility;
+    }
+
+    @Override
+    public HashMap<State, String> getPi()
+    {
+        if (policy == null && model != null)
+        {
+            HashMap<State, String> map = new HashMap<State, String>();
+            for (int s = 0; s < model.numStates(); s++)
+            {
+                if (!model.isState(s) || !covers(s))
+                {
+                    continue;
+                }
+                int a = action(s);
+                map.put(toState(s), (a < 0) ? null : model.actionName(a));
+            }
+            policy = map;
+        }
+        return policy;
+    }
+
+    /**
+     * Adds the bytes of the player, the model it solved and the QTable to a
+     * report.
+     * 
+     * @param report
+     *            the report.
+     */
+    @Override
+    public void addMemory(MemoryReport report)
+    {
+        super.addMemory(report);
+        // getU() and getPi() create a State for every entry.
+        if (utility != null)
+        {
+            report.measure(MemoryReport.PLAYER, MemoryReport.UTILITIES,
+                (long) utility.size() * MemoryReport.STATE);
+        }
+        if (policy != null)
+        {
+            report.measure(MemoryReport.PLAYER, MemoryReport.POLICIES,
+                (long) policy.size() * MemoryReport.STATE);
+        }
+        if (model != null)
+        {
+            model.addMemory(report);
+        }
+        if (qTable != null)
+        {
+            qTable.addMemory(report);
+        }
+    }
+
+    /**
+     * Helper method to create a State for an index of the model.
+     * 
+     * @param s
+     *            the state index.
+     * @return the state.
+     */
+    protected State toState(int s)
+    {
+        State state = new State(model.stateName(s), model.reward(s));
+        if (model.isTerminal(s))
+        {
+            state.setTerminal();
+        }
+        return state;
+    }
+
+    /**
+     * Solves the MDP on the first call and then returns the action of the
+     * solved policy for the current state.
+     * 
+     * @param mdp
+     *            the MDP.
+     * @return the desired action.
+     */
+    public String play(MarkovDecisionProcess mdp)
+    {
+        if (model == null)
+        {
+            solve(compile(mdp));
+        }
+        int s = model.indexOf(mdp.getCurrent().name());
+        int a = (s < 0) ? -1 : action(s);
+        return (a < 0) ? null : model.actionName(a);
+    }
+}
@@ -0,0 +1,387 @@
+/**
+ * An agent that uses value iteration over primitive arrays. In FLOAT precision
+ * the transition probabilities and the utilities are stored as floats, which
+ * halves their memory, while every backup is still accumulated in double
+ * precision.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class ArrayValueIterationPlayer extends ArrayPlayer
+{
+    private static final double EPS = 1e-3;
+    private static final int MAX_SWEEPS = 100000;
+    // synchronous sweeps round differently from in-place ones and can cycle
+    // in the last bits when the termination bound is 0 (gamma = 1).
+    private static final double ROUNDOFF = 1e-9;
+    private final Precision precision;
+    private double[] u;
+    private float[] uF;
+    private int[] pi;
+    private int sweeps;
+    private double residual;
+    private boolean synchronous;
+    private boolean pruning;
+    private ReachableModel reachable;
+
+    /**
+     * Constructor takes the name and uses double precision.
+     * 
+     * @param name
+     *            the name of the player.
+     */
+    public ArrayValueIterationPlayer(String name)
+    {
+        this(name, Precision.DOUBLE);
+    }
+
+    /**
+     * Constructor takes the name and the storage precision.
+     * 
+     * @param name
+     *            the name of the player.
+     * @param precision
+     *            the precision of the probabilities and utilities.
+     */
+    public ArrayValueIterationPlayer(String name, Precision precision)
+    {
+        super(name);
+        this.precision = precision;
+    }
+
+    @Override
+    protected TransitionModel compile(MarkovDecisionProcess mdp)
+    {
+        return CompactMDP.fromMDP(mdp, precision);
+    }
+
+    @Override
+    protected void solveModel(TransitionModel m)
+    {
+        if (pruning)
+        {
+            solveReachable(m, m.start());
+        }
+        else
+        {
+            reachable = null;
+            iterate(m);
+        }
+    }
+
+    /**
+     * Helper method to solve the states reachable from a root and map the
+     * solution back to the states of the full model. Terminal states get
+     * their reward, and states that cannot be reached get no solution.
+     * 
+     * @param m
+     *            the full model.
+     * @param root
+     *            the state to search from.
+     */
+    private void solveReachable(TransitionModel m, int root)
+    {
+        reachable = ReachableModel.fromModel(m, root);
+        iterate(reachable);
+        int n = m.numStates();
+        int[] fullPi = new int[n];
+        double[] full = (uF == null) ? new double[n] : null;
+        float[] fullF = (uF != null) ? new float[n] : null;
+        for (int s = 0; s < n; s++)
+        {
+            double value = m.isTerminal(s) ? m.reward(s) : Double.NaN;
+            int r = m.isTerminal(s) ? -1 : reachable.reducedIndex(s);
+            if (r >= 0)
+            {
+                value = utility(r);
+            }
+            fullPi[s] = (r >= 0) ? pi[r] : -1;
+            if (full != null)
+            {
+                full[s] = value;
+            }
+            else
+            {
+                fullF[s] = (float) value;
+            }
+        }
+        u = full;
+        uF = fullF;
+        pi = fullPi;
+    }
+
+    /**
+     * Helper method to run value iteration on a model.
+     * 
+     * @param m
+     *            the model.
+     */
+    private void iterate(TransitionModel m)
+    {
+        double terminationCoefficient = EPS * ((1 - m.gamma()) / m.gamma());
+        pi = new int[m.numStates()];
+        sweeps = 0;
+        if (precision == Precision.FLOAT)
+        {
+            u = null;
+            uF = new float[m.numStates()];
+            do
+            {
+                residual = m.sweep(uF, pi);
+                sweeps++;
+            } while (residual > terminationCoefficient && sweeps < MAX_SWEEPS);
+        }
+        else if (synchronous)
+        {
+            uF = null;
+            u = new double[m.numStates()];
+            double[] next = new double[m.numStates()];
+            double bound = Math.max(terminationCoefficient, ROUNDOFF);
+            do
+            {
+                residual = m.jacobiSweep(u, next);
+                double[] swap = u;
+                u = next;
+                next = swap;
+                sweeps++;
+            } while (residual > bound && sweeps < MAX_SWEEPS);
+            m.greedyPolicy(u, pi);
+        }
+        else
+        {
+            uF = null;
+            u = new double[m.numStates()];
+            do
+            {
+                residual = m.sweep(u, pi);
+                sweeps++;
+            } while (residual > terminationCoefficient && sweeps < MAX_SWEEPS);
+        }
+    }
+
+    @Override
+    protected boolean covers(int s)
+    {
+        return reachable == null || model.isTerminal(s)
+            || reachable.reducedIndex(s) >= 0;
+    }
+
+    /**
+     * Plays like ArrayPlayer, except that with pruning a current state that
+     * the last search did not reach is solved again from that state, and
+     * the kept action values are rebuilt.
+     * 
+     * @param mdp
+     *            the MDP.
+     * @return the desired action.
+     */
+    @Override
+    public String play(MarkovDecisionProcess mdp)
+    {
+        if (reachable != null)
+        {
+            int s = model.indexOf(mdp.getCurrent().name());
+            if (s >= 0 && !covers(s))
+            {
+                utility = null;
+                policy = null;
+                solveReachable(model, s);
+                updateQ();
+            }
+        }
+        return super.play(mdp);
+    }
+
+    @Override
+    public double utility(int s)
+    {
+        return (uF != null) ? uF[s] : u[s];
+    }
+
+    @Override
+    public int action(int s)
+    {
+        return pi[s];
+    }
+
+    /**
+     * @return the precision of the probabilities and utilities.
+     */
+    public Precision getPrecision()
+    {
+        return precision;
+    }
+
+    /**
+     * Chooses between in-place sweeps (the default) and synchronous (Jacobi)
+     * sweeps with the model's jacobiSweep(). Synchronous sweeps need a second
+     * utility buffer and a few more sweeps, but each sweep is much cheaper on
+     * models whose jacobiSweep() has a branch-free loop, such as
+     * StencilGridModel, which also runs that loop with the Vector API when
+     * VectorJacobiKernel is on the class path. Other models use the scalar
+     * jacobiSweep() of TransitionModel, and FLOAT precision always uses
+     * in-place sweeps.
+     * 
+     * @param synchronous
+     *            true to use synchronous sweeps.
+     */
+    public void setSynchronous(boolean synchronous)
+    {
+        this.synchronous = synchronous;
+    }
+
+    /**
+     * Chooses whether to solve only the states reachable from the start.
+     * The search keeps the reachable non-terminal states and folds the
+     * terminal ones into the transitions, so each sweep costs time in
+     * proportion to the reachable area rather than the whole grid. States
+     * that cannot be reached have no utility (NaN) and no action.
+     * 
+     * @param pruning
+     *            true to solve the reachable states only.
+     */
+    public void setPruning(boolean pruning)
+    {
+        this.pruning = pruning;
+    }
+
+    /**
+     * @return the number of non-terminal states solved by the last solve.
+     */
+    public int getSolvedStates()
+    {
+        if (reachable != null)
+        {
+            return reachable.numStates();
+        }
+        int count = 0;
+        for (int s = 0; s < model.numStates(); s++)
+        {
+            if (!model.isTerminal(s))
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of sweeps used by the last solve.
+     */
+    public int getSweeps()
+    {
+        return sweeps;
+    }
+
+    /**
+     * @return the maximum utility change in the final sweep of the last solve.
+     */
+    public double getResidual()
+    {
+        return residual;
+    }
+
+    /**
+     * Solves the MDP in both precisions and compares the results.
+     * 
+     * @param mdp
+     *            the MDP.
+     * @return the comparison of FLOAT against DOUBLE.
+     */
+    public static PrecisionReport comparePrecision(MarkovDecisionProcess mdp)
+    {
+        ArrayValueIterationPlayer exact =
+            new ArrayValueIterationPlayer("double", Precision.DOUBLE);
+        ArrayValueIterationPlayer compact =
+            new ArrayValueIterationPlayer("float", Precision.FLOAT);
+        exact.solve(exact.compile(mdp));
+        compact.solve(compact.compile(mdp));
+        return new PrecisionReport(exact, compact);
+    }
+
+    /**
+     * The difference between a FLOAT and a DOUBLE solve of the same MDP.
+     */
+    public static class PrecisionReport
+    {
+        /**
+         * Largest |U_float(s) - U_double(s)| over all states.
+         */
+        public final double maxUtilityError;
+        /**
+         * Number of non-terminal states whose actions differ.
+         */
+        public final int policyDifferences;
+        /**
+         * Final residual of the DOUBLE solve.
+         */
+        public final double doubleResidual;
+        /**
+         * Final residual of the FLOAT solve.
+         */
+        public final double floatResidual;
+        /**
+         * Sweeps used by the DOUBLE solve.
+         */
+        public final int doubleSweeps;
+        /**
+         * Sweeps used by the FLOAT solve.
+         */
+        public final int floatSweeps;
+
+        /**
+         * Constructor compares two solved players.
+         * 
+         * @param exact
+         *            the DOUBLE player.
+         * @param compact
+         *            the FLOAT player.
+         */
+        PrecisionReport(ArrayValueIterationPlayer exact,
+            ArrayValueIterationPlayer compact)
+        {
+            double error = 0.0;
+            int differences = 0;
+            for (int s = 0; s < exact.model.numStates(); s++)
+            {
+                error = Math.max(error,
+                    Math.abs(compact.utility(s) - exact.utility(s)));
+                if (compact.action(s) != exact.action(s))
+                {
+                    differences++;
+                }
+            }
+            maxUtilityError = error;
+            policyDifferences = differences;
+            doubleResidual = exact.residual;
+            floatResidual = compact.residual;
+            doubleSweeps = exact.sweeps;
+            floatSweeps = compact.sweeps;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "PrecisionReport [maxUtilityError=" + maxUtilityError
+                + ", policyDifferences=" + policyDifferences
+                + ", doubleResidual=" + doubleResidual + ", floatResidual="
+                + floatResidual + ", doubleSweeps=" + doubleSweeps
+                + ", floatSweeps=" + floatSweeps + "]";
+        }
+    }
+
+    @Override
+    public void addMemory(MemoryReport report)
+    {
+        super.addMemory(report);
+        report.measure(MemoryReport.PLAYER, MemoryReport.UTILITIES,
+            MemoryReport.bytes(u) + MemoryReport.bytes(uF));
+        report.measure(MemoryReport.PLAYER, MemoryReport.POLICIES,
+            MemoryReport.bytes(pi));
+        if (reachable != null)
+        {
+            reachable.addMemory(report);
+        }
+    }
+}
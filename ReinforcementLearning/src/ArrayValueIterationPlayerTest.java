@@ -0,0 +1,162 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Scanner;
+
+import org.junit.Test;
+
+/**
+ * A test class for the ArrayValueIterationPlayer.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class ArrayValueIterationPlayerTest
+{
+    /**
+     * Helper method to check the solution of a player against the policy
+     * found by the ValueIterationPlayer tests.
+     * 
+     * @param correct
+     *            the correct policy.
+     * @param world
+     *            the world to solve.
+     * @param p
+     *            the player.
+     */
+    static void checkSolution(String[] correct, String world, Player p)
+    {
+        MarkovDecisionProcess mdp =
+            new MarkovDecisionProcess(new Scanner(world));
+        HashMap<State, String> map = new HashMap<State, String>();
+        String[] answer = new String[correct.length];
+        List<State> states = mdp.getStates();
+        int i = 0;
+        for (State s : states)
+        {
+            if (!s.isTerminal())
+            {
+                mdp.setCurrent(s);
+                answer[i] = p.play((MarkovDecisionProcess) mdp.clone());
+                map.put(s, answer[i]);
+                i++;
+            }
+        }
+        assertArrayEquals(
+            p + " policy:\n" + GridWorld.toString(states, null, map), correct,
+            answer);
+    }
+
+    /**
+     * Double precision finds the same policies as the ValueIterationPlayer.
+     */
+    @Test
+    public void testDouble()
+    {
+        checkSolution(new String[] {
+            "E", "E", "E", "N", "N", "N", "W", "W", "W"
+        }, TestWorlds.SIMPLE_G10_R3,
+            new ArrayValueIterationPlayer("double"));
+        checkSolution(new String[] {
+            "E", "E", "E", "N", "W", "N", "W", "W", "S"
+        }, TestWorlds.SIMPLE_G10_R1,
+            new ArrayValueIterationPlayer("double"));
+        checkSolution(new String[] {
+            "E", "E", "E", "N", "N", "N", "W", "N", "W"
+        }, TestWorlds.SIMPLE_G09_R0,
+            new ArrayValueIterationPlayer("double"));
+        checkSolution(new String[] {
+            "E", "E", "E", "S", "W", "E", "N", "W", "S"
+        }, TestWorlds.TUNNEL_A4_G10_R1,
+            new ArrayValueIterationPlayer("double"));
+    }
+
+    /**
+     * Single precision storage finds the same policies.
+     */
+    @Test
+    public void testFloat()
+    {
+        checkSolution(new String[] {
+            "E", "E", "E", "N", "N", "N", "W", "W", "W"
+        }, TestWorlds.SIMPLE_G10_R3,
+            new ArrayValueIterationPlayer("float", Precision.FLOAT));
+        checkSolution(new String[] {
+            "E", "E", "E", "N", "W", "E", "N", "W", "S"
+        }, TestWorlds.TUNNEL_A2_G10_R1,
+            new ArrayValueIterationPlayer("float", Precision.FLOAT));
+    }
+
+    /**
+     * The precision report compares the two modes on a larger world.
+     */
+    @Test
+    public void testComparePrecision()
+    {
+        MarkovDecisionProcess mdp = new MarkovDecisionProcess(
+            new Scanner(TestWorlds.WORLD0));
+        ArrayValueIterationPlayer.PrecisionReport report =
+            ArrayValueIterationPlayer.comparePrecision(mdp);
+        assertEquals(0.0, report.doubleResidual, 0.0);
+        assertTrue(report.toString(), report.maxUtilityError < 1e-2);
+        assertEquals(0, report.policyDifferences);
+    }
+
+    /**
+     * Pruning solves only the reachable states and finds the same policies.
+     * Playing from a state the first search missed solves again from there.
+     */
+    @Test
+    public void testPruning()
+    {
+        ArrayValueIterationPlayer pruned = new ArrayValueIterationPlayer("p");
+        pruned.setPruning(true);
+        checkSolution(new String[] {
+            "E", "E", "E", "N", "N", "N", "W", "W", "W"
+        }, TestWorlds.SIMPLE_G10_R3, pruned);
+
+        final String islands =
+            "7\na1 -1\na3 -1\na4 100\nb1 100\nb3 -1\nb4 -100\nc9 0\n"
+                + "b1 a4 b4\n4\nN 0.8 0.1 0.0 0.1\nE 0.1 0.8 0.1 0.0\n"
+                + "S 0.0 0.1 0.8 0.1\nW 0.1 0.0 0.1 0.8\n16\na1 N a1\n"
+                + "a1 E a1\na1 S b1\na1 W a1\na3 N a3\na3 E a4\na3 S b3\n"
+                + "a3 W a3\nb3 N a3\nb3 E b4\nb3 S b3\nb3 W b3\nc9 N c9\n"
+                + "c9 E c9\nc9 S c9\nc9 W c9\n0.9\na1";
+        ArrayValueIterationPlayer p = new ArrayValueIterationPlayer("p");
+        p.setPruning(true);
+        p.solve(p.compile(new MarkovDecisionProcess(new Scanner(islands))));
+        assertEquals(1, p.getSolvedStates());
+        assertEquals(4, p.getU().size());
+        checkSolution(new String[] {
+            "S", "E", "N", "N"
+        }, islands, new ArrayValueIterationPlayer("full"));
+        checkSolution(new String[] {
+            "S", "E", "N", "N"
+        }, islands, p);
+
+        // a solve from a state outside the first search rebuilds the QTable.
+        MarkovDecisionProcess mdp =
+            new MarkovDecisionProcess(new Scanner(islands));
+        ArrayValueIterationPlayer q = new ArrayValueIterationPlayer("q");
+        q.setPruning(true);
+        q.setKeepQ(true);
+        assertEquals("S", q.play(mdp));
+        int b3 = q.getModel().indexOf("b3");
+        assertTrue(Double.isNaN(q.getQ().q(b3, 0)));
+        assertEquals(-1, q.getQ().best(b3));
+        for (State state : mdp.getStates())
+        {
+            if (state.name().equals("b3"))
+            {
+                mdp.setCurrent(state);
+            }
+        }
+        assertEquals("N", q.play(mdp));
+        assertEquals(q.action(b3), q.getQ().best(b3));
+        assertEquals(q.utility(b3), q.getQ().q(b3, q.action(b3)), 1e-3);
+    }
+}
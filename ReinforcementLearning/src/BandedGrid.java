@@ -0,0 +1,38 @@
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A grid world that can be cut into bands of rows, each written in the
+ * format that a PartitionWorker reads.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public interface BandedGrid
+{
+    /**
+     * @return the number of rows.
+     */
+    int numRows();
+
+    /**
+     * @return the number of columns.
+     */
+    int numCols();
+
+    /**
+     * Writes what one PartitionWorker needs to solve a band of rows.
+     * 
+     * @param out
+     *            the output.
+     * @param firstRow
+     *            the first row of the band.
+     * @param lastRow
+     *            one past the last row of the band.
+     * @throws IOException
+     *             if the output cannot be written.
+     */
+    void writeBand(DataOutput out, int firstRow, int lastRow)
+        throws IOException;
+}
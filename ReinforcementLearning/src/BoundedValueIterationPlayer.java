@@ -0,0 +1,344 @@
+import java.util.Arrays;
+
+/**
+ * An agent that uses value iteration with certified bounds, so that it can
+ * stop as soon as the policy is provably good instead of waiting for the
+ * utilities to stop changing. With gamma = 1 the usual termination bound
+ * EPS * (1 - gamma) / gamma is zero and plain value iteration runs until the
+ * sweeps stop changing any bit.
+ * 
+ * The utilities U start above the optimal utilities U* (at the bound from
+ * TransitionModel.utilityBound()) and in-place sweeps keep them above U*.
+ * Whenever the greedy policy pi survives a sweep unchanged the player tries
+ * to prove a lower bound: with c = max(U - T U) and w a super-solution of
+ * the expected number of steps under pi (w >= 1 + gamma P_pi w), the
+ * utilities L = U - c w satisfy L <= T_pi L, so L is below the utilities of
+ * pi and therefore below U*. The solve stops when max(U - L) = c max(w) is
+ * at most EPS, at which point every utility is within EPS of U* and the
+ * policy is within EPS of optimal.
+ * 
+ * With action elimination, every proved lower bound is also used to drop
+ * actions for good: U is above U*, so Q_U(s, a) = R(s) + gamma P_a U is
+ * above Q*(s, a), and an action with Q_U(s, a) < L(s) cannot be optimal in
+ * s. Later sweeps skip the dropped actions, which pays off most when there
+ * are many actions per state.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class BoundedValueIterationPlayer extends ArrayPlayer
+{
+    private static final double EPS = 1e-3;
+    private static final int MAX_SWEEPS = 100000;
+    // sweeps spent on the expected number of steps per certification.
+    private static final int STEP_SWEEPS = 200;
+    private static final double STEP_TOLERANCE = 1e-6;
+    // margin that keeps round-off from eliminating an optimal action.
+    private static final double ROUNDOFF = 1e-9;
+    private double[] u;
+    private double[] w;
+    private int[] pi;
+    private int sweeps;
+    private int certifications;
+    private double errorBound;
+    private double excess;
+    private boolean elimination;
+    private boolean[] eliminated;
+    private long activeActions;
+    private long evaluations;
+
+    /**
+     * Constructor takes the name.
+     * 
+     * @param name
+     *            the name of the player.
+     */
+    public BoundedValueIterationPlayer(String name)
+    {
+        super(name);
+    }
+
+    @Override
+    protected void solveModel(TransitionModel m)
+    {
+        int n = m.numStates();
+        double bound = m.utilityBound();
+        u = new double[n];
+        w = new double[n];
+        pi = new int[n];
+        int[] previous = new int[n];
+        for (int s = 0; s < n; s++)
+        {
+            u[s] = m.reward(s) + (m.isTerminal(s) ? 0.0 : m.gamma() * bound);
+            previous[s] = -2;
+        }
+        eliminated = elimination ? new boolean[n * m.numActions()] : null;
+        activeActions = 0;
+        for (int s = 0; s < n; s++)
+        {
+            activeActions += m.isTerminal(s) ? 0 : m.numActions();
+        }
+        evaluations = 0;
+        double terminationCoefficient = EPS * ((1 - m.gamma()) / m.gamma());
+        sweeps = 0;
+        certifications = 0;
+        errorBound = Double.POSITIVE_INFINITY;
+        int wait = 1;
+        int nextTry = 0;
+        double residual;
+        do
+        {
+            residual = elimination ? m.sweep(u, pi, eliminated)
+                : m.sweep(u, pi);
+            evaluations += activeActions;
+            sweeps++;
+            boolean stable = true;
+            for (int s = 0; s < n && stable; s++)
+            {
+                stable = (pi[s] == previous[s]);
+            }
+            System.arraycopy(pi, 0, previous, 0, n);
+            if (stable && sweeps >= nextTry)
+            {
+                errorBound = certify(m);
+                certifications++;
+                if (elimination && !Double.isInfinite(errorBound))
+                {
+                    eliminate(m);
+                }
+                // back off if the policy was stable but not yet good enough.
+                wait *= 2;
+                nextTry = sweeps + wait;
+            }
+            else if (!stable)
+            {
+                wait = 1;
+                nextTry = 0;
+            }
+        } while (errorBound > EPS && residual > terminationCoefficient
+            && sweeps < MAX_SWEEPS);
+        if (errorBound > EPS && residual <= terminationCoefficient)
+        {
+            // the classic bound for discounted worlds: U - EPS is below U*.
+            errorBound = EPS;
+            excess = EPS;
+            Arrays.fill(w, 1.0);
+        }
+    }
+
+    /**
+     * Helper method to drop the actions whose upper bound is below the
+     * proved lower bound of their state. The greedy action is always kept.
+     * 
+     * @param m
+     *            the model.
+     */
+    private void eliminate(TransitionModel m)
+    {
+        int numActions = m.numActions();
+        for (int s = 0; s < u.length; s++)
+        {
+            if (m.isTerminal(s))
+            {
+                continue;
+            }
+            double low = u[s] - excess * w[s] - ROUNDOFF;
+            for (int a = 0; a < numActions; a++)
+            {
+                if (a == pi[s] || eliminated[s * numActions + a])
+                {
+                    continue;
+                }
+                double q = m.reward(s) + m.gamma() * m.expectedUtility(s, a, u);
+                if (q < low)
+                {
+                    eliminated[s * numActions + a] = true;
+                    activeActions--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper method to try to prove a lower bound for the current greedy
+     * policy.
+     * 
+     * @param m
+     *            the model.
+     * @return max(U - L), or infinity if no bound could be proved.
+     */
+    private double certify(TransitionModel m)
+    {
+        // c = max(U - T U); U stays above T U up to round-off.
+        double c = 0.0;
+        for (int s = 0; s < u.length; s++)
+        {
+            if (!m.isTerminal(s))
+            {
+                double tu = m.reward(s)
+                    + m.gamma() * m.expectedUtility(s, pi[s], u);
+                c = Math.max(c, u[s] - tu);
+            }
+        }
+        double scale = stepBound(m);
+        if (Double.isInfinite(scale))
+        {
+            return scale;
+        }
+        double maxSteps = 0.0;
+        for (int s = 0; s < w.length; s++)
+        {
+            maxSteps = Math.max(maxSteps, scale * w[s]);
+        }
+        excess = c * scale;
+        return c * maxSteps;
+    }
+
+    /**
+     * Helper method to improve the estimate w of the expected number of steps
+     * under the greedy policy, starting from the previous estimate, and to
+     * find a factor that makes it a super-solution.
+     * 
+     * @param m
+     *            the model.
+     * @return a factor k with k w >= 1 + gamma P_pi k w, or infinity if the
+     *         estimate has not settled (the policy may never terminate).
+     */
+    private double stepBound(TransitionModel m)
+    {
+        double gamma = m.gamma();
+        for (int sweep = 0; sweep < STEP_SWEEPS; sweep++)
+        {
+            double change = 0.0;
+            double max = 0.0;
+            for (int s = 0; s < w.length; s++)
+            {
+                double value = m.isTerminal(s) ? 0.0
+                    : 1.0 + gamma * m.expectedUtility(s, pi[s], w);
+                change = Math.max(change, Math.abs(value - w[s]));
+                max = Math.max(max, value);
+                w[s] = value;
+            }
+            if (change <= STEP_TOLERANCE * max)
+            {
+                break;
+            }
+        }
+        // w - gamma P w >= 1 - r where r is the remaining residual, so
+        // w / min(1 - r) is a super-solution when every r < 1.
+        double least = Double.POSITIVE_INFINITY;
+        for (int s = 0; s < w.length; s++)
+        {
+            if (!m.isTerminal(s))
+            {
+                least = Math.min(least,
+                    w[s] - gamma * m.expectedUtility(s, pi[s], w));
+            }
+        }
+        if (least == Double.POSITIVE_INFINITY)
+        {
+            return 1.0;
+        }
+        return (least > 0.0) ? 1.0 / least : Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public double utility(int s)
+    {
+        return u[s];
+    }
+
+    /**
+     * @param s
+     *            the state index.
+     * @return the proved lower bound on the utility of the state, or
+     *         negative infinity if none was proved.
+     */
+    public double lowerBound(int s)
+    {
+        if (Double.isInfinite(errorBound))
+        {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return u[s] - excess * w[s];
+    }
+
+    @Override
+    public int action(int s)
+    {
+        return pi[s];
+    }
+
+    /**
+     * @return the proved bound on the error of every utility of the last
+     *         solve, or infinity if none was proved.
+     */
+    public double getErrorBound()
+    {
+        return errorBound;
+    }
+
+    /**
+     * @return the number of sweeps used by the last solve.
+     */
+    public int getSweeps()
+    {
+        return sweeps;
+    }
+
+    /**
+     * Chooses whether to drop actions that the bounds prove suboptimal.
+     * Models with their own sweep kernel, such as StencilGridModel, use the
+     * generic sweep while elimination is on.
+     * 
+     * @param elimination
+     *            true to eliminate actions.
+     */
+    public void setActionElimination(boolean elimination)
+    {
+        this.elimination = elimination;
+    }
+
+    /**
+     * @param s
+     *            the state index.
+     * @param a
+     *            the action index.
+     * @return true if the last solve proved the action suboptimal in the
+     *         state.
+     */
+    public boolean isEliminated(int s, int a)
+    {
+        return eliminated != null && eliminated[s * model.numActions() + a];
+    }
+
+    /**
+     * @return the number of (state, action) pairs evaluated by the sweeps of
+     *         the last solve.
+     */
+    public long getEvaluations()
+    {
+        return evaluations;
+    }
+
+    /**
+     * @return the number of attempts to prove a lower bound.
+     */
+    public int getCertifications()
+    {
+        return certifications;
+    }
+
+    @Override
+    public void addMemory(MemoryReport report)
+    {
+        super.addMemory(report);
+        report.measure(MemoryReport.PLAYER, MemoryReport.UTILITIES,
+            MemoryReport.bytes(u) + MemoryReport.bytes(w));
+        report.measure(MemoryReport.PLAYER, MemoryReport.POLICIES,
+            MemoryReport.bytes(pi));
+        report.measure(MemoryReport.PLAYER, MemoryReport.CACHES,
+            MemoryReport.bytes(eliminated));
+    }
+}
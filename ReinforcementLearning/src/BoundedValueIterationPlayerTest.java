@@ -0,0 +1,181 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Scanner;
+
+import org.junit.Test;
+
+/**
+ * A test class for the BoundedValueIterationPlayer.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class BoundedValueIterationPlayerTest
+{
+    /**
+     * The bounded solve finds the same policies as the ValueIterationPlayer.
+     */
+    @Test
+    public void testPolicies()
+    {
+        ArrayValueIterationPlayerTest.checkSolution(new String[] {
+            "E", "E", "E", "N", "N", "N", "W", "W", "W"
+        }, TestWorlds.SIMPLE_G10_R3,
+            new BoundedValueIterationPlayer("bounded"));
+        ArrayValueIterationPlayerTest.checkSolution(new String[] {
+            "E", "E", "E", "N", "W", "N", "W", "W", "S"
+        }, TestWorlds.SIMPLE_G10_R1,
+            new BoundedValueIterationPlayer("bounded"));
+        ArrayValueIterationPlayerTest.checkSolution(new String[] {
+            "E", "E", "E", "N", "N", "N", "W", "N", "W"
+        }, TestWorlds.SIMPLE_G09_R0,
+            new BoundedValueIterationPlayer("bounded"));
+        ArrayValueIterationPlayerTest.checkSolution(new String[] {
+            "E", "E", "E", "S", "W", "E", "N", "W", "S"
+        }, TestWorlds.TUNNEL_A4_G10_R1,
+            new BoundedValueIterationPlayer("bounded"));
+    }
+
+    /**
+     * With gamma = 1 the bounds stop the solve well before the utilities stop
+     * changing, and the exact utilities lie between them.
+     */
+    @Test
+    public void testCertifiedBounds()
+    {
+        String[] worlds = {
+            TestWorlds.SIMPLE_G10_R1,
+            TestWorlds.TUNNEL_A4_G10_R1
+        };
+        for (String world : worlds)
+        {
+            TransitionModel m = CompactMDP.fromMDP(
+                new MarkovDecisionProcess(new Scanner(world)),
+                Precision.DOUBLE);
+            ArrayValueIterationPlayer exact =
+                new ArrayValueIterationPlayer("exact");
+            BoundedValueIterationPlayer bounded =
+                new BoundedValueIterationPlayer("bounded");
+            exact.solve(m);
+            bounded.solve(m);
+            assertTrue(bounded.getErrorBound() <= 1e-3);
+            assertTrue(2 * bounded.getSweeps() < exact.getSweeps());
+            for (int s = 0; s < m.numStates(); s++)
+            {
+                assertTrue(bounded.lowerBound(s) <= exact.utility(s) + 1e-9);
+                assertTrue(exact.utility(s) <= bounded.utility(s) + 1e-9);
+                assertTrue(bounded.utility(s) - bounded.lowerBound(s)
+                    <= bounded.getErrorBound() + 1e-12);
+            }
+        }
+    }
+
+    /**
+     * Helper method to write a world where the player can move to any of the
+     * eight neighboring cells, and slips 45 degrees either way.
+     * 
+     * @param numRows
+     *            the number of rows.
+     * @param numCols
+     *            the number of columns.
+     * @return the world.
+     */
+    private static String kingWorld(int numRows, int numCols)
+    {
+        final String[] ACTIONS = {
+            "N", "NE", "E", "SE", "S", "SW", "W", "NW"
+        };
+        final int[] DR = {
+            -1, -1, 0, 1, 1, 1, 0, -1
+        };
+        final int[] DC = {
+            0, 1, 1, 1, 0, -1, -1, -1
+        };
+        StringBuilder world = new StringBuilder();
+        world.append(numRows * numCols).append('\n');
+        for (int r = 0; r < numRows; r++)
+        {
+            for (int c = 0; c < numCols; c++)
+            {
+                int reward = (c < numCols - 1 || r > 1) ? -1
+                    : (r == 0) ? 100 : -100;
+                world.append(GridWorld.rowColToName(r, c)).append(' ')
+                    .append(reward).append('\n');
+            }
+        }
+        world.append(GridWorld.rowColToName(0, numCols - 1)).append(' ')
+            .append(GridWorld.rowColToName(1, numCols - 1)).append('\n');
+        world.append(ACTIONS.length).append('\n');
+        for (int a = 0; a < ACTIONS.length; a++)
+        {
+            world.append(ACTIONS[a]);
+            for (int b = 0; b < ACTIONS.length; b++)
+            {
+                int turn = (b - a + ACTIONS.length) % ACTIONS.length;
+                world.append((turn == 0) ? " 0.8"
+                    : (turn == 1 || turn == ACTIONS.length - 1) ? " 0.1"
+                        : " 0.0");
+            }
+            world.append('\n');
+        }
+        world.append(numRows * numCols * ACTIONS.length).append('\n');
+        for (int r = 0; r < numRows; r++)
+        {
+            for (int c = 0; c < numCols; c++)
+            {
+                for (int a = 0; a < ACTIONS.length; a++)
+                {
+                    int r1 = r + DR[a];
+                    int c1 = c + DC[a];
+                    if (r1 < 0 || r1 >= numRows || c1 < 0 || c1 >= numCols)
+                    {
+                        r1 = r;
+                        c1 = c;
+                    }
+                    world.append(GridWorld.rowColToName(r, c)).append(' ')
+                        .append(ACTIONS[a]).append(' ')
+                        .append(GridWorld.rowColToName(r1, c1)).append('\n');
+                }
+            }
+        }
+        world.append("1.0\n").append(GridWorld.rowColToName(numRows - 1, 0));
+        return world.toString();
+    }
+
+    /**
+     * Eliminating actions keeps the policy and skips evaluations.
+     */
+    @Test
+    public void testActionElimination()
+    {
+        BoundedValueIterationPlayer eliminating =
+            new BoundedValueIterationPlayer("eliminating");
+        eliminating.setActionElimination(true);
+        ArrayValueIterationPlayerTest.checkSolution(new String[] {
+            "E", "E", "E", "N", "W", "N", "W", "W", "S"
+        }, TestWorlds.SIMPLE_G10_R1, eliminating);
+
+        TransitionModel m = CompactMDP.fromMDP(
+            new MarkovDecisionProcess(new Scanner(kingWorld(8, 10))),
+            Precision.DOUBLE);
+        BoundedValueIterationPlayer all =
+            new BoundedValueIterationPlayer("all");
+        eliminating = new BoundedValueIterationPlayer("eliminating");
+        eliminating.setActionElimination(true);
+        all.solve(m);
+        eliminating.solve(m);
+        int dropped = 0;
+        for (int s = 0; s < m.numStates(); s++)
+        {
+            assertEquals(all.action(s), eliminating.action(s));
+            for (int a = 0; a < m.numActions(); a++)
+            {
+                dropped += eliminating.isEliminated(s, a) ? 1 : 0;
+            }
+        }
+        assertTrue(dropped > 0);
+        assertTrue(eliminating.getEvaluations() < all.getEvaluations());
+    }
+}
@@ -0,0 +1,285 @@
+import java.util.List;
+
+/**
+ * A compact, read-only copy of a MarkovDecisionProcess. Transitions are stored
+ * sparsely: the successors of (s, a) are next[rowStart[s * A + a]] through
+ * next[rowStart[s * A + a + 1] - 1], with probabilities in a parallel double
+ * or float array depending on the precision.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class CompactMDP extends TransitionModel
+{
+    private final String[] names;
+    private final String[] actionNames;
+    private final double[] rewards;
+    private final boolean[] terminal;
+    private final int[] rowStart;
+    private final int[] next;
+    private final double[] prob;
+    private final float[] probF;
+    private final double gamma;
+    private final int start;
+    private final int maxSuccessors;
+    private final Precision precision;
+
+    /**
+     * Constructor takes the sparse arrays directly.
+     * 
+     * @param names
+     *            the state names.
+     * @param actionNames
+     *            the action names.
+     * @param rewards
+     *            the state rewards.
+     * @param terminal
+     *            the terminal flags.
+     * @param rowStart
+     *            offsets into next for every (state, action) pair, plus one.
+     * @param next
+     *            the successor state indices.
+     * @param prob
+     *            the transition probabilities, parallel to next.
+     * @param gamma
+     *            the discount rate.
+     * @param start
+     *            the index of the start state.
+     * @param precision
+     *            the precision used to store the probabilities.
+     */
+    public CompactMDP(String[] names, String[] actionNames, double[] rewards,
+        boolean[] terminal, int[] rowStart, int[] next, double[] prob,
+        double gamma, int start, Precision precision)
+    {
+        this.names = names;
+        this.actionNames = actionNames;
+        this.rewards = rewards;
+        this.terminal = terminal;
+        this.rowStart = rowStart;
+        this.next = next;
+        this.gamma = gamma;
+        this.start = start;
+        this.precision = precision;
+        if (precision == Precision.FLOAT)
+        {
+            this.prob = null;
+            this.probF = new float[prob.length];
+            for (int e = 0; e < prob.length; e++)
+            {
+                probF[e] = (float) prob[e];
+            }
+        }
+        else
+        {
+            this.prob = prob;
+            this.probF = null;
+        }
+        int max = 0;
+        for (int k = 0; k + 1 < rowStart.length; k++)
+        {
+            max = Math.max(max, rowStart[k + 1] - rowStart[k]);
+        }
+        maxSuccessors = max;
+    }
+
+    /**
+     * Builds a compact copy of the MDP, starting in its current state.
+     * 
+     * @param mdp
+     *            the MDP.
+     * @param precision
+     *            the precision used to store the probabilities.
+     * @return the compact model.
+     */
+    public static CompactMDP fromMDP(MarkovDecisionProcess mdp,
+        Precision precision)
+    {
+        List<State> states = mdp.getStates();
+        List<String> actions = mdp.getActions();
+        int numStates = states.size();
+        int numActions = actions.size();
+        String[] names = new String[numStates];
+        double[] rewards = new double[numStates];
+        boolean[] terminal = new boolean[numStates];
+        for (int s = 0; s < numStates; s++)
+        {
+            State state = states.get(s);
+            names[s] = state.name();
+            rewards[s] = state.reward();
+            terminal[s] = state.isTerminal();
+        }
+        // count the non-zero entries first so the arrays are exact.
+        int[] succ = new int[numActions];
+        double[] p = new double[numActions];
+        int[] rowStart = new int[numStates * numActions + 1];
+        for (int s = 0; s < numStates; s++)
+        {
+            for (int a = 0; a < numActions; a++)
+            {
+                rowStart[s * numActions + a + 1] = rowStart[s * numActions + a]
+                    + mdp.successors(s, a, succ, p);
+            }
+        }
+        int[] next = new int[rowStart[rowStart.length - 1]];
+        double[] prob = new double[next.length];
+        int e = 0;
+        for (int s = 0; s < numStates; s++)
+        {
+            for (int a = 0; a < numActions; a++)
+            {
+                int count = mdp.successors(s, a, succ, p);
+                System.arraycopy(succ, 0, next, e, count);
+                System.arraycopy(p, 0, prob, e, count);
+                e += count;
+            }
+        }
+        return new CompactMDP(names, actions.toArray(new String[numActions]),
+            rewards, terminal, rowStart, next, prob, mdp.getGamma(),
+            mdp.indexOf(mdp.getCurrent()), precision);
+    }
+
+    /**
+     * @return the precision used to store the probabilities.
+     */
+    public Precision precision()
+    {
+        return precision;
+    }
+
+    /**
+     * @return the number of stored (non-zero) transitions.
+     */
+    public int numTransitions()
+    {
+        return next.length;
+    }
+
+    @Override
+    public int numStates()
+    {
+        return names.length;
+    }
+
+    @Override
+    public int numActions()
+    {
+        return actionNames.length;
+    }
+
+    @Override
+    public double gamma()
+    {
+        return gamma;
+    }
+
+    @Override
+    public double reward(int s)
+    {
+        return rewards[s];
+    }
+
+    @Override
+    public boolean isTerminal(int s)
+    {
+        return terminal[s];
+    }
+
+    @Override
+    public int start()
+    {
+        return start;
+    }
+
+    @Override
+    public String stateName(int s)
+    {
+        return names[s];
+    }
+
+    @Override
+    public String actionName(int a)
+    {
+        return actionNames[a];
+    }
+
+    @Override
+    public int maxSuccessors()
+    {
+        return maxSuccessors;
+    }
+
+    @Override
+    public int successors(int s, int a, int[] nextStates, double[] probs)
+    {
+        int row = s * actionNames.length + a;
+        int count = 0;
+        for (int e = rowStart[row]; e < rowStart[row + 1]; e++)
+        {
+            nextStates[count] = next[e];
+            probs[count] = (prob != null) ? prob[e] : probF[e];
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public double expectedUtility(int s, int a, double[] u)
+    {
+        int row = s * actionNames.length + a;
+        int end = rowStart[row + 1];
+        double sum = 0.0;
+        if (prob != null)
+        {
+            for (int e = rowStart[row]; e < end; e++)
+            {
+                sum += prob[e] * u[next[e]];
+            }
+        }
+        else
+        {
+            for (int e = rowStart[row]; e < end; e++)
+            {
+                sum += (double) probF[e] * u[next[e]];
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public double expectedUtility(int s, int a, float[] u)
+    {
+        int row = s * actionNames.length + a;
+        int end = rowStart[row + 1];
+        double sum = 0.0;
+        if (prob != null)
+        {
+            for (int e = rowStart[row]; e < end; e++)
+            {
+                sum += prob[e] * u[next[e]];
+            }
+        }
+        else
+        {
+            for (int e = rowStart[row]; e < end; e++)
+            {
+                sum += (double) probF[e] * u[next[e]];
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public void addMemory(MemoryReport report)
+    {
+        super.addMemory(report);
+        report.measure(MemoryReport.MODEL, MemoryReport.STATES,
+            MemoryReport.bytes(rewards) + MemoryReport.bytes(terminal));
+        report.measure(MemoryReport.MODEL, MemoryReport.NAMES,
+            MemoryReport.bytes(names) + MemoryReport.bytes(actionNames));
+        report.measure(MemoryReport.MODEL, MemoryReport.TRANSITIONS,
+            MemoryReport.bytes(rowStart) + MemoryReport.bytes(next)
+            + MemoryReport.bytes(prob) + MemoryReport.bytes(probF));
+    }
+}
@@ -0,0 +1,542 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An agent that uses value iteration on a grid world split across several
+ * worker JVMs. The grid is cut into bands of rows and each band is solved by
+ * a PartitionWorker process that this player starts on localhost.
+ * Each worker is sent only its band, the rows on either side and the tunnel
+ * list. Each round every worker sweeps its band in place with the utilities
+ * of the neighboring cells from the previous round, and the coordinator
+ * forwards the boundary utilities between the workers. The iteration stops
+ * with the same EPS * (1 - gamma) / gamma bound as ValueIterationPlayer,
+ * applied to the largest change reported by any worker.
+ * 
+ * The solution stays in the workers: utility() and action() ask the worker
+ * whose band holds the cell, and getU() and getPi() fetch each band in one
+ * round trip, so the coordinator never holds more than the boundary
+ * utilities. The workers run until close() or the next solve, or until this
+ * JVM exits.
+ * 
+ * play() solves the usual FactoredModel, which is a view of the MDP's world,
+ * and recognizes a GridWorld in that world with GridLayout, which writes
+ * each band's cells straight from the world; the coordinator never builds a
+ * copy of the grid. A StencilGridModel given to solve() is split the same
+ * way. Any other model is solved in this JVM with in-place sweeps instead.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class DistributedValueIterationPlayer extends ArrayPlayer
+    implements AutoCloseable
+{
+    private static final double EPS = 1e-3;
+    private static final int MAX_SWEEPS = 100000;
+    // the bands exchange utilities synchronously, so like the Jacobi sweep
+    // they can cycle in the last bits when the bound is 0 (gamma = 1).
+    private static final double ROUNDOFF = 1e-9;
+    private static final int CONNECT_TIMEOUT = 60000;
+    private final int numWorkers;
+    private Process[] processes;
+    private Socket[] sockets;
+    private DataInputStream[] in;
+    private DataOutputStream[] out;
+    // the first cell of each band, and the number of cells at the end.
+    private int[] bandStart;
+    // the layout of a FactoredModel's world, or null for a StencilGridModel,
+    // whose state indices are its cells.
+    private GridLayout layout;
+    // the solution of a model that is not a stencil, solved locally.
+    private double[] u;
+    private int[] pi;
+    private int lastCell = -1;
+    private double lastUtility;
+    private int lastAction;
+    private int sweeps;
+    private double residual;
+
+    /**
+     * Constructor takes the name and the number of worker processes.
+     * 
+     * @param name
+     *            the name of the player.
+     * @param numWorkers
+     *            the number of worker JVMs to start.
+     */
+    public DistributedValueIterationPlayer(String name, int numWorkers)
+    {
+        super(name);
+        if (numWorkers < 1)
+        {
+            throw new IllegalArgumentException(
+                "Number of workers must be positive.");
+        }
+        this.numWorkers = numWorkers;
+    }
+
+    @Override
+    protected void solveModel(TransitionModel m)
+    {
+        close();
+        u = null;
+        pi = null;
+        layout = null;
+        BandedGrid grid = null;
+        if (m instanceof StencilGridModel)
+        {
+            grid = (StencilGridModel) m;
+        }
+        else if (m instanceof FactoredModel)
+        {
+            layout = GridLayout.of(((FactoredModel) m).world());
+            grid = layout;
+        }
+        if (grid == null)
+        {
+            solveLocally(m);
+            return;
+        }
+        try
+        {
+            solveDistributed(grid, m.gamma());
+        }
+        catch (IOException e)
+        {
+            close();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Helper method to solve a model that cannot be split into bands with
+     * in-place sweeps in this JVM.
+     * 
+     * @param m
+     *            the model.
+     */
+    private void solveLocally(TransitionModel m)
+    {
+        u = new double[m.numStates()];
+        pi = new int[m.numStates()];
+        double bound = EPS * ((1 - m.gamma()) / m.gamma());
+        sweeps = 0;
+        do
+        {
+            residual = m.sweep(u, pi);
+            sweeps++;
+        } while (residual > bound && sweeps < MAX_SWEEPS);
+    }
+
+    /**
+     * Helper method to start the workers, send them their bands and run the
+     * rounds.
+     * 
+     * @param m
+     *            the grid.
+     * @param gamma
+     *            the discount rate.
+     * @throws IOException
+     *             if a worker cannot be started or fails.
+     */
+    private void solveDistributed(BandedGrid m, double gamma)
+        throws IOException
+    {
+        int bands = Math.min(numWorkers, m.numRows());
+        processes = new Process[bands];
+        sockets = new Socket[bands];
+        in = new DataInputStream[bands];
+        out = new DataOutputStream[bands];
+        bandStart = new int[bands + 1];
+        for (int w = 0; w <= bands; w++)
+        {
+            bandStart[w] = firstRow(m, bands, w) * m.numCols();
+        }
+        ServerSocket server =
+            new ServerSocket(0, bands, InetAddress.getLoopbackAddress());
+        try
+        {
+            server.setSoTimeout(CONNECT_TIMEOUT);
+            for (int w = 0; w < bands; w++)
+            {
+                processes[w] = startWorker(server.getLocalPort());
+            }
+            for (int w = 0; w < bands; w++)
+            {
+                sockets[w] = server.accept();
+                sockets[w].setTcpNoDelay(true);
+                in[w] = new DataInputStream(
+                    new BufferedInputStream(sockets[w].getInputStream()));
+                out[w] = new DataOutputStream(
+                    new BufferedOutputStream(sockets[w].getOutputStream()));
+                m.writeBand(out[w], firstRow(m, bands, w),
+                    firstRow(m, bands, w + 1));
+                out[w].flush();
+            }
+        }
+        finally
+        {
+            server.close();
+        }
+        iterate(gamma);
+    }
+
+    /**
+     * Tells the workers to exit and releases their connections. The
+     * solution is lost, so utility() and action() cannot be used until the
+     * next solve.
+     */
+    @Override
+    public synchronized void close()
+    {
+        if (processes == null)
+        {
+            return;
+        }
+        for (int w = 0; w < processes.length; w++)
+        {
+            try
+            {
+                if (out[w] != null)
+                {
+                    out[w].writeInt(PartitionWorker.FINISH);
+                    out[w].flush();
+                }
+                if (sockets[w] != null)
+                {
+                    sockets[w].close();
+                }
+            }
+            catch (IOException e)
+            {
+                // the worker is already gone.
+            }
+            stop(processes[w]);
+        }
+        processes = null;
+        sockets = null;
+        in = null;
+        out = null;
+        bandStart = null;
+        lastCell = -1;
+    }
+
+    /**
+     * Helper method to wait for a worker to exit, killing it if it does not.
+     * 
+     * @param process
+     *            the worker process, or null if it was never started.
+     */
+    private static void stop(Process process)
+    {
+        if (process == null)
+        {
+            return;
+        }
+        try
+        {
+            if (!process.waitFor(CONNECT_TIMEOUT, TimeUnit.MILLISECONDS))
+            {
+                process.destroy();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            process.destroy();
+        }
+    }
+
+    /**
+     * Helper method to start one worker JVM with this JVM's class path.
+     * 
+     * @param port
+     *            the port of the coordinator.
+     * @return the process.
+     * @throws IOException
+     *             if the process cannot be started.
+     */
+    private static Process startWorker(int port) throws IOException
+    {
+        String java = System.getProperty("java.home") + File.separator + "bin"
+            + File.separator + "java";
+        ProcessBuilder builder = new ProcessBuilder(java, "-cp",
+            System.getProperty("java.class.path"), "PartitionWorker",
+            InetAddress.getLoopbackAddress().getHostAddress(),
+            Integer.toString(port));
+        builder.redirectOutput(ProcessBuilder.Redirect.INHERIT);
+        builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+        return builder.start();
+    }
+
+    /**
+     * Helper method to get the first row of a band.
+     * 
+     * @param m
+     *            the grid.
+     * @param bands
+     *            the number of bands.
+     * @param w
+     *            the band index (bands for the end of the grid).
+     * @return the first row.
+     */
+    private static int firstRow(BandedGrid m, int bands, int w)
+    {
+        return (int) ((long) w * m.numRows() / bands);
+    }
+
+    /**
+     * Helper method to set up the exchange and run rounds until the largest
+     * change is below the bound.
+     * 
+     * @param gamma
+     *            the discount rate.
+     * @throws IOException
+     *             if a worker fails.
+     */
+    private void iterate(double gamma) throws IOException
+    {
+        int bands = in.length;
+        int[][] imports = new int[bands][];
+        TreeSet<Integer> needed = new TreeSet<Integer>();
+        for (int w = 0; w < bands; w++)
+        {
+            imports[w] = new int[in[w].readInt()];
+            for (int i = 0; i < imports[w].length; i++)
+            {
+                imports[w][i] = in[w].readInt();
+                needed.add(imports[w][i]);
+            }
+        }
+
+        // every cell some worker imports, in order; cells of one band form a
+        // contiguous run, which is exactly what that band must export.
+        int[] shared = new int[needed.size()];
+        int i = 0;
+        for (int cell : needed)
+        {
+            shared[i++] = cell;
+        }
+        double[] boundary = new double[shared.length];
+        int[][] gather = new int[bands][];
+        int[] exportStart = new int[bands + 1];
+        for (int w = 0; w < bands; w++)
+        {
+            gather[w] = new int[imports[w].length];
+            for (int j = 0; j < imports[w].length; j++)
+            {
+                gather[w][j] = Arrays.binarySearch(shared, imports[w][j]);
+            }
+            int start = Arrays.binarySearch(shared, bandStart[w]);
+            exportStart[w] = (start >= 0) ? start : -start - 1;
+        }
+        exportStart[bands] = shared.length;
+        for (int w = 0; w < bands; w++)
+        {
+            out[w].writeInt(exportStart[w + 1] - exportStart[w]);
+            for (int j = exportStart[w]; j < exportStart[w + 1]; j++)
+            {
+                out[w].writeInt(shared[j]);
+            }
+            out[w].flush();
+        }
+
+        double bound = Math.max(EPS * ((1 - gamma) / gamma), ROUNDOFF);
+        sweeps = 0;
+        do
+        {
+            for (int w = 0; w < bands; w++)
+            {
+                out[w].writeInt(PartitionWorker.SWEEP);
+                for (int j : gather[w])
+                {
+                    out[w].writeDouble(boundary[j]);
+                }
+                out[w].flush();
+            }
+            residual = 0.0;
+            for (int w = 0; w < bands; w++)
+            {
+                residual = Math.max(residual, in[w].readDouble());
+                for (int j = exportStart[w]; j < exportStart[w + 1]; j++)
+                {
+                    boundary[j] = in[w].readDouble();
+                }
+            }
+            sweeps++;
+        } while (residual > bound && sweeps < MAX_SWEEPS);
+    }
+
+    /**
+     * Helper method to get the utility and action of a cell from the worker
+     * whose band holds it. The last answer is kept, since play() and the
+     * reports ask for the action and the utility of the same cell in turn.
+     * 
+     * @param s
+     *            the state index.
+     */
+    private synchronized void query(int s)
+    {
+        if (s == lastCell)
+        {
+            return;
+        }
+        if (processes == null)
+        {
+            throw new IllegalStateException("The workers are closed.");
+        }
+        int cell = (layout == null) ? s : layout.cell(s);
+        int w = Arrays.binarySearch(bandStart, cell);
+        w = (w >= 0) ? w : -w - 2;
+        try
+        {
+            out[w].writeInt(PartitionWorker.QUERY);
+            out[w].writeInt(1);
+            out[w].writeInt(cell);
+            out[w].flush();
+            lastUtility = in[w].readDouble();
+            lastAction = in[w].readByte();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        lastCell = s;
+    }
+
+    @Override
+    public double utility(int s)
+    {
+        if (u != null)
+        {
+            return u[s];
+        }
+        query(s);
+        return lastUtility;
+    }
+
+    @Override
+    public int action(int s)
+    {
+        if (pi != null)
+        {
+            return pi[s];
+        }
+        query(s);
+        return lastAction;
+    }
+
+    /**
+     * Helper method to fetch the utilities and actions of every state, one
+     * round trip per worker, and keep them as the maps that getU() and
+     * getPi() return. Every worker is asked before any answer is read, so
+     * the workers answer at the same time.
+     */
+    private synchronized void fetchAll()
+    {
+        HashMap<State, Double> values = new HashMap<State, Double>();
+        HashMap<State, String> actions = new HashMap<State, String>();
+        try
+        {
+            for (int w = 0; w < out.length; w++)
+            {
+                out[w].writeInt(PartitionWorker.QUERY);
+                out[w].writeInt(bandStart[w + 1] - bandStart[w]);
+                for (int cell = bandStart[w]; cell < bandStart[w + 1]; cell++)
+                {
+                    out[w].writeInt(cell);
+                }
+                out[w].flush();
+            }
+            for (int w = 0; w < in.length; w++)
+            {
+                for (int cell = bandStart[w]; cell < bandStart[w + 1]; cell++)
+                {
+                    double value = in[w].readDouble();
+                    int a = in[w].readByte();
+                    int s = (layout == null) ? cell : layout.state(cell);
+                    if (s < 0 || !model.isState(s))
+                    {
+                        continue;
+                    }
+                    State state = toState(s);
+                    values.put(state, value);
+                    actions.put(state, (a < 0) ? null : model.actionName(a));
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        utility = values;
+        policy = actions;
+    }
+
+    @Override
+    public HashMap<State, Double> getU()
+    {
+        if (utility == null && processes != null)
+        {
+            fetchAll();
+        }
+        return super.getU();
+    }
+
+    @Override
+    public HashMap<State, String> getPi()
+    {
+        if (policy == null && processes != null)
+        {
+            fetchAll();
+        }
+        return super.getPi();
+    }
+
+    /**
+     * @return the number of worker processes running.
+     */
+    public int getWorkers()
+    {
+        return (processes == null) ? 0 : processes.length;
+    }
+
+    /**
+     * @return the number of rounds used by the last solve.
+     */
+    public int getSweeps()
+    {
+        return sweeps;
+    }
+
+    /**
+     * @return the largest utility change in the final round of the last
+     *         solve.
+     */
+    public double getResidual()
+    {
+        return residual;
+    }
+
+    @Override
+    public void addMemory(MemoryReport report)
+    {
+        super.addMemory(report);
+        report.measure(MemoryReport.PLAYER, MemoryReport.UTILITIES,
+            MemoryReport.bytes(u));
+        report.measure(MemoryReport.PLAYER, MemoryReport.POLICIES,
+            MemoryReport.bytes(pi));
+    }
+}
@@ -0,0 +1,100 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Scanner;
+
+import org.junit.Test;
+
+/**
+ * A test class for the DistributedValueIterationPlayer. The tests start real
+ * worker JVMs on localhost.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class DistributedValueIterationPlayerTest
+{
+    /**
+     * Two workers split the 3x4 world and find the same policy as one JVM.
+     */
+    @Test
+    public void testSimpleWorld()
+    {
+        final String[] CORRECT = {
+            "E", "E", "E", "N", "N", "N", "W", "W", "W"
+        };
+        StencilGridModel stencil = StencilGridModelTest.simpleWorld();
+        DistributedValueIterationPlayer p =
+            new DistributedValueIterationPlayer("distributed", 2);
+        p.solve(stencil);
+        int i = 0;
+        for (int s = 0; s < stencil.numStates(); s++)
+        {
+            if (!stencil.isTerminal(s))
+            {
+                assertEquals(CORRECT[i++], stencil.actionName(p.action(s)));
+            }
+        }
+        p.close();
+    }
+
+    /**
+     * Three workers agree with a single JVM on a random world with tunnels,
+     * whose exits can be in any band.
+     */
+    @Test
+    public void testRandomWorld()
+    {
+        StencilGridModel world =
+            GridWorld.createRandomStencilModel(45, 30, 30, 6, 20, 2, 0.99);
+        ArrayValueIterationPlayer single = new ArrayValueIterationPlayer("one");
+        DistributedValueIterationPlayer p =
+            new DistributedValueIterationPlayer("distributed", 3);
+        single.solve(world);
+        p.solve(world);
+        for (int s = 0; s < world.numStates(); s++)
+        {
+            assertEquals(single.utility(s), p.utility(s), 0.01);
+        }
+        p.close();
+    }
+
+    /**
+     * play() recognizes a GridWorld MDP and splits it without building a
+     * stencil model, so the player can take part in a Game without being
+     * solved first, and getU() gathers the utilities of every band.
+     */
+    @Test
+    public void testPlay()
+    {
+        MarkovDecisionProcess mdp = new MarkovDecisionProcess(new Scanner(
+            new GridWorld(11).randomGridWorld(20, 16, 12, 4, 10, 2, 0.99)));
+        ArrayValueIterationPlayer single = new ArrayValueIterationPlayer("one");
+        DistributedValueIterationPlayer p =
+            new DistributedValueIterationPlayer("distributed", 2);
+        assertEquals(single.play(mdp), p.play(mdp));
+        assertTrue(p.getModel() instanceof FactoredModel);
+        assertEquals(2, p.getWorkers());
+        HashMap<State, Double> expected = single.getU();
+        HashMap<State, Double> u = p.getU();
+        assertEquals(expected.size(), u.size());
+        for (State s : expected.keySet())
+        {
+            assertEquals(expected.get(s), u.get(s), 0.01);
+        }
+        assertEquals(expected.keySet(), p.getPi().keySet());
+        Game game = new Game(mdp, p);
+        game.setQuiet(true);
+        game.play();
+        p.close();
+
+        // a model that is not split into bands is solved in this JVM.
+        mdp = new MarkovDecisionProcess(
+            new Scanner(TestWorlds.SIMPLE_G10_R3));
+        p.solve(CompactMDP.fromMDP(mdp, Precision.DOUBLE));
+        assertEquals(0, p.getWorkers());
+        assertEquals("N", p.play(mdp));
+    }
+}
@@ -0,0 +1,208 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One agent's position in a shared MDPWorld: the current state index, the
+ * steps taken, the discounted score so far and the agent's own random number
+ * generator. A cursor is small and belongs to one thread; the world it moves
+ * through is shared and never changes, so thousands of agents can step at
+ * once without copying the world or contending for locks.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class EpisodeCursor
+{
+    private final MDPWorld world;
+    private Random random;
+    private int current;
+    private int steps;
+    private double score;
+    private double discount;
+
+    /**
+     * Constructor starts a cursor at the start state of the world.
+     * 
+     * @param world
+     *            the world.
+     * @param random
+     *            the random number generator of the cursor, or null to use
+     *            the generator of the calling thread.
+     */
+    public EpisodeCursor(MDPWorld world, Random random)
+    {
+        this.world = world;
+        this.random = random;
+        reset(world.start());
+    }
+
+    /**
+     * Starts a new episode in a state.
+     * 
+     * @param s
+     *            the state index.
+     */
+    public void reset(int s)
+    {
+        current = s;
+        steps = 0;
+        score = world.reward(s);
+        discount = 1.0;
+    }
+
+    /**
+     * Starts a new episode in the start state of the world.
+     */
+    public void reset()
+    {
+        reset(world.start());
+    }
+
+    /**
+     * Moves the cursor to a state without changing its episode.
+     * 
+     * @param s
+     *            the state index.
+     */
+    public void setCurrent(int s)
+    {
+        current = s;
+    }
+
+    /**
+     * Makes the outcomes of takeAction reproducible.
+     * 
+     * @param seed
+     *            the seed of the random number generator.
+     */
+    public void setSeed(long seed)
+    {
+        random = new Random(seed);
+    }
+
+    /**
+     * Takes an action and adds the discounted reward of the state it leads
+     * to to the score.
+     * 
+     * @param a
+     *            the action index.
+     * @return the index of the new current state.
+     */
+    public int takeAction(int a)
+    {
+        double r = (random == null) ? ThreadLocalRandom.current().nextDouble()
+            : random.nextDouble();
+        current = world.sample(current, a, r);
+        steps++;
+        discount *= world.gamma();
+        score += discount * world.reward(current);
+        return current;
+    }
+
+    /**
+     * Copies the cursor. A seeded generator is copied with its state, so the
+     * copy draws the same numbers the original would without the two
+     * affecting each other.
+     * 
+     * @return the copy.
+     */
+    public EpisodeCursor copy()
+    {
+        EpisodeCursor answer = new EpisodeCursor(world, copy(random));
+        answer.current = current;
+        answer.steps = steps;
+        answer.score = score;
+        answer.discount = discount;
+        return answer;
+    }
+
+    /**
+     * Copies a random number generator together with its state.
+     * 
+     * @param random
+     *            the generator, or null.
+     * @return the copy, or null if random is null.
+     */
+    private static Random copy(Random random)
+    {
+        if (random == null)
+        {
+            return null;
+        }
+        try
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream out = new ObjectOutputStream(bytes);
+            out.writeObject(random);
+            out.close();
+            ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()));
+            return (Random) in.readObject();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        catch (ClassNotFoundException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the world.
+     */
+    public MDPWorld world()
+    {
+        return world;
+    }
+
+    /**
+     * @return the index of the current state.
+     */
+    public int current()
+    {
+        return current;
+    }
+
+    /**
+     * @return the shared instance of the current state, which must not be
+     *         modified.
+     */
+    public State state()
+    {
+        return world.registry().state(current);
+    }
+
+    /**
+     * @return true if the current state is terminal.
+     */
+    public boolean isTerminal()
+    {
+        return world.isTerminal(current);
+    }
+
+    /**
+     * @return the number of actions taken since the episode began.
+     */
+    public int steps()
+    {
+        return steps;
+    }
+
+    /**
+     * @return the reward of the first state plus the discounted rewards of
+     *         the states reached since the episode began.
+     */
+    public double score()
+    {
+        return score;
+    }
+}
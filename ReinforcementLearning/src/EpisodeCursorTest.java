@@ -0,0 +1,154 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Scanner;
+
+import org.junit.Test;
+
+/**
+ * A test class for the MDPWorld and EpisodeCursor.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class EpisodeCursorTest
+{
+    private static final int AGENTS = 400;
+    private static final int THREADS = 4;
+    private static final int MAX_STEPS = 200;
+
+    /**
+     * A cursor moves exactly like an MDP with the same seed, and clones of
+     * the MDP share its world.
+     */
+    @Test
+    public void testMatchesMDP()
+    {
+        MarkovDecisionProcess mdp = new MarkovDecisionProcess(
+            new Scanner(TestWorlds.TUNNEL_A4_G10_R1));
+        mdp.setSeed(5L);
+        MDPWorld world = mdp.world();
+        EpisodeCursor cursor = world.newCursor(5L);
+        assertEquals(mdp.getCurrentIndex(), cursor.current());
+        for (int t = 0; t < 50 && !cursor.isTerminal(); t++)
+        {
+            int a = t % world.numActions();
+            mdp.takeAction(world.actionName(a));
+            assertEquals(mdp.getCurrentIndex(), cursor.takeAction(a));
+            assertEquals(mdp.getCurrent(), cursor.state());
+        }
+        MarkovDecisionProcess copy = (MarkovDecisionProcess) mdp.clone();
+        assertSame(world, copy.world());
+        assertEquals(mdp.getCurrentIndex(), copy.getCurrentIndex());
+        assertEquals(mdp.fingerprint(), copy.fingerprint());
+    }
+
+    /**
+     * A clone of a seeded MDP carries a copy of the generator: it makes the
+     * same moves as the original, and its moves do not change the
+     * original's.
+     */
+    @Test
+    public void testCloneCarriesSeed()
+    {
+        MarkovDecisionProcess mdp = new MarkovDecisionProcess(
+            new Scanner(TestWorlds.TUNNEL_A4_G10_R1));
+        mdp.setSeed(11L);
+        mdp.takeAction("N");
+        MarkovDecisionProcess copy = (MarkovDecisionProcess) mdp.clone();
+        MarkovDecisionProcess other = (MarkovDecisionProcess) mdp.clone();
+        MDPWorld world = mdp.world();
+        for (int t = 0; t < 50; t++)
+        {
+            String a = world.actionName(t % world.numActions());
+            copy.takeAction(a);
+        }
+        for (int t = 0; t < 50; t++)
+        {
+            String a = world.actionName(t % world.numActions());
+            mdp.takeAction(a);
+            other.takeAction(a);
+            assertEquals(other.getCurrentIndex(), mdp.getCurrentIndex());
+        }
+        assertEquals(mdp.getCurrentIndex(), copy.getCurrentIndex());
+    }
+
+    /**
+     * Helper method to play one agent's episode with a policy.
+     * 
+     * @param world
+     *            the world.
+     * @param policy
+     *            the action of each state.
+     * @param seed
+     *            the seed of the agent.
+     * @return the agent's score.
+     */
+    private static double episode(MDPWorld world, int[] policy, long seed)
+    {
+        EpisodeCursor cursor = world.newCursor(seed);
+        while (!cursor.isTerminal() && cursor.steps() < MAX_STEPS)
+        {
+            cursor.takeAction(policy[cursor.current()]);
+        }
+        return cursor.score();
+    }
+
+    /**
+     * Agents stepping through one shared world from several threads get the
+     * same scores as when they run one at a time.
+     * 
+     * @throws InterruptedException
+     *             if the test is interrupted.
+     */
+    @Test
+    public void testConcurrentAgents() throws InterruptedException
+    {
+        final MDPWorld world = MDPWorld.read(new Scanner(
+            new GridWorld(3L).randomGridWorld(20, 20, 40, 4, 20, 2, 0.95)));
+        ArrayValueIterationPlayer solver =
+            new ArrayValueIterationPlayer("ArrayVI");
+        solver.solve(FactoredModel.fromMDP(new MarkovDecisionProcess(world)));
+        final int[] policy = new int[world.numStates()];
+        for (int s = 0; s < policy.length; s++)
+        {
+            policy[s] = world.isTerminal(s) ? 0 : solver.action(s);
+        }
+        double[] expected = new double[AGENTS];
+        for (int i = 0; i < AGENTS; i++)
+        {
+            expected[i] = episode(world, policy, i);
+        }
+        final double[] actual = new double[AGENTS];
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++)
+        {
+            final int first = t;
+            threads[t] = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    for (int i = first; i < AGENTS; i += THREADS)
+                    {
+                        actual[i] = episode(world, policy, i);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+        boolean reached = false;
+        for (int i = 0; i < AGENTS; i++)
+        {
+            assertEquals(expected[i], actual[i], 0.0);
+            reached |= expected[i] != world.reward(world.start());
+        }
+        assertTrue(reached);
+    }
+}
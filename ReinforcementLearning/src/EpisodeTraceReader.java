@@ -0,0 +1,301 @@
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * Replays the episodes recorded by EpisodeTraceWriter, one at a time,
+ * reconstructing their trajectories and scores from the MDP they were played
+ * on without running the players again.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class EpisodeTraceReader implements Closeable
+{
+    private static final int BUFFER_BYTES = 1 << 16;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final long fingerprint;
+    private final long seed;
+    private final int numStates;
+    private final int numActions;
+    private int[] packed = new int[64];
+    private int numSteps;
+    private int start = -1;
+
+    /**
+     * Constructor opens the file and reads the header.
+     * 
+     * @param path
+     *            the file.
+     */
+    public EpisodeTraceReader(Path path)
+    {
+        buffer = ByteBuffer.allocateDirect(BUFFER_BYTES)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.flip();
+        try
+        {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            if (!fill(32))
+            {
+                throw new EOFException("Trace header is incomplete.");
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        if (buffer.getInt() != EpisodeTraceWriter.MAGIC)
+        {
+            throw new IllegalArgumentException("Not an episode trace.");
+        }
+        int version = buffer.getInt();
+        if (version != EpisodeTraceWriter.VERSION)
+        {
+            throw new IllegalArgumentException(
+                "Unsupported trace version: " + version);
+        }
+        fingerprint = buffer.getLong();
+        seed = buffer.getLong();
+        numStates = buffer.getInt();
+        numActions = buffer.getInt();
+    }
+
+    /**
+     * @return the fingerprint of the MDP the episodes were played on.
+     */
+    public long fingerprint()
+    {
+        return fingerprint;
+    }
+
+    /**
+     * @return the seed recorded in the header.
+     */
+    public long seed()
+    {
+        return seed;
+    }
+
+    /**
+     * Checks that an MDP is the one the episodes were played on.
+     * 
+     * @param mdp
+     *            the MDP.
+     * @return true if the fingerprints match.
+     */
+    public boolean matches(MarkovDecisionProcess mdp)
+    {
+        return mdp.fingerprint() == fingerprint;
+    }
+
+    /**
+     * Reads the next episode.
+     * 
+     * @return false at the end of the file.
+     */
+    public boolean next()
+    {
+        try
+        {
+            if (!fill(8))
+            {
+                if (buffer.hasRemaining())
+                {
+                    throw new EOFException("Trace ends inside an episode.");
+                }
+                start = -1;
+                return false;
+            }
+            numSteps = buffer.getInt();
+            start = buffer.getInt();
+            if (numSteps < 0 || start < 0 || start >= numStates)
+            {
+                throw new IllegalArgumentException("Corrupt episode header.");
+            }
+            if (packed.length < numSteps)
+            {
+                packed = new int[Math.max(numSteps, 2 * packed.length)];
+            }
+            for (int i = 0; i < numSteps; i++)
+            {
+                if (!fill(4))
+                {
+                    throw new EOFException("Trace ends inside an episode.");
+                }
+                packed[i] = buffer.getInt();
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of steps of the current episode.
+     */
+    public int steps()
+    {
+        return numSteps;
+    }
+
+    /**
+     * @param i
+     *            the step, from 0 for the start state to steps().
+     * @return the index of the state after step i.
+     */
+    public int state(int i)
+    {
+        return (i == 0) ? start : packed[i - 1] / numActions;
+    }
+
+    /**
+     * @param i
+     *            the step, from 1 to steps().
+     * @return the index of the action taken in step i.
+     */
+    public int action(int i)
+    {
+        return packed[i - 1] % numActions;
+    }
+
+    /**
+     * Computes the discounted score of the current episode the same way
+     * Game.play() does.
+     * 
+     * @param rewards
+     *            the reward of each state.
+     * @param gamma
+     *            the discount factor.
+     * @return the score.
+     */
+    public double score(double[] rewards, double gamma)
+    {
+        double score = rewards[start];
+        for (int t = 1; t <= numSteps; t++)
+        {
+            score += Math.pow(gamma, t) * rewards[state(t)];
+        }
+        return score;
+    }
+
+    @Override
+    public void close()
+    {
+        try
+        {
+            channel.close();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Helper method to make bytes available in the buffer.
+     * 
+     * @param bytes
+     *            the number of bytes needed.
+     * @return false if the file ends first.
+     * @throws IOException
+     *             if the file cannot be read.
+     */
+    private boolean fill(int bytes) throws IOException
+    {
+        if (buffer.remaining() >= bytes)
+        {
+            return true;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes)
+        {
+            if (channel.read(buffer) < 0)
+            {
+                break;
+            }
+        }
+        buffer.flip();
+        return buffer.remaining() >= bytes;
+    }
+
+    /**
+     * Replays a trace and prints the score and trajectory of every episode.
+     * 
+     * @param args
+     *            the world file and the trace file.
+     * @throws FileNotFoundException
+     *             if the world file cannot be opened.
+     */
+    public static void main(String[] args) throws FileNotFoundException
+    {
+        if (args.length != 2)
+        {
+            System.err.println("Usage: java EpisodeTraceReader world trace");
+            return;
+        }
+        MarkovDecisionProcess mdp =
+            new MarkovDecisionProcess(new Scanner(new File(args[0])));
+        List<State> states = mdp.getStates();
+        List<String> actions = mdp.getActions();
+        double[] rewards = new double[states.size()];
+        for (int s = 0; s < rewards.length; s++)
+        {
+            rewards[s] = states.get(s).reward();
+        }
+        try (EpisodeTraceReader reader =
+            new EpisodeTraceReader(Paths.get(args[1])))
+        {
+            if (!reader.matches(mdp))
+            {
+                System.err.println("The trace was recorded on another world.");
+                return;
+            }
+            long episodes = 0;
+            double total = 0.0;
+            StringBuilder line = new StringBuilder();
+            while (reader.next())
+            {
+                double score = reader.score(rewards, mdp.getGamma());
+                line.setLength(0);
+                line.append(episodes).append(": score ").append(score)
+                    .append(" steps ").append(reader.steps()).append(": ")
+                    .append(states.get(reader.state(0)).name());
+                for (int t = 1; t <= reader.steps(); t++)
+                {
+                    line.append(' ').append(actions.get(reader.action(t)))
+                        .append(' ').append(states.get(reader.state(t)).name());
+                }
+                System.out.println(line);
+                episodes++;
+                total += score;
+            }
+            System.out.println("Episodes: " + episodes + ", mean score: "
+                + ((episodes > 0) ? total / episodes : Double.NaN)
+                + ", seed: " + reader.seed());
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "EpisodeTraceReader[states=" + numStates + ", actions="
+            + numActions + ", fingerprint=" + Long.toHexString(fingerprint)
+            + "]";
+    }
+}
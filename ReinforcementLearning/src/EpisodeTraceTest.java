@@ -0,0 +1,128 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Scanner;
+
+import org.junit.Test;
+
+/**
+ * A test class for the EpisodeTraceWriter and EpisodeTraceReader.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class EpisodeTraceTest
+{
+    /**
+     * Replaying recorded games reproduces their trajectories and scores.
+     * 
+     * @throws IOException
+     *             if the temporary file cannot be created.
+     */
+    @Test
+    public void testReplay() throws IOException
+    {
+        String world = TestWorlds.TUNNEL_A4_G10_R1;
+        File file = File.createTempFile("episodes", ".trace");
+        file.deleteOnExit();
+        MarkovDecisionProcess mdp =
+            new MarkovDecisionProcess(new Scanner(world));
+        int games = 200;
+        double[] scores = new double[games];
+        int[] steps = new int[games];
+        int[] ends = new int[games];
+        try (EpisodeTraceWriter writer =
+            new EpisodeTraceWriter(file.toPath(), mdp, 42))
+        {
+            for (int g = 0; g < games; g++)
+            {
+                MarkovDecisionProcess copy =
+                    new MarkovDecisionProcess(new Scanner(world));
+                copy.setSeed(42 + g);
+                Game game =
+                    new Game(copy, new ArrayValueIterationPlayer("ArrayVI"));
+                game.setQuiet(true);
+                game.setMaxSteps(50);
+                game.setTrace(writer);
+                scores[g] = game.play();
+                steps[g] = game.getSteps();
+                ends[g] = copy.indexOf(copy.getCurrent());
+            }
+            assertEquals(games, writer.getEpisodes());
+        }
+
+        List<State> states = mdp.getStates();
+        double[] rewards = new double[states.size()];
+        for (int s = 0; s < rewards.length; s++)
+        {
+            rewards[s] = states.get(s).reward();
+        }
+        try (EpisodeTraceReader reader =
+            new EpisodeTraceReader(file.toPath()))
+        {
+            assertTrue(reader.matches(mdp));
+            assertEquals(42, reader.seed());
+            for (int g = 0; g < games; g++)
+            {
+                assertTrue(reader.next());
+                assertEquals(steps[g], reader.steps());
+                assertEquals(mdp.indexOf(mdp.getCurrent()), reader.state(0));
+                assertEquals(ends[g], reader.state(reader.steps()));
+                assertEquals(scores[g],
+                    reader.score(rewards, mdp.getGamma()), 0.0);
+            }
+            assertFalse(reader.next());
+        }
+    }
+
+    /**
+     * A seeded MDP plays the same game twice, and a different world has a
+     * different fingerprint.
+     */
+    @Test
+    public void testSeedAndFingerprint()
+    {
+        double[] scores = new double[2];
+        for (int i = 0; i < 2; i++)
+        {
+            MarkovDecisionProcess mdp = new MarkovDecisionProcess(
+                new Scanner(TestWorlds.TUNNEL_A4_G10_R1));
+            mdp.setSeed(7);
+            Game game = new Game(mdp, new ArrayValueIterationPlayer("ArrayVI"));
+            game.setQuiet(true);
+            game.setMaxSteps(50);
+            scores[i] = game.play();
+        }
+        assertEquals(scores[0], scores[1], 0.0);
+        MarkovDecisionProcess a = new MarkovDecisionProcess(
+            new Scanner(TestWorlds.TUNNEL_A4_G10_R1));
+        MarkovDecisionProcess b = new MarkovDecisionProcess(
+            new Scanner(TestWorlds.TUNNEL_A4_G10_R1));
+        MarkovDecisionProcess c = new MarkovDecisionProcess(
+            new Scanner(TestWorlds.SIMPLE_G10_R3));
+        assertEquals(a.fingerprint(), b.fingerprint());
+        assertFalse(a.fingerprint() == c.fingerprint());
+    }
+
+    /**
+     * Worlds whose state names differ only in names with the same
+     * String.hashCode() have different fingerprints.
+     */
+    @Test
+    public void testFingerprintNames()
+    {
+        String world = "2\n%s -1\nb1 100\nb1\n1\nN 1.0\n1\n"
+            + "%s N b1\n0.9\n%s";
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        MarkovDecisionProcess a = new MarkovDecisionProcess(new Scanner(
+            String.format(world, "Aa", "Aa", "Aa")));
+        MarkovDecisionProcess b = new MarkovDecisionProcess(new Scanner(
+            String.format(world, "BB", "BB", "BB")));
+        assertFalse(a.fingerprint() == b.fingerprint());
+    }
+}
@@ -0,0 +1,216 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Records whole episodes to a compact binary trace file that
+ * EpisodeTraceReader can replay without the players.
+ * 
+ * The file starts with a header: the magic number, the format version, the
+ * fingerprint of the MDP, the seed of the run, and the number of states and
+ * actions. Each episode follows as its number of steps, its start state, and
+ * one int per step packing the action taken and the state reached as
+ * state * numActions + action. The records go through one direct buffer to a
+ * FileChannel, so recording allocates nothing once the largest episode has
+ * been seen.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class EpisodeTraceWriter implements Closeable
+{
+    /**
+     * The first four bytes of a trace file.
+     */
+    public static final int MAGIC = 0x45505452;
+    /**
+     * The version of the file format.
+     */
+    public static final int VERSION = 1;
+    private static final int BUFFER_BYTES = 1 << 16;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int numStates;
+    private final int numActions;
+    private int[] steps = new int[64];
+    private int numSteps;
+    private int start = -1;
+    private long episodes;
+
+    /**
+     * Constructor creates the file, replacing any old one, and writes the
+     * header.
+     * 
+     * @param path
+     *            the file.
+     * @param mdp
+     *            the MDP the episodes are played on.
+     * @param seed
+     *            the seed recorded in the header.
+     */
+    public EpisodeTraceWriter(Path path, MarkovDecisionProcess mdp, long seed)
+    {
+        numStates = mdp.numStates();
+        numActions = mdp.getActions().size();
+        if ((long) numStates * numActions > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException(
+                "Too many states and actions to pack a step in an int.");
+        }
+        buffer = ByteBuffer.allocateDirect(BUFFER_BYTES)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        try
+        {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putLong(mdp.fingerprint());
+        buffer.putLong(seed);
+        buffer.putInt(numStates);
+        buffer.putInt(numActions);
+    }
+
+    /**
+     * Starts a new episode. An episode that was not ended is dropped.
+     * 
+     * @param state
+     *            the index of the start state.
+     */
+    public void beginEpisode(int state)
+    {
+        checkState(state);
+        start = state;
+        numSteps = 0;
+    }
+
+    /**
+     * Records one step of the current episode.
+     * 
+     * @param action
+     *            the index of the action taken.
+     * @param state
+     *            the index of the state reached.
+     */
+    public void step(int action, int state)
+    {
+        if (start < 0)
+        {
+            throw new IllegalStateException("No episode has begun.");
+        }
+        checkState(state);
+        if (action < 0 || action >= numActions)
+        {
+            throw new IllegalArgumentException("Bad action index: " + action);
+        }
+        if (numSteps == steps.length)
+        {
+            steps = Arrays.copyOf(steps, 2 * numSteps);
+        }
+        steps[numSteps++] = state * numActions + action;
+    }
+
+    /**
+     * Writes the current episode to the buffer.
+     */
+    public void endEpisode()
+    {
+        if (start < 0)
+        {
+            throw new IllegalStateException("No episode has begun.");
+        }
+        ensure(8);
+        buffer.putInt(numSteps);
+        buffer.putInt(start);
+        for (int i = 0; i < numSteps; i++)
+        {
+            ensure(4);
+            buffer.putInt(steps[i]);
+        }
+        start = -1;
+        episodes++;
+    }
+
+    /**
+     * @return the number of episodes written.
+     */
+    public long getEpisodes()
+    {
+        return episodes;
+    }
+
+    /**
+     * Writes the buffered episodes to the file.
+     */
+    public void flush()
+    {
+        buffer.flip();
+        try
+        {
+            while (buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close()
+    {
+        flush();
+        try
+        {
+            channel.close();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Helper method to make room in the buffer.
+     * 
+     * @param bytes
+     *            the number of bytes needed.
+     */
+    private void ensure(int bytes)
+    {
+        if (buffer.remaining() < bytes)
+        {
+            flush();
+        }
+    }
+
+    /**
+     * Helper method to reject a bad state index.
+     * 
+     * @param state
+     *            the state index.
+     */
+    private void checkState(int state)
+    {
+        if (state < 0 || state >= numStates)
+        {
+            throw new IllegalArgumentException("Bad state index: " + state);
+        }
+    }
+}
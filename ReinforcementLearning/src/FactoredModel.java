@@ -0,0 +1,168 @@
+/**
+ * A read-only TransitionModel view of an MDPWorld in the factored form of
+ * its text format: one deterministic successor per (state, intended move)
+ * and an A x A matrix with the probability of each intended move for each
+ * chosen action. A backup of (s, a) is the uncertainty-weighted sum of the
+ * utilities of the A successors of s, which are stored next to each other,
+ * so every backup reads one short run of ints.
+ * 
+ * The model copies nothing: the successors, rewards, names and name index
+ * are those of the world, which never changes, so solving an MDP with this
+ * model costs no memory beyond the world it was read into.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class FactoredModel extends TransitionModel
+{
+    private final MDPWorld world;
+    private final int start;
+    private final int maxSuccessors;
+
+    /**
+     * Constructor takes the world and the start state.
+     * 
+     * @param world
+     *            the world.
+     * @param start
+     *            the index of the start state.
+     */
+    public FactoredModel(MDPWorld world, int start)
+    {
+        this.world = world;
+        this.start = start;
+        int numActions = world.numActions();
+        int max = 0;
+        for (int a = 0; a < numActions; a++)
+        {
+            int count = 0;
+            for (int k = 0; k < numActions; k++)
+            {
+                count += (world.uncertainty(a, k) > 0.0) ? 1 : 0;
+            }
+            max = Math.max(max, count);
+        }
+        maxSuccessors = max;
+    }
+
+    /**
+     * Views the world of the MDP, starting in its current state.
+     * 
+     * @param mdp
+     *            the MDP.
+     * @return the factored model.
+     */
+    public static FactoredModel fromMDP(MarkovDecisionProcess mdp)
+    {
+        return new FactoredModel(mdp.world(), mdp.getCurrentIndex());
+    }
+
+    /**
+     * @return the world the model views.
+     */
+    public MDPWorld world()
+    {
+        return world;
+    }
+
+    @Override
+    public int numStates()
+    {
+        return world.numStates();
+    }
+
+    @Override
+    public int numActions()
+    {
+        return world.numActions();
+    }
+
+    @Override
+    public double gamma()
+    {
+        return world.gamma();
+    }
+
+    @Override
+    public double reward(int s)
+    {
+        return world.reward(s);
+    }
+
+    @Override
+    public boolean isTerminal(int s)
+    {
+        return world.isTerminal(s);
+    }
+
+    @Override
+    public int start()
+    {
+        return start;
+    }
+
+    @Override
+    public String stateName(int s)
+    {
+        return world.registry().name(s);
+    }
+
+    /**
+     * Finds a state with the world's own name index instead of building
+     * another one.
+     * 
+     * @param name
+     *            the state name.
+     * @return the state index, or -1 if there is none.
+     */
+    @Override
+    public int indexOf(String name)
+    {
+        return world.registry().id(name);
+    }
+
+    @Override
+    public String actionName(int a)
+    {
+        return world.actionName(a);
+    }
+
+    @Override
+    public int maxSuccessors()
+    {
+        return maxSuccessors;
+    }
+
+    /**
+     * Writes the distinct successors of (s, a) with non-zero probability, in
+     * increasing order of their index.
+     * 
+     * @param s
+     *            the state index.
+     * @param a
+     *            the action index.
+     * @param next
+     *            receives the successor state indices.
+     * @param prob
+     *            receives the transition probabilities.
+     * @return the number of successors written.
+     */
+    @Override
+    public int successors(int s, int a, int[] next, double[] prob)
+    {
+        return world.successors(s, a, next, prob);
+    }
+
+    @Override
+    public double expectedUtility(int s, int a, double[] u)
+    {
+        return world.expectedUtility(s, a, u);
+    }
+
+    @Override
+    public double expectedUtility(int s, int a, float[] u)
+    {
+        return world.expectedUtility(s, a, u);
+    }
+}
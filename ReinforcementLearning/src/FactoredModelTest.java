@@ -0,0 +1,89 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Scanner;
+
+import org.junit.Test;
+
+/**
+ * A test class for the FactoredModel and the factored transitions of the
+ * MarkovDecisionProcess.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class FactoredModelTest
+{
+    /**
+     * The factored model has the same transitions and backups as the sparse
+     * copy of the MDP.
+     */
+    @Test
+    public void testMatchesCompact()
+    {
+        MarkovDecisionProcess mdp = new MarkovDecisionProcess(new Scanner(
+            new GridWorld(3).randomGridWorld(12, 9, 8, 4, 6, 2, 0.95)));
+        FactoredModel factored = FactoredModel.fromMDP(mdp);
+        CompactMDP compact = CompactMDP.fromMDP(mdp, Precision.DOUBLE);
+        double[] u = new double[mdp.numStates()];
+        for (int s = 0; s < u.length; s++)
+        {
+            u[s] = Math.sin(s);
+        }
+        int[] next = new int[factored.maxSuccessors()];
+        double[] prob = new double[factored.maxSuccessors()];
+        for (int s = 0; s < u.length; s++)
+        {
+            for (int a = 0; a < factored.numActions(); a++)
+            {
+                assertEquals(compact.expectedUtility(s, a, u),
+                    factored.expectedUtility(s, a, u), 1e-12);
+                double sum = 0.0;
+                int count = factored.successors(s, a, next, prob);
+                for (int i = 0; i < count; i++)
+                {
+                    assertEquals(mdp.transProb(s, a, next[i]), prob[i], 1e-12);
+                    sum += prob[i];
+                }
+                assertEquals(factored.isTerminal(s) ? 0.0 : 1.0, sum, 1e-9);
+            }
+        }
+        BoundedValueIterationPlayer p = new BoundedValueIterationPlayer("f");
+        p.solve(factored);
+        BoundedValueIterationPlayer q = new BoundedValueIterationPlayer("c");
+        q.solve(compact);
+        for (int s = 0; s < u.length; s++)
+        {
+            assertEquals(q.utility(s), p.utility(s), 1e-9);
+            assertEquals(s, factored.indexOf(factored.stateName(s)));
+        }
+
+        // the model is a view of the world and copies none of its arrays.
+        MemoryReport report = new MemoryReport();
+        factored.addMemory(report);
+        assertEquals(0L, report.totalActual());
+    }
+
+    /**
+     * An MDP with two transitions for the same state and move is rejected.
+     */
+    @Test
+    public void testDuplicateTransition()
+    {
+        String world = TestWorlds.SIMPLE_G10_R3;
+        int paths = world.indexOf("\na1 N ");
+        assertTrue(paths >= 0);
+        boolean rejected = false;
+        try
+        {
+            new MarkovDecisionProcess(new Scanner(world.substring(0, paths)
+                + "\na1 N a1" + world.substring(paths)));
+        }
+        catch (IllegalArgumentException e)
+        {
+            rejected = true;
+        }
+        assertTrue(rejected);
+    }
+}
@@ -0,0 +1,386 @@
+import java.util.Arrays;
+
+/**
+ * An agent for games with a hard limit of H steps. Instead of solving the
+ * infinite-horizon problem, it runs exactly H sweeps of backward induction:
+ * U_0(s) = R(s) and U_k(s) = R(s) + gamma * max_a sum P(s'|s,a) U_k-1(s'),
+ * where k is the number of steps left. The best action depends on the steps
+ * left, so the policy is time-indexed: one byte per state for each of the H
+ * steps, with layer t used after t moves.
+ * 
+ * Keeping every layer takes H * S bytes. Two modes keep less:
+ * 
+ * With a checkpoint interval c, the player keeps the utilities of every c-th
+ * sweep and only c policy layers at a time; when the game moves past those
+ * layers, the next c are recomputed from the nearest checkpoint. Playing a
+ * whole game then costs about 2H sweeps. The checkpoints are doubles, so
+ * memory is about 8 * S * H / c + c * S bytes instead of H * S, which only
+ * saves memory for c above 8 and is smallest near c = sqrt(8H).
+ * 
+ * Keeping the last k layers stores the exact policy for the last k moves of
+ * the game in k * S bytes, with no recomputation, and plays the layer with
+ * k steps left for every earlier move. That is exact when the policy stops
+ * changing within k steps, as it does for most discounted worlds;
+ * isExact() tells whether it did.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class FiniteHorizonPlayer extends ArrayPlayer
+{
+    private final int horizon;
+    private int interval;
+    private int lastLayers;
+    private boolean exact;
+    // U_H, the utility of each state with every step left.
+    private double[] u;
+    // the policy layers kept, for moves windowStart to windowEnd - 1.
+    private byte[][] layers;
+    private int windowStart;
+    private int windowEnd;
+    // U_jc for j = 0, 1, ... when checkpointing.
+    private double[][] checkpoints;
+    private int time;
+    private long sweeps;
+
+    /**
+     * Constructor takes the name and the number of steps in a game, and
+     * keeps every policy layer.
+     * 
+     * @param name
+     *            the name of the player.
+     * @param horizon
+     *            the number of steps, at least 1.
+     */
+    public FiniteHorizonPlayer(String name, int horizon)
+    {
+        super(name);
+        if (horizon < 1)
+        {
+            throw new IllegalArgumentException("Bad horizon: " + horizon);
+        }
+        this.horizon = horizon;
+    }
+
+    /**
+     * Keeps only some policy layers and recomputes the others from saved
+     * utilities when they are needed, using about 8 * S * H / interval +
+     * interval * S bytes. Replaces setLastLayers and takes effect at the
+     * next solve.
+     * 
+     * @param interval
+     *            the number of sweeps between checkpoints, which is also the
+     *            number of layers kept, at least 1; the horizon or more keeps
+     *            every layer.
+     */
+    public void setCheckpointInterval(int interval)
+    {
+        if (interval < 1)
+        {
+            throw new IllegalArgumentException("Bad interval: " + interval);
+        }
+        this.interval = (interval >= horizon) ? 0 : interval;
+        this.lastLayers = 0;
+    }
+
+    /**
+     * Keeps only the policy layers of the last k moves, using k * S bytes,
+     * and plays the layer with k steps left before them. Replaces
+     * setCheckpointInterval and takes effect at the next solve.
+     * 
+     * @param k
+     *            the number of layers kept, at least 1; the horizon or more
+     *            keeps every layer.
+     */
+    public void setLastLayers(int k)
+    {
+        if (k < 1)
+        {
+            throw new IllegalArgumentException("Bad number of layers: " + k);
+        }
+        this.lastLayers = (k >= horizon) ? 0 : k;
+        this.interval = 0;
+    }
+
+    @Override
+    protected void solveModel(TransitionModel m)
+    {
+        if (m.numActions() > Byte.MAX_VALUE)
+        {
+            throw new IllegalArgumentException(
+                "Too many actions to store in a byte.");
+        }
+        int n = m.numStates();
+        double[] prev = new double[n];
+        double[] next = new double[n];
+        for (int s = 0; s < n; s++)
+        {
+            prev[s] = m.reward(s);
+        }
+        sweeps = 0;
+        time = 0;
+        exact = true;
+        byte[] scratch = null;
+        checkpoints = null;
+        if (lastLayers > 0)
+        {
+            layers = new byte[lastLayers][n];
+            scratch = new byte[n];
+            windowStart = horizon - lastLayers;
+            windowEnd = horizon;
+        }
+        else if (interval == 0)
+        {
+            layers = new byte[horizon][n];
+            windowStart = 0;
+            windowEnd = horizon;
+        }
+        else
+        {
+            checkpoints = new double[(horizon + interval - 1) / interval][];
+            layers = new byte[interval][n];
+            windowStart = 0;
+            windowEnd = 0;
+        }
+        for (int k = 1; k <= horizon; k++)
+        {
+            if (checkpoints != null && (k - 1) % interval == 0)
+            {
+                checkpoints[(k - 1) / interval] = prev.clone();
+            }
+            if (scratch != null && k > lastLayers)
+            {
+                // compare with the layer with lastLayers steps left.
+                backup(m, prev, next, scratch);
+                exact &= Arrays.equals(scratch, layers[0]);
+            }
+            else
+            {
+                backup(m, prev, next, (checkpoints == null)
+                    ? layers[horizon - k - windowStart] : null);
+            }
+            double[] swap = prev;
+            prev = next;
+            next = swap;
+        }
+        u = prev;
+        if (checkpoints != null)
+        {
+            loadWindow(0);
+        }
+    }
+
+    /**
+     * Helper method to run one sweep of backward induction.
+     * 
+     * @param m
+     *            the model.
+     * @param prev
+     *            the utilities with one step fewer.
+     * @param next
+     *            receives the utilities.
+     * @param layer
+     *            receives the best actions, -1 for terminal states, or null.
+     */
+    private void backup(TransitionModel m, double[] prev, double[] next,
+        byte[] layer)
+    {
+        double gamma = m.gamma();
+        for (int s = 0; s < prev.length; s++)
+        {
+            double value = m.reward(s);
+            int best = -1;
+            if (!m.isTerminal(s))
+            {
+                double max = Double.NEGATIVE_INFINITY;
+                for (int a = 0; a < m.numActions(); a++)
+                {
+                    double eu = m.expectedUtility(s, a, prev);
+                    if (eu > max)
+                    {
+                        max = eu;
+                        best = a;
+                    }
+                }
+                value += gamma * max;
+            }
+            next[s] = value;
+            if (layer != null)
+            {
+                layer[s] = (byte) best;
+            }
+        }
+        sweeps++;
+    }
+
+    /**
+     * Helper method to recompute the block of policy layers that holds a
+     * move, from the checkpoint below it.
+     * 
+     * @param t
+     *            the number of moves made.
+     */
+    private void loadWindow(int t)
+    {
+        // layer t is computed by the sweep with horizon - t steps left.
+        int block = (horizon - t - 1) / interval;
+        int first = block * interval + 1;
+        int last = Math.min(first + interval - 1, horizon);
+        double[] prev = checkpoints[block].clone();
+        double[] next = new double[prev.length];
+        windowStart = horizon - last;
+        windowEnd = horizon - first + 1;
+        for (int k = first; k <= last; k++)
+        {
+            backup(model, prev, next, layers[horizon - k - windowStart]);
+            double[] swap = prev;
+            prev = next;
+            next = swap;
+        }
+    }
+
+    /**
+     * @param t
+     *            the number of moves made, from 0 to horizon - 1.
+     * @param s
+     *            the state index.
+     * @return the best action with horizon - t steps left, or -1 if the
+     *         state is terminal. When only the last k layers are kept, moves
+     *         before them get the action with k steps left.
+     */
+    public int action(int t, int s)
+    {
+        if (t < 0 || t >= horizon)
+        {
+            throw new IllegalArgumentException("Bad time: " + t);
+        }
+        if (lastLayers > 0)
+        {
+            return layers[Math.max(t - windowStart, 0)][s];
+        }
+        if (t < windowStart || t >= windowEnd)
+        {
+            loadWindow(t);
+        }
+        return layers[t - windowStart][s];
+    }
+
+    @Override
+    public double utility(int s)
+    {
+        return u[s];
+    }
+
+    @Override
+    public int action(int s)
+    {
+        return action(0, s);
+    }
+
+    /**
+     * Plays the action of the current move and counts the move. Once the
+     * horizon is reached the player returns null, which ends the game.
+     * 
+     * @param mdp
+     *            the MDP.
+     * @return the desired action.
+     */
+    @Override
+    public String play(MarkovDecisionProcess mdp)
+    {
+        if (model == null)
+        {
+            solve(compile(mdp));
+        }
+        int s = model.indexOf(mdp.getCurrent().name());
+        if (s < 0 || time >= horizon)
+        {
+            return null;
+        }
+        int a = action(time, s);
+        time++;
+        return (a < 0) ? null : model.actionName(a);
+    }
+
+    /**
+     * Starts counting moves from 0 again, for a new game.
+     */
+    public void restart()
+    {
+        time = 0;
+    }
+
+    /**
+     * @return the number of moves played since the last solve or restart.
+     */
+    public int getTime()
+    {
+        return time;
+    }
+
+    /**
+     * @return false if keeping the last k layers changed an action, that is,
+     *         if some move before them has a best action different from the
+     *         layer with k steps left; true otherwise.
+     */
+    public boolean isExact()
+    {
+        return exact;
+    }
+
+    /**
+     * @return the number of sweeps run, including recomputed ones.
+     */
+    public long getSweeps()
+    {
+        return sweeps;
+    }
+
+    /**
+     * @return the number of policy layers kept in memory.
+     */
+    public int getLayersKept()
+    {
+        return (layers == null) ? 0 : layers.length;
+    }
+
+    /**
+     * @return the bytes of the policy layers and checkpoints kept.
+     */
+    public long getPolicyBytes()
+    {
+        long bytes = 0;
+        for (int i = 0; layers != null && i < layers.length; i++)
+        {
+            bytes += layers[i].length;
+        }
+        for (int i = 0; checkpoints != null && i < checkpoints.length; i++)
+        {
+            bytes += 8L * checkpoints[i].length;
+        }
+        return bytes;
+    }
+
+    @Override
+    public void addMemory(MemoryReport report)
+    {
+        super.addMemory(report);
+        long layerBytes = MemoryReport.bytes(layers);
+        for (int i = 0; layers != null && i < layers.length; i++)
+        {
+            layerBytes += MemoryReport.bytes(layers[i]);
+        }
+        long checkpointBytes = MemoryReport.bytes(checkpoints);
+        for (int i = 0; checkpoints != null && i < checkpoints.length; i++)
+        {
+            checkpointBytes += MemoryReport.bytes(checkpoints[i]);
+        }
+        report.measure(MemoryReport.PLAYER, MemoryReport.UTILITIES,
+            MemoryReport.bytes(u));
+        report.measure(MemoryReport.PLAYER, MemoryReport.POLICIES,
+            layerBytes);
+        report.measure(MemoryReport.PLAYER, MemoryReport.CACHES,
+            checkpointBytes);
+    }
+}
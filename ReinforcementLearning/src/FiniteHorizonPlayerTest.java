@@ -0,0 +1,208 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Scanner;
+
+import org.junit.Test;
+
+/**
+ * A test class for the FiniteHorizonPlayer.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class FiniteHorizonPlayerTest
+{
+    /**
+     * Helper method to find the best expected utility with some steps left
+     * by searching every outcome, independently of the player.
+     * 
+     * @param m
+     *            the model.
+     * @param s
+     *            the state index.
+     * @param steps
+     *            the steps left.
+     * @return the utility.
+     */
+    private static double expectimax(TransitionModel m, int s, int steps)
+    {
+        if (steps == 0 || m.isTerminal(s))
+        {
+            return m.reward(s);
+        }
+        int[] next = new int[m.maxSuccessors()];
+        double[] prob = new double[m.maxSuccessors()];
+        double max = Double.NEGATIVE_INFINITY;
+        for (int a = 0; a < m.numActions(); a++)
+        {
+            int count = m.successors(s, a, next, prob);
+            double eu = 0.0;
+            for (int i = 0; i < count; i++)
+            {
+                eu += prob[i] * expectimax(m, next[i], steps - 1);
+            }
+            max = Math.max(max, eu);
+        }
+        return m.reward(s) + m.gamma() * max;
+    }
+
+    /**
+     * H sweeps give the same utilities as a search of every outcome H steps
+     * deep, and a long horizon gives the infinite-horizon policy.
+     */
+    @Test
+    public void testBackwardInduction()
+    {
+        final int HORIZON = 5;
+        MarkovDecisionProcess mdp = new MarkovDecisionProcess(
+            new Scanner(TestWorlds.SIMPLE_G09_R0));
+        TransitionModel m = FactoredModel.fromMDP(mdp);
+        FiniteHorizonPlayer p = new FiniteHorizonPlayer("Finite", HORIZON);
+        p.solve(m);
+        assertEquals(HORIZON, p.getSweeps());
+        for (int s = 0; s < m.numStates(); s++)
+        {
+            assertEquals(expectimax(m, s, HORIZON), p.utility(s), 1e-9);
+        }
+        FiniteHorizonPlayer longer = new FiniteHorizonPlayer("Finite", 500);
+        ArrayValueIterationPlayer infinite =
+            new ArrayValueIterationPlayer("ArrayVI");
+        longer.solve(m);
+        infinite.solve(m);
+        for (int s = 0; s < m.numStates(); s++)
+        {
+            assertEquals(infinite.action(s), longer.action(s));
+        }
+    }
+
+    /**
+     * Checkpointing gives every layer of the full table while keeping fewer
+     * of them, and recomputes layers as the game moves on.
+     */
+    @Test
+    public void testCheckpoints()
+    {
+        final int HORIZON = 20;
+        MarkovDecisionProcess mdp = new MarkovDecisionProcess(
+            new Scanner(TestWorlds.TUNNEL_A4_G10_R1));
+        TransitionModel m = FactoredModel.fromMDP(mdp);
+        FiniteHorizonPlayer full = new FiniteHorizonPlayer("Full", HORIZON);
+        full.solve(m);
+        FiniteHorizonPlayer saved = new FiniteHorizonPlayer("Saved", HORIZON);
+        saved.setCheckpointInterval(6);
+        saved.solve(m);
+        assertEquals(HORIZON, full.getLayersKept());
+        assertEquals(6, saved.getLayersKept());
+        boolean varies = false;
+        for (int t = 0; t < HORIZON; t++)
+        {
+            for (int s = 0; s < m.numStates(); s++)
+            {
+                assertEquals(full.action(t, s), saved.action(t, s));
+                varies |= full.action(t, s) != full.action(0, s);
+            }
+        }
+        assertTrue(varies);
+        // one pass, the first block again, and the three other blocks.
+        assertEquals(HORIZON + 2 + 18, saved.getSweeps());
+        for (int s = 0; s < m.numStates(); s++)
+        {
+            assertEquals(full.utility(s), saved.utility(s), 0.0);
+        }
+    }
+
+    /**
+     * Keeping the last k layers gives the last k moves of the full table in
+     * one pass, plays the layer with k steps left before them, and reports
+     * whether that changed any action.
+     */
+    @Test
+    public void testLastLayers()
+    {
+        final int HORIZON = 20;
+        MarkovDecisionProcess mdp = new MarkovDecisionProcess(
+            new Scanner(TestWorlds.TUNNEL_A4_G10_R1));
+        TransitionModel m = FactoredModel.fromMDP(mdp);
+        FiniteHorizonPlayer full = new FiniteHorizonPlayer("Full", HORIZON);
+        full.solve(m);
+        int[] sizes = {1, 6, 15};
+        boolean inexact = false;
+        for (int k : sizes)
+        {
+            FiniteHorizonPlayer last = new FiniteHorizonPlayer("Last", HORIZON);
+            last.setLastLayers(k);
+            last.solve(m);
+            assertEquals(k, last.getLayersKept());
+            assertEquals(HORIZON, last.getSweeps());
+            boolean same = true;
+            for (int t = 0; t < HORIZON; t++)
+            {
+                int steps = Math.max(t, HORIZON - k);
+                for (int s = 0; s < m.numStates(); s++)
+                {
+                    assertEquals(full.action(steps, s), last.action(t, s));
+                    same &= full.action(t, s) == last.action(t, s);
+                }
+            }
+            assertEquals(same, last.isExact());
+            inexact |= !same;
+            for (int s = 0; s < m.numStates(); s++)
+            {
+                assertEquals(full.utility(s), last.utility(s), 0.0);
+            }
+        }
+        assertTrue(inexact);
+    }
+
+    /**
+     * The memory modes reject sizes below 1.
+     */
+    @Test
+    public void testBadSizes()
+    {
+        FiniteHorizonPlayer p = new FiniteHorizonPlayer("Finite", 10);
+        try
+        {
+            p.setCheckpointInterval(0);
+            fail("Interval 0 accepted.");
+        }
+        catch (IllegalArgumentException e)
+        {
+            assertFalse(e.getMessage().isEmpty());
+        }
+        try
+        {
+            p.setLastLayers(0);
+            fail("0 layers accepted.");
+        }
+        catch (IllegalArgumentException e)
+        {
+            assertFalse(e.getMessage().isEmpty());
+        }
+    }
+
+    /**
+     * The player ends a game at the horizon.
+     */
+    @Test
+    public void testGameStopsAtHorizon()
+    {
+        MarkovDecisionProcess mdp = new MarkovDecisionProcess(
+            new Scanner(TestWorlds.SIMPLE_G10_R3));
+        mdp.setSeed(1L);
+        FiniteHorizonPlayer p = new FiniteHorizonPlayer("Finite", 2);
+        Game game = new Game(mdp, p);
+        game.setQuiet(true);
+        game.play();
+        assertTrue(game.getSteps() <= 2);
+        assertEquals(2, p.getTime());
+        assertNull(p.play((MarkovDecisionProcess) mdp.clone()));
+        p.restart();
+        assertEquals(0, p.getTime());
+    }
+}
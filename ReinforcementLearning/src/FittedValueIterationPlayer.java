@@ -0,0 +1,437 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * An agent that approximates the utilities of a grid world with a linear
+ * combination of Gaussian radial basis functions over the row and column of
+ * each state, plus a constant. Each iteration backs up a random sample of
+ * states with the current approximation and refits the weights to the
+ * backed-up values by ridge regression, so the player keeps one weight per
+ * feature and one feature-by-feature matrix, however many states the world
+ * has. Terminal states are not approximated; their utility is their reward.
+ * The utility and action of a state come from a one-step lookahead on the
+ * approximation.
+ * 
+ * The row and column of a state come from the cell index of a
+ * StencilGridModel, or from the state names (as in GridWorld.nameToRow and
+ * nameToCol) for any other model.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class FittedValueIterationPlayer extends ArrayPlayer
+{
+    private static final double EPS = 1e-4;
+    // keeps the normal equations positive definite when some centers are
+    // far from every sampled state.
+    private static final double RIDGE = 1e-6;
+    private final int centers;
+    private final int samples;
+    private final int maxIterations;
+    private final Random random;
+    private final double[] weights;
+    private int[] rows;
+    private int[] cols;
+    private int numRows;
+    private int numCols;
+    private int iterations;
+    // scratch space for one state's features and one backup.
+    private final double[] phi;
+    private final double[] rowFactor;
+    private final double[] colFactor;
+    private int[] next;
+    private double[] prob;
+
+    /**
+     * Constructor takes the name and the size of the approximation.
+     * 
+     * @param name
+     *            the name of the player.
+     * @param centers
+     *            the number of basis functions along each axis, at least 2.
+     * @param samples
+     *            the number of states backed up in each iteration.
+     * @param maxIterations
+     *            the largest number of iterations.
+     * @param seed
+     *            the seed for sampling states.
+     */
+    public FittedValueIterationPlayer(String name, int centers, int samples,
+        int maxIterations, long seed)
+    {
+        super(name);
+        if (centers < 2 || samples < 1 || maxIterations < 1)
+        {
+            throw new IllegalArgumentException("Bad approximation size.");
+        }
+        this.centers = centers;
+        this.samples = samples;
+        this.maxIterations = maxIterations;
+        this.random = new Random(seed);
+        this.weights = new double[centers * centers + 1];
+        this.phi = new double[weights.length];
+        this.rowFactor = new double[centers];
+        this.colFactor = new double[centers];
+    }
+
+    /**
+     * @return the number of features, and of weights.
+     */
+    public int numFeatures()
+    {
+        return weights.length;
+    }
+
+    /**
+     * @return the number of iterations of the last solve.
+     */
+    public int getIterations()
+    {
+        return iterations;
+    }
+
+    @Override
+    protected void solveModel(TransitionModel m)
+    {
+        findCoordinates(m);
+        next = new int[m.maxSuccessors()];
+        prob = new double[m.maxSuccessors()];
+        int f = weights.length;
+        double[] normal = new double[f * f];
+        double[] rhs = new double[f];
+        double[] fitted = new double[f];
+        // one sample for every iteration, so the fit converges instead of
+        // following the sampling noise.
+        int[] sampled = new int[samples];
+        int count = 0;
+        while (count < samples && (sampled[count] = sampleState(m)) >= 0)
+        {
+            count++;
+        }
+        Arrays.fill(weights, 0.0);
+        iterations = 0;
+        double change;
+        do
+        {
+            Arrays.fill(normal, 0.0);
+            Arrays.fill(rhs, 0.0);
+            for (int i = 0; i < count; i++)
+            {
+                int s = sampled[i];
+                double target = m.reward(s)
+                    + m.gamma() * bestExpectedUtility(m, s, null);
+                features(s);
+                // only the upper triangle; the solver reads no other.
+                for (int j = 0; j < f; j++)
+                {
+                    rhs[j] += phi[j] * target;
+                    for (int k = j; k < f; k++)
+                    {
+                        normal[j * f + k] += phi[j] * phi[k];
+                    }
+                }
+            }
+            for (int j = 0; j < f; j++)
+            {
+                normal[j * f + j] += RIDGE * count;
+            }
+            solve(normal, rhs, fitted, f);
+            change = 0.0;
+            for (int j = 0; j < f; j++)
+            {
+                change = Math.max(change, Math.abs(fitted[j] - weights[j]));
+                weights[j] = fitted[j];
+            }
+            iterations++;
+        } while (change > EPS && iterations < maxIterations);
+    }
+
+    /**
+     * Helper method to find the grid coordinates of the states.
+     * 
+     * @param m
+     *            the model.
+     */
+    private void findCoordinates(TransitionModel m)
+    {
+        if (m instanceof StencilGridModel)
+        {
+            StencilGridModel grid = (StencilGridModel) m;
+            rows = null;
+            cols = null;
+            numRows = grid.numRows();
+            numCols = grid.numCols();
+            return;
+        }
+        rows = new int[m.numStates()];
+        cols = new int[m.numStates()];
+        numRows = 1;
+        numCols = 1;
+        for (int s = 0; s < m.numStates(); s++)
+        {
+            if (m.isState(s))
+            {
+                rows[s] = GridWorld.nameToRow(m.stateName(s));
+                cols[s] = GridWorld.nameToCol(m.stateName(s));
+                numRows = Math.max(numRows, rows[s] + 1);
+                numCols = Math.max(numCols, cols[s] + 1);
+            }
+        }
+    }
+
+    /**
+     * Helper method to draw a non-terminal state uniformly at random.
+     * 
+     * @param m
+     *            the model.
+     * @return the state index, or -1 if none was found.
+     */
+    private int sampleState(TransitionModel m)
+    {
+        final int TRIES = 1000;
+        for (int t = 0; t < TRIES; t++)
+        {
+            int s = random.nextInt(m.numStates());
+            if (m.isState(s) && !m.isTerminal(s))
+            {
+                return s;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Helper method to write the features of a state into phi.
+     * 
+     * @param s
+     *            the state index.
+     */
+    private void features(int s)
+    {
+        int r = (rows == null) ? s / numCols : rows[s];
+        int c = (cols == null) ? s % numCols : cols[s];
+        double y = (numRows > 1) ? r / (numRows - 1.0) : 0.0;
+        double x = (numCols > 1) ? c / (numCols - 1.0) : 0.0;
+        double spacing = 1.0 / (centers - 1);
+        double scale = 1.0 / (2.0 * spacing * spacing);
+        // the Gaussian separates into a row factor times a column factor.
+        for (int i = 0; i < centers; i++)
+        {
+            double dy = y - i * spacing;
+            double dx = x - i * spacing;
+            rowFactor[i] = Math.exp(-dy * dy * scale);
+            colFactor[i] = Math.exp(-dx * dx * scale);
+        }
+        for (int i = 0; i < centers; i++)
+        {
+            for (int j = 0; j < centers; j++)
+            {
+                phi[i * centers + j] = rowFactor[i] * colFactor[j];
+            }
+        }
+        phi[centers * centers] = 1.0;
+    }
+
+    /**
+     * Helper method to find the best expected utility of a state under the
+     * current approximation.
+     * 
+     * @param m
+     *            the model.
+     * @param s
+     *            the state index.
+     * @param best
+     *            receives the best action at index 0, or null.
+     * @return the expected utility of the best action.
+     */
+    private double bestExpectedUtility(TransitionModel m, int s, int[] best)
+    {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int a = 0; a < m.numActions(); a++)
+        {
+            int count = m.successors(s, a, next, prob);
+            double eu = 0.0;
+            for (int i = 0; i < count; i++)
+            {
+                eu += prob[i] * approximate(m, next[i]);
+            }
+            if (eu > max)
+            {
+                max = eu;
+                if (best != null)
+                {
+                    best[0] = a;
+                }
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Helper method to evaluate the approximation.
+     * 
+     * @param m
+     *            the model.
+     * @param s
+     *            the state index.
+     * @return the reward of a terminal state, or the weighted features.
+     */
+    private double approximate(TransitionModel m, int s)
+    {
+        if (m.isTerminal(s))
+        {
+            return m.reward(s);
+        }
+        features(s);
+        double sum = 0.0;
+        for (int j = 0; j < weights.length; j++)
+        {
+            sum += weights[j] * phi[j];
+        }
+        return sum;
+    }
+
+    /**
+     * Helper method to solve a symmetric positive definite system by
+     * Cholesky decomposition, reading only its upper triangle.
+     * 
+     * @param a
+     *            the matrix in row-major order, overwritten.
+     * @param b
+     *            the right-hand side.
+     * @param x
+     *            receives the solution.
+     * @param n
+     *            the size of the system.
+     */
+    private static void solve(double[] a, double[] b, double[] x, int n)
+    {
+        // factor a = U^T U in place, U upper triangular.
+        for (int i = 0; i < n; i++)
+        {
+            for (int j = i; j < n; j++)
+            {
+                double sum = a[i * n + j];
+                for (int k = 0; k < i; k++)
+                {
+                    sum -= a[k * n + i] * a[k * n + j];
+                }
+                if (i == j)
+                {
+                    a[i * n + i] = Math.sqrt(Math.max(sum, Double.MIN_NORMAL));
+                }
+                else
+                {
+                    a[i * n + j] = sum / a[i * n + i];
+                }
+            }
+        }
+        // U^T z = b, then U x = z.
+        for (int i = 0; i < n; i++)
+        {
+            double sum = b[i];
+            for (int k = 0; k < i; k++)
+            {
+                sum -= a[k * n + i] * x[k];
+            }
+            x[i] = sum / a[i * n + i];
+        }
+        for (int i = n - 1; i >= 0; i--)
+        {
+            double sum = x[i];
+            for (int k = i + 1; k < n; k++)
+            {
+                sum -= a[i * n + k] * x[k];
+            }
+            x[i] = sum / a[i * n + i];
+        }
+    }
+
+    @Override
+    public double utility(int s)
+    {
+        if (model.isTerminal(s))
+        {
+            return model.reward(s);
+        }
+        return model.reward(s)
+            + model.gamma() * bestExpectedUtility(model, s, null);
+    }
+
+    @Override
+    public int action(int s)
+    {
+        if (model.isTerminal(s))
+        {
+            return -1;
+        }
+        int[] best = {-1};
+        bestExpectedUtility(model, s, best);
+        return best[0];
+    }
+
+    /**
+     * Compares the approximation with an exact solution of the same model,
+     * over the non-terminal states that both cover.
+     * 
+     * @param exact
+     *            a player that has solved the model exactly.
+     * @return the root mean square utility error, the largest utility error,
+     *         the root mean square error divided by the range of the exact
+     *         utilities, and the fraction of states where the two choose the
+     *         same action, in that order.
+     */
+    public double[] compare(ArrayPlayer exact)
+    {
+        double squares = 0.0;
+        double max = 0.0;
+        double low = Double.POSITIVE_INFINITY;
+        double high = Double.NEGATIVE_INFINITY;
+        int same = 0;
+        int count = 0;
+        for (int s = 0; s < model.numStates(); s++)
+        {
+            if (!model.isState(s) || model.isTerminal(s) || !exact.covers(s))
+            {
+                continue;
+            }
+            double truth = exact.utility(s);
+            double error = utility(s) - truth;
+            squares += error * error;
+            max = Math.max(max, Math.abs(error));
+            low = Math.min(low, truth);
+            high = Math.max(high, truth);
+            same += (action(s) == exact.action(s)) ? 1 : 0;
+            count++;
+        }
+        if (count == 0)
+        {
+            return new double[] {0.0, 0.0, 0.0, 1.0};
+        }
+        double rms = Math.sqrt(squares / count);
+        double range = high - low;
+        return new double[] {rms, max, (range > 0.0) ? rms / range : 0.0,
+            (double) same / count};
+    }
+
+    /**
+     * Adds the bytes of the player to a report. Only the weights of the
+     * features are kept; utilities and actions are computed when asked for.
+     * 
+     * @param report
+     *            the report.
+     */
+    @Override
+    public void addMemory(MemoryReport report)
+    {
+        super.addMemory(report);
+        report.measure(MemoryReport.PLAYER, MemoryReport.UTILITIES,
+            MemoryReport.bytes(weights));
+        report.measure(MemoryReport.PLAYER, MemoryReport.CACHES,
+            MemoryReport.bytes(rows) + MemoryReport.bytes(cols)
+            + MemoryReport.bytes(phi) + MemoryReport.bytes(rowFactor)
+            + MemoryReport.bytes(colFactor) + MemoryReport.bytes(next)
+            + MemoryReport.bytes(prob));
+    }
+}
@@ -0,0 +1,69 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Scanner;
+
+import org.junit.Test;
+
+/**
+ * A test class for the FittedValueIterationPlayer.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class FittedValueIterationPlayerTest
+{
+    /**
+     * On a grid small enough to solve exactly, the approximation is close to
+     * the exact utilities and mostly chooses the same actions.
+     */
+    @Test
+    public void testErrorAgainstExact()
+    {
+        MarkovDecisionProcess mdp = new MarkovDecisionProcess(new Scanner(
+            new GridWorld(2L).randomGridWorld(20, 20, 20, 0, 10, 2, 0.95)));
+        TransitionModel m = FactoredModel.fromMDP(mdp);
+        ArrayValueIterationPlayer exact =
+            new ArrayValueIterationPlayer("ArrayVI");
+        exact.solve(m);
+        FittedValueIterationPlayer fitted =
+            new FittedValueIterationPlayer("Fitted", 8, 2000, 200, 7L);
+        fitted.solve(m);
+        assertEquals(65, fitted.numFeatures());
+        assertTrue(fitted.getIterations() < 200);
+        double[] error = fitted.compare(exact);
+        assertTrue(error[0] <= error[1]);
+        assertTrue(error[2] < 0.1);
+        assertTrue(error[3] > 0.7);
+        for (int s = 0; s < m.numStates(); s++)
+        {
+            if (m.isTerminal(s))
+            {
+                assertEquals(m.reward(s), fitted.utility(s), 0.0);
+                assertEquals(-1, fitted.action(s));
+            }
+        }
+        assertNotNull(fitted.play(mdp));
+    }
+
+    /**
+     * The grid coordinates of a StencilGridModel come from its cell indices.
+     */
+    @Test
+    public void testStencilModel()
+    {
+        StencilGridModel m =
+            new GridWorld(5L).randomStencilModel(30, 30, 90, 0, 45, 2, 0.95);
+        ArrayValueIterationPlayer exact =
+            new ArrayValueIterationPlayer("ArrayVI");
+        exact.solve(m);
+        FittedValueIterationPlayer fitted =
+            new FittedValueIterationPlayer("Fitted", 8, 2000, 200, 7L);
+        fitted.solve(m);
+        double[] error = fitted.compare(exact);
+        assertTrue(error[2] < 0.1);
+        assertTrue(error[3] > 0.7);
+    }
+}
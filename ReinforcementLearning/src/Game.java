@@ -11,6 +11,12 @@ public class Game
 {
     private MarkovDecisionProcess mdp;
     private Player player;
+    private boolean quiet;
+    private int maxSteps;
+    private int steps;
+    private StepEventRing events;
+    private long episode;
+    private EpisodeTraceWriter trace;
 
     /**
      * Constructor initializes the MDP and player.
@@ -26,6 +32,65 @@ public class Game
         this.player = player;
     }
 
+    /**
+     * Turns off the score printed before every move.
+     * 
+     * @param quiet
+     *            true to play without printing.
+     */
+    public void setQuiet(boolean quiet)
+    {
+        this.quiet = quiet;
+    }
+
+    /**
+     * Limits the number of moves, so that a policy that never reaches a
+     * terminal state cannot play forever.
+     * 
+     * @param maxSteps
+     *            the largest number of moves, or 0 for no limit.
+     */
+    public void setMaxSteps(int maxSteps)
+    {
+        this.maxSteps = maxSteps;
+    }
+
+    /**
+     * Publishes every move to a ring buffer, so that a consumer thread can
+     * log or measure the game without slowing down the game loop. Combine
+     * with setQuiet(true) for a headless game.
+     * 
+     * @param events
+     *            the ring, or null to stop publishing.
+     * @param episode
+     *            the episode number attached to the events.
+     */
+    public void setEvents(StepEventRing events, long episode)
+    {
+        this.events = events;
+        this.episode = episode;
+    }
+
+    /**
+     * Records every game to a binary trace that EpisodeTraceReader can replay.
+     * Seed the MDP to make the recorded games reproducible.
+     * 
+     * @param trace
+     *            the trace, or null to stop recording.
+     */
+    public void setTrace(EpisodeTraceWriter trace)
+    {
+        this.trace = trace;
+    }
+
+    /**
+     * @return the number of moves taken in the last game.
+     */
+    public int getSteps()
+    {
+        return steps;
+    }
+
     /**
      * Plays the game by repeatedly querying the player for an action until it
      * reaches a terminal state, accumulating points along the way.
@@ -37,22 +102,48 @@ public class Game
         State current = mdp.getCurrent();
         double score = current.reward();
         int t = 1;
-        while (!mdp.getCurrent().isTerminal())
+        steps = 0;
+        if (trace != null)
         {
-            System.out.println("Current score: " + score);
+            trace.beginEpisode(mdp.getCurrentIndex());
+        }
+        while (!mdp.getCurrent().isTerminal()
+            && (maxSteps == 0 || steps < maxSteps))
+        {
+            if (!quiet)
+            {
+                System.out.println("Current score: " + score);
+            }
+            long begin = (events == null) ? 0 : System.nanoTime();
             String action = player.play((MarkovDecisionProcess) mdp.clone());
+            long elapsed = (events == null) ? 0 : System.nanoTime() - begin;
             if (action == null)
             {
                 break;
             }
-            if (!mdp.getActions().contains(action))
+            int a = mdp.world().actionIndex(action);
+            if (a < 0)
             {
                 continue;
             }
-            mdp.takeAction(action);
+            mdp.takeAction(a);
+            steps++;
             current = mdp.getCurrent();
             score += Math.pow(mdp.getGamma(), t) * current.reward();
             t++;
+            if (trace != null)
+            {
+                trace.step(a, mdp.getCurrentIndex());
+            }
+            if (events != null)
+            {
+                events.publish(episode, steps, mdp.getCurrentIndex(), a,
+                    current.reward(), score, elapsed);
+            }
+        }
+        if (trace != null)
+        {
+            trace.endEpisode();
         }
         return score;
     }
@@ -0,0 +1,448 @@
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * The layout of a GridWorld recognized in an MDPWorld, without a copy of
+ * its cells. The type of a cell is read from the world when it is needed:
+ * a cell with no state is a rock or a tunnel, and a terminal state is a
+ * hole or a goal by the sign of its reward. Only the tunnels, which are
+ * few, are stored. A coordinator can then write each band of rows straight
+ * from the world it already holds, and StencilGridModel.fromMDP() builds
+ * its cell array from the same layout.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class GridLayout implements BandedGrid
+{
+    private static final String[] ACTIONS = {
+        "N", "E", "S", "W"
+    };
+    private static final int[] DR = {
+        -1, 0, 1, 0
+    };
+    private static final int[] DC = {
+        0, 1, 0, -1
+    };
+    private final MDPWorld world;
+    private final StateRegistry registry;
+    private final int numRows;
+    private final int numCols;
+    private final double[] uncertainty;
+    private final double[] typeReward;
+    private final int[] tunnels;
+    // the index of each tunnel cell in the tunnel list.
+    private final Map<Integer, Integer> tunnelIndex =
+        new HashMap<Integer, Integer>();
+    // the cell reached by entering each tunnel in each direction, or -1.
+    private final int[] tunnelExits;
+
+    /**
+     * Constructor takes what of the layout is not in the world.
+     * 
+     * @param world
+     *            the world.
+     * @param uncertainty
+     *            the probability of moving in the intended direction, 90
+     *            degrees clockwise, backwards and 90 degrees anticlockwise.
+     * @param typeReward
+     *            the reward of each cell type.
+     * @param tunnels
+     *            the tunnel cells in the order they connect.
+     */
+    private GridLayout(MDPWorld world, double[] uncertainty,
+        double[] typeReward, int[] tunnels)
+    {
+        this.world = world;
+        this.registry = world.registry();
+        this.numRows = registry.numRows();
+        this.numCols = registry.numCols();
+        this.uncertainty = uncertainty;
+        this.typeReward = typeReward;
+        this.tunnels = tunnels;
+        this.tunnelExits = new int[4 * tunnels.length];
+        for (int i = 0; i < tunnels.length; i++)
+        {
+            tunnelIndex.put(tunnels[i], i);
+        }
+        for (int i = 0; i < tunnels.length; i++)
+        {
+            int exit = tunnels[(i + 1) % tunnels.length];
+            for (int k = 0; k < 4; k++)
+            {
+                int out = neighbor(exit, k);
+                tunnelExits[4 * i + k] =
+                    (out >= 0 && !isBlocked(out)) ? out : -1;
+            }
+        }
+    }
+
+    /**
+     * Recognizes a GridWorld: a world whose states are grid cells and whose
+     * actions are N, E, S and W with the same uncertainty for every action.
+     * Cells that are not states are rocks, except those that a move jumps
+     * over, which are tunnels linked in the order the jumps show. The
+     * layout is checked against every transition of the world, so anything
+     * that does not match a GridWorld gives null instead of a different
+     * world.
+     * 
+     * @param world
+     *            the world.
+     * @return the layout, or null if the world is not a GridWorld.
+     */
+    public static GridLayout of(MDPWorld world)
+    {
+        StateRegistry registry = world.registry();
+        if (!registry.isGrid() || world.numActions() != ACTIONS.length)
+        {
+            return null;
+        }
+        double[] uncertainty = new double[4];
+        for (int a = 0; a < 4; a++)
+        {
+            if (!ACTIONS[a].equals(world.actionName(a)))
+            {
+                return null;
+            }
+            uncertainty[a] = world.uncertainty(0, a);
+        }
+        for (int a = 0; a < 4; a++)
+        {
+            for (int k = 0; k < 4; k++)
+            {
+                if (world.uncertainty(a, k) != uncertainty[(k - a) & 3])
+                {
+                    return null;
+                }
+            }
+        }
+        double[] typeReward = new double[StencilGridModel.GOAL + 1];
+        boolean[] seen = new boolean[typeReward.length];
+        for (int s = 0; s < world.numStates(); s++)
+        {
+            byte type = stateType(world, s);
+            if (seen[type] && typeReward[type] != world.reward(s))
+            {
+                return null;
+            }
+            seen[type] = true;
+            typeReward[type] = world.reward(s);
+        }
+
+        // a move that lands away from the adjacent cell went through a
+        // tunnel, and the cell before the landing cell is the next tunnel.
+        int numCols = registry.numCols();
+        Map<Integer, Integer> nextTunnel = new HashMap<Integer, Integer>();
+        TreeSet<Integer> tunnelCells = new TreeSet<Integer>();
+        for (int s = 0; s < world.numStates(); s++)
+        {
+            int row = registry.row(s);
+            int col = registry.col(s);
+            for (int k = 0; k < 4 && !world.isTerminal(s); k++)
+            {
+                int s1 = world.successor(s, k);
+                int r = row + DR[k];
+                int c = col + DC[k];
+                if (s1 < 0 || s1 == s || !isBlocked(registry, r, c))
+                {
+                    continue;
+                }
+                int adj = r * numCols + c;
+                r = registry.row(s1) - DR[k];
+                c = registry.col(s1) - DC[k];
+                int exit = r * numCols + c;
+                Integer known = nextTunnel.get(adj);
+                if (!isBlocked(registry, r, c)
+                    || (known != null && known != exit))
+                {
+                    return null;
+                }
+                nextTunnel.put(adj, exit);
+                tunnelCells.add(adj);
+                tunnelCells.add(exit);
+            }
+        }
+        GridLayout layout = new GridLayout(world, uncertainty, typeReward,
+            linkTunnels(tunnelCells, nextTunnel));
+        return layout.matches() ? layout : null;
+    }
+
+    /**
+     * Helper method to put the tunnels in one list that follows every known
+     * link. Chains of known links are joined end to end, which is only
+     * right if the joins are never used; matches() checks that.
+     * 
+     * @param tunnelCells
+     *            the tunnel cells in increasing order.
+     * @param nextTunnel
+     *            the known next tunnel of some tunnel cells.
+     * @return the tunnel list.
+     */
+    private static int[] linkTunnels(TreeSet<Integer> tunnelCells,
+        Map<Integer, Integer> nextTunnel)
+    {
+        HashSet<Integer> hasPrevious =
+            new HashSet<Integer>(nextTunnel.values());
+        HashSet<Integer> listed = new HashSet<Integer>();
+        int[] tunnels = new int[tunnelCells.size()];
+        int count = 0;
+        // chains first, from the tunnels no link leads to, then the cycles.
+        for (int pass = 0; pass < 2; pass++)
+        {
+            for (int t : tunnelCells)
+            {
+                if (listed.contains(t)
+                    || (pass == 0 && hasPrevious.contains(t)))
+                {
+                    continue;
+                }
+                for (Integer cell = t; cell != null && listed.add(cell);
+                    cell = nextTunnel.get(cell))
+                {
+                    tunnels[count++] = cell;
+                }
+            }
+        }
+        return tunnels;
+    }
+
+    /**
+     * Helper method to check that every state of the world has the
+     * successors this layout gives its cell.
+     * 
+     * @return true if they all match.
+     */
+    private boolean matches()
+    {
+        for (int s = 0; s < world.numStates(); s++)
+        {
+            int cell = cell(s);
+            for (int k = 0; k < 4 && !world.isTerminal(s); k++)
+            {
+                int s1 = world.successor(s, k);
+                int reached = (s1 < 0) ? cell : cell(s1);
+                if (target(cell, k) != reached)
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Helper method to get the type of the cell of a state.
+     * 
+     * @param world
+     *            the world.
+     * @param s
+     *            the state index.
+     * @return the cell type.
+     */
+    private static byte stateType(MDPWorld world, int s)
+    {
+        if (!world.isTerminal(s))
+        {
+            return StencilGridModel.OPEN;
+        }
+        return (world.reward(s) < 0.0) ? StencilGridModel.HOLE
+            : StencilGridModel.GOAL;
+    }
+
+    /**
+     * Helper method to tell whether a cell on the grid has no state.
+     * 
+     * @param registry
+     *            the registry of the states.
+     * @param row
+     *            the row.
+     * @param col
+     *            the column.
+     * @return true if the cell is on the grid and is a rock or tunnel.
+     */
+    private static boolean isBlocked(StateRegistry registry, int row, int col)
+    {
+        return row >= 0 && row < registry.numRows() && col >= 0
+            && col < registry.numCols() && registry.id(row, col) < 0;
+    }
+
+    /**
+     * @param cell
+     *            a cell on the grid.
+     * @return true if the cell is a rock or tunnel.
+     */
+    private boolean isBlocked(int cell)
+    {
+        return registry.id(cell / numCols, cell % numCols) < 0;
+    }
+
+    /**
+     * @param cell
+     *            the cell index (row * numCols + col).
+     * @return the type of the cell, as in StencilGridModel.
+     */
+    public byte cellType(int cell)
+    {
+        int s = registry.id(cell / numCols, cell % numCols);
+        if (s >= 0)
+        {
+            return stateType(world, s);
+        }
+        return tunnelIndex.containsKey(cell) ? StencilGridModel.TUNNEL
+            : StencilGridModel.ROCK;
+    }
+
+    /**
+     * @param s
+     *            the state index in the world.
+     * @return the cell of the state.
+     */
+    public int cell(int s)
+    {
+        return registry.row(s) * numCols + registry.col(s);
+    }
+
+    /**
+     * @param cell
+     *            the cell index.
+     * @return the state index in the world, or -1 if the cell has no state.
+     */
+    public int state(int cell)
+    {
+        return registry.id(cell / numCols, cell % numCols);
+    }
+
+    /**
+     * Returns the cell reached by moving from a cell in a direction, with
+     * the same rules as StencilGridModel.target().
+     * 
+     * @param cell
+     *            the cell index.
+     * @param k
+     *            the direction index (N, E, S, W).
+     * @return the cell reached.
+     */
+    public int target(int cell, int k)
+    {
+        int adj = neighbor(cell, k);
+        if (adj < 0)
+        {
+            return cell;
+        }
+        byte type = cellType(adj);
+        if (type == StencilGridModel.ROCK)
+        {
+            return cell;
+        }
+        if (type == StencilGridModel.TUNNEL)
+        {
+            int out = tunnelExits[4 * tunnelIndex.get(adj) + k];
+            return (out < 0) ? cell : out;
+        }
+        return adj;
+    }
+
+    /**
+     * Helper method to get the adjacent cell.
+     * 
+     * @param cell
+     *            the cell index.
+     * @param k
+     *            the direction index (N, E, S, W).
+     * @return the adjacent cell, or -1 if it is off the grid.
+     */
+    private int neighbor(int cell, int k)
+    {
+        int r = cell / numCols + DR[k];
+        int c = cell % numCols + DC[k];
+        if (r < 0 || r >= numRows || c < 0 || c >= numCols)
+        {
+            return -1;
+        }
+        return r * numCols + c;
+    }
+
+    @Override
+    public int numRows()
+    {
+        return numRows;
+    }
+
+    @Override
+    public int numCols()
+    {
+        return numCols;
+    }
+
+    /**
+     * Writes a band in the same format as StencilGridModel.writeBand(),
+     * reading the cell types from the world row by row.
+     * 
+     * @param out
+     *            the output.
+     * @param firstRow
+     *            the first row of the band.
+     * @param lastRow
+     *            one past the last row of the band.
+     * @throws IOException
+     *             if the output cannot be written.
+     */
+    @Override
+    public void writeBand(DataOutput out, int firstRow, int lastRow)
+        throws IOException
+    {
+        int haloFirst = Math.max(0, firstRow - 1);
+        int haloLast = Math.min(numRows, lastRow + 1);
+        out.writeInt(numRows);
+        out.writeInt(numCols);
+        out.writeInt(firstRow);
+        out.writeInt(lastRow);
+        for (int cell = haloFirst * numCols; cell < haloLast * numCols; cell++)
+        {
+            out.writeByte(cellType(cell));
+        }
+        out.writeInt(tunnels.length);
+        for (int i = 0; i < tunnels.length; i++)
+        {
+            out.writeInt(tunnels[i]);
+            for (int k = 0; k < 4; k++)
+            {
+                out.writeInt(tunnelExits[4 * i + k]);
+            }
+        }
+        for (double p : uncertainty)
+        {
+            out.writeDouble(p);
+        }
+        for (double r : typeReward)
+        {
+            out.writeDouble(r);
+        }
+        out.writeDouble(world.gamma());
+    }
+
+    /**
+     * Builds the stencil model of the layout, with a copy of every cell.
+     * 
+     * @param start
+     *            the index of the start state in the world.
+     * @return the model.
+     */
+    public StencilGridModel toModel(int start)
+    {
+        byte[] cells = new byte[numRows * numCols];
+        for (int cell = 0; cell < cells.length; cell++)
+        {
+            cells[cell] = cellType(cell);
+        }
+        return new StencilGridModel(numRows, numCols, cells, tunnels.clone(),
+            uncertainty, typeReward[StencilGridModel.OPEN],
+            typeReward[StencilGridModel.HOLE],
+            typeReward[StencilGridModel.GOAL], world.gamma(), cell(start));
+    }
+}
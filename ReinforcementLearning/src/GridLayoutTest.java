@@ -0,0 +1,88 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Scanner;
+
+import org.junit.Test;
+
+/**
+ * A test class for the GridLayout.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class GridLayoutTest
+{
+    /**
+     * Helper method to write a band to bytes.
+     * 
+     * @param grid
+     *            the grid.
+     * @param firstRow
+     *            the first row of the band.
+     * @param lastRow
+     *            one past the last row of the band.
+     * @return the bytes.
+     * @throws IOException
+     *             if the band cannot be written.
+     */
+    private static byte[] band(BandedGrid grid, int firstRow, int lastRow)
+        throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        grid.writeBand(out, firstRow, lastRow);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * The layout read from a GridWorld with tunnels has the cells of the
+     * stencil made from the same seed and writes the same bands, without
+     * a copy of the grid.
+     * 
+     * @throws IOException
+     *             if a band cannot be written.
+     */
+    @Test
+    public void testBandsMatchStencil() throws IOException
+    {
+        StencilGridModel stencil = new GridWorld(5).randomStencilModel(14, 17,
+            12, 6, 10, 2, 0.95);
+        MDPWorld world = MDPWorld.read(new Scanner(new GridWorld(5)
+            .randomGridWorld(14, 17, 12, 6, 10, 2, 0.95)));
+        GridLayout layout = GridLayout.of(world);
+        for (int cell = 0; cell < stencil.numStates(); cell++)
+        {
+            assertEquals(stencil.cellType(cell), layout.cellType(cell));
+            int s = layout.state(cell);
+            assertEquals(stencil.isState(cell), s >= 0);
+            if (s >= 0)
+            {
+                assertEquals(cell, layout.cell(s));
+            }
+        }
+        int[] rows = {0, 1, 5, 13, 14};
+        for (int i = 0; i + 1 < rows.length; i++)
+        {
+            assertArrayEquals(band(stencil, rows[i], rows[i + 1]),
+                band(layout, rows[i], rows[i + 1]));
+        }
+    }
+
+    /**
+     * A world that is not a grid has no layout.
+     */
+    @Test
+    public void testNotAGrid()
+    {
+        String renamed = TestWorlds.SIMPLE_G10_R3
+            .replace("\nN ", "\nU ").replace(" N ", " U ");
+        assertNull(GridLayout.of(MDPWorld.read(new Scanner(renamed))));
+    }
+}
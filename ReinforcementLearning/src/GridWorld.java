@@ -1,4 +1,12 @@
-import java.util.ArrayList;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Random;
@@ -9,6 +17,12 @@ import java.util.regex.Pattern;
  * GridWorld class represents the game's grid world. It uses the state names of
  * the MDP to determine where each state is in the grid.
  * 
+ * An instance of GridWorld is a random world generator. Each instance keeps
+ * its own layout and random number generator, so separate instances can
+ * generate worlds on separate threads, and an instance made from a seed
+ * always generates the same sequence of worlds. The static create methods
+ * use a fresh instance on a shared generator for each world.
+ * 
  * @author Mitch Parry
  * @version 2014-03-28
  * 
@@ -18,25 +32,62 @@ public class GridWorld
     private static final int R_GOAL = 100;
     private static final int R_HOLE = -100;
     private static final int R_CELL = -3;
-    private static int[][][] board;
-    private static ArrayList<int[]> cells;
-    private static ArrayList<int[]> openCells;
-    private static ArrayList<int[]> goalCells;
-    private static ArrayList<int[]> rockCells;
-    private static ArrayList<int[]> tunnelCells;
-    private static ArrayList<int[]> holeCells;
-    private static ArrayList<int[]> startCells;
-    private static Random rand = new Random();
-    private static double[] directionUncertainty;
-    private static char[] dir = {
+    private static final Random SHARED_RANDOM = new Random();
+    private static final char[] DIR = {
         'N', 'E', 'S', 'W'
     };
+    private static final int[] ROW_STEP = {
+        -1, 0, 1, 0
+    };
+    private static final int[] COL_STEP = {
+        0, 1, 0, -1
+    };
+    private static final int WRITE_BUFFER = 1 << 16;
+    private final Random rand;
+    // the text being written, one or a few lines at a time.
+    private final StringBuilder line = new StringBuilder();
+    private int numRows;
+    private int numCols;
+    // StencilGridModel cell type of every cell, in row-major order.
+    private byte[] types;
+    private int start;
+    // cells in the order they were picked.
+    private int[] goals;
+    private int[] tunnels;
+    private int[] holes;
+    private double[] directionUncertainty;
+
+    /**
+     * Constructor creates a generator whose worlds are determined by a seed.
+     * 
+     * @param seed
+     *            the seed.
+     */
+    public GridWorld(long seed)
+    {
+        this(new Random(seed));
+    }
 
     /**
-     * Place types of cells in the grid.
+     * Constructor creates a generator that draws from a random number
+     * generator.
      * 
      * @param rand
      *            the random number generator.
+     */
+    public GridWorld(Random rand)
+    {
+        this.rand = rand;
+    }
+
+    /**
+     * Place types of cells in the grid. The start cell is always the
+     * southwest corner and the first goal is always the northeast corner.
+     * 
+     * @param rows
+     *            the number of rows.
+     * @param cols
+     *            the number of columns.
      * @param numGoals
      *            the number of goals.
      * @param numRocks
@@ -46,79 +97,102 @@ public class GridWorld
      * @param numHoles
      *            the number of holes.
      */
-    private static void mapLayout(Random rand, int numGoals, int numRocks,
+    private void mapLayout(int rows, int cols, int numGoals, int numRocks,
         int numTunnels, int numHoles)
     {
-        int numRows = board.length;
-        int numCols = board[0].length;
-        openCells = new ArrayList<int[]>(cells);
-
-        // pick start cell (always southwest corner).
-        startCells = new ArrayList<int[]>(1);
-        startCells.add(board[numRows - 1][0]);
-        openCells.remove(board[numRows - 1][0]);
-        // pick goal cells
-        // +100 always northeast corner.
-        goalCells = new ArrayList<int[]>(numGoals);
-        goalCells.add(board[0][numCols - 1]);
-        openCells.remove(board[0][numCols - 1]);
+        numRows = rows;
+        numCols = cols;
+        types = new byte[rows * cols];
+        start = (rows - 1) * cols;
+        int northeast = cols - 1;
+        int[] open = new int[rows * cols];
+        int numOpen = 0;
+        for (int c = 0; c < open.length; c++)
+        {
+            if (c != start && c != northeast)
+            {
+                open[numOpen++] = c;
+            }
+        }
+        goals = new int[Math.max(1, numGoals)];
+        goals[0] = northeast;
+        types[northeast] = StencilGridModel.GOAL;
         for (int i = 1; i < numGoals; i++)
         {
-            goalCells.add(openCells.remove(rand.nextInt(openCells.size())));
+            goals[i] = open[rand.nextInt(numOpen)];
+            numOpen = remove(open, numOpen, goals[i]);
+            types[goals[i]] = StencilGridModel.GOAL;
         }
-        // pick rocks
-        rockCells = new ArrayList<int[]>(numRocks);
+        int[] rocks = new int[numRocks];
         for (int i = 0; i < numRocks; i++)
         {
-            rockCells.add(openCells.remove(rand.nextInt(openCells.size())));
+            rocks[i] = pick(open, numOpen--);
+            types[rocks[i]] = StencilGridModel.ROCK;
         }
-        // pick tunnels
-        tunnelCells = new ArrayList<int[]>(numTunnels);
+        tunnels = new int[numTunnels];
         for (int i = 0; i < numTunnels; i++)
         {
-            tunnelCells.add(openCells.remove(rand.nextInt(openCells.size())));
+            tunnels[i] = pick(open, numOpen--);
+            types[tunnels[i]] = StencilGridModel.TUNNEL;
         }
-        // pick holes
-        holeCells = new ArrayList<int[]>(numHoles);
+        holes = new int[numHoles];
         for (int i = 0; i < numHoles; i++)
         {
-            holeCells.add(openCells.remove(rand.nextInt(openCells.size())));
+            holes[i] = pick(open, numOpen--);
+            types[holes[i]] = StencilGridModel.HOLE;
         }
+    }
 
+    /**
+     * Helper method to remove a random cell from the open cells by moving
+     * the last open cell into its place.
+     * 
+     * @param open
+     *            the open cells.
+     * @param numOpen
+     *            the number of open cells.
+     * @return the cell removed.
+     */
+    private int pick(int[] open, int numOpen)
+    {
+        int i = rand.nextInt(numOpen);
+        int cell = open[i];
+        open[i] = open[numOpen - 1];
+        return cell;
     }
 
     /**
-     * Helper method to create the cells in the board.
+     * Helper method to remove a known cell from the open cells.
      * 
-     * @param numRows
-     *            the number of rows.
-     * @param numCols
-     *            the number of columns.
+     * @param open
+     *            the open cells.
+     * @param numOpen
+     *            the number of open cells.
+     * @param cell
+     *            the cell to remove.
+     * @return the new number of open cells.
      */
-    private static void createCells(int numRows, int numCols)
+    private static int remove(int[] open, int numOpen, int cell)
     {
-        board = new int[numRows][numCols][];
-        cells = new ArrayList<int[]>(numRows * numCols);
-        for (int i = 0; i < numRows; i++)
+        for (int i = 0; i < numOpen; i++)
         {
-            for (int j = 0; j < numCols; j++)
+            if (open[i] == cell)
             {
-                int[] cell = {
-                    i, j
-                };
-                cells.add(cell);
-                board[i][j] = cell;
+                open[i] = open[numOpen - 1];
+                return numOpen - 1;
             }
         }
+        return numOpen;
     }
 
     /**
      * Pick action uncertainty (same shape for every direction).
      */
-    private static void sampleUncertainty()
+    private void sampleUncertainty()
     {
         directionUncertainty = new double[4];
-        directionUncertainty[0] = (6.0 / 10.0) + (Math.random() * (4.0 / 10.0));
+        directionUncertainty[0] =
+            (6.0 / 10.0) + (rand.nextDouble() * (4.0 / 10.0));
         directionUncertainty[1] = (1.0 - directionUncertainty[0]) / 2.0;
         directionUncertainty[3] = (1.0 - directionUncertainty[0]) / 2.0;
         directionUncertainty[2] = 0.0;
@@ -126,130 +200,357 @@ public class GridWorld
     }
 
     /**
-     * @return the string representation of the states.
+     * Helper method to write the states, their rewards and the terminal
+     * states.
+     * 
+     * @param out
+     *            receives the text.
+     * @throws IOException
+     *             if the text cannot be written.
      */
-    private static String statesToString()
+    private void writeStates(Appendable out) throws IOException
     {
-        // write states
-        String s = cells.size() - tunnelCells.size() - rockCells.size() + "\n";
-        for (int[] cell : cells)
+        line.setLength(0);
+        line.append(types.length - tunnels.length - countRocks()).append('\n');
+        out.append(line);
+        for (int c = 0; c < types.length; c++)
         {
-            if (!rockCells.contains(cell) && !tunnelCells.contains(cell))
+            byte type = types[c];
+            if (type == StencilGridModel.OPEN || type == StencilGridModel.HOLE
+                || type == StencilGridModel.GOAL)
             {
-                if (openCells.contains(cell) || startCells.contains(cell))
-                {
-                    s += cellName(cell) + " " + R_CELL + "\n";
-                }
-                else if (holeCells.contains(cell))
-                {
-                    s += cellName(cell) + " " + R_HOLE + "\n";
-                }
-                else if (goalCells.contains(cell))
-                {
-                    s += cellName(cell) + " " + R_GOAL + "\n";
-                }
+                line.setLength(0);
+                appendName(c);
+                line.append(' ').append(reward(type)).append('\n');
+                out.append(line);
             }
         }
         // write goal states
-        for (int[] cell : holeCells)
+        line.setLength(0);
+        for (int c : holes)
+        {
+            appendName(c);
+            line.append(' ');
+        }
+        for (int c : goals)
+        {
+            appendName(c);
+            line.append(' ');
+        }
+        line.append('\n');
+        out.append(line);
+    }
+
+    /**
+     * @param type
+     *            the type of a cell that is a state.
+     * @return the reward of the state.
+     */
+    private static int reward(byte type)
+    {
+        if (type == StencilGridModel.HOLE)
         {
-            s += cellName(cell) + " ";
+            return R_HOLE;
         }
-        for (int[] cell : goalCells)
+        return (type == StencilGridModel.GOAL) ? R_GOAL : R_CELL;
+    }
+
+    /**
+     * @return the number of rocks.
+     */
+    private int countRocks()
+    {
+        int count = 0;
+        for (byte type : types)
         {
-            s += cellName(cell) + " ";
+            count += (type == StencilGridModel.ROCK) ? 1 : 0;
         }
-        return s + "\n";
+        return count;
     }
 
     /**
-     * @return a string representation of the direction uncertainty.
+     * Helper method to write the direction uncertainty.
+     * 
+     * @param out
+     *            receives the text.
+     * @throws IOException
+     *             if the text cannot be written.
      */
-    private static String uncertaintyToString()
+    private void writeUncertainty(Appendable out) throws IOException
     {
-        // write action uncertainty
-        String output = dir.length + "\n";
-        for (int k = 0; k < dir.length; k++)
+        line.setLength(0);
+        line.append(DIR.length).append('\n');
+        for (int k = 0; k < DIR.length; k++)
         {
-            output += dir[k] + " ";
-            int j = (dir.length - k) % dir.length;
+            line.append(DIR[k]).append(' ');
+            int j = (DIR.length - k) % DIR.length;
             for (int i = 0; i < directionUncertainty.length; i++)
             {
-                output += directionUncertainty[j] + " ";
+                line.append(directionUncertainty[j]).append(' ');
                 j = (j + 1) % directionUncertainty.length;
             }
-            output += "\n";
+            line.append('\n');
         }
-        return output;
+        out.append(line);
     }
 
     /**
-     * Return a string representation of this path.
+     * Helper method to find where a move from a cell ends: the adjacent cell,
+     * the cell past the exit of the next tunnel when the adjacent cell is a
+     * tunnel entrance, or the cell itself when the move is blocked.
      * 
-     * @param i
-     *            row index
-     * @param j
-     *            column index
+     * @param c
+     *            the cell.
      * @param k
-     *            action (direction) index
-     * @param cell
-     *            the cell
-     * @return a string representation of this path.
+     *            the direction index.
+     * @return the cell the move ends in.
      */
-    private static String pathToString(int i, int j, int k, int[] cell)
+    private int target(int c, int k)
     {
-        int[] adjCell = getAdjacentCell(i, j, board, dir[k]);
-        String output = cellName(cell) + " " + dir[k] + " ";
-        if (adjCell == null || rockCells.contains(adjCell))
+        int adj = adjacent(c, k);
+        if (adj < 0 || types[adj] == StencilGridModel.ROCK)
         {
-            output += cellName(cell);
+            return c;
         }
-        else if (tunnelCells.contains(adjCell))
+        if (types[adj] == StencilGridModel.TUNNEL)
         {
-            int index = tunnelCells.indexOf(adjCell);
-            int[] exit = tunnelCells.get((index + 1) % tunnelCells.size());
-            int[] outCell = getAdjacentCell(exit[0], exit[1], board, dir[k]);
-            if (outCell != null && !tunnelCells.contains(outCell)
-                && !rockCells.contains(outCell))
+            int index = 0;
+            while (tunnels[index] != adj)
             {
-                output += cellName(outCell);
+                index++;
             }
-            else
+            int exit = tunnels[(index + 1) % tunnels.length];
+            int out = adjacent(exit, k);
+            if (out >= 0 && types[out] != StencilGridModel.TUNNEL
+                && types[out] != StencilGridModel.ROCK)
             {
-                output += cellName(cell);
+                return out;
             }
+            return c;
         }
-        else if (holeCells.contains(adjCell) || goalCells.contains(adjCell)
-            || openCells.contains(adjCell) || startCells.contains(adjCell))
+        return adj;
+    }
+
+    /**
+     * @param c
+     *            the cell.
+     * @param k
+     *            the direction index.
+     * @return the adjacent cell in the direction, or -1 at the edge.
+     */
+    private int adjacent(int c, int k)
+    {
+        int i = c / numCols + ROW_STEP[k];
+        int j = c % numCols + COL_STEP[k];
+        if (i < 0 || i >= numRows || j < 0 || j >= numCols)
         {
-            output += cellName(adjCell);
+            return -1;
         }
-        return output + "\n";
+        return i * numCols + j;
     }
 
     /**
-     * @return a string representation of the paths.
+     * Helper method to write the paths out of the open cells, one cell at a
+     * time.
+     * 
+     * @param out
+     *            receives the text.
+     * @throws IOException
+     *             if the text cannot be written.
      */
-    private static String pathsToString()
+    private void writePaths(Appendable out) throws IOException
     {
-        String output =
-            (openCells.size() + startCells.size()) * dir.length + "\n";
-        for (int i = 0; i < board.length; i++)
+        long numOpen = 0;
+        for (byte type : types)
+        {
+            numOpen += (type == StencilGridModel.OPEN) ? 1 : 0;
+        }
+        line.setLength(0);
+        line.append(numOpen * DIR.length).append('\n');
+        out.append(line);
+        for (int c = 0; c < types.length; c++)
         {
-            for (int j = 0; j < board[i].length; j++)
+            if (types[c] != StencilGridModel.OPEN)
             {
-                int[] cell = board[i][j];
-                if (openCells.contains(cell) || startCells.contains(cell))
-                {
-                    for (int k = 0; k < dir.length; k++)
-                    {
-                        output += pathToString(i, j, k, cell);
-                    }
-                }
+                continue;
             }
+            line.setLength(0);
+            for (int k = 0; k < DIR.length; k++)
+            {
+                appendName(c);
+                line.append(' ').append(DIR[k]).append(' ');
+                appendName(target(c, k));
+                line.append('\n');
+            }
+            out.append(line);
         }
-        return output;
+    }
+
+    /**
+     * Helper method to write the generated world.
+     * 
+     * @param out
+     *            receives the text.
+     * @param gamma
+     *            the discount factor for each move.
+     * @throws IOException
+     *             if the text cannot be written.
+     */
+    private void writeWorld(Appendable out, double gamma) throws IOException
+    {
+        writeStates(out);
+        writeUncertainty(out);
+        writePaths(out);
+        line.setLength(0);
+        line.append(gamma).append('\n');
+        appendName(start);
+        out.append(line);
+    }
 
+    /**
+     * Helper method to append the name of the state of a cell to the line,
+     * the same name as rowColToName gives but without creating strings.
+     * 
+     * @param c
+     *            the row-major index of the cell.
+     */
+    private void appendName(int c)
+    {
+        final int NUM_LETTERS = 26;
+        int row = c / numCols;
+        int first = line.length();
+        do
+        {
+            line.append((char) ('a' + (row % NUM_LETTERS)));
+            row /= NUM_LETTERS;
+        } while (row > 0);
+        // the letters were appended last one first.
+        for (int i = first, j = line.length() - 1; i < j; i++, j--)
+        {
+            char ch = line.charAt(i);
+            line.setCharAt(i, line.charAt(j));
+            line.setCharAt(j, ch);
+        }
+        line.append(c % numCols + 1);
+    }
+
+    /**
+     * Creates a random Grid World with the start state in the southwest corner
+     * and at least one goal state in the northeast corner.
+     * 
+     * @param numRows
+     *            the number of rows in the grid world.
+     * @param numCols
+     *            the number of columnss in the grid world.
+     * @param numRocks
+     *            the number of rocks in the grid world.
+     * @param numTunnels
+     *            the number of tunnels in the grid world.
+     * @param numHoles
+     *            the number of holes in the grid world.
+     * @param numGoals
+     *            the number of goals in the grid world.
+     * @param gamma
+     *            the discount factor for each move.
+     * @return the string representation of the grid world to be read by the MDP
+     *         constructor.
+     */
+    public String randomGridWorld(int numRows, int numCols, int numRocks,
+        int numTunnels, int numHoles, int numGoals, double gamma)
+    {
+        checkParameters(numRows, numCols, numRocks, numTunnels, numHoles,
+            numGoals);
+        mapLayout(numRows, numCols, numGoals, numRocks, numTunnels, numHoles);
+        sampleUncertainty();
+        // about 5 path lines of 12 characters per cell.
+        StringBuilder output =
+            new StringBuilder((int) Math.min(1 << 30, 60L * types.length));
+        try
+        {
+            writeWorld(output, gamma);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        return output.toString();
+    }
+
+    /**
+     * Creates a random Grid World like randomGridWorld, but writes it to a
+     * file as it is generated instead of building a string, so that worlds
+     * far larger than a string can hold can be made. Apart from the text,
+     * the generator needs about five bytes per cell while it picks the
+     * layout and one byte per cell after that.
+     * 
+     * @param path
+     *            the file, which is replaced.
+     * @param numRows
+     *            the number of rows in the grid world.
+     * @param numCols
+     *            the number of columnss in the grid world.
+     * @param numRocks
+     *            the number of rocks in the grid world.
+     * @param numTunnels
+     *            the number of tunnels in the grid world.
+     * @param numHoles
+     *            the number of holes in the grid world.
+     * @param numGoals
+     *            the number of goals in the grid world.
+     * @param gamma
+     *            the discount factor for each move.
+     * @throws IOException
+     *             if the file cannot be written.
+     */
+    public void writeRandomGridWorld(Path path, int numRows, int numCols,
+        int numRocks, int numTunnels, int numHoles, int numGoals, double gamma)
+        throws IOException
+    {
+        checkParameters(numRows, numCols, numRocks, numTunnels, numHoles,
+            numGoals);
+        mapLayout(numRows, numCols, numGoals, numRocks, numTunnels, numHoles);
+        sampleUncertainty();
+        try (FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+            Writer out = new BufferedWriter(Channels.newWriter(channel,
+                StandardCharsets.US_ASCII.newEncoder(), WRITE_BUFFER),
+                WRITE_BUFFER))
+        {
+            writeWorld(out, gamma);
+        }
+    }
+
+    /**
+     * Creates a random Grid World in the same way as randomGridWorld, but
+     * returns it as an implicit stencil model instead of writing out every
+     * transition.
+     * 
+     * @param numRows
+     *            the number of rows in the grid world.
+     * @param numCols
+     *            the number of columnss in the grid world.
+     * @param numRocks
+     *            the number of rocks in the grid world.
+     * @param numTunnels
+     *            the number of tunnels in the grid world.
+     * @param numHoles
+     *            the number of holes in the grid world.
+     * @param numGoals
+     *            the number of goals in the grid world.
+     * @param gamma
+     *            the discount factor for each move.
+     * @return the stencil model of the grid world.
+     */
+    public StencilGridModel randomStencilModel(int numRows, int numCols,
+        int numRocks, int numTunnels, int numHoles, int numGoals, double gamma)
+    {
+        checkParameters(numRows, numCols, numRocks, numTunnels, numHoles,
+            numGoals);
+        mapLayout(numRows, numCols, numGoals, numRocks, numTunnels, numHoles);
+        sampleUncertainty();
+        return new StencilGridModel(numRows, numCols, types, tunnels,
+            directionUncertainty, R_CELL, R_HOLE, R_GOAL, gamma, start);
     }
 
     /**
@@ -276,8 +577,58 @@ public class GridWorld
     public static String createRandomGridWorld(int numRows, int numCols,
         int numRocks, int numTunnels, int numHoles, int numGoals, double gamma)
     {
+        return new GridWorld(SHARED_RANDOM).randomGridWorld(numRows, numCols,
+            numRocks, numTunnels, numHoles, numGoals, gamma);
+    }
+
+    /**
+     * Creates a random Grid World in the same way as createRandomGridWorld,
+     * but returns it as an implicit stencil model instead of writing out
+     * every transition.
+     * 
+     * @param numRows
+     *            the number of rows in the grid world.
+     * @param numCols
+     *            the number of columnss in the grid world.
+     * @param numRocks
+     *            the number of rocks in the grid world.
+     * @param numTunnels
+     *            the number of tunnels in the grid world.
+     * @param numHoles
+     *            the number of holes in the grid world.
+     * @param numGoals
+     *            the number of goals in the grid world.
+     * @param gamma
+     *            the discount factor for each move.
+     * @return the stencil model of the grid world.
+     */
+    public static StencilGridModel createRandomStencilModel(int numRows,
+        int numCols, int numRocks, int numTunnels, int numHoles, int numGoals,
+        double gamma)
+    {
+        return new GridWorld(SHARED_RANDOM).randomStencilModel(numRows,
+            numCols, numRocks, numTunnels, numHoles, numGoals, gamma);
+    }
 
-        // check parameters.
+    /**
+     * Helper method to check the parameters of a random Grid World.
+     * 
+     * @param numRows
+     *            the number of rows in the grid world.
+     * @param numCols
+     *            the number of columnss in the grid world.
+     * @param numRocks
+     *            the number of rocks in the grid world.
+     * @param numTunnels
+     *            the number of tunnels in the grid world.
+     * @param numHoles
+     *            the number of holes in the grid world.
+     * @param numGoals
+     *            the number of goals in the grid world.
+     */
+    private static void checkParameters(int numRows, int numCols,
+        int numRocks, int numTunnels, int numHoles, int numGoals)
+    {
         int numCells = numRows * numCols;
         if (numRocks + numTunnels + numHoles + numGoals >= numCells)
         {
@@ -285,29 +636,6 @@ public class GridWorld
                 + "tunnels, holes, and goals must be less than number of grid "
                 + "locations.");
         }
-
-        // create cells
-        createCells(numRows, numCols);
-
-        // Pick types of cells
-        mapLayout(rand, numGoals, numRocks, numTunnels, numHoles);
-
-        // pick action uncertainty (same shape for every direction)
-        sampleUncertainty();
-
-        // write states
-        String output = statesToString();
-
-        // write action uncertainty
-        output += uncertaintyToString();
-
-        // write paths
-        output += pathsToString();
-        // write gamma
-        output += gamma + "\n";
-        // write start state
-        output += cellName(startCells.get(0));
-        return output;
     }
 
     /**
@@ -373,56 +701,6 @@ public class GridWorld
         return rowString + colString;
     }
 
-    /**
-     * Constructs the name of the state from its grid location.
-     * 
-     * @param cell
-     *            the coordinates of the grid location
-     * @return the name of the state.
-     */
-    private static String cellName(int[] cell)
-    {
-        return rowColToName(cell[0], cell[1]);
-    }
-
-    /**
-     * Returns the adjacent cell location in the GridWorld.
-     * 
-     * @param i
-     *            the row index.
-     * @param j
-     *            the column index.
-     * @param board
-     *            the board of cells.
-     * @param direction
-     *            the direction (N, E, S, or W)
-     * @return the cell location adjacent.
-     */
-    private static int[] getAdjacentCell(int i, int j, int[][][] board,
-        char direction)
-    {
-        int numRows = board.length;
-        int numCols = board[0].length;
-        int[] adjacentCell = null;
-        if (direction == 'N' && i > 0)
-        {
-            adjacentCell = board[i - 1][j];
-        }
-        else if (direction == 'E' && j < numCols - 1)
-        {
-            adjacentCell = board[i][j + 1];
-        }
-        else if (direction == 'S' && i < numRows - 1)
-        {
-            adjacentCell = board[i + 1][j];
-        }
-        else if (direction == 'W' && j > 0)
-        {
-            adjacentCell = board[i][j - 1];
-        }
-        return adjacentCell;
-    }
-
     /**
      * Displays the grid world described by the states, marking the current
      * state with a :).
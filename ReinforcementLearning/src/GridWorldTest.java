@@ -0,0 +1,119 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * A test class for the GridWorld generator.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class GridWorldTest
+{
+    /**
+     * The text world and the stencil model generated from the same seed
+     * describe the same world.
+     */
+    @Test
+    public void testTextMatchesStencil()
+    {
+        String text = new GridWorld(11).randomGridWorld(9, 12, 8, 4, 6, 2,
+            0.95);
+        StencilGridModel stencil = new GridWorld(11).randomStencilModel(9, 12,
+            8, 4, 6, 2, 0.95);
+        MarkovDecisionProcess mdp =
+            new MarkovDecisionProcess(new Scanner(text));
+        ArrayValueIterationPlayer p = new ArrayValueIterationPlayer("text");
+        p.solve(CompactMDP.fromMDP(mdp, Precision.DOUBLE));
+        ArrayValueIterationPlayer q = new ArrayValueIterationPlayer("stencil");
+        q.solve(stencil);
+        assertEquals(stencil.stateName(stencil.start()),
+            mdp.getCurrent().name());
+        for (State s : mdp.getStates())
+        {
+            int i = stencil.indexOf(s.name());
+            assertEquals(stencil.reward(i), s.reward(), 0.0);
+            assertEquals(stencil.isTerminal(i), s.isTerminal());
+            assertEquals(q.utility(i), p.utility(mdp.indexOf(s)), 1e-6);
+        }
+    }
+
+    /**
+     * Generators with the same seed make the same worlds, also when they run
+     * on separate threads at once.
+     * 
+     * @throws Exception
+     *             if a generator fails.
+     */
+    @Test
+    public void testParallelSeeds() throws Exception
+    {
+        final int count = 16;
+        List<String> expected = new ArrayList<String>();
+        for (int seed = 0; seed < count; seed++)
+        {
+            expected.add(new GridWorld(seed).randomGridWorld(10, 10, 5, 2, 5,
+                2, 1.0));
+        }
+        assertFalse(expected.get(0).equals(expected.get(1)));
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try
+        {
+            List<Future<String>> worlds = new ArrayList<Future<String>>();
+            for (int seed = 0; seed < count; seed++)
+            {
+                final long s = seed;
+                worlds.add(pool.submit(new Callable<String>()
+                {
+                    @Override
+                    public String call()
+                    {
+                        return new GridWorld(s).randomGridWorld(10, 10, 5, 2,
+                            5, 2, 1.0);
+                    }
+                }));
+            }
+            for (int seed = 0; seed < count; seed++)
+            {
+                assertEquals(expected.get(seed), worlds.get(seed).get());
+            }
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * A world streamed to a file is the same as the world built as a string
+     * from the same seed.
+     * 
+     * @throws Exception
+     *             if the temporary file cannot be used.
+     */
+    @Test
+    public void testStreamToFile() throws Exception
+    {
+        File file = File.createTempFile("world", ".txt");
+        file.deleteOnExit();
+        new GridWorld(5).writeRandomGridWorld(file.toPath(), 60, 40, 30, 4,
+            20, 3, 0.99);
+        String expected =
+            new GridWorld(5).randomGridWorld(60, 40, 30, 4, 20, 3, 0.99);
+        assertEquals(expected, new String(Files.readAllBytes(file.toPath()),
+            StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * The loop that backs up the interior cells of a StencilGridModel in a
+ * synchronous sweep. StencilGridModel has a scalar kernel of its own and
+ * uses VectorJacobiKernel instead when that class can be loaded. It is
+ * built from ../src-vector with the jdk.incubator.vector module, so
+ * this directory still builds with any javac from Java 8 on.
+ * 
+ * The kernel backs up every cell that is not on the border of the grid with
+ * the plain stencil; the caller redoes the cells where the stencil does not
+ * apply.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public interface JacobiKernel
+{
+    /**
+     * Backs up the interior cells of the grid.
+     * 
+     * @param u
+     *            the current utilities.
+     * @param next
+     *            receives the backed up utilities.
+     * @param numRows
+     *            the number of rows.
+     * @param numCols
+     *            the number of columns.
+     * @param alpha
+     *            half the sum of the forward and backward probabilities.
+     * @param beta
+     *            half the sum of the two sideways probabilities.
+     * @param c
+     *            half the forward minus the backward probability.
+     * @param d
+     *            half the clockwise minus the anticlockwise probability.
+     * @param r
+     *            the reward of an open cell.
+     * @param g
+     *            half of gamma.
+     */
+    void interior(double[] u, double[] next, int numRows, int numCols,
+        double alpha, double beta, double c, double d, double r, double g);
+}
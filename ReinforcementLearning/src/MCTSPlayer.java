@@ -0,0 +1,698 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * An agent that plans each move with Monte Carlo tree search (UCT, Kocsis and
+ * Szepesvari 2006) from the current state, sampling transitions from the
+ * shared MDPWorld instead of solving the MDP. Each move runs simulations
+ * until a simulation or time budget is spent and returns the most visited
+ * action, so the time per move is bounded however large the world is.
+ * 
+ * A simulation descends the tree choosing actions by UCB1 on values scaled to
+ * the range of returns seen so far, adds one node where it leaves the tree,
+ * and finishes with a random rollout. The tree is kept between moves: after
+ * the move, the child that matches the state actually reached becomes the new
+ * root and the rest of the tree is dropped.
+ * 
+ * Nodes live in primitive arrays (a pool) rather than in objects, with one
+ * slot per node and one per (node, action); the pool doubles when full, up
+ * to a node limit. With several threads the player uses root parallelism:
+ * each thread grows its own tree from the same root with its own random
+ * numbers, and the visit counts of the roots are summed.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class MCTSPlayer extends Player
+{
+    private static final long DEFAULT_SIMULATIONS = 2000;
+    private static final int DEFAULT_MAX_NODES = 1 << 20;
+    private static final int DEFAULT_HORIZON = 200;
+    private static final double EXPLORATION = Math.sqrt(2.0);
+    private final Random rand;
+    private long simulationBudget = DEFAULT_SIMULATIONS;
+    private long timeBudget;
+    private int maxNodes = DEFAULT_MAX_NODES;
+    private int horizon = DEFAULT_HORIZON;
+    private int numThreads = 1;
+    private MDPWorld world;
+    private SearchTree[] trees;
+    private int lastAction = -1;
+    private long moveSimulations;
+
+    /**
+     * Constructor takes the name and uses a default simulation budget per
+     * move.
+     * 
+     * @param name
+     *            the name of the player.
+     */
+    public MCTSPlayer(String name)
+    {
+        this(name, new Random());
+    }
+
+    /**
+     * Constructor takes the name and the source of the random numbers used
+     * by the simulations.
+     * 
+     * @param name
+     *            the name of the player.
+     * @param rand
+     *            the random number generator.
+     */
+    public MCTSPlayer(String name, Random rand)
+    {
+        super(name);
+        this.rand = rand;
+    }
+
+    /**
+     * Limits each move by the number of simulations, and removes any time
+     * limit. With several threads the simulations are shared among them.
+     * 
+     * @param simulationsPerMove
+     *            the number of simulations allowed per move.
+     */
+    public void setSimulationBudget(long simulationsPerMove)
+    {
+        if (simulationsPerMove < 1)
+        {
+            throw new IllegalArgumentException("Need a positive budget.");
+        }
+        simulationBudget = simulationsPerMove;
+        timeBudget = 0;
+    }
+
+    /**
+     * Limits each move by wall clock time, and removes any simulation limit.
+     * 
+     * @param millisPerMove
+     *            the time allowed per move in milliseconds.
+     */
+    public void setTimeBudget(long millisPerMove)
+    {
+        if (millisPerMove < 1)
+        {
+            throw new IllegalArgumentException("Need a positive budget.");
+        }
+        timeBudget = millisPerMove;
+        simulationBudget = 0;
+    }
+
+    /**
+     * Limits the number of nodes in each tree; simulations that leave a full
+     * tree roll out without adding a node.
+     * 
+     * @param maxNodes
+     *            the largest number of nodes per tree.
+     */
+    public void setMaxNodes(int maxNodes)
+    {
+        this.maxNodes = maxNodes;
+        trees = null;
+    }
+
+    /**
+     * Sets the number of steps after which a simulation stops, which bounds
+     * simulations in worlds with gamma = 1.
+     * 
+     * @param horizon
+     *            the largest number of steps per simulation.
+     */
+    public void setHorizon(int horizon)
+    {
+        this.horizon = horizon;
+    }
+
+    /**
+     * Sets the number of trees searched in parallel.
+     * 
+     * @param numThreads
+     *            the number of threads, at least 1.
+     */
+    public void setThreads(int numThreads)
+    {
+        if (numThreads < 1)
+        {
+            throw new IllegalArgumentException("Need at least one thread.");
+        }
+        this.numThreads = numThreads;
+        trees = null;
+    }
+
+    @Override
+    public String play(MarkovDecisionProcess mdp)
+    {
+        int s = mdp.getCurrentIndex();
+        if (s < 0)
+        {
+            return null;
+        }
+        if (trees == null || world != mdp.world())
+        {
+            world = mdp.world();
+            trees = new SearchTree[numThreads];
+            for (int t = 0; t < numThreads; t++)
+            {
+                trees[t] = new SearchTree(world, new Random(rand.nextLong()),
+                    maxNodes);
+            }
+            lastAction = -1;
+        }
+        if (world.isTerminal(s))
+        {
+            return null;
+        }
+        final long deadline = (timeBudget > 0)
+            ? System.nanoTime() + timeBudget * 1000000L : 0;
+        for (int t = 0; t < numThreads; t++)
+        {
+            trees[t].advance(lastAction, s);
+        }
+        if (numThreads == 1)
+        {
+            trees[0].search(simulationBudget, deadline, horizon);
+        }
+        else
+        {
+            searchInParallel(deadline);
+        }
+        int a = bestAction();
+        lastAction = a;
+        record(s, a);
+        return world.actionName(a);
+    }
+
+    /**
+     * Helper method to grow every tree on its own thread.
+     * 
+     * @param deadline
+     *            the time to stop, or 0.
+     */
+    private void searchInParallel(final long deadline)
+    {
+        Thread[] threads = new Thread[numThreads];
+        for (int t = 0; t < numThreads; t++)
+        {
+            final SearchTree tree = trees[t];
+            // share the budget, giving the remainder to the first trees.
+            final long budget = (simulationBudget == 0) ? 0
+                : simulationBudget / numThreads
+                    + ((t < simulationBudget % numThreads) ? 1 : 0);
+            threads[t] = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    if (budget > 0 || deadline != 0)
+                    {
+                        tree.search(budget, deadline, horizon);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+        {
+            try
+            {
+                thread.join();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Helper method to choose the action most visited at the roots, breaking
+     * ties by the mean return.
+     * 
+     * @return the action index.
+     */
+    private int bestAction()
+    {
+        int best = 0;
+        long bestVisits = -1;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        moveSimulations = 0;
+        for (int a = 0; a < world.numActions(); a++)
+        {
+            long visits = 0;
+            double sum = 0.0;
+            for (SearchTree tree : trees)
+            {
+                visits += tree.rootVisits(a);
+                sum += tree.rootSum(a);
+            }
+            moveSimulations += visits;
+            double value = (visits > 0) ? sum / visits
+                : Double.NEGATIVE_INFINITY;
+            if (visits > bestVisits
+                || (visits == bestVisits && value > bestValue))
+            {
+                best = a;
+                bestVisits = visits;
+                bestValue = value;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Helper method to remember the estimate for a state that was played.
+     * 
+     * @param s
+     *            the state index.
+     * @param a
+     *            the chosen action.
+     */
+    private void record(int s, int a)
+    {
+        long visits = 0;
+        double sum = 0.0;
+        for (SearchTree tree : trees)
+        {
+            visits += tree.rootVisits(a);
+            sum += tree.rootSum(a);
+        }
+        if (utility == null)
+        {
+            utility = new HashMap<State, Double>();
+            policy = new HashMap<State, String>();
+        }
+        State state = world.registry().state(s);
+        utility.put(state, (visits > 0) ? sum / visits : world.reward(s));
+        policy.put(state, world.actionName(a));
+    }
+
+    /**
+     * @return the number of simulations behind the last move, over all
+     *         trees.
+     */
+    public long getSimulations()
+    {
+        return moveSimulations;
+    }
+
+    /**
+     * @return the number of nodes in the trees.
+     */
+    public int getTreeSize()
+    {
+        int size = 0;
+        for (int t = 0; trees != null && t < trees.length; t++)
+        {
+            size += trees[t].size();
+        }
+        return size;
+    }
+
+    /**
+     * Adds the bytes of the player to a report, counting the node pools of
+     * the search trees as caches. The world is shared with the MDP.
+     * 
+     * @param report
+     *            the report.
+     */
+    @Override
+    public void addMemory(MemoryReport report)
+    {
+        super.addMemory(report);
+        for (int i = 0; trees != null && i < trees.length; i++)
+        {
+            SearchTree t = trees[i];
+            report.measure(MemoryReport.PLAYER, MemoryReport.CACHES,
+                MemoryReport.bytes(t.state) + MemoryReport.bytes(t.sibling)
+                + MemoryReport.bytes(t.visits)
+                + MemoryReport.bytes(t.edgeVisits)
+                + MemoryReport.bytes(t.edgeSum)
+                + MemoryReport.bytes(t.edgeChild));
+        }
+    }
+
+    /**
+     * One search tree in a pool of primitive arrays. Node i stands for a
+     * state; its statistics for action a are at i * numActions + a, where
+     * edgeChild holds the first node reached by that action and sibling links
+     * the other nodes reached by the same action.
+     */
+    private static class SearchTree
+    {
+        private final MDPWorld world;
+        private final Random random;
+        private final int numActions;
+        private final int maxNodes;
+        private int[] state;
+        private int[] sibling;
+        private int[] visits;
+        private int[] edgeVisits;
+        private double[] edgeSum;
+        private int[] edgeChild;
+        private int size;
+        private int root = -1;
+        // the range of returns seen, for scaling the values in UCB1.
+        private double low;
+        private double high;
+
+        /**
+         * Constructor makes an empty tree.
+         * 
+         * @param world
+         *            the world.
+         * @param random
+         *            the random numbers of this tree.
+         * @param maxNodes
+         *            the largest number of nodes.
+         */
+        SearchTree(MDPWorld world, Random random, int maxNodes)
+        {
+            this.world = world;
+            this.random = random;
+            this.numActions = world.numActions();
+            this.maxNodes = maxNodes;
+            int capacity = Math.min(maxNodes, 1024);
+            state = new int[capacity];
+            sibling = new int[capacity];
+            visits = new int[capacity];
+            edgeVisits = new int[capacity * numActions];
+            edgeSum = new double[capacity * numActions];
+            edgeChild = new int[capacity * numActions];
+        }
+
+        /**
+         * Helper method to add a node.
+         * 
+         * @param s
+         *            the state of the node.
+         * @return the node, or -1 if the tree is full.
+         */
+        private int addNode(int s)
+        {
+            if (size == state.length)
+            {
+                if (size >= maxNodes)
+                {
+                    return -1;
+                }
+                int capacity = (int) Math.min(maxNodes, 2L * size);
+                state = Arrays.copyOf(state, capacity);
+                sibling = Arrays.copyOf(sibling, capacity);
+                visits = Arrays.copyOf(visits, capacity);
+                edgeVisits = Arrays.copyOf(edgeVisits, capacity * numActions);
+                edgeSum = Arrays.copyOf(edgeSum, capacity * numActions);
+                edgeChild = Arrays.copyOf(edgeChild, capacity * numActions);
+            }
+            int node = size++;
+            state[node] = s;
+            sibling[node] = -1;
+            visits[node] = 0;
+            int e = node * numActions;
+            Arrays.fill(edgeVisits, e, e + numActions, 0);
+            Arrays.fill(edgeSum, e, e + numActions, 0.0);
+            Arrays.fill(edgeChild, e, e + numActions, -1);
+            return node;
+        }
+
+        /**
+         * Helper method to find the node an action reached in a state.
+         * 
+         * @param node
+         *            the parent node.
+         * @param a
+         *            the action.
+         * @param s
+         *            the state reached.
+         * @return the child node, or -1 if there is none yet.
+         */
+        private int child(int node, int a, int s)
+        {
+            int c = edgeChild[node * numActions + a];
+            while (c >= 0 && state[c] != s)
+            {
+                c = sibling[c];
+            }
+            return c;
+        }
+
+        /**
+         * Moves the root to the state reached by the last move, keeping the
+         * subtree below it and dropping the rest of the tree.
+         * 
+         * @param a
+         *            the last action from the old root, or -1.
+         * @param s
+         *            the state reached.
+         */
+        void advance(int a, int s)
+        {
+            int next = (root >= 0 && a >= 0) ? child(root, a, s) : -1;
+            if (next < 0)
+            {
+                if (root < 0 || state[root] != s)
+                {
+                    size = 0;
+                    root = addNode(s);
+                    low = Double.POSITIVE_INFINITY;
+                    high = Double.NEGATIVE_INFINITY;
+                }
+                return;
+            }
+            compact(next);
+        }
+
+        /**
+         * Helper method to move the subtree of a node to the front of the
+         * pool and make it the root. A child is always added after its
+         * parent, so keeping the nodes in their old order puts the new root
+         * first and moves every node towards the front, over nodes that have
+         * already been moved or dropped.
+         * 
+         * @param top
+         *            the new root.
+         */
+        private void compact(int top)
+        {
+            int[] map = new int[size];
+            Arrays.fill(map, -1);
+            int[] queue = new int[size];
+            int count = 0;
+            queue[count++] = top;
+            map[top] = 0;
+            for (int i = 0; i < count; i++)
+            {
+                int e = queue[i] * numActions;
+                for (int k = 0; k < numActions; k++)
+                {
+                    for (int c = edgeChild[e + k]; c >= 0; c = sibling[c])
+                    {
+                        map[c] = 0;
+                        queue[count++] = c;
+                    }
+                }
+            }
+            int next = 0;
+            for (int old = top; old < size; old++)
+            {
+                if (map[old] >= 0)
+                {
+                    map[old] = next++;
+                }
+            }
+            for (int old = top; old < size; old++)
+            {
+                int i = map[old];
+                if (i < 0)
+                {
+                    continue;
+                }
+                state[i] = state[old];
+                sibling[i] = (sibling[old] < 0) ? -1 : map[sibling[old]];
+                visits[i] = visits[old];
+                System.arraycopy(edgeVisits, old * numActions, edgeVisits,
+                    i * numActions, numActions);
+                System.arraycopy(edgeSum, old * numActions, edgeSum,
+                    i * numActions, numActions);
+                for (int k = 0; k < numActions; k++)
+                {
+                    int c = edgeChild[old * numActions + k];
+                    edgeChild[i * numActions + k] = (c < 0) ? -1 : map[c];
+                }
+            }
+            sibling[0] = -1;
+            size = count;
+            root = 0;
+        }
+
+        /**
+         * Runs simulations from the root until the budget is spent.
+         * 
+         * @param budget
+         *            the number of simulations, or 0 for no limit.
+         * @param deadline
+         *            the time to stop, or 0 for no limit.
+         * @param horizon
+         *            the largest number of steps per simulation.
+         */
+        void search(long budget, long deadline, int horizon)
+        {
+            for (long n = 0; budget == 0 || n < budget; n++)
+            {
+                // check the clock only every few simulations.
+                if (deadline != 0 && (n & 15) == 0
+                    && System.nanoTime() >= deadline)
+                {
+                    break;
+                }
+                simulate(root, 0, horizon);
+            }
+        }
+
+        /**
+         * Helper method to run one simulation down the tree.
+         * 
+         * @param node
+         *            the node.
+         * @param depth
+         *            the steps taken so far.
+         * @param horizon
+         *            the largest number of steps.
+         * @return the discounted return from the node.
+         */
+        private double simulate(int node, int depth, int horizon)
+        {
+            int s = state[node];
+            if (world.isTerminal(s) || depth >= horizon)
+            {
+                return world.reward(s);
+            }
+            int a = select(node);
+            int s1 = world.sample(s, a, random.nextDouble());
+            int c = child(node, a, s1);
+            double value;
+            if (c >= 0)
+            {
+                value = simulate(c, depth + 1, horizon);
+            }
+            else
+            {
+                c = addNode(s1);
+                if (c >= 0)
+                {
+                    int e = node * numActions + a;
+                    sibling[c] = edgeChild[e];
+                    edgeChild[e] = c;
+                }
+                value = rollout(s1, depth + 1, horizon);
+            }
+            double g = world.reward(s) + world.gamma() * value;
+            int e = node * numActions + a;
+            edgeVisits[e]++;
+            edgeSum[e] += g;
+            visits[node]++;
+            low = Math.min(low, g);
+            high = Math.max(high, g);
+            return g;
+        }
+
+        /**
+         * Helper method to choose an action by UCB1, trying every action
+         * once first.
+         * 
+         * @param node
+         *            the node.
+         * @return the action.
+         */
+        private int select(int node)
+        {
+            int e = node * numActions;
+            int start = random.nextInt(numActions);
+            for (int k = 0; k < numActions; k++)
+            {
+                int a = (start + k) % numActions;
+                if (edgeVisits[e + a] == 0)
+                {
+                    return a;
+                }
+            }
+            double log = Math.log(visits[node]);
+            double range = high - low;
+            int best = 0;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int a = 0; a < numActions; a++)
+            {
+                double mean = edgeSum[e + a] / edgeVisits[e + a];
+                double scaled = (range > 0.0) ? (mean - low) / range : 0.5;
+                double ucb = scaled
+                    + EXPLORATION * Math.sqrt(log / edgeVisits[e + a]);
+                if (ucb > max)
+                {
+                    max = ucb;
+                    best = a;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Helper method to finish a simulation with random actions.
+         * 
+         * @param s
+         *            the state.
+         * @param depth
+         *            the steps taken so far.
+         * @param horizon
+         *            the largest number of steps.
+         * @return the discounted return from the state.
+         */
+        private double rollout(int s, int depth, int horizon)
+        {
+            double g = 0.0;
+            double discount = 1.0;
+            while (!world.isTerminal(s) && depth < horizon)
+            {
+                g += discount * world.reward(s);
+                s = world.sample(s, random.nextInt(numActions),
+                    random.nextDouble());
+                discount *= world.gamma();
+                depth++;
+            }
+            return g + discount * world.reward(s);
+        }
+
+        /**
+         * @param a
+         *            the action.
+         * @return the number of simulations that took the action at the
+         *         root.
+         */
+        int rootVisits(int a)
+        {
+            return edgeVisits[root * numActions + a];
+        }
+
+        /**
+         * @param a
+         *            the action.
+         * @return the sum of the returns of the simulations that took the
+         *         action at the root.
+         */
+        double rootSum(int a)
+        {
+            return edgeSum[root * numActions + a];
+        }
+
+        /**
+         * @return the number of nodes.
+         */
+        int size()
+        {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.Scanner;
+
+import org.junit.Test;
+
+/**
+ * A test class for the MCTSPlayer.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class MCTSPlayerTest
+{
+    /**
+     * Helper method to find the actions a player chooses in some states.
+     * 
+     * @param mdp
+     *            the MDP.
+     * @param names
+     *            the names of the states.
+     * @param threads
+     *            the number of threads of the player.
+     * @return the actions.
+     */
+    private static String[] actions(MarkovDecisionProcess mdp,
+        String[] names, int threads)
+    {
+        String[] answer = new String[names.length];
+        for (int i = 0; i < names.length; i++)
+        {
+            MCTSPlayer p = new MCTSPlayer("MCTS", new Random(1L));
+            p.setSimulationBudget(20000);
+            p.setThreads(threads);
+            mdp.setCurrent(mdp.registry().state(mdp.registry().id(names[i])));
+            answer[i] = p.play((MarkovDecisionProcess) mdp.clone());
+            assertEquals(20000L, p.getSimulations());
+        }
+        return answer;
+    }
+
+    /**
+     * The search finds the optimal action in the states where it is clear,
+     * with one tree or with a tree per thread.
+     */
+    @Test
+    public void testClearMoves()
+    {
+        final String[] STATES = {"a1", "a2", "a3", "b1", "c1"};
+        final String[] CORRECT = {"E", "E", "E", "N", "N"};
+        MarkovDecisionProcess mdp = new MarkovDecisionProcess(
+            new Scanner(TestWorlds.SIMPLE_G10_R3));
+        String[] serial = actions(mdp, STATES, 1);
+        String[] parallel = actions(mdp, STATES, 4);
+        for (int i = 0; i < STATES.length; i++)
+        {
+            assertEquals(CORRECT[i], serial[i]);
+            assertEquals(CORRECT[i], parallel[i]);
+        }
+        // the simulation budget makes parallel searches repeatable.
+        assertEquals(parallel[0], actions(mdp, STATES, 4)[0]);
+    }
+
+    /**
+     * The tree below the state reached is kept for the next move, and the
+     * player stops at a terminal state.
+     */
+    @Test
+    public void testTreeReuse()
+    {
+        MarkovDecisionProcess mdp = new MarkovDecisionProcess(
+            new Scanner(TestWorlds.TUNNEL_A4_G10_R1));
+        mdp.setSeed(3L);
+        MCTSPlayer p = new MCTSPlayer("MCTS", new Random(2L));
+        p.setSimulationBudget(500);
+        int moves = 0;
+        boolean reused = false;
+        String action = p.play((MarkovDecisionProcess) mdp.clone());
+        while (action != null)
+        {
+            int before = p.getTreeSize();
+            mdp.takeAction(action);
+            moves++;
+            action = p.play((MarkovDecisionProcess) mdp.clone());
+            if (action != null)
+            {
+                // the kept subtree already had simulations through it.
+                reused |= p.getSimulations() > 500;
+                assertTrue(p.getTreeSize() <= before + 500);
+            }
+        }
+        assertTrue(mdp.getCurrent().isTerminal());
+        assertTrue(moves > 1);
+        assertTrue(reused);
+        assertNull(p.play((MarkovDecisionProcess) mdp.clone()));
+        assertTrue(p.getPi().size() > 0 && p.getPi().size() <= moves);
+    }
+
+    /**
+     * A time budget bounds each move.
+     */
+    @Test
+    public void testTimeBudget()
+    {
+        MarkovDecisionProcess mdp = new MarkovDecisionProcess(new Scanner(
+            new GridWorld(4L).randomGridWorld(50, 50, 100, 5, 50, 3, 0.95)));
+        MCTSPlayer p = new MCTSPlayer("MCTS", new Random(5L));
+        p.setTimeBudget(20);
+        long start = System.nanoTime();
+        p.play((MarkovDecisionProcess) mdp.clone());
+        long elapsed = System.nanoTime() - start;
+        assertTrue(p.getSimulations() > 0);
+        assertTrue(elapsed < 1000000000L);
+    }
+}
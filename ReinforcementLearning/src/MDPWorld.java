@@ -0,0 +1,545 @@
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+
+/**
+ * The immutable part of a Markov Decision Process: its states, actions,
+ * successors, action uncertainty, discount rate and start state. A world
+ * never changes after it is read, so any number of threads can share one
+ * copy of it, each moving its own agents through it with an EpisodeCursor.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class MDPWorld
+{
+    private final StateRegistry registry;
+    private final String[] actions;
+    private final double[] rewards;
+    private final boolean[] terminal;
+    // the state each intended move leads to, at s * numActions + k, or -1.
+    private final int[] successors;
+    // probability of each intended move for each chosen action, at
+    // a * numActions + k.
+    private final double[] uncertainty;
+    private final double gamma;
+    private final int start;
+
+    /**
+     * Constructor takes the parsed parts of the world.
+     * 
+     * @param registry
+     *            the states.
+     * @param actions
+     *            the action names.
+     * @param successors
+     *            the successor of each (state, intended move), or -1.
+     * @param uncertainty
+     *            the probability of each intended move for each action.
+     * @param gamma
+     *            the discount rate.
+     * @param start
+     *            the index of the start state.
+     */
+    private MDPWorld(StateRegistry registry, String[] actions,
+        int[] successors, double[] uncertainty, double gamma, int start)
+    {
+        int numStates = registry.size();
+        this.registry = registry;
+        this.actions = actions;
+        this.successors = successors;
+        this.uncertainty = uncertainty;
+        this.gamma = gamma;
+        this.start = start;
+        this.rewards = new double[numStates];
+        this.terminal = new boolean[numStates];
+        for (int s = 0; s < numStates; s++)
+        {
+            rewards[s] = registry.state(s).reward();
+            terminal[s] = registry.state(s).isTerminal();
+        }
+    }
+
+    /**
+     * Reads a world in the text format of MarkovDecisionProcess. Each
+     * transition line gives the state an intended move leads to; the
+     * transition probabilities are not expanded but found from the action
+     * uncertainty when needed, so the world stores one int per (state,
+     * action).
+     * 
+     * @param scan
+     *            the scanner.
+     * @return the world.
+     */
+    public static MDPWorld read(Scanner scan)
+    {
+        // read and create the states with their rewards.
+        int numStates = scan.nextInt();
+        ArrayList<State> states = new ArrayList<State>(numStates);
+        for (int i = 0; i < numStates; i++)
+        {
+            states.add(new State(scan.next(), scan.nextInt()));
+        }
+        StateRegistry registry = new StateRegistry(states);
+        // read the goal states
+        while (!scan.hasNextInt())
+        {
+            states.get(stateNamed(registry, scan.next())).setTerminal();
+        }
+        // read the actions and their transition probabilities
+        int numActions = scan.nextInt();
+        String[] actions = new String[numActions];
+        double[] uncertainty = new double[numActions * numActions];
+        for (int a = 0; a < numActions; a++)
+        {
+            actions[a] = scan.next();
+            for (int k = 0; k < numActions; k++)
+            {
+                uncertainty[a * numActions + k] = scan.nextDouble();
+            }
+        }
+        List<String> actionList = Arrays.asList(actions);
+        // Fill the state transition matrix
+        int[] successors = new int[numStates * numActions];
+        Arrays.fill(successors, -1);
+        int numTransitions = scan.nextInt();
+        for (int i = 0; i < numTransitions; i++)
+        {
+            String name = scan.next();
+            int s0 = stateNamed(registry, name);
+            String action = scan.next();
+            int a = actionList.indexOf(action);
+            int s1 = stateNamed(registry, scan.next());
+            if (a < 0)
+            {
+                throw new IllegalArgumentException("Unknown action: " + action);
+            }
+            if (successors[s0 * numActions + a] >= 0)
+            {
+                throw new IllegalArgumentException("Two transitions for "
+                    + name + " " + action);
+            }
+            successors[s0 * numActions + a] = s1;
+        }
+        double gamma = scan.nextDouble();
+        int start = stateNamed(registry, scan.next());
+        return new MDPWorld(registry, actions, successors, uncertainty,
+            gamma, start);
+    }
+
+    /**
+     * Helper method to find a state by name while reading.
+     * 
+     * @param registry
+     *            the states.
+     * @param name
+     *            the name.
+     * @return the state index.
+     */
+    private static int stateNamed(StateRegistry registry, String name)
+    {
+        int id = registry.id(name);
+        if (id < 0)
+        {
+            throw new IllegalArgumentException("Unknown state: " + name);
+        }
+        return id;
+    }
+
+    /**
+     * Creates a cursor for one agent at the start state. Cursors are cheap:
+     * they hold a state index, a step count, a score and their own random
+     * number generator.
+     * 
+     * @param seed
+     *            the seed of the cursor's random number generator.
+     * @return the cursor.
+     */
+    public EpisodeCursor newCursor(long seed)
+    {
+        return new EpisodeCursor(this, new Random(seed));
+    }
+
+    /**
+     * @return the registry of the states. Its states must not be modified.
+     */
+    public StateRegistry registry()
+    {
+        return registry;
+    }
+
+    /**
+     * @return the number of states.
+     */
+    public int numStates()
+    {
+        return rewards.length;
+    }
+
+    /**
+     * @return the number of actions.
+     */
+    public int numActions()
+    {
+        return actions.length;
+    }
+
+    /**
+     * @param a
+     *            the action index.
+     * @return the name of the action.
+     */
+    public String actionName(int a)
+    {
+        return actions[a];
+    }
+
+    /**
+     * @param name
+     *            the name of an action.
+     * @return the index of the action, or -1 if there is none.
+     */
+    public int actionIndex(String name)
+    {
+        for (int a = 0; a < actions.length; a++)
+        {
+            if (actions[a].equals(name))
+            {
+                return a;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the action names.
+     */
+    public List<String> actions()
+    {
+        return new ArrayList<String>(Arrays.asList(actions));
+    }
+
+    /**
+     * @param s
+     *            the state index.
+     * @return the reward of the state.
+     */
+    public double reward(int s)
+    {
+        return rewards[s];
+    }
+
+    /**
+     * @param s
+     *            the state index.
+     * @return true if the state is terminal.
+     */
+    public boolean isTerminal(int s)
+    {
+        return terminal[s];
+    }
+
+    /**
+     * @return the discount rate.
+     */
+    public double gamma()
+    {
+        return gamma;
+    }
+
+    /**
+     * @return the index of the start state.
+     */
+    public int start()
+    {
+        return start;
+    }
+
+    /**
+     * @param s
+     *            the state index.
+     * @param k
+     *            the index of the intended move.
+     * @return the index of the state the move leads to, or -1 if the world
+     *         has no such move.
+     */
+    public int successor(int s, int k)
+    {
+        return successors[s * actions.length + k];
+    }
+
+    /**
+     * @param a
+     *            the index of the chosen action.
+     * @param k
+     *            the index of the intended move.
+     * @return the probability that choosing the action makes the move.
+     */
+    public double uncertainty(int a, int k)
+    {
+        return uncertainty[a * actions.length + k];
+    }
+
+    /**
+     * Picks the outcome of an action from a uniform random number. The state
+     * does not change when the number picks a move that the world has no
+     * transition for.
+     * 
+     * @param s
+     *            the state index.
+     * @param a
+     *            the action index.
+     * @param r
+     *            a uniform random number in [0, 1).
+     * @return the index of the next state.
+     */
+    public int sample(int s, int a, double r)
+    {
+        int numActions = actions.length;
+        int row = s * numActions;
+        int weights = a * numActions;
+        double sum = 0.0;
+        for (int k = 0; k < numActions; k++)
+        {
+            if (successors[row + k] < 0)
+            {
+                continue;
+            }
+            sum += uncertainty[weights + k];
+            if (sum >= r)
+            {
+                return successors[row + k];
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Returns P(s2|s1,a) using state and action indices.
+     * 
+     * @param s1
+     *            index of the initial state.
+     * @param a
+     *            index of the action performed.
+     * @param s2
+     *            index of the final state.
+     * @return P(s2|s1,a)
+     */
+    public double transProb(int s1, int a, int s2)
+    {
+        int numActions = actions.length;
+        double p = 0.0;
+        for (int k = 0; k < numActions; k++)
+        {
+            if (successors[s1 * numActions + k] == s2)
+            {
+                p += uncertainty[a * numActions + k];
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Writes the distinct successors of (s, a) with non-zero probability, in
+     * increasing order of their index, and their probabilities.
+     * 
+     * @param s
+     *            the state index.
+     * @param a
+     *            the action index.
+     * @param next
+     *            receives the successor indices; must hold one entry per
+     *            non-zero probability in row a of the uncertainty.
+     * @param prob
+     *            receives the probabilities; the same size as next.
+     * @return the number of successors written.
+     */
+    public int successors(int s, int a, int[] next, double[] prob)
+    {
+        int numActions = actions.length;
+        int count = 0;
+        for (int k = 0; k < numActions; k++)
+        {
+            int s1 = successors[s * numActions + k];
+            double p = uncertainty[a * numActions + k];
+            if (s1 < 0 || p <= 0.0)
+            {
+                continue;
+            }
+            // insert in order, merging moves that lead to the same state.
+            int i = count;
+            while (i > 0 && next[i - 1] > s1)
+            {
+                i--;
+            }
+            if (i > 0 && next[i - 1] == s1)
+            {
+                prob[i - 1] += p;
+                continue;
+            }
+            System.arraycopy(next, i, next, i + 1, count - i);
+            System.arraycopy(prob, i, prob, i + 1, count - i);
+            next[i] = s1;
+            prob[i] = p;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns sum over s' of P(s'|s,a) U(s') from the successors of s and
+     * row a of the uncertainty, without merging the successors.
+     * 
+     * @param s
+     *            the state index.
+     * @param a
+     *            the action index.
+     * @param u
+     *            the utilities.
+     * @return the expected utility.
+     */
+    public double expectedUtility(int s, int a, double[] u)
+    {
+        int numActions = actions.length;
+        int row = s * numActions;
+        int weights = a * numActions;
+        double sum = 0.0;
+        for (int k = 0; k < numActions; k++)
+        {
+            int s1 = successors[row + k];
+            if (s1 >= 0)
+            {
+                sum += uncertainty[weights + k] * u[s1];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Returns sum over s' of P(s'|s,a) U(s') for float utilities,
+     * accumulated in double precision.
+     * 
+     * @param s
+     *            the state index.
+     * @param a
+     *            the action index.
+     * @param u
+     *            the utilities.
+     * @return the expected utility.
+     */
+    public double expectedUtility(int s, int a, float[] u)
+    {
+        int numActions = actions.length;
+        int row = s * numActions;
+        int weights = a * numActions;
+        double sum = 0.0;
+        for (int k = 0; k < numActions; k++)
+        {
+            int s1 = successors[row + k];
+            if (s1 >= 0)
+            {
+                sum += uncertainty[weights + k] * u[s1];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Hashes the contents of the world (states, rewards, terminal states,
+     * actions, successors, action uncertainty and gamma, but not the start
+     * state) with 64-bit FNV-1a, so that saved results can be checked
+     * against the world they came from. Names are hashed by their UTF-8
+     * bytes, not by String.hashCode(), which is equal for names such as "Aa"
+     * and "BB".
+     * 
+     * @return the fingerprint.
+     */
+    public long fingerprint()
+    {
+        long h = 0xcbf29ce484222325L;
+        h = mix(h, registry.size());
+        for (int s = 0; s < registry.size(); s++)
+        {
+            h = mix(h, registry.name(s));
+            h = mix(h, Double.doubleToLongBits(rewards[s]));
+            h = mix(h, terminal[s] ? 1 : 0);
+        }
+        h = mix(h, actions.length);
+        for (String a : actions)
+        {
+            h = mix(h, a);
+        }
+        for (int s1 : successors)
+        {
+            h = mix(h, s1);
+        }
+        for (double p : uncertainty)
+        {
+            h = mix(h, Double.doubleToLongBits(p));
+        }
+        return mix(h, Double.doubleToLongBits(gamma));
+    }
+
+    /**
+     * Adds the bytes of the world to a report.
+     * 
+     * @param report
+     *            the report.
+     */
+    public void addMemory(MemoryReport report)
+    {
+        registry.addMemory(report);
+        report.measure(MemoryReport.WORLD, MemoryReport.STATES,
+            MemoryReport.bytes(rewards) + MemoryReport.bytes(terminal));
+        report.measure(MemoryReport.WORLD, MemoryReport.NAMES,
+            MemoryReport.strings(actions));
+        report.measure(MemoryReport.WORLD, MemoryReport.TRANSITIONS,
+            MemoryReport.bytes(successors) + MemoryReport.bytes(uncertainty));
+    }
+
+    /**
+     * Helper method to add the bytes of a value to an FNV-1a hash.
+     * 
+     * @param h
+     *            the hash so far.
+     * @param value
+     *            the value.
+     * @return the new hash.
+     */
+    private static long mix(long h, long value)
+    {
+        for (int i = 0; i < 8; i++)
+        {
+            h ^= (value >>> (8 * i)) & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * Helper method to add the length and UTF-8 bytes of a name to an FNV-1a
+     * hash. The length comes first so that adjacent names cannot run
+     * together.
+     * 
+     * @param h
+     *            the hash so far.
+     * @param name
+     *            the name.
+     * @return the new hash.
+     */
+    private static long mix(long h, String name)
+    {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        h = mix(h, bytes.length);
+        for (byte b : bytes)
+        {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+}
@@ -11,13 +11,9 @@ import java.util.Scanner;
  */
 public class MarkovDecisionProcess implements Cloneable
 {
-    private ArrayList<State> states;
-    private ArrayList<String> actions;
-    private State currentState;
-    // state transition matrix
-    private double[][][] transProbs;
-    private double gamma;
-    private double[][] actionUncertainty;
+    // the states, actions and transitions, shared by every clone.
+    private MDPWorld world;
+    private EpisodeCursor cursor;
     //MyCode: 
     
     /**
@@ -28,99 +24,69 @@ public class MarkovDecisionProcess implements Cloneable
      */
     public MarkovDecisionProcess(Scanner scan)
     {
-        // read and create the states with their rewards.
-        readStates(scan);
-        // read the actions and their transition probabilities
-        readActions(scan);
-        // Fill the state transition matrix
-        readTransitions(scan);
-        gamma = scan.nextDouble();
-        currentState = states.get(states.indexOf(new State(scan.next(), 0)));
+        this(MDPWorld.read(scan));
     }
 
     /**
-     * Helper method to read the transitions from the scanner.
+     * Constructor starts an MDP in the start state of a world that has
+     * already been read, without copying the world.
      * 
-     * @param scan
-     *            the scanner
+     * @param world
+     *            the world.
      */
-    private void readTransitions(Scanner scan)
+    public MarkovDecisionProcess(MDPWorld world)
     {
-        int numStates = states.size();
-        int numActions = actions.size();
-        transProbs = new double[numStates][numActions][numStates];
-        int numTransitions = scan.nextInt();
-        for (int i = 0; i < numTransitions; i++)
-        {
-            int s0 = states.indexOf(new State(scan.next(), 0));
-            int a = actions.indexOf(scan.next());
-            int s1 = states.indexOf(new State(scan.next(), 0));
-            for (int j = 0; j < numActions; j++)
-            {
-                transProbs[s0][j][s1] += actionUncertainty[j][a];
-            }
-        }
+        this.world = world;
+        this.cursor = new EpisodeCursor(world, null);
     }
 
     /**
-     * Helper method to read the actions from the scanner.
-     * 
-     * @param scan
-     *            the scanner.
+     * @return the immutable world, which clones share.
      */
-    private void readActions(Scanner scan)
+    public MDPWorld world()
     {
-        int numActions = scan.nextInt();
-        actions = new ArrayList<String>(numActions);
-        actionUncertainty = new double[numActions][numActions];
-        for (int i = 0; i < numActions; i++)
-        {
-            actions.add(scan.next());
-            for (int j = 0; j < numActions; j++)
-            {
-                actionUncertainty[i][j] = scan.nextDouble();
-            }
-        }
+        return world;
     }
 
     /**
-     * Helper method to read the states.
+     * Sets the current state.
      * 
-     * @param scan
-     *            the scanner to read.
+     * @param s
+     *            the current state.
      */
-    private void readStates(Scanner scan)
+    public void setCurrent(State s)
     {
-        int numStates = scan.nextInt();
-        states = new ArrayList<State>(numStates);
-        for (int i = 0; i < numStates; i++)
-        {
-            states.add(new State(scan.next(), scan.nextInt()));
-        }
-        // read the goal states
-        while (!scan.hasNextInt())
+        int id = world.registry().id(s);
+        if (id < 0)
         {
-            states.get(states.indexOf(new State(scan.next(), 0))).setTerminal();
+            throw new IllegalArgumentException("Unknown state: " + s);
         }
+        cursor.setCurrent(id);
     }
 
     /**
-     * Sets the current state.
-     * 
-     * @param s
-     *            the current state.
+     * @return the current state.
      */
-    public void setCurrent(State s)
+    public State getCurrent()
     {
-        currentState = s;
+        return (State) cursor.state().clone();
     }
 
     /**
-     * @return the current state.
+     * @return the id of the current state.
      */
-    public State getCurrent()
+    public int getCurrentIndex()
     {
-        return (State) currentState.clone();
+        return cursor.current();
+    }
+
+    /**
+     * @return the registry of the states, which clones share. Its states
+     *         must not be modified.
+     */
+    public StateRegistry registry()
+    {
+        return world.registry();
     }
 
     /**
@@ -128,10 +94,11 @@ public class MarkovDecisionProcess implements Cloneable
      */
     public List<State> getStates()
     {
-        ArrayList<State> copy = new ArrayList<State>(states.size());
-        for (State s : states)
+        StateRegistry registry = world.registry();
+        ArrayList<State> copy = new ArrayList<State>(registry.size());
+        for (int s = 0; s < registry.size(); s++)
         {
-            copy.add((State) s.clone());
+            copy.add((State) registry.state(s).clone());
         }
         return copy;
     }
@@ -141,12 +108,7 @@ public class MarkovDecisionProcess implements Cloneable
      */
     public List<String> getActions()
     {
-        ArrayList<String> copy = new ArrayList<String>(actions.size());
-        for (String s : actions)
-        {
-            copy.add(s);
-        }
-        return copy;
+        return world.actions();
     }
 
     /**
@@ -154,31 +116,53 @@ public class MarkovDecisionProcess implements Cloneable
      */
     public double getGamma()
     {
-        return gamma;
+        return world.gamma();
+    }
+
+    /**
+     * Makes the outcomes of takeAction reproducible. A clone gets its own
+     * copy of the generator, in the same state, so players that sample moves
+     * on their copy of the MDP do not change the outcomes of the game.
+     * 
+     * @param seed
+     *            the seed of the random number generator.
+     */
+    public void setSeed(long seed)
+    {
+        cursor.setSeed(seed);
     }
 
     /**
-     * Performs the desired action.
+     * Performs the desired action. The state does not change when the random
+     * draw picks a move that the MDP has no transition for.
      * 
      * @param action
      *            the action.
      */
     public void takeAction(String action)
     {
-        // System.out.println("MDP: moving " + actions.get(actionIndex));
-        double r = Math.random();
-        double sum = 0.0;
-        State newState = null;
-        for (int i = 0; i < states.size(); i++)
+        int a = world.actionIndex(action);
+        if (a < 0)
+        {
+            throw new IllegalArgumentException("Unknown action: " + action);
+        }
+        cursor.takeAction(a);
+    }
+
+    /**
+     * Performs the action with an index from world().actionIndex(), for
+     * callers that have already looked it up.
+     * 
+     * @param a
+     *            the action index.
+     */
+    public void takeAction(int a)
+    {
+        if (a < 0 || a >= world.numActions())
         {
-            newState = states.get(i);
-            sum += transProb(currentState, action, newState);
-            if (sum >= r)
-            {
-                break;
-            }
+            throw new IllegalArgumentException("Unknown action: " + a);
         }
-        currentState = newState;
+        cursor.takeAction(a);
     }
 
     @Override
@@ -188,25 +172,9 @@ public class MarkovDecisionProcess implements Cloneable
         try
         {
             answer = (MarkovDecisionProcess) super.clone();
-            answer.states = new ArrayList<State>(states.size());
-            for (State s : states)
-            {
-                answer.states.add((State) s.clone());
-            }
-            answer.actions = new ArrayList<String>(actions);
-
-            answer.transProbs = transProbs.clone();
-            for (int i = 0; i < answer.transProbs.length; i++)
-            {
-                answer.transProbs[i] = transProbs[i].clone();
-            }
-            for (int i = 0; i < answer.transProbs.length; i++)
-            {
-                for (int j = 0; j < answer.transProbs[i].length; j++)
-                {
-                    answer.transProbs[i][j] = transProbs[i][j].clone();
-                }
-            }
+            // the world is never modified, so it is shared; only the cursor
+            // is copied, with its own copy of the random number generator.
+            answer.cursor = cursor.copy();
         }
         catch (CloneNotSupportedException e)
         {
@@ -228,8 +196,103 @@ public class MarkovDecisionProcess implements Cloneable
      */
     public double transProb(State s1, String a, State s2)
     {
-        return transProbs[states.indexOf(s1)][actions.indexOf(a)][states
-            .indexOf(s2)];
+        StateRegistry registry = world.registry();
+        return transProb(registry.id(s1), world.actionIndex(a),
+            registry.id(s2));
+    }
+
+    /**
+     * Returns P(s2|s1,a) using state and action indices.
+     * 
+     * @param s1
+     *            index of the initial state.
+     * @param a
+     *            index of the action performed.
+     * @param s2
+     *            index of the final state.
+     * @return P(s2|s1,a)
+     */
+    public double transProb(int s1, int a, int s2)
+    {
+        return world.transProb(s1, a, s2);
+    }
+
+    /**
+     * @param s
+     *            the state index.
+     * @param k
+     *            the index of the intended move.
+     * @return the index of the state the move leads to, or -1 if the MDP
+     *         has no such move.
+     */
+    public int successor(int s, int k)
+    {
+        return world.successor(s, k);
+    }
+
+    /**
+     * @param a
+     *            the index of the chosen action.
+     * @param k
+     *            the index of the intended move.
+     * @return the probability that choosing the action makes the move.
+     */
+    public double uncertainty(int a, int k)
+    {
+        return world.uncertainty(a, k);
+    }
+
+    /**
+     * Writes the distinct successors of (s, a) with non-zero probability, in
+     * increasing order of their index, and their probabilities.
+     * 
+     * @param s
+     *            the state index.
+     * @param a
+     *            the action index.
+     * @param next
+     *            receives the successor indices; must hold numActions
+     *            entries.
+     * @param prob
+     *            receives the probabilities; must hold numActions entries.
+     * @return the number of successors written.
+     */
+    public int successors(int s, int a, int[] next, double[] prob)
+    {
+        return world.successors(s, a, next, prob);
+    }
+
+    /**
+     * @return the number of states.
+     */
+    public int numStates()
+    {
+        return world.numStates();
+    }
+
+    /**
+     * Returns the index of a state, matching on its name, in constant time.
+     * 
+     * @param s
+     *            the state.
+     * @return the index of the state, or -1 if it is not in the MDP.
+     */
+    public int indexOf(State s)
+    {
+        return world.registry().id(s);
+    }
+
+    /**
+     * Hashes the contents of the MDP (states, rewards, terminal states,
+     * actions, successors, action uncertainty and gamma, but not the current
+     * state) with 64-bit FNV-1a, so that saved results can be checked
+     * against the MDP they came from.
+     * 
+     * @return the fingerprint.
+     */
+    public long fingerprint()
+    {
+        return world.fingerprint();
     }
 
 }
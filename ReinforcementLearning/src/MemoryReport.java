@@ -0,0 +1,632 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+
+/**
+ * The heap bytes taken by each component of a world, its compiled model and
+ * a player: states, names, transitions, utilities, policies and caches. Every
+ * row has an estimated size, predicted from the counts in the header of the
+ * text format alone, and an actual size, measured from the arrays and maps
+ * that were really allocated. The estimate can be made before a world is
+ * loaded, so a job that would not fit in the heap can be rejected first.
+ * 
+ * Sizes follow the layout of a 64-bit HotSpot JVM with compressed references
+ * (the default for heaps below 32 GB) and compact strings: 12-byte object
+ * headers, 16-byte array headers, 4-byte references and 8-byte alignment.
+ * Strings and States shared between components are counted once, by the
+ * component that creates them.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class MemoryReport
+{
+    /**
+     * The owner of the components of an MDPWorld.
+     */
+    public static final String WORLD = "world";
+    /**
+     * The owner of the components of a TransitionModel.
+     */
+    public static final String MODEL = "model";
+    /**
+     * The owner of the components of a Player.
+     */
+    public static final String PLAYER = "player";
+    /**
+     * State objects, rewards, terminal flags and grid positions.
+     */
+    public static final String STATES = "states";
+    /**
+     * State and action names and the maps that look them up.
+     */
+    public static final String NAMES = "names";
+    /**
+     * Successors and transition probabilities.
+     */
+    public static final String TRANSITIONS = "transitions";
+    /**
+     * Utilities, as arrays or boxed in HashMaps.
+     */
+    public static final String UTILITIES = "utilities";
+    /**
+     * Policies, as arrays or in HashMaps.
+     */
+    public static final String POLICIES = "policies";
+    /**
+     * Anything kept to answer queries faster, which could be rebuilt.
+     */
+    public static final String CACHES = "caches";
+    /**
+     * Memory outside the Java heap.
+     */
+    public static final String OFF_HEAP = "off-heap";
+    /**
+     * The bytes of a reference.
+     */
+    public static final int REFERENCE = 4;
+    /**
+     * The bytes of a State.
+     */
+    public static final int STATE = 32;
+    /**
+     * The bytes of a boxed Integer or Double.
+     */
+    public static final int BOX = 16;
+    private static final int ARRAY_HEADER = 16;
+    private static final int STRING = 24;
+    private static final int HASH_MAP = 48;
+    private static final int MAP_NODE = 32;
+    // Integer.valueOf caches the boxes of -128 to 127.
+    private static final int CACHED_INTEGERS = 128;
+    private static final int MIN_CAPACITY = 16;
+    private static final double LOAD_FACTOR = 0.75;
+    // estimated and actual bytes of each row, or -1 if not known.
+    private final LinkedHashMap<String, long[]> rows =
+        new LinkedHashMap<String, long[]>();
+
+    /**
+     * Adds estimated bytes to a component.
+     * 
+     * @param owner
+     *            WORLD, MODEL or PLAYER.
+     * @param component
+     *            the component.
+     * @param bytes
+     *            the bytes.
+     */
+    public void estimate(String owner, String component, long bytes)
+    {
+        add(owner + " " + component, 0, bytes);
+    }
+
+    /**
+     * Adds measured bytes to a component.
+     * 
+     * @param owner
+     *            WORLD, MODEL or PLAYER.
+     * @param component
+     *            the component.
+     * @param bytes
+     *            the bytes.
+     */
+    public void measure(String owner, String component, long bytes)
+    {
+        add(owner + " " + component, 1, bytes);
+    }
+
+    /**
+     * Helper method to add bytes to one column of a row.
+     * 
+     * @param row
+     *            the name of the row.
+     * @param column
+     *            0 for estimated, 1 for actual.
+     * @param bytes
+     *            the bytes.
+     */
+    private void add(String row, int column, long bytes)
+    {
+        long[] sizes = rows.get(row);
+        if (sizes == null)
+        {
+            sizes = new long[] {-1, -1};
+            rows.put(row, sizes);
+        }
+        sizes[column] = Math.max(sizes[column], 0) + bytes;
+    }
+
+    /**
+     * @return the rows of the report, such as "world states", in the order
+     *         they were first added.
+     */
+    public List<String> rows()
+    {
+        return new ArrayList<String>(rows.keySet());
+    }
+
+    /**
+     * @param row
+     *            the name of the row.
+     * @return the estimated bytes, or -1 if the row has no estimate.
+     */
+    public long estimated(String row)
+    {
+        long[] sizes = rows.get(row);
+        return (sizes == null) ? -1 : sizes[0];
+    }
+
+    /**
+     * @param row
+     *            the name of the row.
+     * @return the measured bytes, or -1 if the row was not measured.
+     */
+    public long actual(String row)
+    {
+        long[] sizes = rows.get(row);
+        return (sizes == null) ? -1 : sizes[1];
+    }
+
+    /**
+     * @return the sum of the estimated bytes.
+     */
+    public long totalEstimated()
+    {
+        return total(0);
+    }
+
+    /**
+     * @return the sum of the measured bytes.
+     */
+    public long totalActual()
+    {
+        return total(1);
+    }
+
+    /**
+     * Helper method to sum a column.
+     * 
+     * @param column
+     *            0 for estimated, 1 for actual.
+     * @return the sum of the known bytes.
+     */
+    private long total(int column)
+    {
+        long sum = 0;
+        for (long[] sizes : rows.values())
+        {
+            sum += Math.max(sizes[column], 0);
+        }
+        return sum;
+    }
+
+    /**
+     * Throws an exception if the estimate is larger than a limit.
+     * 
+     * @param limit
+     *            the most bytes allowed, for example available().
+     */
+    public void require(long limit)
+    {
+        if (totalEstimated() > limit)
+        {
+            throw new IllegalArgumentException(String.format(
+                "Needs about %d MB but only %d MB are available.",
+                totalEstimated() >> 20, limit >> 20));
+        }
+    }
+
+    /**
+     * @return the bytes the heap can still grow by.
+     */
+    public static long available()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.maxMemory()
+            - (runtime.totalMemory() - runtime.freeMemory());
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-20s %14s %14s%n", "component", "estimated",
+            "actual"));
+        for (Map.Entry<String, long[]> row : rows.entrySet())
+        {
+            sb.append(format(row.getKey(), row.getValue()[0],
+                row.getValue()[1]));
+        }
+        sb.append(format("total", totalEstimated(), totalActual()));
+        return sb.toString();
+    }
+
+    /**
+     * Helper method to format one line of the table.
+     * 
+     * @param row
+     *            the name of the row.
+     * @param estimated
+     *            the estimated bytes, or -1.
+     * @param actual
+     *            the measured bytes, or -1.
+     * @return the line.
+     */
+    private static String format(String row, long estimated, long actual)
+    {
+        return String.format("%-20s %14s %14s%n", row,
+            (estimated < 0) ? "-" : Long.toString(estimated),
+            (actual < 0) ? "-" : Long.toString(actual));
+    }
+
+    /**
+     * @param bytes
+     *            the bytes of the fields of an object.
+     * @return the bytes rounded up to the alignment of objects.
+     */
+    public static long align(long bytes)
+    {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * @param length
+     *            the length of the array.
+     * @param elementBytes
+     *            the bytes of each element.
+     * @return the bytes of the array.
+     */
+    public static long array(long length, int elementBytes)
+    {
+        return align(ARRAY_HEADER + length * elementBytes);
+    }
+
+    /**
+     * @param a
+     *            an array, or null.
+     * @return the bytes of the array, or 0 if it is null.
+     */
+    public static long bytes(double[] a)
+    {
+        return (a == null) ? 0 : array(a.length, 8);
+    }
+
+    /**
+     * @param a
+     *            an array, or null.
+     * @return the bytes of the array, or 0 if it is null.
+     */
+    public static long bytes(float[] a)
+    {
+        return (a == null) ? 0 : array(a.length, 4);
+    }
+
+    /**
+     * @param a
+     *            an array, or null.
+     * @return the bytes of the array, or 0 if it is null.
+     */
+    public static long bytes(int[] a)
+    {
+        return (a == null) ? 0 : array(a.length, 4);
+    }
+
+    /**
+     * @param a
+     *            an array, or null.
+     * @return the bytes of the array, or 0 if it is null.
+     */
+    public static long bytes(byte[] a)
+    {
+        return (a == null) ? 0 : array(a.length, 1);
+    }
+
+    /**
+     * @param a
+     *            an array, or null.
+     * @return the bytes of the array, or 0 if it is null.
+     */
+    public static long bytes(boolean[] a)
+    {
+        return (a == null) ? 0 : array(a.length, 1);
+    }
+
+    /**
+     * @param a
+     *            an array, or null.
+     * @return the bytes of the array of references, not of the objects it
+     *         refers to, or 0 if it is null.
+     */
+    public static long bytes(Object[] a)
+    {
+        return (a == null) ? 0 : array(a.length, REFERENCE);
+    }
+
+    /**
+     * @param length
+     *            the number of characters, all of them Latin-1.
+     * @return the bytes of the String and its character array.
+     */
+    public static long string(int length)
+    {
+        return STRING + array(length, 1);
+    }
+
+    /**
+     * @param a
+     *            an array of Strings, or null.
+     * @return the bytes of the array and of every String in it.
+     */
+    public static long strings(String[] a)
+    {
+        long sum = bytes(a);
+        for (int i = 0; a != null && i < a.length; i++)
+        {
+            sum += (a[i] == null) ? 0 : string(a[i].length());
+        }
+        return sum;
+    }
+
+    /**
+     * @param entries
+     *            the number of entries.
+     * @param capacity
+     *            the length of the table, a power of 2, or 0 if no entry
+     *            was ever added.
+     * @param entryBytes
+     *            the bytes each entry owns besides its node, such as a box.
+     * @return the bytes of the HashMap.
+     */
+    public static long hashMap(long entries, long capacity, long entryBytes)
+    {
+        return HASH_MAP + ((capacity == 0) ? 0 : array(capacity, REFERENCE))
+            + entries * (MAP_NODE + entryBytes);
+    }
+
+    /**
+     * @param entries
+     *            the number of entries put into a new HashMap().
+     * @return the length its table has grown to.
+     */
+    public static long capacity(long entries)
+    {
+        if (entries == 0)
+        {
+            return 0;
+        }
+        long capacity = MIN_CAPACITY;
+        while (entries > capacity * LOAD_FACTOR)
+        {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+
+    /**
+     * @param numStates
+     *            the number of states.
+     * @return the bytes of a HashMap from state name to index created with
+     *         an initial capacity of twice the number of states, as
+     *         StateRegistry and TransitionModel do, not counting the names.
+     */
+    public static long nameIndex(int numStates)
+    {
+        long capacity = (numStates == 0) ? 0
+            : Integer.highestOneBit(Math.max(2 * numStates - 1, 1)) * 2L;
+        long boxes = Math.max(0, numStates - CACHED_INTEGERS);
+        return hashMap(numStates, capacity, 0) + boxes * BOX;
+    }
+
+    /**
+     * The counts in the header of a world in the text format, which are all
+     * the estimates depend on.
+     */
+    public static class Counts
+    {
+        /**
+         * The number of states.
+         */
+        public int numStates;
+        /**
+         * The number of actions.
+         */
+        public int numActions;
+        /**
+         * The number of intended moves with a non-zero probability, summed
+         * over the actions: the most transitions a state can have.
+         */
+        public int movesPerState;
+        /**
+         * The bytes of the state name Strings.
+         */
+        public long nameBytes;
+        /**
+         * The bytes of the action name Strings.
+         */
+        public long actionNameBytes;
+        /**
+         * The number of grid rows if the state names are a dense grid of
+         * cells, or 0.
+         */
+        public int numRows;
+        /**
+         * The number of grid columns, or 0.
+         */
+        public int numCols;
+
+        /**
+         * Reads the counts from the start of a world in the text format of
+         * MarkovDecisionProcess. The states and actions are skipped rather
+         * than stored, and reading stops at the number of transitions, so
+         * this takes constant memory however large the world is.
+         * 
+         * @param scan
+         *            the scanner.
+         * @return the counts.
+         */
+        public static Counts read(Scanner scan)
+        {
+            Counts counts = new Counts();
+            counts.numStates = scan.nextInt();
+            int[] r = new int[1];
+            int[] c = new int[1];
+            boolean grid = true;
+            int maxRow = -1;
+            int maxCol = -1;
+            for (int i = 0; i < counts.numStates; i++)
+            {
+                String name = scan.next();
+                scan.nextInt();
+                counts.nameBytes += string(name.length());
+                if (grid && StateRegistry.parseCell(name, r, c, 0))
+                {
+                    maxRow = Math.max(maxRow, r[0]);
+                    maxCol = Math.max(maxCol, c[0]);
+                }
+                else
+                {
+                    grid = false;
+                }
+            }
+            if (grid && StateRegistry.denseGrid(counts.numStates, maxRow,
+                maxCol))
+            {
+                counts.numRows = maxRow + 1;
+                counts.numCols = maxCol + 1;
+            }
+            // skip the goal states.
+            while (!scan.hasNextInt())
+            {
+                scan.next();
+            }
+            counts.numActions = scan.nextInt();
+            for (int a = 0; a < counts.numActions; a++)
+            {
+                counts.actionNameBytes += string(scan.next().length());
+                for (int k = 0; k < counts.numActions; k++)
+                {
+                    counts.movesPerState += (scan.nextDouble() > 0.0) ? 1 : 0;
+                }
+            }
+            return counts;
+        }
+
+        /**
+         * Finds the counts of a world that is already loaded.
+         * 
+         * @param world
+         *            the world.
+         * @return the counts.
+         */
+        public static Counts of(MDPWorld world)
+        {
+            Counts counts = new Counts();
+            StateRegistry registry = world.registry();
+            counts.numStates = world.numStates();
+            counts.numActions = world.numActions();
+            for (int s = 0; s < counts.numStates; s++)
+            {
+                counts.nameBytes += string(registry.name(s).length());
+            }
+            for (int a = 0; a < counts.numActions; a++)
+            {
+                counts.actionNameBytes += string(world.actionName(a).length());
+                for (int k = 0; k < counts.numActions; k++)
+                {
+                    counts.movesPerState +=
+                        (world.uncertainty(a, k) > 0.0) ? 1 : 0;
+                }
+            }
+            counts.numRows = registry.numRows();
+            counts.numCols = registry.numCols();
+            return counts;
+        }
+    }
+
+    /**
+     * Estimates a world loaded into an MDPWorld and played by an
+     * ArrayValueIterationPlayer, which compiles it to a CompactMDP and looks
+     * up the state of every move by name. The estimate of the transitions
+     * is an upper bound: moves that lead to the same state are merged.
+     * 
+     * @param counts
+     *            the counts of the world.
+     * @param boxed
+     *            true if the player's utilities and policy will also be
+     *            asked for as HashMaps, with getU() and getPi().
+     * @return the estimated report.
+     */
+    public static MemoryReport estimate(Counts counts, boolean boxed)
+    {
+        MemoryReport report = new MemoryReport();
+        int n = counts.numStates;
+        int numActions = counts.numActions;
+        long pairs = (long) n * numActions;
+        long flags = array(n, 8) + array(n, 1);
+        long cells = (long) counts.numRows * counts.numCols;
+        long grid = (counts.numRows == 0) ? 0
+            : 2 * array(n, 4) + array(cells, 4);
+        long actionNames = array(numActions, REFERENCE);
+        long edges = (long) n * counts.movesPerState;
+        report.estimate(WORLD, STATES, array(n, REFERENCE) + (long) n * STATE
+            + flags + grid);
+        report.estimate(WORLD, NAMES, counts.nameBytes + nameIndex(n)
+            + actionNames + counts.actionNameBytes);
+        report.estimate(WORLD, TRANSITIONS, array(pairs, 4)
+            + array((long) numActions * numActions, 8));
+        // the model shares the name Strings of the world.
+        report.estimate(MODEL, STATES, flags);
+        report.estimate(MODEL, NAMES, array(n, REFERENCE) + actionNames);
+        report.estimate(MODEL, TRANSITIONS, array(pairs + 1, 4)
+            + array(edges, 4) + array(edges, 8));
+        report.estimate(MODEL, CACHES, nameIndex(n));
+        report.estimate(PLAYER, UTILITIES, array(n, 8));
+        report.estimate(PLAYER, POLICIES, array(n, 4));
+        if (boxed)
+        {
+            // each map entry has its own State and the utilities are boxed.
+            long capacity = capacity(n);
+            report.estimate(PLAYER, UTILITIES,
+                hashMap(n, capacity, STATE + BOX));
+            report.estimate(PLAYER, POLICIES, hashMap(n, capacity, STATE));
+        }
+        return report;
+    }
+
+    /**
+     * Estimates a world before it is loaded, from its text.
+     * 
+     * @param scan
+     *            the scanner positioned at the start of the world.
+     * @param boxed
+     *            true if the utilities and policy will be asked for as
+     *            HashMaps.
+     * @return the estimated report.
+     */
+    public static MemoryReport estimate(Scanner scan, boolean boxed)
+    {
+        return estimate(Counts.read(scan), boxed);
+    }
+
+    /**
+     * Reports a loaded world and a player: the estimate from the counts of
+     * the world next to the bytes actually allocated.
+     * 
+     * @param mdp
+     *            the MDP.
+     * @param player
+     *            the player, after it has played or solved the MDP.
+     * @return the report.
+     */
+    public static MemoryReport of(MarkovDecisionProcess mdp, Player player)
+    {
+        boolean boxed = player.utility != null || player.policy != null;
+        MemoryReport report = estimate(Counts.of(mdp.world()), boxed);
+        mdp.world().addMemory(report);
+        player.addMemory(report);
+        return report;
+    }
+}
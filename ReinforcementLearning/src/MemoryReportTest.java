@@ -0,0 +1,91 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Scanner;
+
+import org.junit.Test;
+
+/**
+ * A test class for the MemoryReport.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class MemoryReportTest
+{
+    /**
+     * The estimate made from the text before loading matches every component
+     * of the world, model and player once they are loaded, solved and played,
+     * except the transitions of the model, where it is an upper bound.
+     */
+    @Test
+    public void testEstimateMatchesLoad()
+    {
+        String text = new GridWorld(3L).randomGridWorld(30, 40, 60, 4, 30, 2,
+            0.95);
+        MemoryReport before = MemoryReport.estimate(new Scanner(text), true);
+        MarkovDecisionProcess mdp =
+            new MarkovDecisionProcess(new Scanner(text));
+        ArrayValueIterationPlayer p = new ArrayValueIterationPlayer("ArrayVI");
+        p.play((MarkovDecisionProcess) mdp.clone());
+        p.getU();
+        p.getPi();
+        MemoryReport after = MemoryReport.of(mdp, p);
+        String edges = MemoryReport.MODEL + " " + MemoryReport.TRANSITIONS;
+        assertEquals(before.rows(), after.rows());
+        for (String row : after.rows())
+        {
+            assertEquals(row, before.estimated(row), after.estimated(row));
+            if (row.equals(edges))
+            {
+                assertTrue(after.actual(row) <= after.estimated(row));
+            }
+            else
+            {
+                assertEquals(row, after.estimated(row), after.actual(row));
+            }
+        }
+        assertTrue(after.totalActual() <= before.totalEstimated());
+        // the boxed maps cost far more than the arrays they copy.
+        String u = MemoryReport.PLAYER + " " + MemoryReport.UTILITIES;
+        long arrays = MemoryReport.array(mdp.getStates().size(), 8);
+        assertTrue(after.actual(u) > 10 * arrays);
+        assertTrue(after.toString().contains("world transitions"));
+    }
+
+    /**
+     * Oversized jobs are rejected before they are loaded, and solvers that
+     * keep more than the default report it.
+     */
+    @Test
+    public void testRequire()
+    {
+        String text = new GridWorld(4L).randomGridWorld(20, 20, 20, 0, 10, 2,
+            0.95);
+        MemoryReport estimate = MemoryReport.estimate(new Scanner(text), false);
+        estimate.require(MemoryReport.available());
+        try
+        {
+            estimate.require(estimate.totalEstimated() - 1);
+            fail("The limit was not enforced.");
+        }
+        catch (IllegalArgumentException e)
+        {
+            assertTrue(e.getMessage().startsWith("Needs about"));
+        }
+        MarkovDecisionProcess mdp =
+            new MarkovDecisionProcess(new Scanner(text));
+        FiniteHorizonPlayer p = new FiniteHorizonPlayer("Finite", 10);
+        p.setKeepQ(true);
+        p.play((MarkovDecisionProcess) mdp.clone());
+        MemoryReport report = MemoryReport.of(mdp, p);
+        String policies = MemoryReport.PLAYER + " " + MemoryReport.POLICIES;
+        String caches = MemoryReport.PLAYER + " " + MemoryReport.CACHES;
+        assertTrue(report.actual(policies) > 10 * mdp.getStates().size());
+        assertTrue(report.actual(policies) > report.estimated(policies));
+        assertEquals(-1, report.estimated(caches));
+        assertTrue(report.actual(caches) > 0);
+    }
+}
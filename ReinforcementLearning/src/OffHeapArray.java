@@ -0,0 +1,260 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * A fixed-length array of primitives stored outside the Java heap, either in
+ * direct buffers or in a memory-mapped region of a file. The array is split
+ * into 1 GiB chunks so it can hold more than 2^31 bytes, and is indexed by
+ * element with a long.
+ * 
+ * Direct buffers count against -XX:MaxDirectMemorySize, which defaults to the
+ * maximum heap size; mapped buffers do not, so very large arrays should be
+ * mapped from a file when running with a small heap.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class OffHeapArray
+{
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+    private final ByteBuffer[] chunks;
+    private final long length;
+    private final int elementSize;
+
+    /**
+     * Constructor takes the chunks.
+     * 
+     * @param chunks
+     *            the buffers holding the data, all but the last 1 GiB long.
+     * @param length
+     *            the number of elements.
+     * @param elementSize
+     *            the size of one element in bytes (1, 4 or 8).
+     */
+    private OffHeapArray(ByteBuffer[] chunks, long length, int elementSize)
+    {
+        this.chunks = chunks;
+        this.length = length;
+        this.elementSize = elementSize;
+        for (ByteBuffer chunk : chunks)
+        {
+            chunk.order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Helper method to get the number of chunks needed for some bytes.
+     * 
+     * @param bytes
+     *            the number of bytes.
+     * @return the number of chunks.
+     */
+    private static int numChunks(long bytes)
+    {
+        return (int) ((bytes + CHUNK_MASK) >>> CHUNK_SHIFT);
+    }
+
+    /**
+     * Allocates a zeroed array in direct buffers.
+     * 
+     * @param length
+     *            the number of elements.
+     * @param elementSize
+     *            the size of one element in bytes (1, 4 or 8).
+     * @return the array.
+     */
+    public static OffHeapArray allocate(long length, int elementSize)
+    {
+        long bytes = length * elementSize;
+        ByteBuffer[] chunks = new ByteBuffer[numChunks(bytes)];
+        for (int c = 0; c < chunks.length; c++)
+        {
+            long size = Math.min(bytes - ((long) c << CHUNK_SHIFT),
+                1L << CHUNK_SHIFT);
+            chunks[c] = ByteBuffer.allocateDirect((int) size);
+        }
+        return new OffHeapArray(chunks, length, elementSize);
+    }
+
+    /**
+     * Maps a region of a file as an array. The file grows if it is opened
+     * for writing and is shorter than the region.
+     * 
+     * @param channel
+     *            the file channel.
+     * @param mode
+     *            the mapping mode.
+     * @param offset
+     *            the position of the first element in the file.
+     * @param length
+     *            the number of elements.
+     * @param elementSize
+     *            the size of one element in bytes (1, 4 or 8).
+     * @return the array.
+     * @throws IOException
+     *             if the region cannot be mapped.
+     */
+    public static OffHeapArray map(FileChannel channel,
+        FileChannel.MapMode mode, long offset, long length, int elementSize)
+        throws IOException
+    {
+        long bytes = length * elementSize;
+        ByteBuffer[] chunks = new ByteBuffer[numChunks(bytes)];
+        for (int c = 0; c < chunks.length; c++)
+        {
+            long start = (long) c << CHUNK_SHIFT;
+            long size = Math.min(bytes - start, 1L << CHUNK_SHIFT);
+            chunks[c] = channel.map(mode, offset + start, size);
+        }
+        return new OffHeapArray(chunks, length, elementSize);
+    }
+
+    /**
+     * @return the number of elements.
+     */
+    public long length()
+    {
+        return length;
+    }
+
+    /**
+     * @return the number of bytes used by the elements.
+     */
+    public long bytes()
+    {
+        return length * elementSize;
+    }
+
+    /**
+     * Helper method to find the chunk holding an element.
+     * 
+     * @param i
+     *            the element index.
+     * @return the chunk.
+     */
+    private ByteBuffer chunk(long i)
+    {
+        return chunks[(int) ((i * elementSize) >>> CHUNK_SHIFT)];
+    }
+
+    /**
+     * Helper method to find the position of an element in its chunk.
+     * 
+     * @param i
+     *            the element index.
+     * @return the byte offset in the chunk.
+     */
+    private int offset(long i)
+    {
+        return (int) ((i * elementSize) & CHUNK_MASK);
+    }
+
+    /**
+     * @param i
+     *            the element index.
+     * @return the byte element.
+     */
+    public byte getByte(long i)
+    {
+        return chunk(i).get(offset(i));
+    }
+
+    /**
+     * @param i
+     *            the element index.
+     * @param value
+     *            the new byte element.
+     */
+    public void putByte(long i, byte value)
+    {
+        chunk(i).put(offset(i), value);
+    }
+
+    /**
+     * @param i
+     *            the element index.
+     * @return the int element.
+     */
+    public int getInt(long i)
+    {
+        return chunk(i).getInt(offset(i));
+    }
+
+    /**
+     * @param i
+     *            the element index.
+     * @param value
+     *            the new int element.
+     */
+    public void putInt(long i, int value)
+    {
+        chunk(i).putInt(offset(i), value);
+    }
+
+    /**
+     * @param i
+     *            the element index.
+     * @return the float element.
+     */
+    public float getFloat(long i)
+    {
+        return chunk(i).getFloat(offset(i));
+    }
+
+    /**
+     * @param i
+     *            the element index.
+     * @param value
+     *            the new float element.
+     */
+    public void putFloat(long i, float value)
+    {
+        chunk(i).putFloat(offset(i), value);
+    }
+
+    /**
+     * @param i
+     *            the element index.
+     * @return the double element.
+     */
+    public double getDouble(long i)
+    {
+        return chunk(i).getDouble(offset(i));
+    }
+
+    /**
+     * @param i
+     *            the element index.
+     * @param value
+     *            the new double element.
+     */
+    public void putDouble(long i, double value)
+    {
+        chunk(i).putDouble(offset(i), value);
+    }
+
+    /**
+     * @param i
+     *            the element index.
+     * @return the long element.
+     */
+    public long getLong(long i)
+    {
+        return chunk(i).getLong(offset(i));
+    }
+
+    /**
+     * @param i
+     *            the element index.
+     * @param value
+     *            the new long element.
+     */
+    public void putLong(long i, long value)
+    {
+        chunk(i).putLong(offset(i), value);
+    }
+}
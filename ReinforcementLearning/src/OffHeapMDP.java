@@ -0,0 +1,890 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A TransitionModel whose rewards, terminal flags and transitions live outside
+ * the Java heap, optionally in a memory-mapped file. Every (state, action)
+ * pair has a fixed number of successor slots; unused slots hold -1. When the
+ * model knows its number of grid columns, state names are computed from the
+ * grid position. Otherwise the names are stored off the heap as well, in
+ * UTF-8 with an open-addressing table that finds a state by name, so a model
+ * opened from a file names its states like the MDP it was built from. A name
+ * only becomes a String when it is asked for.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class OffHeapMDP extends TransitionModel
+{
+    private static final int MAGIC = 0x4D445030;
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 4096;
+    private static final byte TERMINAL = 1;
+    private final int numStates;
+    private final int numActions;
+    private final int slots;
+    private final String[] actionNames;
+    private final double gamma;
+    private final int start;
+    private final int numCols;
+    private final Precision precision;
+    private final OffHeapArray rewards;
+    private final OffHeapArray flags;
+    private final OffHeapArray next;
+    private final OffHeapArray prob;
+    // the UTF-8 bytes of state s at nameStart[s] to nameStart[s + 1], and
+    // state index + 1 by name hash (0 if empty), or null for grid names.
+    private final OffHeapArray nameStart;
+    private final OffHeapArray nameData;
+    private final OffHeapArray nameTable;
+
+    /**
+     * Constructor takes the off-heap arrays.
+     * 
+     * @param header
+     *            the header holding the sizes and parameters.
+     * @param rewards
+     *            the rewards.
+     * @param flags
+     *            the state flags.
+     * @param next
+     *            the successor slots.
+     * @param prob
+     *            the probability slots.
+     * @param names
+     *            the name offsets, bytes and table, or null.
+     */
+    private OffHeapMDP(Header header, OffHeapArray rewards,
+        OffHeapArray flags, OffHeapArray next, OffHeapArray prob,
+        OffHeapArray[] names)
+    {
+        numStates = header.numStates;
+        numActions = header.actionNames.length;
+        slots = header.slots;
+        actionNames = header.actionNames;
+        gamma = header.gamma;
+        start = header.start;
+        numCols = header.numCols;
+        precision = header.precision;
+        this.rewards = rewards;
+        this.flags = flags;
+        this.next = next;
+        this.prob = prob;
+        nameStart = (names == null) ? null : names[0];
+        nameData = (names == null) ? null : names[1];
+        nameTable = (names == null) ? null : names[2];
+    }
+
+    /**
+     * Copies any model off the heap.
+     * 
+     * @param m
+     *            the model.
+     * @param precision
+     *            the precision used to store the probabilities.
+     * @param numCols
+     *            the number of grid columns, used to name states by
+     *            position (state index = row * numCols + col), or 0 to
+     *            store the names of m.
+     * @param file
+     *            the file to map the model into, or null for direct memory.
+     * @return the off-heap model.
+     * @throws IOException
+     *             if the file cannot be written.
+     */
+    public static OffHeapMDP fromModel(TransitionModel m, Precision precision,
+        int numCols, Path file) throws IOException
+    {
+        String[] names = new String[m.numActions()];
+        for (int a = 0; a < names.length; a++)
+        {
+            names[a] = m.actionName(a);
+        }
+        long nameBytes = 0;
+        for (int s = 0; numCols == 0 && s < m.numStates(); s++)
+        {
+            nameBytes += utf8(m.stateName(s)).length;
+        }
+        Builder builder = new Builder(m.numStates(), names,
+            m.maxSuccessors(), m.gamma(), m.start(), precision, numCols,
+            nameBytes, file);
+        int[] succ = new int[m.maxSuccessors()];
+        double[] p = new double[m.maxSuccessors()];
+        for (int s = 0; s < m.numStates(); s++)
+        {
+            builder.setState(s, m.reward(s), m.isTerminal(s));
+            if (numCols == 0)
+            {
+                builder.setName(s, m.stateName(s));
+            }
+            for (int a = 0; a < names.length; a++)
+            {
+                builder.setTransitions(s, a, succ, p,
+                    m.successors(s, a, succ, p));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Copies an MDP off the heap, starting in its current state, without an
+     * intermediate copy on the heap. The state names are stored.
+     * 
+     * @param mdp
+     *            the MDP.
+     * @param precision
+     *            the precision used to store the probabilities.
+     * @param file
+     *            the file to map the model into, or null for direct memory.
+     * @return the off-heap model.
+     * @throws IOException
+     *             if the file cannot be written.
+     */
+    public static OffHeapMDP fromMDP(MarkovDecisionProcess mdp,
+        Precision precision, Path file) throws IOException
+    {
+        MDPWorld world = mdp.world();
+        int numStates = world.numStates();
+        int numActions = world.numActions();
+        String[] names = new String[numActions];
+        int slots = 0;
+        for (int a = 0; a < numActions; a++)
+        {
+            names[a] = world.actionName(a);
+            int count = 0;
+            for (int k = 0; k < numActions; k++)
+            {
+                count += (world.uncertainty(a, k) > 0.0) ? 1 : 0;
+            }
+            slots = Math.max(slots, count);
+        }
+        StateRegistry registry = world.registry();
+        long nameBytes = 0;
+        for (int s = 0; s < numStates; s++)
+        {
+            nameBytes += utf8(registry.name(s)).length;
+        }
+        Builder builder = new Builder(numStates, names, slots, world.gamma(),
+            mdp.getCurrentIndex(), precision, 0, nameBytes, file);
+        int[] succ = new int[numActions];
+        double[] p = new double[numActions];
+        for (int s = 0; s < numStates; s++)
+        {
+            builder.setState(s, world.reward(s), world.isTerminal(s));
+            builder.setName(s, registry.name(s));
+            for (int a = 0; a < numActions; a++)
+            {
+                builder.setTransitions(s, a, succ, p,
+                    world.successors(s, a, succ, p));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Helper method to encode a name.
+     * 
+     * @param name
+     *            the name.
+     * @return the UTF-8 bytes.
+     */
+    private static byte[] utf8(String name)
+    {
+        return name.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Helper method to find the first slot of a name in the name table.
+     * 
+     * @param name
+     *            the name.
+     * @param mask
+     *            the length of the table minus 1.
+     * @return the slot.
+     */
+    private static long slot(String name, long mask)
+    {
+        int h = name.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Maps a model previously written to a file by a Builder.
+     * 
+     * @param file
+     *            the file.
+     * @return the off-heap model.
+     * @throws IOException
+     *             if the file cannot be read or is not a model.
+     */
+    public static OffHeapMDP open(Path file) throws IOException
+    {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try
+        {
+            ByteBuffer buffer =
+                channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            Header header = Header.read(buffer);
+            return header.map(channel, FileChannel.MapMode.READ_ONLY);
+        }
+        finally
+        {
+            // the mappings stay valid after the channel is closed.
+            channel.close();
+        }
+    }
+
+    /**
+     * @return the number of grid columns used to name states, or 0.
+     */
+    public int numCols()
+    {
+        return numCols;
+    }
+
+    /**
+     * @return the precision used to store the probabilities.
+     */
+    public Precision precision()
+    {
+        return precision;
+    }
+
+    @Override
+    public int numStates()
+    {
+        return numStates;
+    }
+
+    @Override
+    public int numActions()
+    {
+        return numActions;
+    }
+
+    @Override
+    public double gamma()
+    {
+        return gamma;
+    }
+
+    @Override
+    public double reward(int s)
+    {
+        return rewards.getDouble(s);
+    }
+
+    @Override
+    public boolean isTerminal(int s)
+    {
+        return (flags.getByte(s) & TERMINAL) != 0;
+    }
+
+    @Override
+    public int start()
+    {
+        return start;
+    }
+
+    @Override
+    public String stateName(int s)
+    {
+        if (nameData != null)
+        {
+            long first = nameStart.getLong(s);
+            byte[] bytes = new byte[(int) (nameStart.getLong(s + 1) - first)];
+            for (int i = 0; i < bytes.length; i++)
+            {
+                bytes[i] = nameData.getByte(first + i);
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        if (numCols > 0)
+        {
+            return GridWorld.rowColToName(s / numCols, s % numCols);
+        }
+        return "s" + s;
+    }
+
+    @Override
+    public int indexOf(String name)
+    {
+        if (nameData != null)
+        {
+            byte[] bytes = utf8(name);
+            long mask = nameTable.length() - 1;
+            for (long i = slot(name, mask);; i = (i + 1) & mask)
+            {
+                int s = nameTable.getInt(i) - 1;
+                if (s < 0 || nameEquals(s, bytes))
+                {
+                    return s;
+                }
+            }
+        }
+        if (numCols > 0)
+        {
+            int[] r = new int[1];
+            int[] c = new int[1];
+            if (!StateRegistry.parseCell(name, r, c, 0) || c[0] >= numCols)
+            {
+                return -1;
+            }
+            long s = (long) r[0] * numCols + c[0];
+            return (s < numStates) ? (int) s : -1;
+        }
+        return super.indexOf(name);
+    }
+
+    /**
+     * Helper method to compare a stored name with the bytes of another.
+     * 
+     * @param s
+     *            the state index.
+     * @param bytes
+     *            the UTF-8 bytes of the other name.
+     * @return true if they are equal.
+     */
+    private boolean nameEquals(int s, byte[] bytes)
+    {
+        long first = nameStart.getLong(s);
+        if (nameStart.getLong(s + 1) - first != bytes.length)
+        {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++)
+        {
+            if (nameData.getByte(first + i) != bytes[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String actionName(int a)
+    {
+        return actionNames[a];
+    }
+
+    @Override
+    public int maxSuccessors()
+    {
+        return slots;
+    }
+
+    /**
+     * Helper method to get the probability in a slot.
+     * 
+     * @param e
+     *            the slot index.
+     * @return the probability.
+     */
+    private double probability(long e)
+    {
+        return (precision == Precision.FLOAT) ? prob.getFloat(e)
+            : prob.getDouble(e);
+    }
+
+    @Override
+    public int successors(int s, int a, int[] nextStates, double[] probs)
+    {
+        long base = ((long) s * numActions + a) * slots;
+        int count = 0;
+        for (int k = 0; k < slots; k++)
+        {
+            int s1 = next.getInt(base + k);
+            if (s1 < 0)
+            {
+                break;
+            }
+            nextStates[count] = s1;
+            probs[count] = probability(base + k);
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public double expectedUtility(int s, int a, double[] u)
+    {
+        long base = ((long) s * numActions + a) * slots;
+        double sum = 0.0;
+        for (int k = 0; k < slots; k++)
+        {
+            int s1 = next.getInt(base + k);
+            if (s1 < 0)
+            {
+                break;
+            }
+            sum += probability(base + k) * u[s1];
+        }
+        return sum;
+    }
+
+    @Override
+    public double expectedUtility(int s, int a, float[] u)
+    {
+        long base = ((long) s * numActions + a) * slots;
+        double sum = 0.0;
+        for (int k = 0; k < slots; k++)
+        {
+            int s1 = next.getInt(base + k);
+            if (s1 < 0)
+            {
+                break;
+            }
+            sum += probability(base + k) * u[s1];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns sum over s' of P(s'|s,a) U(s') for off-heap utilities.
+     * 
+     * @param s
+     *            the state index.
+     * @param a
+     *            the action index.
+     * @param u
+     *            the utility of every state, as doubles.
+     * @return the expected utility of the successors.
+     */
+    public double expectedUtility(int s, int a, OffHeapArray u)
+    {
+        long base = ((long) s * numActions + a) * slots;
+        double sum = 0.0;
+        for (int k = 0; k < slots; k++)
+        {
+            int s1 = next.getInt(base + k);
+            if (s1 < 0)
+            {
+                break;
+            }
+            sum += probability(base + k) * u.getDouble(s1);
+        }
+        return sum;
+    }
+
+    /**
+     * Performs one in-place Bellman sweep with off-heap utilities and policy.
+     * 
+     * @param u
+     *            the utilities (doubles), updated in place.
+     * @param policy
+     *            receives the greedy action of every state (bytes, -1 if
+     *            terminal).
+     * @return the maximum change in the utility of any state.
+     */
+    public double sweep(OffHeapArray u, OffHeapArray policy)
+    {
+        double delta = 0.0;
+        for (int s = 0; s < numStates; s++)
+        {
+            double value = reward(s);
+            int best = -1;
+            if (!isTerminal(s))
+            {
+                double max = Double.NEGATIVE_INFINITY;
+                for (int a = 0; a < numActions; a++)
+                {
+                    double eu = expectedUtility(s, a, u);
+                    if (eu > max)
+                    {
+                        max = eu;
+                        best = a;
+                    }
+                }
+                value += gamma * max;
+            }
+            policy.putByte(s, (byte) best);
+            double change = Math.abs(value - u.getDouble(s));
+            if (change > delta)
+            {
+                delta = change;
+            }
+            u.putDouble(s, value);
+        }
+        return delta;
+    }
+
+    /**
+     * Adds the bytes of the model to a report; the states and transitions
+     * are outside the heap.
+     * 
+     * @param report
+     *            the report.
+     */
+    @Override
+    public void addMemory(MemoryReport report)
+    {
+        super.addMemory(report);
+        report.measure(MemoryReport.MODEL, MemoryReport.NAMES,
+            MemoryReport.strings(actionNames));
+        report.measure(MemoryReport.MODEL, MemoryReport.OFF_HEAP,
+            rewards.bytes() + flags.bytes() + next.bytes() + prob.bytes());
+        if (nameData != null)
+        {
+            report.measure(MemoryReport.MODEL, MemoryReport.OFF_HEAP,
+                nameStart.bytes() + nameData.bytes() + nameTable.bytes());
+        }
+    }
+
+    /**
+     * Sizes and parameters stored at the start of a model file.
+     */
+    private static class Header
+    {
+        private int numStates;
+        private String[] actionNames;
+        private int slots;
+        private double gamma;
+        private int start;
+        private int numCols;
+        private long nameBytes;
+        private Precision precision;
+
+        /**
+         * Reads a header.
+         * 
+         * @param buffer
+         *            the buffer holding the header.
+         * @return the header.
+         * @throws IOException
+         *             if the buffer does not hold a model header.
+         */
+        static Header read(ByteBuffer buffer) throws IOException
+        {
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+            {
+                throw new IOException("Not an off-heap MDP file.");
+            }
+            Header h = new Header();
+            h.numStates = buffer.getInt();
+            h.slots = buffer.getInt();
+            h.gamma = buffer.getDouble();
+            h.start = buffer.getInt();
+            h.numCols = buffer.getInt();
+            h.nameBytes = buffer.getLong();
+            h.precision = Precision.values()[buffer.get()];
+            h.actionNames = new String[buffer.getInt()];
+            for (int a = 0; a < h.actionNames.length; a++)
+            {
+                byte[] bytes = new byte[buffer.getShort()];
+                buffer.get(bytes);
+                h.actionNames[a] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return h;
+        }
+
+        /**
+         * Writes this header.
+         * 
+         * @param buffer
+         *            the buffer to write into.
+         */
+        void write(ByteBuffer buffer)
+        {
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(numStates)
+                .putInt(slots).putDouble(gamma).putInt(start).putInt(numCols)
+                .putLong(nameBytes).put((byte) precision.ordinal())
+                .putInt(actionNames.length);
+            for (String name : actionNames)
+            {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                buffer.putShort((short) bytes.length).put(bytes);
+            }
+        }
+
+        /**
+         * @return the number of probability bytes per slot.
+         */
+        int probSize()
+        {
+            return (precision == Precision.FLOAT) ? 4 : 8;
+        }
+
+        /**
+         * @return the number of successor slots.
+         */
+        long numSlots()
+        {
+            return (long) numStates * actionNames.length * slots;
+        }
+
+        /**
+         * @return the length of the name table, a power of 2 at least twice
+         *         the number of states, or 0 if the names are not stored.
+         */
+        long tableSize()
+        {
+            return (nameBytes == 0) ? 0
+                : Integer.highestOneBit(Math.max(2 * numStates - 1, 1)) * 2L;
+        }
+
+        /**
+         * Helper method to round a file position up to a multiple of 8.
+         * 
+         * @param position
+         *            the position.
+         * @return the aligned position.
+         */
+        static long align(long position)
+        {
+            return (position + 7) & ~7L;
+        }
+
+        /**
+         * Maps the arrays that follow this header in a file.
+         * 
+         * @param channel
+         *            the file channel.
+         * @param mode
+         *            the mapping mode.
+         * @return the model.
+         * @throws IOException
+         *             if the arrays cannot be mapped.
+         */
+        OffHeapMDP map(FileChannel channel, FileChannel.MapMode mode)
+            throws IOException
+        {
+            long position = HEADER_BYTES;
+            OffHeapArray r =
+                OffHeapArray.map(channel, mode, position, numStates, 8);
+            position = align(position + r.bytes());
+            OffHeapArray f =
+                OffHeapArray.map(channel, mode, position, numStates, 1);
+            position = align(position + f.bytes());
+            OffHeapArray n =
+                OffHeapArray.map(channel, mode, position, numSlots(), 4);
+            position = align(position + n.bytes());
+            OffHeapArray p = OffHeapArray.map(channel, mode, position,
+                numSlots(), probSize());
+            OffHeapArray[] names = null;
+            if (nameBytes > 0)
+            {
+                position = align(position + p.bytes());
+                names = new OffHeapArray[3];
+                names[0] = OffHeapArray.map(channel, mode, position,
+                    numStates + 1L, 8);
+                position = align(position + names[0].bytes());
+                names[1] = OffHeapArray.map(channel, mode, position,
+                    nameBytes, 1);
+                position = align(position + names[1].bytes());
+                names[2] = OffHeapArray.map(channel, mode, position,
+                    tableSize(), 4);
+            }
+            return new OffHeapMDP(this, r, f, n, p, names);
+        }
+
+        /**
+         * Allocates the arrays in direct memory.
+         * 
+         * @return the model.
+         */
+        OffHeapMDP allocate()
+        {
+            OffHeapArray[] names = null;
+            if (nameBytes > 0)
+            {
+                names = new OffHeapArray[] {
+                    OffHeapArray.allocate(numStates + 1L, 8),
+                    OffHeapArray.allocate(nameBytes, 1),
+                    OffHeapArray.allocate(tableSize(), 4)
+                };
+            }
+            return new OffHeapMDP(this,
+                OffHeapArray.allocate(numStates, 8),
+                OffHeapArray.allocate(numStates, 1),
+                OffHeapArray.allocate(numSlots(), 4),
+                OffHeapArray.allocate(numSlots(), probSize()), names);
+        }
+    }
+
+    /**
+     * Fills an off-heap model one state at a time, so that a model larger
+     * than the heap can be built without an intermediate copy.
+     */
+    public static class Builder
+    {
+        private final OffHeapMDP model;
+        private int namesSet;
+        private long nameEnd;
+
+        /**
+         * Constructor allocates the model.
+         * 
+         * @param numStates
+         *            the number of states.
+         * @param actionNames
+         *            the action names.
+         * @param slots
+         *            the maximum number of successors of any (state, action).
+         * @param gamma
+         *            the discount rate.
+         * @param start
+         *            the index of the start state.
+         * @param precision
+         *            the precision used to store the probabilities.
+         * @param numCols
+         *            the number of grid columns used to name states, or 0.
+         * @param nameBytes
+         *            the total UTF-8 bytes of the state names to be set with
+         *            setName(), or 0 if the names are not stored.
+         * @param file
+         *            the file to map the model into, or null for direct
+         *            memory.
+         * @throws IOException
+         *             if the file cannot be written.
+         */
+        public Builder(int numStates, String[] actionNames, int slots,
+            double gamma, int start, Precision precision, int numCols,
+            long nameBytes, Path file) throws IOException
+        {
+            Header header = new Header();
+            header.numStates = numStates;
+            header.actionNames = actionNames.clone();
+            header.slots = slots;
+            header.gamma = gamma;
+            header.start = start;
+            header.numCols = numCols;
+            header.nameBytes = nameBytes;
+            header.precision = precision;
+            if (file == null)
+            {
+                model = header.allocate();
+            }
+            else
+            {
+                FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+                try
+                {
+                    header.write(channel.map(FileChannel.MapMode.READ_WRITE,
+                        0, HEADER_BYTES));
+                    model = header.map(channel, FileChannel.MapMode.READ_WRITE);
+                }
+                finally
+                {
+                    channel.close();
+                }
+            }
+        }
+
+        /**
+         * Sets the reward and terminal flag of a state.
+         * 
+         * @param s
+         *            the state index.
+         * @param reward
+         *            the reward.
+         * @param terminal
+         *            true if the state is terminal.
+         */
+        public void setState(int s, double reward, boolean terminal)
+        {
+            model.rewards.putDouble(s, reward);
+            model.flags.putByte(s, terminal ? TERMINAL : 0);
+        }
+
+        /**
+         * Stores the name of a state. The names must be set in order of the
+         * state index, and must add up to the bytes given to the
+         * constructor.
+         * 
+         * @param s
+         *            the state index.
+         * @param name
+         *            the name.
+         */
+        public void setName(int s, String name)
+        {
+            byte[] bytes = utf8(name);
+            if (model.nameData == null || s != namesSet
+                || nameEnd + bytes.length > model.nameData.length())
+            {
+                throw new IllegalArgumentException("Cannot store name "
+                    + name + " for state " + s + ".");
+            }
+            model.nameStart.putLong(s, nameEnd);
+            for (int i = 0; i < bytes.length; i++)
+            {
+                model.nameData.putByte(nameEnd + i, bytes[i]);
+            }
+            nameEnd += bytes.length;
+            model.nameStart.putLong(s + 1, nameEnd);
+            long mask = model.nameTable.length() - 1;
+            long i = slot(name, mask);
+            while (model.nameTable.getInt(i) != 0)
+            {
+                i = (i + 1) & mask;
+            }
+            model.nameTable.putInt(i, s + 1);
+            namesSet++;
+        }
+
+        /**
+         * Sets the successors of (s, a).
+         * 
+         * @param s
+         *            the state index.
+         * @param a
+         *            the action index.
+         * @param nextStates
+         *            the successor state indices.
+         * @param probs
+         *            the transition probabilities.
+         * @param count
+         *            the number of successors, at most the number of slots.
+         */
+        public void setTransitions(int s, int a, int[] nextStates,
+            double[] probs, int count)
+        {
+            if (count > model.slots)
+            {
+                throw new IllegalArgumentException("State " + s + " has "
+                    + count + " successors but the model only has "
+                    + model.slots + " slots.");
+            }
+            long base = ((long) s * model.numActions + a) * model.slots;
+            for (int k = 0; k < model.slots; k++)
+            {
+                model.next.putInt(base + k, (k < count) ? nextStates[k] : -1);
+                if (model.precision == Precision.FLOAT)
+                {
+                    model.prob.putFloat(base + k,
+                        (k < count) ? (float) probs[k] : 0.0f);
+                }
+                else
+                {
+                    model.prob.putDouble(base + k,
+                        (k < count) ? probs[k] : 0.0);
+                }
+            }
+        }
+
+        /**
+         * @return the finished model.
+         */
+        public OffHeapMDP build()
+        {
+            if (model.nameData != null && namesSet < model.numStates)
+            {
+                throw new IllegalStateException("Only " + namesSet + " of "
+                    + model.numStates + " names were set.");
+            }
+            return model;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Scanner;
+
+import org.junit.Test;
+
+/**
+ * A test class for the OffHeapMDP and OffHeapValueIterationPlayer.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class OffHeapMDPTest
+{
+    /**
+     * The off-heap player finds the same policy as the ValueIterationPlayer.
+     */
+    @Test
+    public void testPolicy()
+    {
+        ArrayValueIterationPlayerTest.checkSolution(new String[] {
+            "E", "E", "E", "N", "W", "E", "N", "W", "S"
+        }, TestWorlds.TUNNEL_A2_G10_R1,
+            new OffHeapValueIterationPlayer("offheap"));
+    }
+
+    /**
+     * A model and buffers mapped from files give the same utilities as the
+     * heap solver.
+     * 
+     * @throws Exception
+     *             if the files cannot be used.
+     */
+    @Test
+    public void testMappedFile() throws Exception
+    {
+        MarkovDecisionProcess mdp = new MarkovDecisionProcess(
+            new Scanner(TestWorlds.WORLD0));
+        CompactMDP compact = CompactMDP.fromMDP(mdp, Precision.DOUBLE);
+        File modelFile = File.createTempFile("model", ".mdp");
+        File bufferFile = File.createTempFile("buffers", ".bin");
+        modelFile.deleteOnExit();
+        bufferFile.deleteOnExit();
+        Path path = modelFile.toPath();
+        OffHeapMDP.fromModel(compact, Precision.DOUBLE, 0, path);
+        OffHeapMDP mapped = OffHeapMDP.open(path);
+        assertEquals(compact.numStates(), mapped.numStates());
+        assertEquals(compact.start(), mapped.start());
+
+        ArrayValueIterationPlayer heap = new ArrayValueIterationPlayer("heap");
+        heap.solve(compact);
+        OffHeapValueIterationPlayer offHeap =
+            new OffHeapValueIterationPlayer("offheap", bufferFile.toPath());
+        offHeap.solve(mapped);
+        for (int s = 0; s < compact.numStates(); s++)
+        {
+            assertEquals(heap.utility(s), offHeap.utility(s), 1e-9);
+            assertEquals(heap.action(s), offHeap.action(s));
+        }
+    }
+
+    /**
+     * A model opened from a file keeps the state names of the MDP, so the
+     * player can find the current state without the MDP's model.
+     * 
+     * @throws Exception
+     *             if the file cannot be used.
+     */
+    @Test
+    public void testNamesInFile() throws Exception
+    {
+        MarkovDecisionProcess mdp = new MarkovDecisionProcess(
+            new Scanner(TestWorlds.TUNNEL_A2_G10_R1));
+        File modelFile = File.createTempFile("model", ".mdp");
+        modelFile.deleteOnExit();
+        OffHeapMDP.fromMDP(mdp, Precision.DOUBLE, modelFile.toPath());
+        OffHeapMDP mapped = OffHeapMDP.open(modelFile.toPath());
+        StateRegistry registry = mdp.registry();
+        for (int s = 0; s < mapped.numStates(); s++)
+        {
+            assertEquals(registry.name(s), mapped.stateName(s));
+            assertEquals(s, mapped.indexOf(registry.name(s)));
+        }
+        assertEquals(-1, mapped.indexOf("zz99"));
+        OffHeapValueIterationPlayer offHeap =
+            new OffHeapValueIterationPlayer("offheap");
+        offHeap.solve(mapped);
+        ArrayValueIterationPlayer heap = new ArrayValueIterationPlayer("heap");
+        assertEquals(heap.play((MarkovDecisionProcess) mdp.clone()),
+            offHeap.play((MarkovDecisionProcess) mdp.clone()));
+    }
+}
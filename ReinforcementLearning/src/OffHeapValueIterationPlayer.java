@@ -0,0 +1,166 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An agent that uses value iteration on an OffHeapMDP, keeping its utility
+ * and policy buffers outside the Java heap as well. Together with a
+ * file-backed model this solves worlds far larger than the heap.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class OffHeapValueIterationPlayer extends ArrayPlayer
+{
+    private static final double EPS = 1e-3;
+    private static final int MAX_SWEEPS = 100000;
+    private final Path bufferFile;
+    private OffHeapArray u;
+    private OffHeapArray pi;
+    private int sweeps;
+    private double residual;
+
+    /**
+     * Constructor takes the name and keeps the buffers in direct memory.
+     * 
+     * @param name
+     *            the name of the player.
+     */
+    public OffHeapValueIterationPlayer(String name)
+    {
+        this(name, null);
+    }
+
+    /**
+     * Constructor takes the name and a file to map the buffers into.
+     * 
+     * @param name
+     *            the name of the player.
+     * @param bufferFile
+     *            the file for the utility and policy buffers, or null for
+     *            direct memory.
+     */
+    public OffHeapValueIterationPlayer(String name, Path bufferFile)
+    {
+        super(name);
+        this.bufferFile = bufferFile;
+    }
+
+    @Override
+    protected TransitionModel compile(MarkovDecisionProcess mdp)
+    {
+        try
+        {
+            return OffHeapMDP.fromMDP(mdp, Precision.DOUBLE, null);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    protected void solveModel(TransitionModel m)
+    {
+        OffHeapMDP offHeap;
+        try
+        {
+            offHeap = (m instanceof OffHeapMDP) ? (OffHeapMDP) m
+                : OffHeapMDP.fromModel(m, Precision.DOUBLE, 0, null);
+            allocateBuffers(m.numStates());
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        model = offHeap;
+        double terminationCoefficient = EPS * ((1 - m.gamma()) / m.gamma());
+        sweeps = 0;
+        do
+        {
+            residual = offHeap.sweep(u, pi);
+            sweeps++;
+        } while (residual > terminationCoefficient && sweeps < MAX_SWEEPS);
+    }
+
+    /**
+     * Helper method to create the zeroed utility and policy buffers.
+     * 
+     * @param numStates
+     *            the number of states.
+     * @throws IOException
+     *             if the buffer file cannot be mapped.
+     */
+    private void allocateBuffers(int numStates) throws IOException
+    {
+        if (bufferFile == null)
+        {
+            u = OffHeapArray.allocate(numStates, 8);
+            pi = OffHeapArray.allocate(numStates, 1);
+            return;
+        }
+        FileChannel channel = FileChannel.open(bufferFile,
+            StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try
+        {
+            u = OffHeapArray.map(channel, FileChannel.MapMode.READ_WRITE, 0,
+                numStates, 8);
+            pi = OffHeapArray.map(channel, FileChannel.MapMode.READ_WRITE,
+                u.bytes(), numStates, 1);
+        }
+        finally
+        {
+            channel.close();
+        }
+    }
+
+    @Override
+    public double utility(int s)
+    {
+        return u.getDouble(s);
+    }
+
+    @Override
+    public int action(int s)
+    {
+        return pi.getByte(s);
+    }
+
+    /**
+     * @return the number of sweeps used by the last solve.
+     */
+    public int getSweeps()
+    {
+        return sweeps;
+    }
+
+    /**
+     * @return the maximum utility change in the final sweep of the last solve.
+     */
+    public double getResidual()
+    {
+        return residual;
+    }
+
+    /**
+     * Adds the bytes of the player to a report; the utilities and policy
+     * are outside the heap.
+     * 
+     * @param report
+     *            the report.
+     */
+    @Override
+    public void addMemory(MemoryReport report)
+    {
+        super.addMemory(report);
+        if (u != null)
+        {
+            report.measure(MemoryReport.PLAYER, MemoryReport.OFF_HEAP,
+                u.bytes() + pi.bytes());
+        }
+    }
+}
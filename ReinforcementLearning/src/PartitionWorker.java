@@ -0,0 +1,404 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.TreeSet;
+
+/**
+ * One worker of DistributedValueIterationPlayer. The worker owns a band of
+ * rows of a StencilGridModel and holds only the cells of its band and of the
+ * rows on either side, the tunnel list and the solution of its band, so its
+ * memory grows with the band and not with the world. It keeps utilities for
+ * the cells of its band and for the few cells outside it that its cells can
+ * reach (the rows next to the band and the exits of tunnels). Each round it
+ * receives those ghost utilities from the coordinator, sweeps its band in
+ * place, and sends back its largest change and the utilities of the cells
+ * other workers need.
+ * 
+ * The protocol on the socket is, in order: the coordinator sends the band
+ * written by StencilGridModel.writeBand(); the worker sends the cells it
+ * imports; the coordinator sends the cells it must export; then any number
+ * of SWEEP and QUERY commands. The worker keeps its solution until FINISH or
+ * until the coordinator closes the connection, and answers each QUERY with
+ * the utility and action of the cells asked for.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class PartitionWorker
+{
+    /**
+     * The coordinator asks for another sweep.
+     */
+    public static final int SWEEP = 1;
+    /**
+     * The coordinator is done with the band.
+     */
+    public static final int FINISH = 2;
+    /**
+     * The coordinator asks for the utilities and actions of some cells.
+     */
+    public static final int QUERY = 3;
+    private static final int[] DR = {
+        -1, 0, 1, 0
+    };
+    private static final int[] DC = {
+        0, 1, 0, -1
+    };
+    private final int numRows;
+    private final int numCols;
+    private final int base;
+    private final int end;
+    // the first cell of the row above the band, where cells starts.
+    private final int haloBase;
+    private final byte[] cells;
+    // the index in the tunnel list of each cell of cells, or -1.
+    private final int[] tunnelIndex;
+    // the cell reached by entering each tunnel in each direction, or -1.
+    private final int[] tunnelExits;
+    private final double[] directionUncertainty = new double[4];
+    private final double[] typeReward =
+        new double[StencilGridModel.GOAL + 1];
+    private final double gamma;
+    private final double[] u;
+    private final byte[] policy;
+    private final int[] imports;
+    private final double[] ghost;
+    private int[] exports;
+
+    /**
+     * Constructor reads the band from the coordinator.
+     * 
+     * @param in
+     *            the input, positioned at a band written by
+     *            StencilGridModel.writeBand().
+     * @throws IOException
+     *             if the input cannot be read.
+     */
+    public PartitionWorker(DataInput in) throws IOException
+    {
+        numRows = in.readInt();
+        numCols = in.readInt();
+        int firstRow = in.readInt();
+        int lastRow = in.readInt();
+        int haloFirst = Math.max(0, firstRow - 1);
+        int haloLast = Math.min(numRows, lastRow + 1);
+        base = firstRow * numCols;
+        end = lastRow * numCols;
+        haloBase = haloFirst * numCols;
+        cells = new byte[(haloLast - haloFirst) * numCols];
+        in.readFully(cells);
+        int[] tunnels = new int[in.readInt()];
+        tunnelExits = new int[4 * tunnels.length];
+        tunnelIndex = new int[cells.length];
+        Arrays.fill(tunnelIndex, -1);
+        for (int i = 0; i < tunnels.length; i++)
+        {
+            tunnels[i] = in.readInt();
+            for (int k = 0; k < 4; k++)
+            {
+                tunnelExits[4 * i + k] = in.readInt();
+            }
+            int local = tunnels[i] - haloBase;
+            if (local >= 0 && local < cells.length)
+            {
+                tunnelIndex[local] = i;
+            }
+        }
+        for (int o = 0; o < 4; o++)
+        {
+            directionUncertainty[o] = in.readDouble();
+        }
+        for (int type = 0; type < typeReward.length; type++)
+        {
+            typeReward[type] = in.readDouble();
+        }
+        gamma = in.readDouble();
+        u = new double[end - base];
+        policy = new byte[end - base];
+        imports = findImports();
+        ghost = new double[imports.length];
+    }
+
+    /**
+     * @param s
+     *            a cell of the band or of the rows next to it.
+     * @return the type of the cell.
+     */
+    private byte cellType(int s)
+    {
+        return cells[s - haloBase];
+    }
+
+    /**
+     * Helper method to get the cell reached by moving from a cell of the
+     * band, with the same rules as StencilGridModel.target().
+     * 
+     * @param s
+     *            the cell index.
+     * @param k
+     *            the direction index (N, E, S, W).
+     * @return the cell reached.
+     */
+    private int target(int s, int k)
+    {
+        int row = s / numCols + DR[k];
+        int col = s % numCols + DC[k];
+        if (row < 0 || row >= numRows || col < 0 || col >= numCols)
+        {
+            return s;
+        }
+        int adj = row * numCols + col;
+        byte type = cellType(adj);
+        if (type == StencilGridModel.ROCK)
+        {
+            return s;
+        }
+        if (type == StencilGridModel.TUNNEL)
+        {
+            int out = tunnelExits[4 * tunnelIndex[adj - haloBase] + k];
+            return (out < 0) ? s : out;
+        }
+        return adj;
+    }
+
+    /**
+     * Helper method to get the four targets of a cell of the band.
+     * 
+     * @param s
+     *            the cell index.
+     * @param t
+     *            receives the cell reached in each direction.
+     */
+    private void targets(int s, int[] t)
+    {
+        for (int k = 0; k < 4; k++)
+        {
+            t[k] = target(s, k);
+        }
+    }
+
+    /**
+     * Helper method to find the cells outside the band that are reached
+     * from an open cell of the band.
+     * 
+     * @return the cells in increasing order.
+     */
+    private int[] findImports()
+    {
+        TreeSet<Integer> found = new TreeSet<Integer>();
+        int[] t = new int[4];
+        for (int s = base; s < end; s++)
+        {
+            if (cellType(s) != StencilGridModel.OPEN)
+            {
+                continue;
+            }
+            targets(s, t);
+            for (int k = 0; k < 4; k++)
+            {
+                if (t[k] < base || t[k] >= end)
+                {
+                    found.add(t[k]);
+                }
+            }
+        }
+        int[] cells = new int[found.size()];
+        int i = 0;
+        for (int cell : found)
+        {
+            cells[i++] = cell;
+        }
+        return cells;
+    }
+
+    /**
+     * @return the cells outside the band whose utilities this worker needs.
+     */
+    public int[] getImports()
+    {
+        return imports.clone();
+    }
+
+    /**
+     * Helper method to look up the utility of any cell the band can reach.
+     * 
+     * @param s
+     *            the cell index.
+     * @return the utility.
+     */
+    private double value(int s)
+    {
+        if (s >= base && s < end)
+        {
+            return u[s - base];
+        }
+        return ghost[Arrays.binarySearch(imports, s)];
+    }
+
+    /**
+     * Performs one in-place Bellman sweep over the band with the current
+     * ghost utilities, recording the greedy action of every cell (-1 if
+     * terminal).
+     * 
+     * @return the maximum change in the utility of any cell of the band.
+     */
+    public double sweep()
+    {
+        final double p0 = directionUncertainty[0];
+        final double p1 = directionUncertainty[1];
+        final double p2 = directionUncertainty[2];
+        final double p3 = directionUncertainty[3];
+        int[] t = new int[4];
+        double delta = 0.0;
+        for (int s = base; s < end; s++)
+        {
+            byte type = cellType(s);
+            double value = typeReward[type];
+            int best = -1;
+            if (type == StencilGridModel.OPEN)
+            {
+                targets(s, t);
+                double n = value(t[0]);
+                double e = value(t[1]);
+                double so = value(t[2]);
+                double w = value(t[3]);
+                double max = p0 * n + p1 * e + p2 * so + p3 * w;
+                best = 0;
+                double q = p0 * e + p1 * so + p2 * w + p3 * n;
+                if (q > max)
+                {
+                    max = q;
+                    best = 1;
+                }
+                q = p0 * so + p1 * w + p2 * n + p3 * e;
+                if (q > max)
+                {
+                    max = q;
+                    best = 2;
+                }
+                q = p0 * w + p1 * n + p2 * e + p3 * so;
+                if (q > max)
+                {
+                    max = q;
+                    best = 3;
+                }
+                value += gamma * max;
+            }
+            policy[s - base] = (byte) best;
+            double change = Math.abs(value - u[s - base]);
+            if (change > delta)
+            {
+                delta = change;
+            }
+            u[s - base] = value;
+        }
+        return delta;
+    }
+
+    /**
+     * Serves one coordinator until it finishes or closes the connection.
+     * 
+     * @param in
+     *            the input from the coordinator, positioned after the band.
+     * @param out
+     *            the output to the coordinator.
+     * @throws IOException
+     *             if the connection fails.
+     */
+    private void serve(DataInputStream in, DataOutputStream out)
+        throws IOException
+    {
+        out.writeInt(imports.length);
+        for (int cell : imports)
+        {
+            out.writeInt(cell);
+        }
+        out.flush();
+        exports = new int[in.readInt()];
+        for (int i = 0; i < exports.length; i++)
+        {
+            exports[i] = in.readInt();
+        }
+        while (true)
+        {
+            int command;
+            try
+            {
+                command = in.readInt();
+            }
+            catch (EOFException e)
+            {
+                return;
+            }
+            if (command == SWEEP)
+            {
+                for (int i = 0; i < ghost.length; i++)
+                {
+                    ghost[i] = in.readDouble();
+                }
+                out.writeDouble(sweep());
+                for (int cell : exports)
+                {
+                    out.writeDouble(u[cell - base]);
+                }
+            }
+            else if (command == QUERY)
+            {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++)
+                {
+                    int s = in.readInt();
+                    if (s < base || s >= end)
+                    {
+                        throw new IOException("Cell " + s
+                            + " is not in the band.");
+                    }
+                    out.writeDouble(u[s - base]);
+                    out.writeByte(policy[s - base]);
+                }
+            }
+            else if (command == FINISH)
+            {
+                return;
+            }
+            else
+            {
+                throw new IOException("Unknown command " + command);
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Connects to a coordinator and solves the band it assigns.
+     * 
+     * @param args
+     *            the host and port of the coordinator.
+     * @throws IOException
+     *             if the connection fails.
+     */
+    public static void main(String[] args) throws IOException
+    {
+        Socket socket = new Socket(args[0], Integer.parseInt(args[1]));
+        try
+        {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(
+                new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(socket.getOutputStream()));
+            new PartitionWorker(in).serve(in, out);
+        }
+        finally
+        {
+            socket.close();
+        }
+    }
+}
@@ -55,4 +55,27 @@ public abstract class Player
      */
     public abstract String play(MarkovDecisionProcess mdp);
 
+    /**
+     * Adds the bytes of the player to a report. The base class counts the
+     * HashMaps of getU() and getPi(), whose utilities are boxed; subclasses
+     * add their own arrays.
+     * 
+     * @param report
+     *            the report.
+     */
+    public void addMemory(MemoryReport report)
+    {
+        if (utility != null)
+        {
+            report.measure(MemoryReport.PLAYER, MemoryReport.UTILITIES,
+                MemoryReport.hashMap(utility.size(),
+                    MemoryReport.capacity(utility.size()), MemoryReport.BOX));
+        }
+        if (policy != null)
+        {
+            report.measure(MemoryReport.PLAYER, MemoryReport.POLICIES,
+                MemoryReport.hashMap(policy.size(),
+                    MemoryReport.capacity(policy.size()), 0));
+        }
+    }
 }
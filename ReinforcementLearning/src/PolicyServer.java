@@ -0,0 +1,499 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serves a PolicyService to other processes on this machine over a binary
+ * TCP protocol on the loopback address, one thread per connection.
+ * 
+ * Each request starts with an int operation. QUERY is followed by the world
+ * id and a batch of states, each an int index or -1 and a name; the reply is
+ * the batch size (or -1 and a message if the world is unknown or the batch
+ * is larger than MAX_BATCH) and then an int action and a double utility per
+ * state. ACTIONS is followed by the world id and is answered with the number
+ * of actions and their names. METRICS is answered with the number of
+ * queries, the 50th and 99th percentile batch latencies in nanoseconds, and
+ * the queries per second. A connection serves requests until the client
+ * closes it.
+ * 
+ * serve() speaks the protocol on any pair of streams, so the server can be
+ * tested without a network.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class PolicyServer implements Closeable
+{
+    /**
+     * The client asks for the actions and utilities of a batch of states.
+     */
+    public static final int QUERY = 1;
+    /**
+     * The client asks for the action names of a world.
+     */
+    public static final int ACTIONS = 2;
+    /**
+     * The client asks for the metrics of the service.
+     */
+    public static final int METRICS = 3;
+    /**
+     * The largest batch of states one QUERY may ask for, so that a client
+     * cannot make the server allocate without bound.
+     */
+    public static final int MAX_BATCH = 1 << 16;
+    private static final int BACKLOG = 50;
+    private final PolicyService service;
+    private final List<Socket> connections = new ArrayList<Socket>();
+    private ServerSocket server;
+
+    /**
+     * Constructor takes the service to serve.
+     * 
+     * @param service
+     *            the service.
+     */
+    public PolicyServer(PolicyService service)
+    {
+        this.service = service;
+    }
+
+    /**
+     * Starts accepting connections on a background thread.
+     * 
+     * @param port
+     *            the port on the loopback address, or 0 for any free port.
+     * @return the port.
+     */
+    public int start(int port)
+    {
+        try
+        {
+            server = new ServerSocket(port, BACKLOG,
+                InetAddress.getLoopbackAddress());
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        Thread acceptor = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                accept();
+            }
+        }, "PolicyServer-" + server.getLocalPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return server.getLocalPort();
+    }
+
+    /**
+     * Helper method to accept connections until the server is closed.
+     */
+    private void accept()
+    {
+        while (!server.isClosed())
+        {
+            final Socket socket;
+            try
+            {
+                socket = server.accept();
+                socket.setTcpNoDelay(true);
+            }
+            catch (IOException e)
+            {
+                // closed.
+                return;
+            }
+            synchronized (connections)
+            {
+                connections.add(socket);
+            }
+            Thread handler = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    handle(socket);
+                }
+            }, "PolicyServer-" + socket.getPort());
+            handler.setDaemon(true);
+            handler.start();
+        }
+    }
+
+    /**
+     * Helper method to serve one connection and close it.
+     * 
+     * @param socket
+     *            the connection.
+     */
+    private void handle(Socket socket)
+    {
+        try
+        {
+            serve(new DataInputStream(
+                new BufferedInputStream(socket.getInputStream())),
+                new DataOutputStream(
+                    new BufferedOutputStream(socket.getOutputStream())));
+        }
+        catch (IOException e)
+        {
+            // the client went away.
+        }
+        finally
+        {
+            synchronized (connections)
+            {
+                connections.remove(socket);
+            }
+            try
+            {
+                socket.close();
+            }
+            catch (IOException e)
+            {
+                // nothing more to do.
+            }
+        }
+    }
+
+    /**
+     * Answers requests until the input ends.
+     * 
+     * @param in
+     *            the requests.
+     * @param out
+     *            receives the replies, flushed after each one.
+     * @throws IOException
+     *             if the streams fail or a request is malformed.
+     */
+    public void serve(DataInputStream in, DataOutputStream out)
+        throws IOException
+    {
+        int[] states = new int[0];
+        int[] actions = new int[0];
+        double[] utilities = new double[0];
+        while (true)
+        {
+            int op;
+            try
+            {
+                op = in.readInt();
+            }
+            catch (EOFException e)
+            {
+                return;
+            }
+            if (op == QUERY)
+            {
+                String worldId = in.readUTF();
+                int count = in.readInt();
+                if (count < 0)
+                {
+                    throw new IOException("Bad batch size: " + count);
+                }
+                if (count > MAX_BATCH)
+                {
+                    skipBatch(in, count);
+                    out.writeInt(-1);
+                    out.writeUTF("Batch of " + count + " states is larger than "
+                        + MAX_BATCH + ".");
+                    out.flush();
+                    continue;
+                }
+                if (states.length < count)
+                {
+                    states = new int[count];
+                    actions = new int[count];
+                    utilities = new double[count];
+                }
+                // read the whole batch before answering any of it.
+                String[] names = null;
+                for (int i = 0; i < count; i++)
+                {
+                    states[i] = in.readInt();
+                    if (states[i] < 0)
+                    {
+                        if (names == null)
+                        {
+                            names = new String[count];
+                        }
+                        names[i] = in.readUTF();
+                    }
+                }
+                try
+                {
+                    service.query(worldId, states, names, count, actions,
+                        utilities);
+                }
+                catch (IllegalArgumentException e)
+                {
+                    // the world is unknown or was just removed.
+                    out.writeInt(-1);
+                    out.writeUTF(e.getMessage());
+                    out.flush();
+                    continue;
+                }
+                out.writeInt(count);
+                for (int i = 0; i < count; i++)
+                {
+                    out.writeInt(actions[i]);
+                    out.writeDouble(utilities[i]);
+                }
+            }
+            else if (op == ACTIONS)
+            {
+                String[] names;
+                try
+                {
+                    names = service.actionNames(in.readUTF());
+                }
+                catch (IllegalArgumentException e)
+                {
+                    out.writeInt(-1);
+                    out.writeUTF(e.getMessage());
+                    out.flush();
+                    continue;
+                }
+                out.writeInt(names.length);
+                for (String name : names)
+                {
+                    out.writeUTF(name);
+                }
+            }
+            else if (op == METRICS)
+            {
+                LatencyHistogram latency = service.getLatency();
+                out.writeLong(service.queries());
+                out.writeLong(latency.percentile(50.0));
+                out.writeLong(latency.percentile(99.0));
+                out.writeDouble(service.throughput());
+            }
+            else
+            {
+                throw new IOException("Unknown operation: " + op);
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Helper method to read past the states of a batch that is not answered,
+     * so that the next request can be read.
+     * 
+     * @param in
+     *            the requests, positioned at the first state of the batch.
+     * @param count
+     *            the number of states in the batch.
+     * @throws IOException
+     *             if the stream fails.
+     */
+    private static void skipBatch(DataInputStream in, int count)
+        throws IOException
+    {
+        for (int i = 0; i < count; i++)
+        {
+            if (in.readInt() < 0)
+            {
+                in.readUTF();
+            }
+        }
+    }
+
+    /**
+     * Stops accepting connections and closes the open ones.
+     */
+    @Override
+    public void close()
+    {
+        try
+        {
+            if (server != null)
+            {
+                server.close();
+            }
+            synchronized (connections)
+            {
+                for (Socket socket : connections)
+                {
+                    socket.close();
+                }
+                connections.clear();
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A connection to a PolicyServer. A client is not thread-safe; each
+     * thread should open its own.
+     */
+    public static class Client implements Closeable
+    {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+
+        /**
+         * Constructor connects to a server on the loopback address.
+         * 
+         * @param port
+         *            the port of the server.
+         */
+        public Client(int port)
+        {
+            try
+            {
+                socket = new Socket(InetAddress.getLoopbackAddress(), port);
+                socket.setTcpNoDelay(true);
+                in = new DataInputStream(
+                    new BufferedInputStream(socket.getInputStream()));
+                out = new DataOutputStream(
+                    new BufferedOutputStream(socket.getOutputStream()));
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Asks for the actions and utilities of a batch of states.
+         * 
+         * @param worldId
+         *            the id of the world.
+         * @param states
+         *            the state indices, or -1 to use the name.
+         * @param names
+         *            the state names where the index is -1, or null if all
+         *            states are given by index.
+         * @param count
+         *            the number of states.
+         * @param actions
+         *            receives the action indices, -1 for none.
+         * @param utilities
+         *            receives the utilities, NaN for none.
+         */
+        public void query(String worldId, int[] states, String[] names,
+            int count, int[] actions, double[] utilities)
+        {
+            try
+            {
+                out.writeInt(QUERY);
+                out.writeUTF(worldId);
+                out.writeInt(count);
+                for (int i = 0; i < count; i++)
+                {
+                    out.writeInt(Math.max(-1, states[i]));
+                    if (states[i] < 0)
+                    {
+                        out.writeUTF(names[i]);
+                    }
+                }
+                out.flush();
+                checkReply(in.readInt());
+                for (int i = 0; i < count; i++)
+                {
+                    actions[i] = in.readInt();
+                    utilities[i] = in.readDouble();
+                }
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * @param worldId
+         *            the id of the world.
+         * @return the action names of the world.
+         */
+        public String[] actionNames(String worldId)
+        {
+            try
+            {
+                out.writeInt(ACTIONS);
+                out.writeUTF(worldId);
+                out.flush();
+                int n = in.readInt();
+                checkReply(n);
+                String[] names = new String[n];
+                for (int a = 0; a < n; a++)
+                {
+                    names[a] = in.readUTF();
+                }
+                return names;
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * @return the number of queries, the 50th and 99th percentile batch
+         *         latencies in nanoseconds and the queries per second of the
+         *         server, in that order.
+         */
+        public double[] metrics()
+        {
+            try
+            {
+                out.writeInt(METRICS);
+                out.flush();
+                return new double[] {in.readLong(), in.readLong(),
+                    in.readLong(), in.readDouble()};
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Helper method to turn an error reply into an exception.
+         * 
+         * @param count
+         *            the count that started the reply.
+         * @throws IOException
+         *             if the stream fails.
+         */
+        private void checkReply(int count) throws IOException
+        {
+            if (count < 0)
+            {
+                throw new IllegalArgumentException(in.readUTF());
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            try
+            {
+                socket.close();
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Scanner;
+
+import org.junit.Test;
+
+/**
+ * A test class for the PolicyService and PolicyServer.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class PolicyServerTest
+{
+    /**
+     * Helper method to serve a solved tunnel world.
+     * 
+     * @param solver
+     *            receives the solution.
+     * @return the service.
+     */
+    private static PolicyService tunnelService(ArrayPlayer solver)
+    {
+        MarkovDecisionProcess mdp = new MarkovDecisionProcess(
+            new Scanner(TestWorlds.TUNNEL_A4_G10_R1));
+        solver.solve(FactoredModel.fromMDP(mdp));
+        PolicyService service = new PolicyService();
+        service.put("tunnel", solver);
+        return service;
+    }
+
+    /**
+     * Queries by index and by name agree with the solver, and unknown states
+     * get no action.
+     */
+    @Test
+    public void testService()
+    {
+        ArrayPlayer solver = new ArrayValueIterationPlayer("ArrayVI");
+        PolicyService service = tunnelService(solver);
+        TransitionModel m = solver.getModel();
+        int n = m.numStates();
+        int[] states = new int[n + 1];
+        String[] names = new String[n + 1];
+        for (int s = 0; s < n; s++)
+        {
+            states[s] = s;
+            names[s] = m.stateName(s);
+        }
+        states[n] = n;
+        names[n] = "nowhere";
+        int[] actions = new int[n + 1];
+        double[] utilities = new double[n + 1];
+        int[] byName = new int[n + 1];
+        double[] byNameU = new double[n + 1];
+        service.query("tunnel", states, n + 1, actions, utilities);
+        service.query("tunnel", names, n + 1, byName, byNameU);
+        for (int s = 0; s < n; s++)
+        {
+            assertEquals(solver.action(s), actions[s]);
+            assertEquals(solver.utility(s), utilities[s], 0.0);
+        }
+        assertEquals(-1, actions[n]);
+        assertTrue(Double.isNaN(utilities[n]));
+        assertArrayEquals(actions, byName);
+        assertArrayEquals(utilities, byNameU, 0.0);
+
+        // a batch can mix indices and names, as PolicyServer sends it.
+        String[] some = new String[n + 1];
+        int[] mixed = states.clone();
+        for (int s = 0; s <= n; s += 2)
+        {
+            some[s] = names[s];
+            mixed[s] = -1;
+        }
+        service.query("tunnel", mixed, some, n + 1, byName, byNameU);
+        assertArrayEquals(actions, byName);
+        assertArrayEquals(utilities, byNameU, 0.0);
+        assertEquals(3L * (n + 1), service.queries());
+        assertEquals(3L, service.getLatency().count());
+    }
+
+    /**
+     * The protocol works over plain streams, without a network.
+     * 
+     * @throws IOException
+     *             if the streams fail.
+     */
+    @Test
+    public void testServeStreams() throws IOException
+    {
+        ArrayPlayer solver = new ArrayValueIterationPlayer("ArrayVI");
+        PolicyService service = tunnelService(solver);
+        TransitionModel m = solver.getModel();
+        ByteArrayOutputStream request = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(request);
+        out.writeInt(PolicyServer.QUERY);
+        out.writeUTF("tunnel");
+        out.writeInt(2);
+        out.writeInt(m.start());
+        out.writeInt(-1);
+        out.writeUTF(m.stateName(m.start()));
+        out.writeInt(PolicyServer.QUERY);
+        out.writeUTF("maze");
+        out.writeInt(0);
+        out.writeInt(PolicyServer.QUERY);
+        out.writeUTF("tunnel");
+        out.writeInt(PolicyServer.MAX_BATCH + 1);
+        for (int i = 0; i <= PolicyServer.MAX_BATCH; i++)
+        {
+            out.writeInt(-1);
+            out.writeUTF(m.stateName(m.start()));
+        }
+        out.writeInt(PolicyServer.ACTIONS);
+        out.writeUTF("tunnel");
+        out.flush();
+
+        ByteArrayOutputStream reply = new ByteArrayOutputStream();
+        new PolicyServer(service).serve(
+            new DataInputStream(new ByteArrayInputStream(
+                request.toByteArray())),
+            new DataOutputStream(reply));
+        DataInputStream in = new DataInputStream(
+            new ByteArrayInputStream(reply.toByteArray()));
+        assertEquals(2, in.readInt());
+        for (int i = 0; i < 2; i++)
+        {
+            assertEquals(solver.action(m.start()), in.readInt());
+            assertEquals(solver.utility(m.start()), in.readDouble(), 0.0);
+        }
+        assertEquals(-1, in.readInt());
+        assertEquals("Unknown world: maze", in.readUTF());
+        assertEquals(-1, in.readInt());
+        assertEquals("Batch of " + (PolicyServer.MAX_BATCH + 1)
+            + " states is larger than " + PolicyServer.MAX_BATCH + ".",
+            in.readUTF());
+        assertEquals(m.numActions(), in.readInt());
+        for (int a = 0; a < m.numActions(); a++)
+        {
+            assertEquals(m.actionName(a), in.readUTF());
+        }
+        assertEquals(0, in.available());
+    }
+
+    /**
+     * A client on the loopback address gets the same answers, and the
+     * latency percentiles are ordered.
+     */
+    @Test
+    public void testLoopback()
+    {
+        ArrayPlayer solver = new ArrayValueIterationPlayer("ArrayVI");
+        PolicyService service = tunnelService(solver);
+        TransitionModel m = solver.getModel();
+        int n = m.numStates();
+        int[] states = new int[n];
+        for (int s = 0; s < n; s++)
+        {
+            states[s] = s;
+        }
+        int[] actions = new int[n];
+        double[] utilities = new double[n];
+        PolicyServer server = new PolicyServer(service);
+        PolicyServer.Client client =
+            new PolicyServer.Client(server.start(0));
+        try
+        {
+            for (int round = 0; round < 100; round++)
+            {
+                client.query("tunnel", states, null, n, actions, utilities);
+            }
+            for (int s = 0; s < n; s++)
+            {
+                assertEquals(solver.action(s), actions[s]);
+            }
+            double[] metrics = client.metrics();
+            assertEquals(100.0 * n, metrics[0], 0.0);
+            assertTrue(metrics[1] <= metrics[2]);
+            assertTrue(metrics[3] > 0.0);
+        }
+        finally
+        {
+            client.close();
+            server.close();
+        }
+    }
+
+    /**
+     * Percentiles are within the resolution of the buckets.
+     */
+    @Test
+    public void testHistogram()
+    {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 10000; nanos++)
+        {
+            h.record(nanos);
+        }
+        assertEquals(10000L, h.count());
+        assertEquals(5000.0, h.percentile(50.0), 5000.0 / 16);
+        assertEquals(9900.0, h.percentile(99.0), 9900.0 / 16);
+        assertEquals(1L, h.percentile(0.0));
+        h.reset();
+        assertEquals(0L, h.percentile(99.0));
+    }
+}
@@ -0,0 +1,380 @@
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answers policy queries for any number of solved worlds, each under its own
+ * id. A world is copied into primitive arrays when it is added (a byte action
+ * and a double utility per state index, and one name table), so a batch of
+ * queries by index is a loop of array reads with no State objects, hashing or
+ * locks. Worlds can be added and replaced while queries run; each batch is
+ * answered from the one version of the world it found when it started.
+ * 
+ * The service records the latency of every batch and counts the queries it
+ * answers, for PolicyServer to report.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class PolicyService
+{
+    private final ConcurrentHashMap<String, World> worlds =
+        new ConcurrentHashMap<String, World>();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLong queries = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private volatile long since = System.nanoTime();
+
+    /**
+     * The arrays of one world.
+     */
+    private static class World
+    {
+        private final String[] actionNames;
+        private final byte[] actions;
+        private final double[] utilities;
+        private final HashMap<String, Integer> ids;
+
+        /**
+         * Constructor takes the arrays.
+         * 
+         * @param stateNames
+         *            the state names.
+         * @param actionNames
+         *            the action names.
+         * @param actions
+         *            the action of each state, or -1.
+         * @param utilities
+         *            the utility of each state, or NaN.
+         */
+        World(String[] stateNames, String[] actionNames, byte[] actions,
+            double[] utilities)
+        {
+            this.actionNames = actionNames;
+            this.actions = actions;
+            this.utilities = utilities;
+            this.ids = new HashMap<String, Integer>(2 * stateNames.length);
+            for (int s = 0; s < stateNames.length; s++)
+            {
+                if (stateNames[s] != null)
+                {
+                    ids.put(stateNames[s], s);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a world, replacing any world with the same id. The service keeps
+     * the arrays, which must not be changed afterwards.
+     * 
+     * @param worldId
+     *            the id of the world.
+     * @param stateNames
+     *            the name of each state index, or null for no state.
+     * @param actionNames
+     *            the action names, at most Byte.MAX_VALUE of them.
+     * @param actions
+     *            the action of each state index, or -1 for none.
+     * @param utilities
+     *            the utility of each state index, or NaN for none.
+     */
+    public void put(String worldId, String[] stateNames, String[] actionNames,
+        byte[] actions, double[] utilities)
+    {
+        if (actions.length != stateNames.length
+            || utilities.length != stateNames.length)
+        {
+            throw new IllegalArgumentException("Array sizes do not match.");
+        }
+        if (actionNames.length > Byte.MAX_VALUE)
+        {
+            throw new IllegalArgumentException(
+                "Too many actions to store in a byte.");
+        }
+        worlds.put(worldId,
+            new World(stateNames, actionNames, actions, utilities));
+    }
+
+    /**
+     * Adds the solution of a player that has solved a model.
+     * 
+     * @param worldId
+     *            the id of the world.
+     * @param player
+     *            the player.
+     */
+    public void put(String worldId, ArrayPlayer player)
+    {
+        TransitionModel m = player.getModel();
+        if (m == null)
+        {
+            throw new IllegalArgumentException("The player has not solved.");
+        }
+        int n = m.numStates();
+        String[] stateNames = new String[n];
+        byte[] actions = new byte[n];
+        double[] utilities = new double[n];
+        for (int s = 0; s < n; s++)
+        {
+            boolean solved = m.isState(s) && player.covers(s);
+            stateNames[s] = m.isState(s) ? m.stateName(s) : null;
+            actions[s] = (byte) (solved ? player.action(s) : -1);
+            utilities[s] = solved ? player.utility(s) : Double.NaN;
+        }
+        String[] actionNames = new String[m.numActions()];
+        for (int a = 0; a < actionNames.length; a++)
+        {
+            actionNames[a] = m.actionName(a);
+        }
+        put(worldId, stateNames, actionNames, actions, utilities);
+    }
+
+    /**
+     * Adds a saved snapshot, copying it out of the mapped file.
+     * 
+     * @param worldId
+     *            the id of the world.
+     * @param snapshot
+     *            the snapshot.
+     * @param mdp
+     *            the MDP the snapshot was loaded for.
+     */
+    public void put(String worldId, PolicySnapshot snapshot,
+        MarkovDecisionProcess mdp)
+    {
+        List<State> states = mdp.getStates();
+        int n = snapshot.numStates();
+        String[] stateNames = new String[n];
+        byte[] actions = new byte[n];
+        double[] utilities = new double[n];
+        for (int s = 0; s < n; s++)
+        {
+            stateNames[s] = states.get(s).name();
+            actions[s] = (byte) snapshot.action(s);
+            utilities[s] = snapshot.utility(s);
+        }
+        List<String> actionList = mdp.getActions();
+        put(worldId, stateNames,
+            actionList.toArray(new String[actionList.size()]), actions,
+            utilities);
+    }
+
+    /**
+     * @param worldId
+     *            the id of the world.
+     * @return true if the world was there.
+     */
+    public boolean remove(String worldId)
+    {
+        return worlds.remove(worldId) != null;
+    }
+
+    /**
+     * Helper method to find a world.
+     * 
+     * @param worldId
+     *            the id of the world.
+     * @return the world.
+     */
+    private World world(String worldId)
+    {
+        World w = worlds.get(worldId);
+        if (w == null)
+        {
+            throw new IllegalArgumentException("Unknown world: " + worldId);
+        }
+        return w;
+    }
+
+    /**
+     * @param worldId
+     *            the id of the world.
+     * @return true if the world has been added.
+     */
+    public boolean contains(String worldId)
+    {
+        return worlds.containsKey(worldId);
+    }
+
+    /**
+     * @param worldId
+     *            the id of the world.
+     * @param stateName
+     *            the name of a state.
+     * @return the index of the state, or -1 if there is none.
+     */
+    public int indexOf(String worldId, String stateName)
+    {
+        Integer id = world(worldId).ids.get(stateName);
+        return (id == null) ? -1 : id;
+    }
+
+    /**
+     * @param worldId
+     *            the id of the world.
+     * @return the action names of the world.
+     */
+    public String[] actionNames(String worldId)
+    {
+        return world(worldId).actionNames.clone();
+    }
+
+    /**
+     * Answers a batch of queries by state index. An index that is not a
+     * solved state of the world gets action -1 and utility NaN.
+     * 
+     * @param worldId
+     *            the id of the world.
+     * @param states
+     *            the state indices.
+     * @param count
+     *            the number of queries.
+     * @param actions
+     *            receives the action indices.
+     * @param utilities
+     *            receives the utilities.
+     */
+    public void query(String worldId, int[] states, int count, int[] actions,
+        double[] utilities)
+    {
+        long start = System.nanoTime();
+        query(world(worldId), states, null, count, actions, utilities, start);
+    }
+
+    /**
+     * Answers a batch of queries by state name. An unknown name gets action
+     * -1 and utility NaN.
+     * 
+     * @param worldId
+     *            the id of the world.
+     * @param names
+     *            the state names.
+     * @param count
+     *            the number of queries.
+     * @param actions
+     *            receives the action indices.
+     * @param utilities
+     *            receives the utilities.
+     */
+    public void query(String worldId, String[] names, int count,
+        int[] actions, double[] utilities)
+    {
+        long start = System.nanoTime();
+        query(world(worldId), null, names, count, actions, utilities, start);
+    }
+
+    /**
+     * Answers a batch of queries that mixes state indices and names.
+     * 
+     * @param worldId
+     *            the id of the world.
+     * @param states
+     *            the state indices.
+     * @param names
+     *            the state names to use instead of the indices where they
+     *            are not null, or null if there are none.
+     * @param count
+     *            the number of queries.
+     * @param actions
+     *            receives the action indices.
+     * @param utilities
+     *            receives the utilities.
+     */
+    public void query(String worldId, int[] states, String[] names, int count,
+        int[] actions, double[] utilities)
+    {
+        long start = System.nanoTime();
+        query(world(worldId), states, names, count, actions, utilities, start);
+    }
+
+    /**
+     * Helper method to answer a batch from one version of a world and record
+     * its latency.
+     * 
+     * @param w
+     *            the world.
+     * @param states
+     *            the state indices, or null if every query has a name.
+     * @param names
+     *            the state names where they are not null, or null.
+     * @param count
+     *            the number of queries.
+     * @param actions
+     *            receives the action indices.
+     * @param utilities
+     *            receives the utilities.
+     * @param start
+     *            the time the batch arrived, from System.nanoTime().
+     */
+    private void query(World w, int[] states, String[] names, int count,
+        int[] actions, double[] utilities, long start)
+    {
+        int n = w.actions.length;
+        for (int i = 0; i < count; i++)
+        {
+            int s;
+            if (names != null && names[i] != null)
+            {
+                Integer id = w.ids.get(names[i]);
+                s = (id == null) ? -1 : id;
+            }
+            else
+            {
+                s = states[i];
+            }
+            boolean valid = s >= 0 && s < n;
+            actions[i] = valid ? w.actions[s] : -1;
+            utilities[i] = valid ? w.utilities[s] : Double.NaN;
+        }
+        latency.record(System.nanoTime() - start);
+        queries.addAndGet(count);
+        batches.incrementAndGet();
+    }
+
+    /**
+     * @return the latencies of the batches answered since the last reset.
+     */
+    public LatencyHistogram getLatency()
+    {
+        return latency;
+    }
+
+    /**
+     * @return the number of queries answered since the last reset.
+     */
+    public long queries()
+    {
+        return queries.get();
+    }
+
+    /**
+     * @return the number of batches answered since the last reset.
+     */
+    public long batches()
+    {
+        return batches.get();
+    }
+
+    /**
+     * @return the queries answered per second since the last reset.
+     */
+    public double throughput()
+    {
+        double seconds = (System.nanoTime() - since) / 1e9;
+        return (seconds > 0.0) ? queries.get() / seconds : 0.0;
+    }
+
+    /**
+     * Clears the latencies and counts.
+     */
+    public void resetMetrics()
+    {
+        latency.reset();
+        queries.set(0);
+        batches.set(0);
+        since = System.nanoTime();
+    }
+}
@@ -0,0 +1,317 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The utilities and policy of a solved MDP, saved to a compact binary file so
+ * that a restarted process can use them without solving again.
+ * 
+ * The file holds a header (magic number, format version, fingerprint of the
+ * MDP, number of states and number of actions), the utility of every state
+ * as a double, and the action of every state as a byte (-1 for none), all in
+ * the state order of the MDP. Loading maps the file into memory, so the
+ * values are only read from disk as they are used, and checks that the file
+ * was saved for the same MDP.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class PolicySnapshot
+{
+    /**
+     * The first four bytes of a snapshot file.
+     */
+    public static final int MAGIC = 0x50534e50;
+    /**
+     * The version of the file format.
+     */
+    public static final int VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+    private final ByteBuffer data;
+    private final int numStates;
+    private final List<State> states;
+    private final List<String> actions;
+
+    /**
+     * Constructor takes the checked contents of a snapshot.
+     * 
+     * @param data
+     *            the contents of the file.
+     * @param mdp
+     *            the MDP the snapshot was saved for.
+     */
+    private PolicySnapshot(ByteBuffer data, MarkovDecisionProcess mdp)
+    {
+        this.data = data;
+        this.numStates = mdp.numStates();
+        this.states = mdp.getStates();
+        this.actions = mdp.getActions();
+    }
+
+    /**
+     * Saves the utilities and policy of a player that has solved an MDP.
+     * States the player did not solve are saved with a utility of NaN and no
+     * action. An ArrayPlayer's arrays are read directly; other players are
+     * read through getU() and getPi().
+     * 
+     * @param path
+     *            the file, which is replaced.
+     * @param mdp
+     *            the MDP.
+     * @param player
+     *            the player.
+     */
+    public static void save(Path path, MarkovDecisionProcess mdp,
+        Player player)
+    {
+        List<State> states = mdp.getStates();
+        List<String> actions = mdp.getActions();
+        if (actions.size() > Byte.MAX_VALUE)
+        {
+            throw new IllegalArgumentException(
+                "Too many actions to store in a byte.");
+        }
+        int n = states.size();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + 9 * n)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putLong(mdp.fingerprint());
+        buffer.putInt(n);
+        buffer.putInt(actions.size());
+        if (player instanceof ArrayPlayer
+            && ((ArrayPlayer) player).getModel() != null)
+        {
+            putArrays(buffer, mdp.world(), (ArrayPlayer) player);
+        }
+        else
+        {
+            putMaps(buffer, states, actions, player);
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            while (buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Helper method to write the utilities and actions of an ArrayPlayer
+     * from its arrays, matching states and actions by name in case the
+     * player's model numbers them differently from the MDP.
+     * 
+     * @param buffer
+     *            the output, positioned after the header.
+     * @param world
+     *            the world of the MDP.
+     * @param player
+     *            the player, which has solved a model.
+     */
+    private static void putArrays(ByteBuffer buffer, MDPWorld world,
+        ArrayPlayer player)
+    {
+        TransitionModel model = player.getModel();
+        StateRegistry registry = world.registry();
+        int n = registry.size();
+        int[] index = new int[n];
+        for (int s = 0; s < n; s++)
+        {
+            int m = model.indexOf(registry.name(s));
+            index[s] = (m >= 0 && model.isState(m) && player.covers(m)) ? m
+                : -1;
+        }
+        int[] actionIndex = new int[model.numActions()];
+        for (int a = 0; a < actionIndex.length; a++)
+        {
+            actionIndex[a] = world.actionIndex(model.actionName(a));
+        }
+        for (int s = 0; s < n; s++)
+        {
+            buffer.putDouble((index[s] < 0) ? Double.NaN
+                : player.utility(index[s]));
+        }
+        for (int s = 0; s < n; s++)
+        {
+            int a = (index[s] < 0) ? -1 : player.action(index[s]);
+            buffer.put((byte) ((a < 0) ? -1 : actionIndex[a]));
+        }
+    }
+
+    /**
+     * Helper method to write the utilities and actions of any player from
+     * getU() and getPi().
+     * 
+     * @param buffer
+     *            the output, positioned after the header.
+     * @param states
+     *            the states of the MDP.
+     * @param actions
+     *            the actions of the MDP.
+     * @param player
+     *            the player.
+     */
+    private static void putMaps(ByteBuffer buffer, List<State> states,
+        List<String> actions, Player player)
+    {
+        HashMap<State, Double> u = player.getU();
+        HashMap<State, String> pi = player.getPi();
+        if (u == null || pi == null)
+        {
+            throw new IllegalArgumentException("The player has not solved.");
+        }
+        for (State s : states)
+        {
+            Double value = u.get(s);
+            buffer.putDouble((value == null) ? Double.NaN : value);
+        }
+        for (State s : states)
+        {
+            String action = pi.get(s);
+            int a = (action == null) ? -1 : actions.indexOf(action);
+            buffer.put((byte) a);
+        }
+    }
+
+    /**
+     * Maps a snapshot into memory.
+     * 
+     * @param path
+     *            the file.
+     * @param mdp
+     *            the MDP the snapshot must have been saved for.
+     * @return the snapshot.
+     */
+    public static PolicySnapshot load(Path path, MarkovDecisionProcess mdp)
+    {
+        MappedByteBuffer data;
+        try (FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.READ))
+        {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                channel.size());
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        data.order(ByteOrder.LITTLE_ENDIAN);
+        if (data.capacity() < HEADER_BYTES || data.getInt(0) != MAGIC)
+        {
+            throw new IllegalArgumentException("Not a policy snapshot.");
+        }
+        if (data.getInt(4) != VERSION)
+        {
+            throw new IllegalArgumentException(
+                "Unsupported snapshot version: " + data.getInt(4));
+        }
+        if (data.getLong(8) != mdp.fingerprint()
+            || data.getInt(16) != mdp.numStates()
+            || data.getInt(20) != mdp.getActions().size())
+        {
+            throw new IllegalArgumentException(
+                "The snapshot was saved for another MDP.");
+        }
+        if (data.capacity() != HEADER_BYTES + 9 * mdp.numStates())
+        {
+            throw new IllegalArgumentException("Truncated policy snapshot.");
+        }
+        return new PolicySnapshot(data, mdp);
+    }
+
+    /**
+     * @return the fingerprint of the MDP the snapshot was saved for.
+     */
+    public long fingerprint()
+    {
+        return data.getLong(8);
+    }
+
+    /**
+     * @return the number of states.
+     */
+    public int numStates()
+    {
+        return numStates;
+    }
+
+    /**
+     * @param s
+     *            the state index.
+     * @return the utility of the state, or NaN if it was not solved.
+     */
+    public double utility(int s)
+    {
+        return data.getDouble(HEADER_BYTES + 8 * s);
+    }
+
+    /**
+     * @param s
+     *            the state index.
+     * @return the index of the best action in the state, or -1 if none.
+     */
+    public int action(int s)
+    {
+        return data.get(HEADER_BYTES + 8 * numStates + s);
+    }
+
+    /**
+     * @param s
+     *            the state index.
+     * @return the name of the best action in the state, or null if none.
+     */
+    public String actionName(int s)
+    {
+        int a = action(s);
+        return (a < 0) ? null : actions.get(a);
+    }
+
+    /**
+     * @return the utilities of the solved states.
+     */
+    public HashMap<State, Double> getU()
+    {
+        HashMap<State, Double> map = new HashMap<State, Double>();
+        for (int s = 0; s < numStates; s++)
+        {
+            double value = utility(s);
+            if (!Double.isNaN(value))
+            {
+                map.put(states.get(s), value);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * @return the policy for the solved states.
+     */
+    public HashMap<State, String> getPi()
+    {
+        HashMap<State, String> map = new HashMap<State, String>();
+        for (int s = 0; s < numStates; s++)
+        {
+            if (!Double.isNaN(utility(s)))
+            {
+                map.put(states.get(s), actionName(s));
+            }
+        }
+        return map;
+    }
+}
@@ -0,0 +1,143 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Scanner;
+
+import org.junit.Test;
+
+/**
+ * A test class for the PolicySnapshot.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class PolicySnapshotTest
+{
+    /**
+     * A loaded snapshot has the saved utilities and policy, and plays like
+     * the player that solved it.
+     * 
+     * @throws IOException
+     *             if the temporary file cannot be created.
+     */
+    @Test
+    public void testSaveLoad() throws IOException
+    {
+        File file = File.createTempFile("policy", ".snapshot");
+        file.deleteOnExit();
+        MarkovDecisionProcess mdp = new MarkovDecisionProcess(
+            new Scanner(TestWorlds.TUNNEL_A4_G10_R1));
+        ArrayValueIterationPlayer solver =
+            new ArrayValueIterationPlayer("ArrayVI");
+        String first = solver.play(mdp);
+        PolicySnapshot.save(file.toPath(), mdp, solver);
+
+        MarkovDecisionProcess restarted = new MarkovDecisionProcess(
+            new Scanner(TestWorlds.TUNNEL_A4_G10_R1));
+        PolicySnapshot snapshot =
+            PolicySnapshot.load(file.toPath(), restarted);
+        SnapshotPlayer player = new SnapshotPlayer("Snapshot", snapshot);
+        assertEquals(first, player.play(restarted));
+        assertEquals(solver.getPi(), player.getPi());
+        HashMap<State, Double> u = player.getU();
+        assertEquals(solver.getU().size(), u.size());
+        for (State s : u.keySet())
+        {
+            assertEquals(solver.getU().get(s), u.get(s), 0.0);
+        }
+    }
+
+    /**
+     * Saving an ArrayPlayer from its arrays writes the same file as saving
+     * it through its maps.
+     * 
+     * @throws IOException
+     *             if the temporary files cannot be created or read.
+     */
+    @Test
+    public void testArraysMatchMaps() throws IOException
+    {
+        File arrays = File.createTempFile("policy", ".snapshot");
+        arrays.deleteOnExit();
+        File maps = File.createTempFile("policy", ".snapshot");
+        maps.deleteOnExit();
+        MarkovDecisionProcess mdp = new MarkovDecisionProcess(
+            new Scanner(TestWorlds.TUNNEL_A4_G10_R1));
+        final ArrayValueIterationPlayer solver =
+            new ArrayValueIterationPlayer("ArrayVI");
+        solver.play(mdp);
+        Player boxed = new Player("Boxed")
+        {
+            @Override
+            public String play(MarkovDecisionProcess m)
+            {
+                return solver.play(m);
+            }
+
+            @Override
+            public HashMap<State, Double> getU()
+            {
+                return solver.getU();
+            }
+
+            @Override
+            public HashMap<State, String> getPi()
+            {
+                return solver.getPi();
+            }
+        };
+        PolicySnapshot.save(arrays.toPath(), mdp, solver);
+        PolicySnapshot.save(maps.toPath(), mdp, boxed);
+        assertArrayEquals(Files.readAllBytes(maps.toPath()),
+            Files.readAllBytes(arrays.toPath()));
+    }
+
+    /**
+     * A snapshot cannot be loaded for or played on a different MDP.
+     * 
+     * @throws IOException
+     *             if the temporary file cannot be created.
+     */
+    @Test
+    public void testWrongMDP() throws IOException
+    {
+        File file = File.createTempFile("policy", ".snapshot");
+        file.deleteOnExit();
+        MarkovDecisionProcess mdp = new MarkovDecisionProcess(
+            new Scanner(TestWorlds.TUNNEL_A4_G10_R1));
+        ArrayValueIterationPlayer solver =
+            new ArrayValueIterationPlayer("ArrayVI");
+        solver.play(mdp);
+        PolicySnapshot.save(file.toPath(), mdp, solver);
+        MarkovDecisionProcess other = new MarkovDecisionProcess(
+            new Scanner(TestWorlds.SIMPLE_G10_R3));
+        boolean rejected = false;
+        try
+        {
+            PolicySnapshot.load(file.toPath(), other);
+        }
+        catch (IllegalArgumentException e)
+        {
+            rejected = true;
+        }
+        assertTrue(rejected);
+        SnapshotPlayer player = new SnapshotPlayer("Snapshot",
+            PolicySnapshot.load(file.toPath(), mdp));
+        rejected = false;
+        try
+        {
+            player.play(other);
+        }
+        catch (IllegalArgumentException e)
+        {
+            rejected = true;
+        }
+        assertTrue(rejected);
+    }
+}
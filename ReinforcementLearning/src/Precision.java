@@ -0,0 +1,19 @@
+/**
+ * Storage precision for transition probabilities and utilities.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public enum Precision
+{
+    /**
+     * 64-bit storage; the reference mode.
+     */
+    DOUBLE,
+    /**
+     * 32-bit storage. Halves the memory used by probabilities and utilities;
+     * arithmetic is still accumulated in double precision.
+     */
+    FLOAT
+}
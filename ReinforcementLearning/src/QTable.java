@@ -0,0 +1,235 @@
+/**
+ * The action values Q(s, a) = R(s) + gamma * sum over s' of P(s'|s,a) U(s')
+ * of a solved model, with the actions of every state ranked from best to
+ * worst. The table is filled once from the solved utilities, so asking for
+ * the runner-up of a state whose best move is blocked, or for the gap
+ * between the best two actions, is an array lookup rather than a new Bellman
+ * backup.
+ * 
+ * Terminal states have no actions: their values are NaN and they are
+ * unranked. States without a utility (NaN) get NaN values as well, and a
+ * state whose values are all NaN, such as one a pruned solve did not reach,
+ * is unranked too. Within a ranking, actions with NaN values come last.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class QTable
+{
+    private final int numStates;
+    private final int numActions;
+    // Q(s, a) at s * numActions + a.
+    private final double[] q;
+    // the actions of s from best to worst at s * numActions, ties by index.
+    private final int[] order;
+    // terminal states and states whose values are all NaN.
+    private final boolean[] unranked;
+
+    /**
+     * Constructor computes the action values of every state from utilities.
+     * 
+     * @param m
+     *            the model.
+     * @param u
+     *            the utility of every state of the model.
+     */
+    public QTable(TransitionModel m, double[] u)
+    {
+        numStates = m.numStates();
+        numActions = m.numActions();
+        q = new double[numStates * numActions];
+        order = new int[numStates * numActions];
+        unranked = new boolean[numStates];
+        double gamma = m.gamma();
+        for (int s = 0; s < numStates; s++)
+        {
+            int row = s * numActions;
+            boolean terminal = m.isTerminal(s) || !m.isState(s);
+            unranked[s] = true;
+            for (int a = 0; a < numActions; a++)
+            {
+                q[row + a] = terminal ? Double.NaN
+                    : m.reward(s) + gamma * m.expectedUtility(s, a, u);
+                unranked[s] &= Double.isNaN(q[row + a]);
+                // insertion sort of the actions seen so far, NaN last.
+                int i = a;
+                while (i > 0 && better(q[row + a], q[row + order[row + i - 1]]))
+                {
+                    order[row + i] = order[row + i - 1];
+                    i--;
+                }
+                order[row + i] = a;
+            }
+        }
+    }
+
+    /**
+     * Helper method to order action values from best to worst with NaN
+     * after every number.
+     * 
+     * @param x
+     *            an action value.
+     * @param y
+     *            another action value.
+     * @return true if x ranks before y.
+     */
+    private static boolean better(double x, double y)
+    {
+        return x > y || (Double.isNaN(y) && !Double.isNaN(x));
+    }
+
+    /**
+     * @return the number of states.
+     */
+    public int numStates()
+    {
+        return numStates;
+    }
+
+    /**
+     * @return the number of actions.
+     */
+    public int numActions()
+    {
+        return numActions;
+    }
+
+    /**
+     * @param s
+     *            the state index.
+     * @param a
+     *            the action index.
+     * @return Q(s, a), or NaN if it cannot be computed.
+     */
+    public double q(int s, int a)
+    {
+        return q[s * numActions + a];
+    }
+
+    /**
+     * @param s
+     *            the state index.
+     * @return the best action, or -1 if the state is unranked.
+     */
+    public int best(int s)
+    {
+        return unranked[s] ? -1 : order[s * numActions];
+    }
+
+    /**
+     * @param s
+     *            the state index.
+     * @param rank
+     *            the rank, from 0 for the best action.
+     * @return the action with the rank, or -1 if the state is unranked.
+     */
+    public int action(int s, int rank)
+    {
+        return unranked[s] ? -1 : order[s * numActions + rank];
+    }
+
+    /**
+     * @param s
+     *            the state index.
+     * @param a
+     *            the action index.
+     * @return the rank of the action in the state, from 0 for the best, or
+     *         -1 if the state is unranked.
+     */
+    public int rank(int s, int a)
+    {
+        if (unranked[s])
+        {
+            return -1;
+        }
+        int rank = 0;
+        while (order[s * numActions + rank] != a)
+        {
+            rank++;
+        }
+        return rank;
+    }
+
+    /**
+     * Writes the best k actions of a state, best first.
+     * 
+     * @param s
+     *            the state index.
+     * @param k
+     *            the largest number of actions wanted.
+     * @param actions
+     *            receives the actions.
+     * @return the number of actions written, 0 for an unranked state.
+     */
+    public int topK(int s, int k, int[] actions)
+    {
+        if (unranked[s])
+        {
+            return 0;
+        }
+        int count = Math.min(k, numActions);
+        System.arraycopy(order, s * numActions, actions, 0, count);
+        return count;
+    }
+
+    /**
+     * Finds the best action other than a blocked one, such as a fallback
+     * when the best move cannot be made.
+     * 
+     * @param s
+     *            the state index.
+     * @param blocked
+     *            the action to avoid.
+     * @return the best other action, or -1 if there is none.
+     */
+    public int bestExcept(int s, int blocked)
+    {
+        if (unranked[s])
+        {
+            return -1;
+        }
+        for (int rank = 0; rank < numActions; rank++)
+        {
+            int a = order[s * numActions + rank];
+            if (a != blocked)
+            {
+                return a;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param s
+     *            the state index.
+     * @return Q of the best action minus Q of the second best, 0 with one
+     *         action, or NaN if the state is unranked.
+     */
+    public double gap(int s)
+    {
+        if (unranked[s])
+        {
+            return Double.NaN;
+        }
+        if (numActions < 2)
+        {
+            return 0.0;
+        }
+        int row = s * numActions;
+        return q[row + order[row]] - q[row + order[row + 1]];
+    }
+
+    /**
+     * Adds the bytes of the table to a report, as a cache of the player.
+     * 
+     * @param report
+     *            the report.
+     */
+    public void addMemory(MemoryReport report)
+    {
+        report.measure(MemoryReport.PLAYER, MemoryReport.CACHES,
+            MemoryReport.bytes(q) + MemoryReport.bytes(order)
+            + MemoryReport.bytes(unranked));
+    }
+}
@@ -0,0 +1,103 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Scanner;
+
+import org.junit.Test;
+
+/**
+ * A test class for the QTable.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class QTableTest
+{
+    /**
+     * The ranked actions agree with the solved policy and with a fresh
+     * backup of every action.
+     */
+    @Test
+    public void testRanking()
+    {
+        MarkovDecisionProcess mdp = new MarkovDecisionProcess(
+            new Scanner(TestWorlds.TUNNEL_A4_G10_R1));
+        ArrayValueIterationPlayer p = new ArrayValueIterationPlayer("ArrayVI");
+        TransitionModel m = FactoredModel.fromMDP(mdp);
+        p.solve(m);
+        assertNull(p.getQ());
+        p.setKeepQ(true);
+        p.solve(m);
+        QTable q = p.getQ();
+        int numActions = m.numActions();
+        int[] top = new int[numActions];
+        double[] u = new double[m.numStates()];
+        for (int s = 0; s < u.length; s++)
+        {
+            u[s] = p.utility(s);
+        }
+        for (int s = 0; s < m.numStates(); s++)
+        {
+            if (m.isTerminal(s))
+            {
+                assertEquals(-1, q.best(s));
+                assertEquals(0, q.topK(s, 2, top));
+                assertTrue(Double.isNaN(q.gap(s)));
+                continue;
+            }
+            assertEquals(p.action(s), q.best(s));
+            assertEquals(p.utility(s), q.q(s, q.best(s)), 1e-3);
+            assertEquals(numActions, q.topK(s, numActions + 3, top));
+            for (int r = 0; r < numActions; r++)
+            {
+                assertEquals(top[r], q.action(s, r));
+                assertEquals(r, q.rank(s, top[r]));
+                assertEquals(m.reward(s)
+                    + m.gamma() * m.expectedUtility(s, top[r], u),
+                    q.q(s, top[r]), 1e-12);
+                if (r > 0)
+                {
+                    assertTrue(q.q(s, top[r - 1]) >= q.q(s, top[r]));
+                }
+            }
+            assertEquals(q.q(s, top[0]) - q.q(s, top[1]), q.gap(s), 0.0);
+            assertTrue(q.gap(s) >= 0.0);
+            assertEquals(top[1], q.bestExcept(s, top[0]));
+            assertEquals(top[0], q.bestExcept(s, top[1]));
+        }
+    }
+
+    /**
+     * A state with no utility behind one action ranks that action last, and
+     * a state whose values are all NaN is unranked.
+     */
+    @Test
+    public void testMissingUtilities()
+    {
+        TransitionModel m = CompactMDP.fromMDP(new MarkovDecisionProcess(
+            new Scanner(TestWorlds.SIMPLE_G10_R3)),
+            Precision.DOUBLE);
+        double[] u = new double[m.numStates()];
+        int a2 = m.indexOf("a2");
+        int a3 = m.indexOf("a3");
+        u[a3] = Double.NaN;
+        QTable q = new QTable(m, u);
+        // only W cannot slip east into a3.
+        int west = 3;
+        assertEquals(west, q.best(a2));
+        assertFalse(Double.isNaN(q.q(a2, west)));
+        for (int rank = 1; rank < m.numActions(); rank++)
+        {
+            assertTrue(Double.isNaN(q.q(a2, q.action(a2, rank))));
+        }
+
+        Arrays.fill(u, Double.NaN);
+        q = new QTable(m, u);
+        assertEquals(-1, q.best(a2));
+        assertEquals(0, q.topK(a2, 2, new int[2]));
+    }
+}
@@ -0,0 +1,513 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * An agent that uses labeled real-time dynamic programming (LRTDP, Bonet and
+ * Geffner 2003). Instead of solving every state before the first move, each
+ * call to play() runs greedy trials from the current state until a time or
+ * backup budget is spent, and then returns the greedy action. The utilities
+ * persist between moves, so the policy keeps improving as the game goes on,
+ * and states whose utilities have converged together with everything their
+ * greedy policy can reach are labeled solved and never backed up again. Only
+ * states reachable from the start under the greedy policy are ever backed
+ * up.
+ * 
+ * The utilities start from an optimistic bound, which LRTDP needs to converge
+ * to the optimal policy on the states it visits.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class RTDPPlayer extends ArrayPlayer
+{
+    private static final double EPS = 1e-3;
+    // with gamma = 1 the residual bound is 0; stop at round-off instead.
+    private static final double ROUNDOFF = 1e-9;
+    private static final long DEFAULT_BACKUPS = 10000;
+    // ends a trial that is stuck in a loop of unsolved states.
+    private static final int MAX_TRIAL_LENGTH = 100000;
+    private static final byte SOLVED = 1;
+    private static final byte MARKED = 2;
+    private final Random rand;
+    private long backupBudget = DEFAULT_BACKUPS;
+    private long timeBudget;
+    private double epsilon;
+    private double[] u;
+    private byte[] label;
+    private int[] next;
+    private double[] prob;
+    private IntStack trial;
+    private IntStack open;
+    private IntStack closed;
+    private long backups;
+    private long trials;
+    private long moveBackups;
+    private long deadline;
+
+    /**
+     * Constructor takes the name and uses a default backup budget per move.
+     * 
+     * @param name
+     *            the name of the player.
+     */
+    public RTDPPlayer(String name)
+    {
+        this(name, new Random());
+    }
+
+    /**
+     * Constructor takes the name and the source of random outcomes used by
+     * the trials.
+     * 
+     * @param name
+     *            the name of the player.
+     * @param rand
+     *            the random number generator.
+     */
+    public RTDPPlayer(String name, Random rand)
+    {
+        super(name);
+        this.rand = rand;
+    }
+
+    /**
+     * Limits each move by the number of backups, and removes any time limit.
+     * 
+     * @param backupsPerMove
+     *            the number of backups allowed per move.
+     */
+    public void setBackupBudget(long backupsPerMove)
+    {
+        backupBudget = backupsPerMove;
+        timeBudget = 0;
+    }
+
+    /**
+     * Limits each move by wall clock time, and removes any backup limit.
+     * 
+     * @param millisPerMove
+     *            the time allowed per move in milliseconds.
+     */
+    public void setTimeBudget(long millisPerMove)
+    {
+        timeBudget = millisPerMove;
+        backupBudget = 0;
+    }
+
+    /**
+     * Runs trials from the start state until it is labeled solved, with no
+     * budget.
+     * 
+     * @param m
+     *            the model to solve.
+     */
+    @Override
+    protected void solveModel(TransitionModel m)
+    {
+        initialize(m);
+        moveBackups = 0;
+        deadline = 0;
+        refine(m.start(), false);
+    }
+
+    /**
+     * Runs trials from the current state until the budget for the move is
+     * spent or the state is solved, then returns its greedy action. The model
+     * is compiled and the utilities are initialized on the first call only.
+     * 
+     * @param mdp
+     *            the MDP.
+     * @return the desired action.
+     */
+    @Override
+    public String play(MarkovDecisionProcess mdp)
+    {
+        if (model == null)
+        {
+            model = compile(mdp);
+            initialize(model);
+        }
+        int s = model.indexOf(mdp.getCurrent().name());
+        if (s < 0)
+        {
+            return null;
+        }
+        utility = null;
+        policy = null;
+        moveBackups = 0;
+        deadline = (timeBudget > 0)
+            ? System.nanoTime() + timeBudget * 1000000L : 0;
+        refine(s, true);
+        int a = action(s);
+        return (a < 0) ? null : model.actionName(a);
+    }
+
+    /**
+     * Helper method to set the utilities to the optimistic bound and clear
+     * the labels.
+     * 
+     * @param m
+     *            the model.
+     */
+    private void initialize(TransitionModel m)
+    {
+        int n = m.numStates();
+        u = new double[n];
+        label = new byte[n];
+        next = new int[m.maxSuccessors()];
+        prob = new double[m.maxSuccessors()];
+        trial = new IntStack();
+        open = new IntStack();
+        closed = new IntStack();
+        backups = 0;
+        trials = 0;
+        double gamma = m.gamma();
+        epsilon = Math.max(EPS * ((1 - gamma) / gamma), ROUNDOFF);
+        double bound = m.utilityBound();
+        for (int s = 0; s < n; s++)
+        {
+            u[s] = m.reward(s) + (m.isTerminal(s) ? 0.0 : gamma * bound);
+        }
+    }
+
+    /**
+     * Helper method to run trials from a state until it is solved or the
+     * budget is spent.
+     * 
+     * @param s
+     *            the state index.
+     * @param budgeted
+     *            true to stop when the budget is spent.
+     */
+    private void refine(int s, boolean budgeted)
+    {
+        while ((label[s] & SOLVED) == 0 && !(budgeted && spent()))
+        {
+            runTrial(s, budgeted);
+        }
+    }
+
+    /**
+     * @return true if the budget of the current move is spent.
+     */
+    private boolean spent()
+    {
+        if (backupBudget > 0 && moveBackups >= backupBudget)
+        {
+            return true;
+        }
+        return deadline != 0 && System.nanoTime() >= deadline;
+    }
+
+    /**
+     * Helper method to run one trial: follow the greedy policy with sampled
+     * outcomes, backing up each state, then try to label the visited states
+     * solved in reverse order.
+     * 
+     * @param s
+     *            the first state of the trial.
+     * @param budgeted
+     *            true to stop when the budget is spent.
+     */
+    private void runTrial(int s, boolean budgeted)
+    {
+        trials++;
+        trial.clear();
+        while ((label[s] & SOLVED) == 0)
+        {
+            trial.push(s);
+            if (model.isTerminal(s) || trial.size() > MAX_TRIAL_LENGTH)
+            {
+                break;
+            }
+            int a = update(s);
+            if (budgeted && spent())
+            {
+                return;
+            }
+            s = sample(s, a);
+        }
+        while (!trial.isEmpty())
+        {
+            if (!checkSolved(trial.pop()))
+            {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Helper method to label a state solved if its utility and the utilities
+     * of all states its greedy policy reaches have converged, and otherwise
+     * to back up those states.
+     * 
+     * @param s
+     *            the state index.
+     * @return true if the state is now solved.
+     */
+    private boolean checkSolved(int s)
+    {
+        boolean solved = true;
+        open.clear();
+        closed.clear();
+        if ((label[s] & SOLVED) == 0)
+        {
+            open.push(s);
+            label[s] |= MARKED;
+        }
+        while (!open.isEmpty())
+        {
+            int t = open.pop();
+            closed.push(t);
+            if (model.isTerminal(t))
+            {
+                continue;
+            }
+            int a = greedy(t);
+            if (Math.abs(backup(t, a) - u[t]) > epsilon)
+            {
+                solved = false;
+                continue;
+            }
+            int count = model.successors(t, a, next, prob);
+            for (int i = 0; i < count; i++)
+            {
+                int t1 = next[i];
+                if (prob[i] > 0.0 && label[t1] == 0)
+                {
+                    open.push(t1);
+                    label[t1] |= MARKED;
+                }
+            }
+        }
+        for (int i = 0; i < closed.size(); i++)
+        {
+            label[closed.get(i)] = solved ? SOLVED : 0;
+        }
+        if (!solved)
+        {
+            while (!closed.isEmpty())
+            {
+                int t = closed.pop();
+                if (!model.isTerminal(t))
+                {
+                    update(t);
+                }
+            }
+        }
+        return solved;
+    }
+
+    /**
+     * Helper method to back up a state.
+     * 
+     * @param s
+     *            the state index.
+     * @return the greedy action.
+     */
+    private int update(int s)
+    {
+        int a = greedy(s);
+        u[s] = backup(s, a);
+        backups++;
+        moveBackups++;
+        return a;
+    }
+
+    /**
+     * @param s
+     *            the state index.
+     * @param a
+     *            the action index.
+     * @return the Bellman backup of the state for the action.
+     */
+    private double backup(int s, int a)
+    {
+        return model.reward(s)
+            + model.gamma() * model.expectedUtility(s, a, u);
+    }
+
+    /**
+     * @param s
+     *            the state index.
+     * @return the action with the highest expected utility, or -1 if the
+     *         state is terminal.
+     */
+    private int greedy(int s)
+    {
+        if (model.isTerminal(s))
+        {
+            return -1;
+        }
+        int best = 0;
+        double max = model.expectedUtility(s, 0, u);
+        for (int a = 1; a < model.numActions(); a++)
+        {
+            double eu = model.expectedUtility(s, a, u);
+            if (eu > max)
+            {
+                max = eu;
+                best = a;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Helper method to sample the outcome of an action. Like
+     * MDPWorld.sample(), an action with no listed transitions stays put.
+     * 
+     * @param s
+     *            the state index.
+     * @param a
+     *            the action index.
+     * @return the next state.
+     */
+    private int sample(int s, int a)
+    {
+        int count = model.successors(s, a, next, prob);
+        if (count == 0)
+        {
+            return s;
+        }
+        double r = rand.nextDouble();
+        for (int i = 0; i < count - 1; i++)
+        {
+            r -= prob[i];
+            if (r < 0.0)
+            {
+                return next[i];
+            }
+        }
+        return next[count - 1];
+    }
+
+    @Override
+    public double utility(int s)
+    {
+        return u[s];
+    }
+
+    @Override
+    public int action(int s)
+    {
+        return greedy(s);
+    }
+
+    /**
+     * @param s
+     *            the state index.
+     * @return true if the state is labeled solved.
+     */
+    public boolean isSolved(int s)
+    {
+        return (label[s] & SOLVED) != 0;
+    }
+
+    /**
+     * @return the number of backups since the model was compiled or solved.
+     */
+    public long getBackups()
+    {
+        return backups;
+    }
+
+    /**
+     * @return the number of trials since the model was compiled or solved.
+     */
+    public long getTrials()
+    {
+        return trials;
+    }
+
+    /**
+     * Adds the bytes of the player to a report. The policy is not stored
+     * but found from the utilities when it is asked for.
+     * 
+     * @param report
+     *            the report.
+     */
+    @Override
+    public void addMemory(MemoryReport report)
+    {
+        super.addMemory(report);
+        report.measure(MemoryReport.PLAYER, MemoryReport.UTILITIES,
+            MemoryReport.bytes(u));
+        report.measure(MemoryReport.PLAYER, MemoryReport.CACHES,
+            MemoryReport.bytes(label) + MemoryReport.bytes(next)
+            + MemoryReport.bytes(prob));
+        for (IntStack stack : new IntStack[] {trial, open, closed})
+        {
+            if (stack != null)
+            {
+                report.measure(MemoryReport.PLAYER, MemoryReport.CACHES,
+                    MemoryReport.bytes(stack.items));
+            }
+        }
+    }
+
+    /**
+     * A growable stack of ints.
+     */
+    private static class IntStack
+    {
+        private int[] items = new int[64];
+        private int size;
+
+        /**
+         * @param item
+         *            the item to push.
+         */
+        void push(int item)
+        {
+            if (size == items.length)
+            {
+                items = Arrays.copyOf(items, 2 * size);
+            }
+            items[size++] = item;
+        }
+
+        /**
+         * @return the item removed from the top.
+         */
+        int pop()
+        {
+            return items[--size];
+        }
+
+        /**
+         * @param i
+         *            the position from the bottom.
+         * @return the item.
+         */
+        int get(int i)
+        {
+            return items[i];
+        }
+
+        /**
+         * @return the number of items.
+         */
+        int size()
+        {
+            return size;
+        }
+
+        /**
+         * @return true if there are no items.
+         */
+        boolean isEmpty()
+        {
+            return size == 0;
+        }
+
+        /**
+         * Removes every item.
+         */
+        void clear()
+        {
+            size = 0;
+        }
+    }
+}
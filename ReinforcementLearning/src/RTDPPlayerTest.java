@@ -0,0 +1,128 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.Scanner;
+
+import org.junit.Test;
+
+/**
+ * A test class for the RTDPPlayer.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class RTDPPlayerTest
+{
+    /**
+     * Solving from the start agrees with value iteration along the policy.
+     */
+    @Test
+    public void testSolve()
+    {
+        String[] worlds = {
+            TestWorlds.SIMPLE_G10_R3,
+            TestWorlds.SIMPLE_G09_R0,
+            TestWorlds.TUNNEL_A4_G10_R1
+        };
+        for (String world : worlds)
+        {
+            TransitionModel m = CompactMDP.fromMDP(
+                new MarkovDecisionProcess(new Scanner(world)),
+                Precision.DOUBLE);
+            ArrayValueIterationPlayer vi = new ArrayValueIterationPlayer("vi");
+            RTDPPlayer rtdp = new RTDPPlayer("rtdp", new Random(1));
+            vi.solve(m);
+            rtdp.solve(m);
+            assertTrue(rtdp.isSolved(m.start()));
+            assertEquals(vi.utility(m.start()), rtdp.utility(m.start()), 0.01);
+            assertEquals(vi.action(m.start()), rtdp.action(m.start()));
+        }
+    }
+
+    /**
+     * A state with no listed transitions stays put, as it does when the
+     * game is played, instead of breaking the trials that reach it.
+     */
+    @Test
+    public void testMissingTransitions()
+    {
+        final String world = "3\na1 -1\na2 100\nb1 -1\na2\n4\n"
+            + "N 0.8 0.1 0.0 0.1\nE 0.1 0.8 0.1 0.0\nS 0.0 0.1 0.8 0.1\n"
+            + "W 0.1 0.0 0.1 0.8\n2\na1 E a2\na1 S b1\n0.9\na1";
+        TransitionModel m = CompactMDP.fromMDP(
+            new MarkovDecisionProcess(new Scanner(world)), Precision.DOUBLE);
+        ArrayValueIterationPlayer vi = new ArrayValueIterationPlayer("vi");
+        RTDPPlayer rtdp = new RTDPPlayer("rtdp", new Random(2));
+        vi.solve(m);
+        rtdp.solve(m);
+        int b1 = m.indexOf("b1");
+        assertTrue(rtdp.isSolved(m.start()));
+        assertEquals(vi.utility(m.start()), rtdp.utility(m.start()), 0.01);
+        assertEquals(vi.utility(b1), rtdp.utility(b1), 0.01);
+    }
+
+    /**
+     * A move with a small budget does less work than solving, and the
+     * utilities keep improving across moves until the game ends.
+     */
+    @Test
+    public void testBudget()
+    {
+        MarkovDecisionProcess mdp = new MarkovDecisionProcess(
+            new Scanner(TestWorlds.SIMPLE_G10_R3));
+        RTDPPlayer full = new RTDPPlayer("full", new Random(4));
+        full.solve(CompactMDP.fromMDP(mdp, Precision.DOUBLE));
+
+        RTDPPlayer p = new RTDPPlayer("rtdp", new Random(4));
+        p.setBackupBudget(10);
+        assertNotNull(p.play(mdp));
+        assertTrue(p.getBackups() < full.getBackups());
+        Game game = new Game(mdp, p);
+        game.setQuiet(true);
+        game.play();
+        assertTrue(mdp.getCurrent().isTerminal());
+
+        RTDPPlayer timed = new RTDPPlayer("timed", new Random(5));
+        timed.setTimeBudget(20);
+        long start = System.nanoTime();
+        assertNotNull(timed.play(new MarkovDecisionProcess(
+            new Scanner(TestWorlds.SIMPLE_G10_R1))));
+        assertTrue(System.nanoTime() - start < 1000000000L);
+    }
+
+    /**
+     * Cells that cannot be reached from the start keep their initial bound.
+     */
+    @Test
+    public void testRelevantStatesOnly()
+    {
+        final byte O = StencilGridModel.OPEN;
+        final byte R = StencilGridModel.ROCK;
+        byte[] cells = {
+            StencilGridModel.GOAL, O, R, O, O,
+            O, O, R, O, O,
+            O, O, R, O, O,
+            O, O, R, O, O,
+            O, StencilGridModel.HOLE, R, O, O
+        };
+        StencilGridModel world = new StencilGridModel(5, 5, cells, new int[0],
+            new double[] {
+                0.8, 0.1, 0.0, 0.1
+            }, -3, -100, 100, 1.0, 20);
+        RTDPPlayer p = new RTDPPlayer("rtdp", new Random(6));
+        p.solve(world);
+        assertTrue(p.isSolved(20));
+        for (int s = 0; s < cells.length; s++)
+        {
+            if (s % 5 > 2)
+            {
+                assertEquals(97.0, p.utility(s), 0.0);
+                assertFalse(p.isSolved(s));
+            }
+        }
+    }
+}
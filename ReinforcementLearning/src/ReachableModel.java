@@ -0,0 +1,336 @@
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The part of a TransitionModel that can be reached from one state. Only the
+ * reachable non-terminal states are kept, renumbered densely in the order of
+ * their original indices. Terminal successors are folded into a constant per
+ * (state, action): a terminal state's utility is just its reward, so
+ * P(t | s, a) * R(t) is added to the expected utility of (s, a) directly and
+ * the terminal state is never backed up.
+ * 
+ * Building the model costs time proportional to the reachable part, plus one
+ * bit per state of the original model to mark visited states.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class ReachableModel extends TransitionModel
+{
+    private final TransitionModel base;
+    private final int[] original;
+    private final int[] rowStart;
+    private final int[] next;
+    private final double[] prob;
+    private final double[] constant;
+    private final int start;
+    private final int maxSuccessors;
+
+    /**
+     * Constructor takes the compacted transitions.
+     * 
+     * @param base
+     *            the original model.
+     * @param original
+     *            the original index of each state, in increasing order.
+     * @param rowStart
+     *            the first transition of each (state, action) row.
+     * @param next
+     *            the successor of each transition.
+     * @param prob
+     *            the probability of each transition.
+     * @param constant
+     *            the expected terminal reward of each row.
+     * @param start
+     *            the start state, or -1 if there is none.
+     */
+    private ReachableModel(TransitionModel base, int[] original,
+        int[] rowStart, int[] next, double[] prob, double[] constant,
+        int start)
+    {
+        this.base = base;
+        this.original = original;
+        this.rowStart = rowStart;
+        this.next = next;
+        this.prob = prob;
+        this.constant = constant;
+        this.start = start;
+        int max = 0;
+        for (int k = 0; k + 1 < rowStart.length; k++)
+        {
+            max = Math.max(max, rowStart[k + 1] - rowStart[k]);
+        }
+        maxSuccessors = max;
+    }
+
+    /**
+     * Finds the states reachable from a root with a breadth-first search over
+     * every action's successors and builds the compacted model.
+     * 
+     * @param m
+     *            the model.
+     * @param root
+     *            the state to search from.
+     * @return the reachable part of the model.
+     */
+    public static ReachableModel fromModel(TransitionModel m, int root)
+    {
+        int numActions = m.numActions();
+        int[] succ = new int[m.maxSuccessors()];
+        double[] p = new double[m.maxSuccessors()];
+        BitSet seen = new BitSet(m.numStates());
+        int[] queue = new int[16];
+        int head = 0;
+        int tail = 0;
+        seen.set(root);
+        queue[tail++] = root;
+        while (head < tail)
+        {
+            int s = queue[head++];
+            if (m.isTerminal(s))
+            {
+                continue;
+            }
+            for (int a = 0; a < numActions; a++)
+            {
+                int count = m.successors(s, a, succ, p);
+                for (int i = 0; i < count; i++)
+                {
+                    if (p[i] > 0.0 && !seen.get(succ[i]))
+                    {
+                        seen.set(succ[i]);
+                        if (tail == queue.length)
+                        {
+                            queue = Arrays.copyOf(queue, 2 * tail);
+                        }
+                        queue[tail++] = succ[i];
+                    }
+                }
+            }
+        }
+
+        int numStates = 0;
+        for (int i = 0; i < tail; i++)
+        {
+            if (!m.isTerminal(queue[i]))
+            {
+                queue[numStates++] = queue[i];
+            }
+        }
+        int[] original = Arrays.copyOf(queue, numStates);
+        Arrays.sort(original);
+
+        int[] rowStart = new int[numStates * numActions + 1];
+        int[] next = new int[Math.max(16, numStates * numActions)];
+        double[] prob = new double[next.length];
+        double[] constant = new double[numStates * numActions];
+        int e = 0;
+        for (int s = 0; s < numStates; s++)
+        {
+            for (int a = 0; a < numActions; a++)
+            {
+                int row = s * numActions + a;
+                int count = m.successors(original[s], a, succ, p);
+                for (int i = 0; i < count; i++)
+                {
+                    if (p[i] <= 0.0)
+                    {
+                        continue;
+                    }
+                    if (m.isTerminal(succ[i]))
+                    {
+                        constant[row] += p[i] * m.reward(succ[i]);
+                        continue;
+                    }
+                    if (e == next.length)
+                    {
+                        next = Arrays.copyOf(next, 2 * e);
+                        prob = Arrays.copyOf(prob, 2 * e);
+                    }
+                    next[e] = Arrays.binarySearch(original, succ[i]);
+                    prob[e] = p[i];
+                    e++;
+                }
+                rowStart[row + 1] = e;
+            }
+        }
+        return new ReachableModel(m, original, rowStart,
+            Arrays.copyOf(next, e), Arrays.copyOf(prob, e), constant,
+            Arrays.binarySearch(original, root));
+    }
+
+    /**
+     * @return the model this was built from.
+     */
+    public TransitionModel base()
+    {
+        return base;
+    }
+
+    /**
+     * @param s
+     *            the state index in this model.
+     * @return the index of the state in the original model.
+     */
+    public int original(int s)
+    {
+        return original[s];
+    }
+
+    /**
+     * @param s
+     *            the state index in the original model.
+     * @return the index of the state in this model, or a negative number if
+     *         it is terminal or cannot be reached.
+     */
+    public int reducedIndex(int s)
+    {
+        return Arrays.binarySearch(original, s);
+    }
+
+    /**
+     * @return the number of transitions stored.
+     */
+    public int numTransitions()
+    {
+        return next.length;
+    }
+
+    @Override
+    public int numStates()
+    {
+        return original.length;
+    }
+
+    @Override
+    public int numActions()
+    {
+        return base.numActions();
+    }
+
+    @Override
+    public double gamma()
+    {
+        return base.gamma();
+    }
+
+    @Override
+    public double reward(int s)
+    {
+        return base.reward(original[s]);
+    }
+
+    @Override
+    public boolean isTerminal(int s)
+    {
+        return false;
+    }
+
+    /**
+     * @return the index of the root the model was built from, or a negative
+     *         number if the root is terminal.
+     */
+    @Override
+    public int start()
+    {
+        return start;
+    }
+
+    @Override
+    public String stateName(int s)
+    {
+        return base.stateName(original[s]);
+    }
+
+    @Override
+    public int indexOf(String name)
+    {
+        int s = base.indexOf(name);
+        return (s < 0) ? -1 : Math.max(-1, reducedIndex(s));
+    }
+
+    @Override
+    public String actionName(int a)
+    {
+        return base.actionName(a);
+    }
+
+    @Override
+    public int maxSuccessors()
+    {
+        return maxSuccessors;
+    }
+
+    /**
+     * Writes the non-terminal successors of (s, a). The probabilities do not
+     * sum to one when some of the mass goes to terminal states.
+     * 
+     * @param s
+     *            the state index.
+     * @param a
+     *            the action index.
+     * @param nextStates
+     *            receives the successor state indices.
+     * @param probs
+     *            receives the transition probabilities.
+     * @return the number of successors written.
+     */
+    @Override
+    public int successors(int s, int a, int[] nextStates, double[] probs)
+    {
+        int row = s * base.numActions() + a;
+        int count = 0;
+        for (int e = rowStart[row]; e < rowStart[row + 1]; e++)
+        {
+            nextStates[count] = next[e];
+            probs[count] = prob[e];
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public double expectedUtility(int s, int a, double[] u)
+    {
+        int row = s * base.numActions() + a;
+        int end = rowStart[row + 1];
+        double sum = constant[row];
+        for (int e = rowStart[row]; e < end; e++)
+        {
+            sum += prob[e] * u[next[e]];
+        }
+        return sum;
+    }
+
+    @Override
+    public double expectedUtility(int s, int a, float[] u)
+    {
+        int row = s * base.numActions() + a;
+        int end = rowStart[row + 1];
+        double sum = constant[row];
+        for (int e = rowStart[row]; e < end; e++)
+        {
+            sum += prob[e] * u[next[e]];
+        }
+        return sum;
+    }
+
+    /**
+     * Adds the bytes of the model to a report, but not those of the model
+     * it was pruned from.
+     * 
+     * @param report
+     *            the report.
+     */
+    @Override
+    public void addMemory(MemoryReport report)
+    {
+        super.addMemory(report);
+        report.measure(MemoryReport.MODEL, MemoryReport.STATES,
+            MemoryReport.bytes(original));
+        report.measure(MemoryReport.MODEL, MemoryReport.TRANSITIONS,
+            MemoryReport.bytes(rowStart) + MemoryReport.bytes(next)
+            + MemoryReport.bytes(prob) + MemoryReport.bytes(constant));
+    }
+}
@@ -0,0 +1,66 @@
+import java.util.HashMap;
+
+/**
+ * An agent that plays a saved PolicySnapshot instead of solving the MDP. It
+ * refuses to play an MDP whose fingerprint differs from the snapshot's.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class SnapshotPlayer extends Player
+{
+    private final PolicySnapshot snapshot;
+    // the last world whose fingerprint matched, so clones are checked once.
+    private MDPWorld checked;
+
+    /**
+     * Constructor takes the name and the snapshot.
+     * 
+     * @param name
+     *            the name of the player.
+     * @param snapshot
+     *            the snapshot of the MDP that will be played.
+     */
+    public SnapshotPlayer(String name, PolicySnapshot snapshot)
+    {
+        super(name);
+        this.snapshot = snapshot;
+    }
+
+    @Override
+    public String play(MarkovDecisionProcess mdp)
+    {
+        if (mdp.world() != checked)
+        {
+            if (mdp.fingerprint() != snapshot.fingerprint())
+            {
+                throw new IllegalArgumentException(
+                    "The snapshot was saved for another MDP.");
+            }
+            checked = mdp.world();
+        }
+        int s = mdp.getCurrentIndex();
+        return (s < 0) ? null : snapshot.actionName(s);
+    }
+
+    @Override
+    public HashMap<State, Double> getU()
+    {
+        if (utility == null)
+        {
+            utility = snapshot.getU();
+        }
+        return utility;
+    }
+
+    @Override
+    public HashMap<State, String> getPi()
+    {
+        if (policy == null)
+        {
+            policy = snapshot.getPi();
+        }
+        return policy;
+    }
+}
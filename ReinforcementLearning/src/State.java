@@ -11,6 +11,7 @@ public class State implements Cloneable
     private String name;
     private boolean terminal;
     private boolean start;
+    private int id = -1;
 
     /**
      * Constructor takes a name and a reward.
@@ -42,6 +43,26 @@ public class State implements Cloneable
         return name;
     }
 
+    /**
+     * @return the id given to this state by the StateRegistry of its MDP, or
+     *         -1 if it has none. Clones keep the id.
+     */
+    public int id()
+    {
+        return id;
+    }
+
+    /**
+     * Sets the id of this state. Only a StateRegistry should call this.
+     * 
+     * @param id
+     *            the id.
+     */
+    void setId(int id)
+    {
+        this.id = id;
+    }
+
     /**
      * Sets this state to be a terminal state.
      */
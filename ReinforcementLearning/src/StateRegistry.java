@@ -0,0 +1,291 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Interns the states of one MDP under dense int ids, from 0 to size() - 1
+ * in the order the MDP lists them. The registry keeps one instance of each
+ * state (a flyweight) that callers can share instead of cloning, and maps
+ * between ids, names and, for GridWorld names such as "c12", grid cells, all
+ * in constant time.
+ * 
+ * Looking up a State that came from the same MDP (or a clone of it) uses the
+ * id stored in the state, so it needs neither hashing nor a scan of the
+ * states. Other states are looked up by name in a hash table.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class StateRegistry
+{
+    private final State[] states;
+    private final HashMap<String, Integer> ids;
+    private final int[] rows;
+    private final int[] cols;
+    private final int numRows;
+    private final int numCols;
+    private final int[] cellIds;
+
+    /**
+     * Constructor interns the states and gives each one its id. The states
+     * become the flyweights and must not be modified afterwards, except to
+     * mark them terminal while the MDP is being read.
+     * 
+     * @param list
+     *            the states, with distinct names.
+     */
+    public StateRegistry(List<State> list)
+    {
+        int n = list.size();
+        states = new State[n];
+        ids = new HashMap<String, Integer>(2 * n);
+        int[] r = new int[n];
+        int[] c = new int[n];
+        boolean grid = true;
+        int maxRow = -1;
+        int maxCol = -1;
+        for (int id = 0; id < n; id++)
+        {
+            State s = list.get(id);
+            if (ids.put(s.name(), id) != null)
+            {
+                throw new IllegalArgumentException(
+                    "Duplicate state name: " + s.name());
+            }
+            s.setId(id);
+            states[id] = s;
+            if (grid && parseCell(s.name(), r, c, id))
+            {
+                maxRow = Math.max(maxRow, r[id]);
+                maxCol = Math.max(maxCol, c[id]);
+            }
+            else
+            {
+                grid = false;
+            }
+        }
+        grid = grid && denseGrid(n, maxRow, maxCol);
+        int[] table = null;
+        if (grid)
+        {
+            table = new int[(maxRow + 1) * (maxCol + 1)];
+            Arrays.fill(table, -1);
+            for (int id = 0; id < n && grid; id++)
+            {
+                int cell = r[id] * (maxCol + 1) + c[id];
+                grid = (table[cell] < 0);
+                table[cell] = id;
+            }
+        }
+        rows = grid ? r : null;
+        cols = grid ? c : null;
+        numRows = grid ? maxRow + 1 : 0;
+        numCols = grid ? maxCol + 1 : 0;
+        cellIds = grid ? table : null;
+    }
+
+    /**
+     * Helper method to parse a GridWorld state name without regular
+     * expressions, matching GridWorld.nameToRow and nameToCol.
+     * 
+     * @param name
+     *            the name.
+     * @param r
+     *            receives the row.
+     * @param c
+     *            receives the column.
+     * @param id
+     *            the index to write.
+     * @return false if the name is not a grid name.
+     */
+    static boolean parseCell(String name, int[] r, int[] c, int id)
+    {
+        final int NUM_LETTERS = 26;
+        int i = 0;
+        long row = 0;
+        while (i < name.length() && name.charAt(i) >= 'a'
+            && name.charAt(i) <= 'z')
+        {
+            row = row * NUM_LETTERS + (name.charAt(i) - 'a');
+            i++;
+        }
+        if (i == 0 || i == name.length())
+        {
+            return false;
+        }
+        long col = 0;
+        for (int k = i; k < name.length(); k++)
+        {
+            char ch = name.charAt(k);
+            if (ch < '0' || ch > '9')
+            {
+                return false;
+            }
+            col = col * 10 + (ch - '0');
+        }
+        if (col < 1 || row > Integer.MAX_VALUE || col > Integer.MAX_VALUE)
+        {
+            return false;
+        }
+        r[id] = (int) row;
+        c[id] = (int) col - 1;
+        return true;
+    }
+
+    /**
+     * Tells whether grid cells are dense enough to keep a table of them; a
+     * sparse grid would waste memory on the cell table.
+     * 
+     * @param n
+     *            the number of states.
+     * @param maxRow
+     *            the largest row.
+     * @param maxCol
+     *            the largest column.
+     * @return true if the table is worth keeping.
+     */
+    static boolean denseGrid(int n, int maxRow, int maxCol)
+    {
+        return n > 0 && (long) (maxRow + 1) * (maxCol + 1) <= 4L * n;
+    }
+
+    /**
+     * @return the number of states.
+     */
+    public int size()
+    {
+        return states.length;
+    }
+
+    /**
+     * @param id
+     *            the state id.
+     * @return the shared instance of the state, which must not be modified.
+     */
+    public State state(int id)
+    {
+        return states[id];
+    }
+
+    /**
+     * @param id
+     *            the state id.
+     * @return the name of the state.
+     */
+    public String name(int id)
+    {
+        return states[id].name();
+    }
+
+    /**
+     * @param name
+     *            the name of a state.
+     * @return the id of the state, or -1 if there is none.
+     */
+    public int id(String name)
+    {
+        Integer id = ids.get(name);
+        return (id == null) ? -1 : id;
+    }
+
+    /**
+     * @param s
+     *            a state.
+     * @return the id of the state with the same name, or -1 if there is none.
+     */
+    public int id(State s)
+    {
+        int id = s.id();
+        if (id >= 0 && id < states.length
+            && states[id].name().equals(s.name()))
+        {
+            return id;
+        }
+        return id(s.name());
+    }
+
+    /**
+     * @return true if every state is a grid cell, so that row(), col() and
+     *         id(row, col) can be used.
+     */
+    public boolean isGrid()
+    {
+        return cellIds != null;
+    }
+
+    /**
+     * @return the number of rows of the grid, or 0 if it is not a grid.
+     */
+    public int numRows()
+    {
+        return numRows;
+    }
+
+    /**
+     * @return the number of columns of the grid, or 0 if it is not a grid.
+     */
+    public int numCols()
+    {
+        return numCols;
+    }
+
+    /**
+     * @param id
+     *            the state id.
+     * @return the row of the state's cell.
+     */
+    public int row(int id)
+    {
+        return rows[id];
+    }
+
+    /**
+     * @param id
+     *            the state id.
+     * @return the column of the state's cell.
+     */
+    public int col(int id)
+    {
+        return cols[id];
+    }
+
+    /**
+     * @param row
+     *            the row.
+     * @param col
+     *            the column.
+     * @return the id of the state in the cell, or -1 if there is none.
+     */
+    public int id(int row, int col)
+    {
+        if (row < 0 || row >= numRows || col < 0 || col >= numCols)
+        {
+            return -1;
+        }
+        return cellIds[row * numCols + col];
+    }
+
+    /**
+     * Adds the bytes of the states, their names and the maps that find them
+     * to a report.
+     * 
+     * @param report
+     *            the report.
+     */
+    public void addMemory(MemoryReport report)
+    {
+        long names = 0;
+        for (State s : states)
+        {
+            names += MemoryReport.string(s.name().length());
+        }
+        report.measure(MemoryReport.WORLD, MemoryReport.STATES,
+            MemoryReport.bytes(states)
+            + (long) states.length * MemoryReport.STATE
+            + MemoryReport.bytes(rows) + MemoryReport.bytes(cols)
+            + MemoryReport.bytes(cellIds));
+        report.measure(MemoryReport.WORLD, MemoryReport.NAMES,
+            names + MemoryReport.nameIndex(ids.size()));
+    }
+}
@@ -0,0 +1,86 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+import org.junit.Test;
+
+/**
+ * A test class for the StateRegistry.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class StateRegistryTest
+{
+    /**
+     * Ids, names and grid cells map to each other.
+     */
+    @Test
+    public void testGrid()
+    {
+        MarkovDecisionProcess mdp = new MarkovDecisionProcess(
+            new Scanner(GridWorld.createRandomGridWorld(30, 7, 5, 2, 3, 1,
+                1.0)));
+        StateRegistry registry = mdp.registry();
+        List<State> states = mdp.getStates();
+        assertEquals(states.size(), registry.size());
+        assertTrue(registry.isGrid());
+        assertEquals(30, registry.numRows());
+        for (int id = 0; id < registry.size(); id++)
+        {
+            State s = states.get(id);
+            assertEquals(s.name(), registry.name(id));
+            assertEquals(id, registry.id(s.name()));
+            assertEquals(id, registry.id(s));
+            assertEquals(id, registry.id(new State(s.name(), 0)));
+            assertEquals(id, mdp.indexOf(s));
+            int row = GridWorld.nameToRow(s.name());
+            int col = GridWorld.nameToCol(s.name());
+            assertEquals(row, registry.row(id));
+            assertEquals(col, registry.col(id));
+            assertEquals(id, registry.id(row, col));
+        }
+        assertEquals(-1, registry.id("zz99"));
+        assertEquals(-1, registry.id(-1, 0));
+        assertEquals(mdp.indexOf(mdp.getCurrent()), mdp.getCurrentIndex());
+    }
+
+    /**
+     * Clones share the registry, and names that are not grid cells still
+     * get ids.
+     */
+    @Test
+    public void testCloneAndNames()
+    {
+        MarkovDecisionProcess mdp = new MarkovDecisionProcess(
+            new Scanner(TestWorlds.SIMPLE_G10_R3));
+        MarkovDecisionProcess copy = (MarkovDecisionProcess) mdp.clone();
+        assertSame(mdp.registry(), copy.registry());
+        assertEquals(mdp.getCurrentIndex(), copy.getCurrentIndex());
+
+        List<State> list = new ArrayList<State>();
+        list.add(new State("start", 0));
+        list.add(new State("b2", 1));
+        StateRegistry registry = new StateRegistry(list);
+        assertFalse(registry.isGrid());
+        assertEquals(1, registry.id("b2"));
+        assertSame(list.get(0), registry.state(0));
+        boolean rejected = false;
+        list.add(new State("b2", 2));
+        try
+        {
+            new StateRegistry(list);
+        }
+        catch (IllegalArgumentException e)
+        {
+            rejected = true;
+        }
+        assertTrue(rejected);
+    }
+}
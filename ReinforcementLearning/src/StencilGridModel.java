@@ -0,0 +1,772 @@
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A TransitionModel for GridWorld worlds that stores no transitions at all.
+ * The world is a row-major grid of cell types plus the list of tunnel cells,
+ * and the successors of a cell are computed from the geometry with the same
+ * rules GridWorld uses when it writes the paths: moving off the grid or into
+ * a rock stays put, and moving into a tunnel comes out of the next tunnel in
+ * the same direction. The intended direction is followed with the shared
+ * direction uncertainty.
+ * 
+ * State indices are cell indices (row * numCols + col). Rock and tunnel cells
+ * are not states of the MDP; they are treated as terminal cells with no
+ * reward and are never reached.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class StencilGridModel extends TransitionModel implements BandedGrid
+{
+    /**
+     * An open cell.
+     */
+    public static final byte OPEN = 0;
+    /**
+     * A rock that cannot be entered.
+     */
+    public static final byte ROCK = 1;
+    /**
+     * A tunnel entrance.
+     */
+    public static final byte TUNNEL = 2;
+    /**
+     * A terminal hole.
+     */
+    public static final byte HOLE = 3;
+    /**
+     * A terminal goal.
+     */
+    public static final byte GOAL = 4;
+    private static final String[] ACTIONS = {
+        "N", "E", "S", "W"
+    };
+    private static final int[] DR = {
+        -1, 0, 1, 0
+    };
+    private static final int[] DC = {
+        0, 1, 0, -1
+    };
+    /**
+     * The interior loop that uses one scalar backup per cell.
+     */
+    static final JacobiKernel SCALAR_KERNEL = new JacobiKernel()
+    {
+        @Override
+        public void interior(double[] u, double[] next, int numRows,
+            int numCols, double alpha, double beta, double c, double d,
+            double r, double g)
+        {
+            for (int row = 1; row < numRows - 1; row++)
+            {
+                scalarInterior(u, next, numCols, row * numCols + 1,
+                    (row + 1) * numCols - 1, alpha, beta, c, d, r, g);
+            }
+        }
+    };
+    private static final JacobiKernel VECTOR_KERNEL = loadVectorKernel();
+    private static final JacobiKernel KERNEL =
+        (VECTOR_KERNEL != null) ? VECTOR_KERNEL : SCALAR_KERNEL;
+    private final int numRows;
+    private final int numCols;
+    private final byte[] cells;
+    private final int[] tunnels;
+    // the index of each cell in the tunnel list, or -1.
+    private final int[] tunnelIndex;
+    // the cell reached by entering each tunnel in each direction, or -1.
+    private final int[] tunnelExits;
+    private final double[] directionUncertainty;
+    private final double[] typeReward;
+    private final double gamma;
+    private final int start;
+    private int[] irregular;
+
+    /**
+     * Constructor takes the layout of the world.
+     * 
+     * @param numRows
+     *            the number of rows.
+     * @param numCols
+     *            the number of columns.
+     * @param cells
+     *            the cell types in row-major order.
+     * @param tunnels
+     *            the tunnel cells in the order they connect.
+     * @param directionUncertainty
+     *            the probability of moving in the intended direction, 90
+     *            degrees clockwise, backwards and 90 degrees anticlockwise.
+     * @param cellReward
+     *            the reward of an open cell.
+     * @param holeReward
+     *            the reward of a hole.
+     * @param goalReward
+     *            the reward of a goal.
+     * @param gamma
+     *            the discount rate.
+     * @param start
+     *            the start cell.
+     */
+    public StencilGridModel(int numRows, int numCols, byte[] cells,
+        int[] tunnels, double[] directionUncertainty, double cellReward,
+        double holeReward, double goalReward, double gamma, int start)
+    {
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.cells = cells;
+        this.tunnels = tunnels;
+        this.directionUncertainty = directionUncertainty.clone();
+        this.typeReward = new double[] {
+            cellReward, 0.0, 0.0, holeReward, goalReward
+        };
+        this.gamma = gamma;
+        this.start = start;
+        this.tunnelIndex = new int[cells.length];
+        Arrays.fill(tunnelIndex, -1);
+        this.tunnelExits = new int[4 * tunnels.length];
+        for (int i = 0; i < tunnels.length; i++)
+        {
+            tunnelIndex[tunnels[i]] = i;
+            int exit = tunnels[(i + 1) % tunnels.length];
+            for (int k = 0; k < 4; k++)
+            {
+                int out = neighbor(exit / numCols, exit % numCols, k);
+                tunnelExits[4 * i + k] =
+                    (out >= 0 && !isBlocked(out)) ? out : -1;
+            }
+        }
+    }
+
+    /**
+     * Recovers the layout of a GridWorld from an MDP with GridLayout.of()
+     * and copies its cells into a stencil model.
+     * 
+     * @param mdp
+     *            the MDP.
+     * @return the stencil model with the same transitions, or null if the
+     *         MDP is not a GridWorld.
+     */
+    public static StencilGridModel fromMDP(MarkovDecisionProcess mdp)
+    {
+        GridLayout layout = GridLayout.of(mdp.world());
+        return (layout == null) ? null
+            : layout.toModel(mdp.getCurrentIndex());
+    }
+
+    /**
+     * @return the number of rows.
+     */
+    @Override
+    public int numRows()
+    {
+        return numRows;
+    }
+
+    /**
+     * @return the number of columns.
+     */
+    @Override
+    public int numCols()
+    {
+        return numCols;
+    }
+
+    /**
+     * @param s
+     *            the cell index.
+     * @return the type of the cell.
+     */
+    public byte cellType(int s)
+    {
+        return cells[s];
+    }
+
+    /**
+     * Returns the cell reached by moving from a cell in a direction, following
+     * GridWorld's rules for edges, rocks and tunnels.
+     * 
+     * @param s
+     *            the cell index.
+     * @param k
+     *            the direction index (N, E, S, W).
+     * @return the cell reached.
+     */
+    public int target(int s, int k)
+    {
+        return target(s, s / numCols, s % numCols, k);
+    }
+
+    /**
+     * Helper method to get the cell reached when the row and column of the
+     * cell are already known.
+     * 
+     * @param s
+     *            the cell index.
+     * @param row
+     *            the row of the cell.
+     * @param col
+     *            the column of the cell.
+     * @param k
+     *            the direction index (N, E, S, W).
+     * @return the cell reached.
+     */
+    private int target(int s, int row, int col, int k)
+    {
+        int adj = neighbor(row, col, k);
+        if (adj < 0 || cells[adj] == ROCK)
+        {
+            return s;
+        }
+        if (cells[adj] == TUNNEL)
+        {
+            int out = tunnelExits[4 * tunnelIndex[adj] + k];
+            return (out < 0) ? s : out;
+        }
+        return adj;
+    }
+
+    /**
+     * Returns the cell reached by moving into a tunnel: the cell next to the
+     * following tunnel in the same direction.
+     * 
+     * @param index
+     *            the index of the tunnel in the tunnel list.
+     * @param k
+     *            the direction index (N, E, S, W).
+     * @return the cell reached, or -1 if that cell is off the grid, a rock or
+     *         a tunnel, in which case the move stays put.
+     */
+    public int tunnelExit(int index, int k)
+    {
+        return tunnelExits[4 * index + k];
+    }
+
+    /**
+     * Helper method to get the adjacent cell.
+     * 
+     * @param row
+     *            the row of the cell.
+     * @param col
+     *            the column of the cell.
+     * @param k
+     *            the direction index (N, E, S, W).
+     * @return the adjacent cell, or -1 if it is off the grid.
+     */
+    private int neighbor(int row, int col, int k)
+    {
+        int r = row + DR[k];
+        int c = col + DC[k];
+        if (r < 0 || r >= numRows || c < 0 || c >= numCols)
+        {
+            return -1;
+        }
+        return r * numCols + c;
+    }
+
+    /**
+     * Gets the four targets of a cell, taking a shortcut for interior cells
+     * with plain neighbors.
+     * 
+     * @param s
+     *            the cell index.
+     * @param t
+     *            receives the cell reached in each direction.
+     */
+    public void targets(int s, int[] t)
+    {
+        int row = s / numCols;
+        int col = s - row * numCols;
+        if (row > 0 && row < numRows - 1 && col > 0 && col < numCols - 1
+            && cells[s - numCols] != ROCK && cells[s - numCols] != TUNNEL
+            && cells[s + 1] != ROCK && cells[s + 1] != TUNNEL
+            && cells[s + numCols] != ROCK && cells[s + numCols] != TUNNEL
+            && cells[s - 1] != ROCK && cells[s - 1] != TUNNEL)
+        {
+            // interior cell with plain neighbors: the usual stencil.
+            t[0] = s - numCols;
+            t[1] = s + 1;
+            t[2] = s + numCols;
+            t[3] = s - 1;
+        }
+        else
+        {
+            for (int k = 0; k < 4; k++)
+            {
+                t[k] = target(s, row, col, k);
+            }
+        }
+    }
+
+    /**
+     * @param o
+     *            the offset from the intended direction (0 to 3 quarter turns
+     *            clockwise).
+     * @return the probability of moving in that direction.
+     */
+    public double directionProbability(int o)
+    {
+        return directionUncertainty[o];
+    }
+
+    /**
+     * Writes what one PartitionWorker needs to solve a band of rows: the
+     * cells of the band and of the rows on either side of it, the tunnels
+     * with the cell each one leads to in each direction, the direction
+     * uncertainty, the rewards and the discount. The rest of the layout is
+     * not sent, so a worker's memory grows with its band and not with the
+     * world.
+     * 
+     * @param out
+     *            the output.
+     * @param firstRow
+     *            the first row of the band.
+     * @param lastRow
+     *            one past the last row of the band.
+     * @throws IOException
+     *             if the output cannot be written.
+     */
+    @Override
+    public void writeBand(DataOutput out, int firstRow, int lastRow)
+        throws IOException
+    {
+        int haloFirst = Math.max(0, firstRow - 1);
+        int haloLast = Math.min(numRows, lastRow + 1);
+        out.writeInt(numRows);
+        out.writeInt(numCols);
+        out.writeInt(firstRow);
+        out.writeInt(lastRow);
+        out.write(cells, haloFirst * numCols, (haloLast - haloFirst) * numCols);
+        out.writeInt(tunnels.length);
+        for (int i = 0; i < tunnels.length; i++)
+        {
+            out.writeInt(tunnels[i]);
+            for (int k = 0; k < 4; k++)
+            {
+                out.writeInt(tunnelExit(i, k));
+            }
+        }
+        for (double p : directionUncertainty)
+        {
+            out.writeDouble(p);
+        }
+        for (double r : typeReward)
+        {
+            out.writeDouble(r);
+        }
+        out.writeDouble(gamma);
+    }
+
+    /**
+     * @param s
+     *            the cell index.
+     * @return true if the cell is a rock or tunnel.
+     */
+    private boolean isBlocked(int s)
+    {
+        return isBlocked(cells[s]);
+    }
+
+    /**
+     * @param type
+     *            a cell type.
+     * @return true if the type is a rock or tunnel.
+     */
+    private static boolean isBlocked(byte type)
+    {
+        return type == ROCK || type == TUNNEL;
+    }
+
+    @Override
+    public boolean isState(int s)
+    {
+        return !isBlocked(s);
+    }
+
+    @Override
+    public int numStates()
+    {
+        return cells.length;
+    }
+
+    @Override
+    public int numActions()
+    {
+        return ACTIONS.length;
+    }
+
+    @Override
+    public double gamma()
+    {
+        return gamma;
+    }
+
+    @Override
+    public double reward(int s)
+    {
+        return typeReward[cells[s]];
+    }
+
+    @Override
+    public boolean isTerminal(int s)
+    {
+        return cells[s] != OPEN;
+    }
+
+    @Override
+    public int start()
+    {
+        return start;
+    }
+
+    @Override
+    public String stateName(int s)
+    {
+        return GridWorld.rowColToName(s / numCols, s % numCols);
+    }
+
+    @Override
+    public int indexOf(String name)
+    {
+        int[] row = new int[1];
+        int[] col = new int[1];
+        if (!StateRegistry.parseCell(name, row, col, 0) || row[0] >= numRows
+            || col[0] >= numCols)
+        {
+            return -1;
+        }
+        int s = row[0] * numCols + col[0];
+        return isBlocked(s) ? -1 : s;
+    }
+
+    @Override
+    public String actionName(int a)
+    {
+        return ACTIONS[a];
+    }
+
+    @Override
+    public int maxSuccessors()
+    {
+        return 4;
+    }
+
+    @Override
+    public int successors(int s, int a, int[] next, double[] prob)
+    {
+        if (isTerminal(s))
+        {
+            return 0;
+        }
+        int count = 0;
+        for (int o = 0; o < 4; o++)
+        {
+            double p = directionUncertainty[o];
+            if (p > 0.0)
+            {
+                int s1 = target(s, (a + o) & 3);
+                int i = 0;
+                while (i < count && next[i] != s1)
+                {
+                    i++;
+                }
+                if (i == count)
+                {
+                    next[count] = s1;
+                    prob[count] = 0.0;
+                    count++;
+                }
+                prob[i] += p;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public double expectedUtility(int s, int a, double[] u)
+    {
+        if (isTerminal(s))
+        {
+            return 0.0;
+        }
+        double sum = 0.0;
+        for (int o = 0; o < 4; o++)
+        {
+            sum += directionUncertainty[o] * u[target(s, (a + o) & 3)];
+        }
+        return sum;
+    }
+
+    @Override
+    public double expectedUtility(int s, int a, float[] u)
+    {
+        if (isTerminal(s))
+        {
+            return 0.0;
+        }
+        double sum = 0.0;
+        for (int o = 0; o < 4; o++)
+        {
+            sum += directionUncertainty[o] * u[target(s, (a + o) & 3)];
+        }
+        return sum;
+    }
+
+    /**
+     * Performs one in-place Bellman sweep over the grid in row-major order.
+     * The four targets of each cell are found once and shared by all four
+     * actions, so interior cells only touch their immediate neighbors.
+     * 
+     * @param u
+     *            the utilities, updated in place.
+     * @param policy
+     *            receives the greedy action of every cell (-1 if terminal).
+     * @return the maximum change in the utility of any cell.
+     */
+    @Override
+    public double sweep(double[] u, int[] policy)
+    {
+        final double p0 = directionUncertainty[0];
+        final double p1 = directionUncertainty[1];
+        final double p2 = directionUncertainty[2];
+        final double p3 = directionUncertainty[3];
+        int[] t = new int[4];
+        double delta = 0.0;
+        for (int s = 0; s < cells.length; s++)
+        {
+            double value = typeReward[cells[s]];
+            int best = -1;
+            if (cells[s] == OPEN)
+            {
+                targets(s, t);
+                double n = u[t[0]];
+                double e = u[t[1]];
+                double so = u[t[2]];
+                double w = u[t[3]];
+                double max = p0 * n + p1 * e + p2 * so + p3 * w;
+                best = 0;
+                double q = p0 * e + p1 * so + p2 * w + p3 * n;
+                if (q > max)
+                {
+                    max = q;
+                    best = 1;
+                }
+                q = p0 * so + p1 * w + p2 * n + p3 * e;
+                if (q > max)
+                {
+                    max = q;
+                    best = 2;
+                }
+                q = p0 * w + p1 * n + p2 * e + p3 * so;
+                if (q > max)
+                {
+                    max = q;
+                    best = 3;
+                }
+                value += gamma * max;
+            }
+            policy[s] = best;
+            double change = Math.abs(value - u[s]);
+            if (change > delta)
+            {
+                delta = change;
+            }
+            u[s] = value;
+        }
+        return delta;
+    }
+
+    /**
+     * Backs up part of one row of the interior with the plain stencil, one
+     * cell at a time. The arguments are those of JacobiKernel.interior().
+     * 
+     * @param u
+     *            the current utilities.
+     * @param next
+     *            receives the backed up utilities.
+     * @param w
+     *            the number of columns.
+     * @param from
+     *            the first cell.
+     * @param to
+     *            one past the last cell.
+     * @param alpha
+     *            half the sum of the forward and backward probabilities.
+     * @param beta
+     *            half the sum of the two sideways probabilities.
+     * @param c
+     *            half the forward minus the backward probability.
+     * @param d
+     *            half the clockwise minus the anticlockwise probability.
+     * @param r
+     *            the reward of an open cell.
+     * @param g
+     *            half of gamma.
+     */
+    static void scalarInterior(double[] u, double[] next, int w, int from,
+        int to, double alpha, double beta, double c, double d, double r,
+        double g)
+    {
+        for (int s = from; s < to; s++)
+        {
+            double un = u[s - w];
+            double ue = u[s + 1];
+            double us = u[s + w];
+            double uw = u[s - 1];
+            double sumNS = un + us;
+            double sumEW = ue + uw;
+            double diffNS = un - us;
+            double diffEW = ue - uw;
+            // the larger of Q_N and Q_S, and of Q_E and Q_W; g holds half
+            // of gamma for the larger of the two.
+            double ns = alpha * sumNS + beta * sumEW
+                + Math.abs(c * diffNS + d * diffEW);
+            double ew = alpha * sumEW + beta * sumNS
+                + Math.abs(c * diffEW - d * diffNS);
+            next[s] = r + g * (ns + ew + Math.abs(ns - ew));
+        }
+    }
+
+    /**
+     * Helper method to load VectorJacobiKernel by name, so that this class
+     * does not depend on the incubator module.
+     * 
+     * @return the kernel, or null if the class or the module is missing.
+     */
+    private static JacobiKernel loadVectorKernel()
+    {
+        try
+        {
+            return (JacobiKernel) Class.forName("VectorJacobiKernel")
+                .getDeclaredConstructor().newInstance();
+        }
+        catch (ReflectiveOperationException e)
+        {
+            return null;
+        }
+        catch (LinkageError e)
+        {
+            // the class was built but jdk.incubator.vector is not loaded.
+            return null;
+        }
+    }
+
+    /**
+     * @return the Vector API kernel, or null if it cannot be loaded.
+     */
+    static JacobiKernel vectorKernel()
+    {
+        return VECTOR_KERNEL;
+    }
+
+    /**
+     * Performs one synchronous Bellman sweep. The interior of every row is
+     * backed up with the plain stencil in a loop with no branches, no integer
+     * division and no indirect loads. The loop uses the symmetry of the
+     * direction uncertainty: with the sums and differences of opposite
+     * neighbors, max(Q_N, Q_S) = (Q_N + Q_S + |Q_N - Q_S|) / 2 and likewise
+     * for E and W, which halves the multiplications and replaces the
+     * comparisons with abs(). The interior loop is VectorJacobiKernel when
+     * it can be loaded and the scalar kernel otherwise. Cells where the
+     * stencil does not apply (the border, terminal and blocked cells, and
+     * cells next to rocks or tunnels) are then redone by the scalar code.
+     * 
+     * @param u
+     *            the current utilities.
+     * @param next
+     *            receives the backed up utilities.
+     * @return the maximum change in the utility of any cell.
+     */
+    @Override
+    public double jacobiSweep(double[] u, double[] next)
+    {
+        final double p0 = directionUncertainty[0];
+        final double p1 = directionUncertainty[1];
+        final double p2 = directionUncertainty[2];
+        final double p3 = directionUncertainty[3];
+        final double alpha = 0.5 * (p0 + p2);
+        final double beta = 0.5 * (p1 + p3);
+        final double c = 0.5 * (p0 - p2);
+        final double d = 0.5 * (p1 - p3);
+        final double r = typeReward[OPEN];
+        final double g = 0.5 * gamma;
+        KERNEL.interior(u, next, numRows, numCols, alpha, beta, c, d, r, g);
+        int[] t = new int[4];
+        for (int s : irregularCells())
+        {
+            double value = typeReward[cells[s]];
+            if (cells[s] == OPEN)
+            {
+                targets(s, t);
+                double max = Double.NEGATIVE_INFINITY;
+                for (int a = 0; a < 4; a++)
+                {
+                    max = Math.max(max, p0 * u[t[a]] + p1 * u[t[(a + 1) & 3]]
+                        + p2 * u[t[(a + 2) & 3]] + p3 * u[t[(a + 3) & 3]]);
+                }
+                value += gamma * max;
+            }
+            next[s] = value;
+        }
+        double delta = 0.0;
+        for (int s = 0; s < cells.length; s++)
+        {
+            delta = Math.max(delta, Math.abs(next[s] - u[s]));
+        }
+        return delta;
+    }
+
+    /**
+     * Adds the bytes of the model to a report. The state names are not
+     * stored, so they cost nothing until indexOf() builds its map.
+     * 
+     * @param report
+     *            the report.
+     */
+    @Override
+    public void addMemory(MemoryReport report)
+    {
+        super.addMemory(report);
+        report.measure(MemoryReport.MODEL, MemoryReport.STATES,
+            MemoryReport.bytes(cells) + MemoryReport.bytes(typeReward));
+        report.measure(MemoryReport.MODEL, MemoryReport.TRANSITIONS,
+            MemoryReport.bytes(tunnels)
+            + MemoryReport.bytes(directionUncertainty));
+        report.measure(MemoryReport.MODEL, MemoryReport.CACHES,
+            MemoryReport.bytes(irregular) + MemoryReport.bytes(tunnelIndex)
+            + MemoryReport.bytes(tunnelExits));
+    }
+
+    /**
+     * Helper method to list, once, the cells that the plain stencil gets
+     * wrong.
+     * 
+     * @return the irregular cells.
+     */
+    private int[] irregularCells()
+    {
+        if (irregular == null)
+        {
+            int count = 0;
+            int[] list = new int[cells.length];
+            for (int s = 0; s < cells.length; s++)
+            {
+                int row = s / numCols;
+                int col = s % numCols;
+                boolean plain = cells[s] == OPEN && row > 0
+                    && row < numRows - 1 && col > 0 && col < numCols - 1;
+                for (int k = 0; plain && k < 4; k++)
+                {
+                    plain = !isBlocked(neighbor(row, col, k));
+                }
+                if (!plain)
+                {
+                    list[count++] = s;
+                }
+            }
+            irregular = Arrays.copyOf(list, count);
+        }
+        return irregular;
+    }
+}
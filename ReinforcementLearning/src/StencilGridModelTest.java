@@ -0,0 +1,221 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Random;
+import java.util.Scanner;
+
+import org.junit.Test;
+
+/**
+ * A test class for the StencilGridModel.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class StencilGridModelTest
+{
+    /**
+     * Helper method to build the 3x4 world of SIMPLE_G10_R3 as a stencil.
+     * 
+     * @return the stencil model.
+     */
+    static StencilGridModel simpleWorld()
+    {
+        final byte O = StencilGridModel.OPEN;
+        byte[] cells = {
+            O, O, O, StencilGridModel.GOAL, O, StencilGridModel.ROCK, O,
+            StencilGridModel.HOLE, O, O, O, O
+        };
+        return new StencilGridModel(3, 4, cells, new int[0], new double[] {
+            0.8, 0.1, 0.0, 0.1
+        }, -3, -100, 100, 1.0, 8);
+    }
+
+    /**
+     * The stencil finds the same policy and utilities as the stored model.
+     */
+    @Test
+    public void testSimpleWorld()
+    {
+        final String[] CORRECT = {
+            "E", "E", "E", "N", "N", "N", "W", "W", "W"
+        };
+        StencilGridModel stencil = simpleWorld();
+        ArrayValueIterationPlayer p = new ArrayValueIterationPlayer("stencil");
+        p.solve(stencil);
+        String[] answer = new String[CORRECT.length];
+        int i = 0;
+        for (int s = 0; s < stencil.numStates(); s++)
+        {
+            if (!stencil.isTerminal(s))
+            {
+                answer[i++] = stencil.actionName(p.action(s));
+            }
+        }
+        assertArrayEquals(CORRECT, answer);
+
+        CompactMDP compact = CompactMDP.fromMDP(new MarkovDecisionProcess(
+            new Scanner(TestWorlds.SIMPLE_G10_R3)),
+            Precision.DOUBLE);
+        ArrayValueIterationPlayer q = new ArrayValueIterationPlayer("stored");
+        q.solve(compact);
+        for (int s = 0; s < compact.numStates(); s++)
+        {
+            assertEquals(q.utility(s),
+                p.utility(stencil.indexOf(compact.stateName(s))), 1e-9);
+        }
+        // names that are not cells of the grid are not states.
+        for (String bad : new String[] {"A1", "a0", "a", "d1", "a9", "b2"})
+        {
+            assertEquals(-1, stencil.indexOf(bad));
+        }
+    }
+
+    /**
+     * The stencil sweep agrees with a stored copy of its successors on a
+     * random world with rocks and tunnels.
+     * 
+     * @throws Exception
+     *             if the stored copy cannot be made.
+     */
+    @Test
+    public void testRandomWorld() throws Exception
+    {
+        StencilGridModel stencil =
+            GridWorld.createRandomStencilModel(12, 15, 10, 4, 8, 2, 0.95);
+        int[] next = new int[stencil.maxSuccessors()];
+        double[] prob = new double[stencil.maxSuccessors()];
+        for (int s = 0; s < stencil.numStates(); s++)
+        {
+            for (int a = 0; a < stencil.numActions(); a++)
+            {
+                int count = stencil.successors(s, a, next, prob);
+                double sum = 0.0;
+                for (int k = 0; k < count; k++)
+                {
+                    sum += prob[k];
+                }
+                assertEquals(stencil.isTerminal(s) ? 0.0 : 1.0, sum, 1e-9);
+            }
+        }
+        ArrayValueIterationPlayer p = new ArrayValueIterationPlayer("stencil");
+        p.solve(stencil);
+        ArrayValueIterationPlayer q = new ArrayValueIterationPlayer("stored");
+        q.solve(OffHeapMDP.fromModel(stencil, Precision.DOUBLE,
+            stencil.numCols(), null));
+        for (int s = 0; s < stencil.numStates(); s++)
+        {
+            assertEquals(q.utility(s), p.utility(s), 1e-3);
+        }
+    }
+
+    /**
+     * The synchronous stencil kernel converges to the same solution as the
+     * in-place sweeps.
+     */
+    @Test
+    public void testSynchronous()
+    {
+        final String[] CORRECT = {
+            "E", "E", "E", "N", "N", "N", "W", "W", "W"
+        };
+        StencilGridModel stencil = simpleWorld();
+        ArrayValueIterationPlayer p = new ArrayValueIterationPlayer("jacobi");
+        p.setSynchronous(true);
+        p.solve(stencil);
+        int i = 0;
+        for (int s = 0; s < stencil.numStates(); s++)
+        {
+            if (!stencil.isTerminal(s))
+            {
+                assertEquals(CORRECT[i++], stencil.actionName(p.action(s)));
+            }
+        }
+
+        StencilGridModel world =
+            GridWorld.createRandomStencilModel(40, 30, 30, 4, 20, 2, 1.0);
+        ArrayValueIterationPlayer gs = new ArrayValueIterationPlayer("gs");
+        ArrayValueIterationPlayer jacobi =
+            new ArrayValueIterationPlayer("jacobi");
+        jacobi.setSynchronous(true);
+        gs.solve(world);
+        jacobi.solve(world);
+        for (int s = 0; s < world.numStates(); s++)
+        {
+            assertEquals(gs.utility(s), jacobi.utility(s), 1e-6);
+        }
+    }
+
+    /**
+     * The layout recovered from the text of a GridWorld has the same
+     * transitions as the stencil made from the same seed.
+     */
+    @Test
+    public void testFromMDP()
+    {
+        StencilGridModel simple =
+            StencilGridModel.fromMDP(new MarkovDecisionProcess(
+                new Scanner(TestWorlds.SIMPLE_G10_R3)));
+        StencilGridModel expected = simpleWorld();
+        for (int s = 0; s < expected.numStates(); s++)
+        {
+            assertEquals(expected.cellType(s), simple.cellType(s));
+        }
+        assertEquals(expected.start(), simple.start());
+
+        StencilGridModel world = new GridWorld(5).randomStencilModel(14, 17,
+            12, 6, 10, 2, 0.95);
+        StencilGridModel recovered = StencilGridModel.fromMDP(
+            new MarkovDecisionProcess(new Scanner(new GridWorld(5)
+                .randomGridWorld(14, 17, 12, 6, 10, 2, 0.95))));
+        assertEquals(world.numStates(), recovered.numStates());
+        for (int s = 0; s < world.numStates(); s++)
+        {
+            assertEquals(world.isState(s), recovered.isState(s));
+            assertEquals(world.reward(s), recovered.reward(s), 0.0);
+            for (int k = 0; k < 4 && !world.isTerminal(s); k++)
+            {
+                assertEquals(world.target(s, k), recovered.target(s, k));
+            }
+        }
+
+        // an action set other than N, E, S, W is not a GridWorld.
+        String renamed = TestWorlds.SIMPLE_G10_R3
+            .replace("\nN ", "\nU ").replace(" N ", " U ");
+        assertNull(StencilGridModel.fromMDP(
+            new MarkovDecisionProcess(new Scanner(renamed))));
+    }
+
+    /**
+     * The Vector API kernel, when it can be loaded, gives exactly the
+     * utilities of the scalar kernel, including the cells past the last full
+     * vector of a row. Without it the scalar kernel is used and
+     * testSynchronous covers it.
+     */
+    @Test
+    public void testVectorKernel()
+    {
+        JacobiKernel vector = StencilGridModel.vectorKernel();
+        if (vector == null)
+        {
+            return;
+        }
+        final int numRows = 17;
+        final int numCols = 23;
+        Random random = new Random(3);
+        double[] u = new double[numRows * numCols];
+        for (int s = 0; s < u.length; s++)
+        {
+            u[s] = 200.0 * random.nextDouble() - 100.0;
+        }
+        double[] expected = new double[u.length];
+        double[] actual = new double[u.length];
+        StencilGridModel.SCALAR_KERNEL.interior(u, expected, numRows,
+            numCols, 0.4, 0.1, 0.4, 0.05, -3.0, 0.495);
+        vector.interior(u, actual, numRows, numCols, 0.4, 0.1, 0.4, 0.05,
+            -3.0, 0.495);
+        assertArrayEquals(expected, actual, 0.0);
+    }
+}
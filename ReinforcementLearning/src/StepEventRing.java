@@ -0,0 +1,317 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded ring buffer of game step events for one producer (the game loop)
+ * and one consumer (a thread that drains the events to a Sink). The events
+ * are stored field by field in preallocated primitive arrays and the two
+ * sides only share two counters, so publishing an event takes no lock and
+ * allocates nothing. When the ring is full the producer waits for the
+ * consumer instead of dropping events. If the consumer thread fails, the
+ * producer gets its exception the next time it has to wait, and so does
+ * close(), instead of waiting forever.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class StepEventRing
+{
+    private static final long IDLE_NANOS = 100000;
+    private final int mask;
+    private final long[] episode;
+    private final int[] step;
+    private final int[] state;
+    private final int[] action;
+    private final double[] reward;
+    private final double[] score;
+    private final long[] nanos;
+    // next slot to write; written by the producer only.
+    private final AtomicLong tail = new AtomicLong();
+    // next slot to read; written by the consumer only.
+    private final AtomicLong head = new AtomicLong();
+    private long cachedHead;
+    private long stalls;
+    private volatile boolean running;
+    private volatile Throwable failure;
+    private Thread consumer;
+
+    /**
+     * Receives the events drained from the ring, on the consumer thread.
+     */
+    public interface Sink
+    {
+        /**
+         * Receives one step.
+         * 
+         * @param episode
+         *            the episode the step belongs to.
+         * @param step
+         *            the number of the step in the episode, from 1.
+         * @param state
+         *            the index of the state reached.
+         * @param action
+         *            the index of the action taken.
+         * @param reward
+         *            the reward of the state reached.
+         * @param score
+         *            the discounted score so far.
+         * @param nanos
+         *            the time the player took to choose the action.
+         */
+        void step(long episode, int step, int state, int action,
+            double reward, double score, long nanos);
+
+        /**
+         * Called after each batch of events, when the ring is empty.
+         */
+        void flush();
+    }
+
+    /**
+     * Constructor allocates the ring.
+     * 
+     * @param capacity
+     *            the number of events the ring holds, a power of two.
+     */
+    public StepEventRing(int capacity)
+    {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1)
+        {
+            throw new IllegalArgumentException(
+                "Capacity must be a power of two.");
+        }
+        mask = capacity - 1;
+        episode = new long[capacity];
+        step = new int[capacity];
+        state = new int[capacity];
+        action = new int[capacity];
+        reward = new double[capacity];
+        score = new double[capacity];
+        nanos = new long[capacity];
+    }
+
+    /**
+     * Publishes one step, waiting while the ring is full. Only one thread
+     * may publish.
+     * 
+     * @param ep
+     *            the episode the step belongs to.
+     * @param n
+     *            the number of the step in the episode, from 1.
+     * @param s
+     *            the index of the state reached.
+     * @param a
+     *            the index of the action taken.
+     * @param r
+     *            the reward of the state reached.
+     * @param total
+     *            the discounted score so far.
+     * @param time
+     *            the time the player took to choose the action.
+     * @throws IllegalStateException
+     *             if the consumer thread has failed.
+     */
+    public void publish(long ep, int n, int s, int a, double r, double total,
+        long time)
+    {
+        long t = tail.get();
+        if (t - cachedHead > mask)
+        {
+            cachedHead = head.get();
+            while (t - cachedHead > mask)
+            {
+                checkConsumer();
+                stalls++;
+                Thread.yield();
+                cachedHead = head.get();
+            }
+        }
+        int slot = (int) t & mask;
+        episode[slot] = ep;
+        step[slot] = n;
+        state[slot] = s;
+        action[slot] = a;
+        reward[slot] = r;
+        score[slot] = total;
+        nanos[slot] = time;
+        // release the slot to the consumer.
+        tail.lazySet(t + 1);
+    }
+
+    /**
+     * Passes every published event to a sink. Only one thread may drain.
+     * 
+     * @param sink
+     *            the sink.
+     * @return the number of events drained.
+     */
+    public int drain(Sink sink)
+    {
+        long h = head.get();
+        long t = tail.get();
+        for (long i = h; i < t; i++)
+        {
+            int slot = (int) i & mask;
+            sink.step(episode[slot], step[slot], state[slot], action[slot],
+                reward[slot], score[slot], nanos[slot]);
+        }
+        if (t > h)
+        {
+            head.lazySet(t);
+            sink.flush();
+        }
+        return (int) (t - h);
+    }
+
+    /**
+     * Starts a daemon thread that drains the ring into a sink until close()
+     * is called.
+     * 
+     * @param sink
+     *            the sink.
+     */
+    public synchronized void start(final Sink sink)
+    {
+        if (consumer != null)
+        {
+            throw new IllegalStateException("Consumer already started.");
+        }
+        running = true;
+        consumer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    while (running)
+                    {
+                        if (drain(sink) == 0)
+                        {
+                            LockSupport.parkNanos(IDLE_NANOS);
+                        }
+                    }
+                    drain(sink);
+                }
+                catch (Throwable t)
+                {
+                    // keep the cause for the producer, which would otherwise
+                    // wait forever for a full ring to drain.
+                    failure = t;
+                    running = false;
+                }
+            }
+        }, "step-events");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    /**
+     * Stops the consumer thread after it has drained every published event.
+     * 
+     * @throws InterruptedException
+     *             if interrupted while waiting for the consumer.
+     * @throws IllegalStateException
+     *             if the consumer thread failed.
+     */
+    public synchronized void close() throws InterruptedException
+    {
+        if (consumer == null)
+        {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(consumer);
+        consumer.join();
+        consumer = null;
+        checkConsumer();
+    }
+
+    /**
+     * Helper method to rethrow the failure of the consumer thread.
+     * 
+     * @throws IllegalStateException
+     *             if the consumer thread failed.
+     */
+    private void checkConsumer()
+    {
+        Throwable t = failure;
+        if (t != null)
+        {
+            throw new IllegalStateException("The step event consumer failed.",
+                t);
+        }
+    }
+
+    /**
+     * @return the number of events published so far.
+     */
+    public long published()
+    {
+        return tail.get();
+    }
+
+    /**
+     * @return the number of times the producer found the ring full.
+     */
+    public long getStalls()
+    {
+        return stalls;
+    }
+
+    /**
+     * A sink that writes one line of comma-separated values per step.
+     */
+    public static class WriterSink implements Sink
+    {
+        private final Writer out;
+        private final StringBuilder line = new StringBuilder(64);
+
+        /**
+         * Constructor takes the writer, which should be buffered.
+         * 
+         * @param out
+         *            the writer.
+         */
+        public WriterSink(Writer out)
+        {
+            this.out = out;
+        }
+
+        @Override
+        public void step(long episode, int step, int state, int action,
+            double reward, double score, long nanos)
+        {
+            line.setLength(0);
+            line.append(episode).append(',').append(step).append(',')
+                .append(state).append(',').append(action).append(',')
+                .append(reward).append(',').append(score).append(',')
+                .append(nanos).append('\n');
+            try
+            {
+                out.append(line);
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void flush()
+        {
+            try
+            {
+                out.flush();
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
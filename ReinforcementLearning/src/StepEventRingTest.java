@@ -0,0 +1,178 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Scanner;
+
+import org.junit.Test;
+
+/**
+ * A test class for the StepEventRing.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class StepEventRingTest
+{
+    /**
+     * Records the events it receives.
+     */
+    private static class Recorder implements StepEventRing.Sink
+    {
+        private int count;
+        private long lastEpisode = -1;
+        private int lastStep;
+        private int lastState;
+        private double lastScore;
+        private boolean ordered = true;
+
+        @Override
+        public void step(long episode, int step, int state, int action,
+            double reward, double score, long nanos)
+        {
+            if (episode == lastEpisode && step != lastStep + 1)
+            {
+                ordered = false;
+            }
+            count++;
+            lastEpisode = episode;
+            lastStep = step;
+            lastState = state;
+            lastScore = score;
+        }
+
+        @Override
+        public void flush()
+        {
+        }
+    }
+
+    /**
+     * A small ring passes every event to the consumer in order, making the
+     * producer wait when it is full.
+     * 
+     * @throws InterruptedException
+     *             if interrupted while waiting for the consumer.
+     */
+    @Test
+    public void testOrder() throws InterruptedException
+    {
+        StepEventRing ring = new StepEventRing(4);
+        Recorder recorder = new Recorder();
+        ring.start(recorder);
+        for (int i = 1; i <= 10000; i++)
+        {
+            ring.publish(7, i, i % 13, i % 4, -0.04, i, 0);
+        }
+        ring.close();
+        assertEquals(10000, recorder.count);
+        assertEquals(10000, ring.published());
+        assertTrue(recorder.ordered);
+        assertEquals(7, recorder.lastEpisode);
+        assertEquals(10000.0, recorder.lastScore, 0.0);
+    }
+
+    /**
+     * A sink that fails stops the consumer, and the producer gets the
+     * failure instead of waiting forever for the full ring to drain.
+     * 
+     * @throws InterruptedException
+     *             if interrupted while waiting for the consumer.
+     */
+    @Test
+    public void testFailingSink() throws InterruptedException
+    {
+        StepEventRing ring = new StepEventRing(4);
+        ring.start(new StepEventRing.WriterSink(new Writer()
+        {
+            @Override
+            public void write(char[] buffer, int offset, int length)
+                throws IOException
+            {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public void flush()
+            {
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        }));
+        IllegalStateException thrown = null;
+        try
+        {
+            for (int i = 1; i <= 10000; i++)
+            {
+                ring.publish(1, i, 0, 0, -0.04, i, 0);
+            }
+        }
+        catch (IllegalStateException e)
+        {
+            thrown = e;
+        }
+        assertNotNull(thrown);
+        assertTrue(thrown.getCause() instanceof UncheckedIOException);
+        try
+        {
+            ring.close();
+            fail("close() should report the failure.");
+        }
+        catch (IllegalStateException e)
+        {
+            assertEquals("disk full", e.getCause().getCause().getMessage());
+        }
+    }
+
+    /**
+     * A quiet game publishes one event per move, ending with the final
+     * score.
+     * 
+     * @throws InterruptedException
+     *             if interrupted while waiting for the consumer.
+     */
+    @Test
+    public void testGame() throws InterruptedException
+    {
+        MarkovDecisionProcess mdp = new MarkovDecisionProcess(
+            new Scanner(TestWorlds.SIMPLE_G10_R3));
+        Game game = new Game(mdp, new ArrayValueIterationPlayer("ArrayVI"));
+        StepEventRing ring = new StepEventRing(64);
+        Recorder recorder = new Recorder();
+        ring.start(recorder);
+        game.setQuiet(true);
+        game.setEvents(ring, 3);
+        double score = game.play();
+        ring.close();
+        assertEquals(game.getSteps(), recorder.count);
+        assertEquals(game.getSteps(), recorder.lastStep);
+        assertEquals(score, recorder.lastScore, 0.0);
+        assertEquals(mdp.indexOf(mdp.getCurrent()), recorder.lastState);
+        assertTrue(recorder.ordered);
+    }
+
+    /**
+     * The writer sink writes one line per event.
+     */
+    @Test
+    public void testWriterSink()
+    {
+        StepEventRing ring = new StepEventRing(8);
+        ring.publish(1, 1, 5, 2, -0.04, -0.08, 1000);
+        ring.publish(1, 2, 6, 0, 1.0, 0.92, 2000);
+        StringWriter out = new StringWriter();
+        assertEquals(2, ring.drain(new StepEventRing.WriterSink(out)));
+        assertEquals("1,1,5,2,-0.04,-0.08,1000\n1,2,6,0,1.0,0.92,2000\n",
+            out.toString());
+        assertEquals(0, ring.drain(new StepEventRing.WriterSink(out)));
+    }
+}
@@ -0,0 +1,89 @@
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * A player that plays like another player and records how long each move
+ * took. The first move of a game usually includes the solve, so it is kept
+ * apart from the other moves.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class TimedPlayer extends Player
+{
+    private final Player player;
+    private long firstMove = -1;
+    private long[] moves = new long[16];
+    private int numMoves;
+
+    /**
+     * Constructor takes the name and the player to time.
+     * 
+     * @param name
+     *            the name of the player.
+     * @param player
+     *            the player that chooses the moves.
+     */
+    public TimedPlayer(String name, Player player)
+    {
+        super(name);
+        this.player = player;
+    }
+
+    @Override
+    public String play(MarkovDecisionProcess mdp)
+    {
+        long start = System.nanoTime();
+        String action = player.play(mdp);
+        long elapsed = System.nanoTime() - start;
+        if (firstMove < 0)
+        {
+            firstMove = elapsed;
+        }
+        else
+        {
+            if (numMoves == moves.length)
+            {
+                moves = Arrays.copyOf(moves, 2 * numMoves);
+            }
+            moves[numMoves++] = elapsed;
+        }
+        return action;
+    }
+
+    @Override
+    public HashMap<State, Double> getU()
+    {
+        return player.getU();
+    }
+
+    @Override
+    public HashMap<State, String> getPi()
+    {
+        return player.getPi();
+    }
+
+    /**
+     * @return the nanoseconds taken by the first move, or -1 if there was
+     *         none.
+     */
+    public long getFirstMoveNanos()
+    {
+        return firstMove;
+    }
+
+    /**
+     * @return the nanoseconds taken by each move after the first.
+     */
+    public long[] getMoveNanos()
+    {
+        return Arrays.copyOf(moves, numMoves);
+    }
+
+    @Override
+    public void addMemory(MemoryReport report)
+    {
+        player.addMemory(report);
+    }
+}
@@ -0,0 +1,310 @@
+import java.util.Arrays;
+
+/**
+ * An agent that uses topological value iteration. The transition graph is
+ * split into strongly connected components with Tarjan's algorithm, which
+ * finds every component after all the components it leads to. Solving them
+ * in that order means the utilities downstream of a component are already
+ * final when it is solved, so each component is iterated to convergence
+ * once, with sweeps over its own states only. Terminal states and states
+ * that can only be left (such as the cells around a one-way tunnel) are
+ * components of one state and need a single backup.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class TopologicalValueIterationPlayer extends ArrayPlayer
+{
+    private static final double EPS = 1e-3;
+    private static final int MAX_SWEEPS = 100000;
+    private double[] u;
+    private int[] pi;
+    private int[] order;
+    private int[] componentStart;
+    private int numComponents;
+    private long backups;
+    private double residual;
+
+    /**
+     * Constructor takes the name.
+     * 
+     * @param name
+     *            the name of the player.
+     */
+    public TopologicalValueIterationPlayer(String name)
+    {
+        super(name);
+    }
+
+    @Override
+    protected void solveModel(TransitionModel m)
+    {
+        int n = m.numStates();
+        int[] adjStart = new int[n + 1];
+        int[] adj = successorGraph(m, adjStart);
+        findComponents(n, adjStart, adj);
+        u = new double[n];
+        pi = new int[n];
+        backups = 0;
+        residual = 0.0;
+        double terminationCoefficient = EPS * ((1 - m.gamma()) / m.gamma());
+        for (int c = 0; c < numComponents; c++)
+        {
+            int first = componentStart[c];
+            int last = componentStart[c + 1];
+            if (last - first == 1 && !hasSelfLoop(order[first], adjStart, adj))
+            {
+                backup(m, order[first]);
+                continue;
+            }
+            double delta;
+            int sweeps = 0;
+            do
+            {
+                delta = 0.0;
+                for (int i = first; i < last; i++)
+                {
+                    delta = Math.max(delta, backup(m, order[i]));
+                }
+                sweeps++;
+            } while (delta > terminationCoefficient && sweeps < MAX_SWEEPS);
+            residual = Math.max(residual, delta);
+        }
+    }
+
+    /**
+     * Helper method to list the successors of every state under any action,
+     * in compressed rows. Terminal states have none.
+     * 
+     * @param m
+     *            the model.
+     * @param adjStart
+     *            receives the first successor of each state.
+     * @return the successors.
+     */
+    private static int[] successorGraph(TransitionModel m, int[] adjStart)
+    {
+        int[] next = new int[m.maxSuccessors()];
+        double[] prob = new double[m.maxSuccessors()];
+        int[] adj = new int[16];
+        int e = 0;
+        for (int s = 0; s < m.numStates(); s++)
+        {
+            adjStart[s] = e;
+            if (m.isTerminal(s))
+            {
+                continue;
+            }
+            for (int a = 0; a < m.numActions(); a++)
+            {
+                int count = m.successors(s, a, next, prob);
+                for (int i = 0; i < count; i++)
+                {
+                    if (prob[i] <= 0.0)
+                    {
+                        continue;
+                    }
+                    if (e == adj.length)
+                    {
+                        adj = Arrays.copyOf(adj, 2 * e);
+                    }
+                    adj[e++] = next[i];
+                }
+            }
+        }
+        adjStart[m.numStates()] = e;
+        return adj;
+    }
+
+    /**
+     * Helper method to find the strongly connected components with an
+     * iterative version of Tarjan's algorithm, so that long chains of states
+     * cannot overflow the call stack. Each component is stored as a run of
+     * order[], and the components come out in reverse topological order.
+     * 
+     * @param n
+     *            the number of states.
+     * @param adjStart
+     *            the first successor of each state.
+     * @param adj
+     *            the successors.
+     */
+    private void findComponents(int n, int[] adjStart, int[] adj)
+    {
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] edge = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int[] call = new int[n];
+        Arrays.fill(index, -1);
+        order = new int[n];
+        componentStart = new int[n + 1];
+        numComponents = 0;
+        int counter = 0;
+        int top = 0;
+        int emitted = 0;
+        for (int root = 0; root < n; root++)
+        {
+            if (index[root] >= 0)
+            {
+                continue;
+            }
+            int depth = 0;
+            index[root] = counter;
+            low[root] = counter++;
+            edge[root] = adjStart[root];
+            stack[top++] = root;
+            onStack[root] = true;
+            call[depth++] = root;
+            while (depth > 0)
+            {
+                int v = call[depth - 1];
+                if (edge[v] < adjStart[v + 1])
+                {
+                    int w = adj[edge[v]++];
+                    if (index[w] < 0)
+                    {
+                        index[w] = counter;
+                        low[w] = counter++;
+                        edge[w] = adjStart[w];
+                        stack[top++] = w;
+                        onStack[w] = true;
+                        call[depth++] = w;
+                    }
+                    else if (onStack[w])
+                    {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+                depth--;
+                if (low[v] == index[v])
+                {
+                    componentStart[numComponents++] = emitted;
+                    int w;
+                    do
+                    {
+                        w = stack[--top];
+                        onStack[w] = false;
+                        order[emitted++] = w;
+                    } while (w != v);
+                    // sweep each component in index order.
+                    Arrays.sort(order, componentStart[numComponents - 1],
+                        emitted);
+                }
+                if (depth > 0)
+                {
+                    int parent = call[depth - 1];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+            }
+        }
+        componentStart[numComponents] = emitted;
+    }
+
+    /**
+     * @param s
+     *            the state index.
+     * @param adjStart
+     *            the first successor of each state.
+     * @param adj
+     *            the successors.
+     * @return true if the state can stay where it is.
+     */
+    private static boolean hasSelfLoop(int s, int[] adjStart, int[] adj)
+    {
+        for (int e = adjStart[s]; e < adjStart[s + 1]; e++)
+        {
+            if (adj[e] == s)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Helper method to back up one state in place.
+     * 
+     * @param m
+     *            the model.
+     * @param s
+     *            the state index.
+     * @return the change in the utility of the state.
+     */
+    private double backup(TransitionModel m, int s)
+    {
+        double value = m.reward(s);
+        int best = -1;
+        if (!m.isTerminal(s))
+        {
+            double max = Double.NEGATIVE_INFINITY;
+            for (int a = 0; a < m.numActions(); a++)
+            {
+                double eu = m.expectedUtility(s, a, u);
+                if (eu > max)
+                {
+                    max = eu;
+                    best = a;
+                }
+            }
+            value += m.gamma() * max;
+        }
+        pi[s] = best;
+        double change = Math.abs(value - u[s]);
+        u[s] = value;
+        backups++;
+        return change;
+    }
+
+    @Override
+    public double utility(int s)
+    {
+        return u[s];
+    }
+
+    @Override
+    public int action(int s)
+    {
+        return pi[s];
+    }
+
+    /**
+     * @return the number of strongly connected components of the last model.
+     */
+    public int getComponents()
+    {
+        return numComponents;
+    }
+
+    /**
+     * @return the number of backups used by the last solve.
+     */
+    public long getBackups()
+    {
+        return backups;
+    }
+
+    /**
+     * @return the largest utility change in the final sweep of any component.
+     */
+    public double getResidual()
+    {
+        return residual;
+    }
+
+    @Override
+    public void addMemory(MemoryReport report)
+    {
+        super.addMemory(report);
+        report.measure(MemoryReport.PLAYER, MemoryReport.UTILITIES,
+            MemoryReport.bytes(u));
+        report.measure(MemoryReport.PLAYER, MemoryReport.POLICIES,
+            MemoryReport.bytes(pi));
+        report.measure(MemoryReport.PLAYER, MemoryReport.CACHES,
+            MemoryReport.bytes(order)
+            + MemoryReport.bytes(componentStart));
+    }
+}
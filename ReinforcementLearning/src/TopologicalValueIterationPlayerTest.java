@@ -0,0 +1,108 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * A test class for the TopologicalValueIterationPlayer.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class TopologicalValueIterationPlayerTest
+{
+    /**
+     * The component order finds the same policies as the ValueIterationPlayer.
+     */
+    @Test
+    public void testPolicies()
+    {
+        ArrayValueIterationPlayerTest.checkSolution(new String[] {
+            "E", "E", "E", "N", "N", "N", "W", "W", "W"
+        }, TestWorlds.SIMPLE_G10_R3,
+            new TopologicalValueIterationPlayer("tvi"));
+        ArrayValueIterationPlayerTest.checkSolution(new String[] {
+            "E", "E", "E", "N", "W", "N", "W", "W", "S"
+        }, TestWorlds.SIMPLE_G10_R1,
+            new TopologicalValueIterationPlayer("tvi"));
+        ArrayValueIterationPlayerTest.checkSolution(new String[] {
+            "E", "E", "E", "N", "N", "N", "W", "N", "W"
+        }, TestWorlds.SIMPLE_G09_R0,
+            new TopologicalValueIterationPlayer("tvi"));
+        ArrayValueIterationPlayerTest.checkSolution(new String[] {
+            "E", "E", "E", "S", "W", "E", "N", "W", "S"
+        }, TestWorlds.TUNNEL_A4_G10_R1,
+            new TopologicalValueIterationPlayer("tvi"));
+    }
+
+    /**
+     * A one-way chain is a chain of single-state components, each backed up
+     * once, while global sweeps in the wrong order need one sweep per state.
+     */
+    @Test
+    public void testChain()
+    {
+        final int N = 500;
+        String[] names = new String[N];
+        double[] rewards = new double[N];
+        boolean[] terminal = new boolean[N];
+        int[] rowStart = new int[2 * N + 1];
+        int[] next = new int[2 * (N - 1)];
+        double[] prob = new double[next.length];
+        for (int s = 0; s < N; s++)
+        {
+            names[s] = "s" + s;
+            rewards[s] = -1;
+        }
+        for (int row = 0; row < 2 * N; row++)
+        {
+            int e = rowStart[row];
+            rowStart[row + 1] = e;
+            if (row / 2 < N - 1)
+            {
+                next[e] = row / 2 + 1;
+                prob[e] = 1.0;
+                rowStart[row + 1]++;
+            }
+        }
+        rewards[N - 1] = 100;
+        terminal[N - 1] = true;
+        CompactMDP chain = new CompactMDP(names, new String[] {
+            "N", "S"
+        }, rewards, terminal, rowStart, next, prob, 1.0, 0, Precision.DOUBLE);
+
+        TopologicalValueIterationPlayer tvi =
+            new TopologicalValueIterationPlayer("tvi");
+        ArrayValueIterationPlayer vi = new ArrayValueIterationPlayer("vi");
+        tvi.solve(chain);
+        vi.solve(chain);
+        assertEquals(N, tvi.getComponents());
+        assertEquals(N, tvi.getBackups());
+        assertTrue(vi.getSweeps() >= N);
+        assertEquals(100.0 - (N - 1), tvi.utility(0), 0.0);
+        assertEquals(vi.utility(0), tvi.utility(0), 0.0);
+    }
+
+    /**
+     * On a random world with tunnels the components agree with global sweeps
+     * and need fewer backups.
+     */
+    @Test
+    public void testRandomWorld()
+    {
+        StencilGridModel world =
+            GridWorld.createRandomStencilModel(40, 40, 200, 6, 60, 3, 0.95);
+        TopologicalValueIterationPlayer tvi =
+            new TopologicalValueIterationPlayer("tvi");
+        ArrayValueIterationPlayer vi = new ArrayValueIterationPlayer("vi");
+        tvi.solve(world);
+        vi.solve(world);
+        for (int s = 0; s < world.numStates(); s++)
+        {
+            assertEquals(vi.utility(s), tvi.utility(s), 1e-2);
+        }
+        assertTrue(tvi.getBackups()
+            < (long) vi.getSweeps() * world.numStates());
+    }
+}
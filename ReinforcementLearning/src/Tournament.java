@@ -0,0 +1,497 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A headless harness that plays many quiet games of several players on many
+ * worlds at once, on a fixed pool of threads, and summarizes the scores,
+ * game lengths, solve times and move latencies of each player.
+ * 
+ * Every game gets a fresh MDP and a fresh player from the player's factory,
+ * so players need not be thread-safe. The worlds are read once, up front,
+ * so every player plays exactly the same worlds, and each game plays a
+ * clone of the MDP, which shares the world and has its own current state.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class Tournament
+{
+    private static final int DEFAULT_MAX_STEPS = 10000;
+    private final int numThreads;
+    private final List<MarkovDecisionProcess> worlds =
+        new ArrayList<MarkovDecisionProcess>();
+    private final Map<String, PlayerFactory> players =
+        new LinkedHashMap<String, PlayerFactory>();
+    private int maxSteps = DEFAULT_MAX_STEPS;
+
+    /**
+     * Creates a new player for each game.
+     */
+    public interface PlayerFactory
+    {
+        /**
+         * @return a new player.
+         */
+        Player newPlayer();
+    }
+
+    /**
+     * Constructor takes the number of games to play at once.
+     * 
+     * @param numThreads
+     *            the number of threads.
+     */
+    public Tournament(int numThreads)
+    {
+        if (numThreads < 1)
+        {
+            throw new IllegalArgumentException(
+                "Number of threads must be positive.");
+        }
+        this.numThreads = numThreads;
+    }
+
+    /**
+     * Adds a world in the text format read by MarkovDecisionProcess.
+     * 
+     * @param world
+     *            the world.
+     */
+    public void addWorld(String world)
+    {
+        worlds.add(new MarkovDecisionProcess(new Scanner(world)));
+    }
+
+    /**
+     * Adds random worlds generated by GridWorld.
+     * 
+     * @param count
+     *            the number of worlds.
+     * @param numRows
+     *            the number of rows in each world.
+     * @param numCols
+     *            the number of columns in each world.
+     * @param numRocks
+     *            the number of rocks in each world.
+     * @param numTunnels
+     *            the number of tunnels in each world.
+     * @param numHoles
+     *            the number of holes in each world.
+     * @param numGoals
+     *            the number of goals in each world.
+     * @param gamma
+     *            the discount factor.
+     */
+    public void addRandomWorlds(int count, int numRows, int numCols,
+        int numRocks, int numTunnels, int numHoles, int numGoals, double gamma)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            addWorld(GridWorld.createRandomGridWorld(numRows, numCols,
+                numRocks, numTunnels, numHoles, numGoals, gamma));
+        }
+    }
+
+    /**
+     * Adds a player.
+     * 
+     * @param name
+     *            the name shown in the standings.
+     * @param factory
+     *            creates the player for each game.
+     */
+    public void addPlayer(String name, PlayerFactory factory)
+    {
+        players.put(name, factory);
+    }
+
+    /**
+     * Limits the number of moves in a game.
+     * 
+     * @param maxSteps
+     *            the largest number of moves, or 0 for no limit.
+     */
+    public void setMaxSteps(int maxSteps)
+    {
+        this.maxSteps = maxSteps;
+    }
+
+    /**
+     * Plays every player on every world a number of times.
+     * 
+     * @param gamesPerWorld
+     *            the number of games of each player on each world.
+     * @return the standings of each player, in the order they were added.
+     * @throws InterruptedException
+     *             if the calling thread is interrupted while waiting.
+     */
+    public Map<String, Standings> run(int gamesPerWorld)
+        throws InterruptedException
+    {
+        ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+        Map<String, List<Future<Result>>> futures =
+            new LinkedHashMap<String, List<Future<Result>>>();
+        try
+        {
+            for (Map.Entry<String, PlayerFactory> entry : players.entrySet())
+            {
+                List<Future<Result>> games = new ArrayList<Future<Result>>();
+                for (MarkovDecisionProcess world : worlds)
+                {
+                    for (int g = 0; g < gamesPerWorld; g++)
+                    {
+                        games.add(pool.submit(
+                            new GameTask(world, entry.getValue(), maxSteps)));
+                    }
+                }
+                futures.put(entry.getKey(), games);
+            }
+            Map<String, Standings> standings =
+                new LinkedHashMap<String, Standings>();
+            for (Map.Entry<String, List<Future<Result>>> entry : futures
+                .entrySet())
+            {
+                List<Result> results = new ArrayList<Result>();
+                int failures = 0;
+                Throwable firstFailure = null;
+                for (Future<Result> future : entry.getValue())
+                {
+                    try
+                    {
+                        results.add(future.get());
+                    }
+                    catch (ExecutionException e)
+                    {
+                        failures++;
+                        if (firstFailure == null)
+                        {
+                            firstFailure = e.getCause();
+                        }
+                    }
+                }
+                standings.put(entry.getKey(), new Standings(entry.getKey(),
+                    results, failures, firstFailure));
+            }
+            return standings;
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * The outcome of one game.
+     */
+    private static class Result
+    {
+        private final double score;
+        private final int steps;
+        private final long firstMove;
+        private final long[] moves;
+
+        /**
+         * Constructor takes the outcome.
+         * 
+         * @param score
+         *            the final score.
+         * @param steps
+         *            the number of moves.
+         * @param firstMove
+         *            the nanoseconds of the first move.
+         * @param moves
+         *            the nanoseconds of the other moves.
+         */
+        Result(double score, int steps, long firstMove, long[] moves)
+        {
+            this.score = score;
+            this.steps = steps;
+            this.firstMove = firstMove;
+            this.moves = moves;
+        }
+    }
+
+    /**
+     * Plays one quiet game with a clone of an MDP and a new player.
+     */
+    private static class GameTask implements Callable<Result>
+    {
+        private final MarkovDecisionProcess world;
+        private final PlayerFactory factory;
+        private final int maxSteps;
+
+        /**
+         * Constructor takes the game to play.
+         * 
+         * @param world
+         *            the MDP to clone, which is not modified.
+         * @param factory
+         *            creates the player.
+         * @param maxSteps
+         *            the largest number of moves, or 0 for no limit.
+         */
+        GameTask(MarkovDecisionProcess world, PlayerFactory factory,
+            int maxSteps)
+        {
+            this.world = world;
+            this.factory = factory;
+            this.maxSteps = maxSteps;
+        }
+
+        @Override
+        public Result call()
+        {
+            MarkovDecisionProcess mdp =
+                (MarkovDecisionProcess) world.clone();
+            Player player = factory.newPlayer();
+            TimedPlayer timed = new TimedPlayer(player.toString(), player);
+            Game game = new Game(mdp, timed);
+            game.setQuiet(true);
+            game.setMaxSteps(maxSteps);
+            double score = game.play();
+            return new Result(score, game.getSteps(),
+                Math.max(0, timed.getFirstMoveNanos()), timed.getMoveNanos());
+        }
+    }
+
+    /**
+     * The summary of all games of one player.
+     */
+    public static class Standings
+    {
+        /**
+         * The name of the player.
+         */
+        public final String name;
+        /**
+         * The number of games that finished.
+         */
+        public final int games;
+        /**
+         * The number of games that threw an exception.
+         */
+        public final int failures;
+        /**
+         * The exception thrown by the first failed game, or null.
+         */
+        public final Throwable firstFailure;
+        /**
+         * The mean final score.
+         */
+        public final double meanScore;
+        /**
+         * The standard deviation of the final score.
+         */
+        public final double stdScore;
+        /**
+         * The lowest final score.
+         */
+        public final double minScore;
+        /**
+         * The median final score.
+         */
+        public final double medianScore;
+        /**
+         * The highest final score.
+         */
+        public final double maxScore;
+        /**
+         * The mean number of moves per game.
+         */
+        public final double meanSteps;
+        /**
+         * The largest number of moves in a game.
+         */
+        public final int maxSteps;
+        /**
+         * The median time of the first move in milliseconds, which includes
+         * solving for players that solve up front.
+         */
+        public final double medianSolveMillis;
+        /**
+         * The 99th percentile time of the first move in milliseconds.
+         */
+        public final double p99SolveMillis;
+        /**
+         * The median time of the other moves in microseconds.
+         */
+        public final double medianMoveMicros;
+        /**
+         * The 99th percentile time of the other moves in microseconds.
+         */
+        public final double p99MoveMicros;
+        /**
+         * The longest time of the other moves in microseconds.
+         */
+        public final double maxMoveMicros;
+
+        /**
+         * Constructor summarizes the games.
+         * 
+         * @param name
+         *            the name of the player.
+         * @param results
+         *            the finished games.
+         * @param failures
+         *            the number of failed games.
+         * @param firstFailure
+         *            the exception of the first failed game, or null.
+         */
+        Standings(String name, List<Result> results, int failures,
+            Throwable firstFailure)
+        {
+            this.name = name;
+            this.games = results.size();
+            this.failures = failures;
+            this.firstFailure = firstFailure;
+            double[] scores = new double[games];
+            double[] solves = new double[games];
+            int totalMoves = 0;
+            long totalSteps = 0;
+            int longest = 0;
+            for (int i = 0; i < games; i++)
+            {
+                Result r = results.get(i);
+                scores[i] = r.score;
+                solves[i] = r.firstMove / 1e6;
+                totalMoves += r.moves.length;
+                totalSteps += r.steps;
+                longest = Math.max(longest, r.steps);
+            }
+            double[] moves = new double[totalMoves];
+            int k = 0;
+            for (Result r : results)
+            {
+                for (long nanos : r.moves)
+                {
+                    moves[k++] = nanos / 1e3;
+                }
+            }
+            Arrays.sort(scores);
+            Arrays.sort(solves);
+            Arrays.sort(moves);
+            double sum = 0.0;
+            for (double score : scores)
+            {
+                sum += score;
+            }
+            meanScore = (games > 0) ? sum / games : Double.NaN;
+            double squares = 0.0;
+            for (double score : scores)
+            {
+                squares += (score - meanScore) * (score - meanScore);
+            }
+            stdScore = (games > 1) ? Math.sqrt(squares / (games - 1)) : 0.0;
+            minScore = percentile(scores, 0.0);
+            medianScore = percentile(scores, 0.5);
+            maxScore = percentile(scores, 1.0);
+            meanSteps = (games > 0) ? (double) totalSteps / games : Double.NaN;
+            maxSteps = longest;
+            medianSolveMillis = percentile(solves, 0.5);
+            p99SolveMillis = percentile(solves, 0.99);
+            medianMoveMicros = percentile(moves, 0.5);
+            p99MoveMicros = percentile(moves, 0.99);
+            maxMoveMicros = percentile(moves, 1.0);
+        }
+
+        /**
+         * Helper method to get a percentile by the nearest rank.
+         * 
+         * @param sorted
+         *            the values in increasing order.
+         * @param p
+         *            the fraction of values at or below the result.
+         * @return the percentile, or NaN if there are no values.
+         */
+        private static double percentile(double[] sorted, double p)
+        {
+            if (sorted.length == 0)
+            {
+                return Double.NaN;
+            }
+            int rank = (int) Math.ceil(p * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+
+        @Override
+        public String toString()
+        {
+            String answer = String.format("%-12s games=%d failures=%d"
+                + " score=%.1f+-%.1f [%.1f, %.1f, %.1f] steps=%.1f (max %d)"
+                + " solve=%.2fms (p99 %.2fms) move=%.1fus (p99 %.1fus,"
+                + " max %.1fus)", name, games, failures, meanScore, stdScore,
+                minScore, medianScore, maxScore, meanSteps, maxSteps,
+                medianSolveMillis, p99SolveMillis, medianMoveMicros,
+                p99MoveMicros, maxMoveMicros);
+            if (firstFailure != null)
+            {
+                answer += " first failure: " + firstFailure;
+            }
+            return answer;
+        }
+    }
+
+    /**
+     * Plays a tournament of the solvers on random worlds and prints the
+     * standings.
+     * 
+     * @param args
+     *            not used.
+     * @throws InterruptedException
+     *             if interrupted while waiting for the games.
+     */
+    public static void main(String[] args) throws InterruptedException
+    {
+        Tournament tournament =
+            new Tournament(Runtime.getRuntime().availableProcessors());
+        tournament.addRandomWorlds(10, 8, 8, 4, 2, 6, 1, 1.0);
+        tournament.addPlayer("VI", new PlayerFactory()
+        {
+            @Override
+            public Player newPlayer()
+            {
+                return new ValueIterationPlayer("VI");
+            }
+        });
+        tournament.addPlayer("ArrayVI", new PlayerFactory()
+        {
+            @Override
+            public Player newPlayer()
+            {
+                return new ArrayValueIterationPlayer("ArrayVI");
+            }
+        });
+        tournament.addPlayer("BoundedVI", new PlayerFactory()
+        {
+            @Override
+            public Player newPlayer()
+            {
+                return new BoundedValueIterationPlayer("BoundedVI");
+            }
+        });
+        tournament.addPlayer("RTDP", new PlayerFactory()
+        {
+            @Override
+            public Player newPlayer()
+            {
+                RTDPPlayer p = new RTDPPlayer("RTDP");
+                p.setBackupBudget(200);
+                return p;
+            }
+        });
+        for (Standings standings : tournament.run(5).values())
+        {
+            System.out.println(standings);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * A test class for the Tournament.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public class TournamentTest
+{
+    /**
+     * Every game of every player is played and summarized.
+     * 
+     * @throws InterruptedException
+     *             if interrupted while waiting for the games.
+     */
+    @Test
+    public void testStandings() throws InterruptedException
+    {
+        Tournament tournament = new Tournament(4);
+        tournament.addWorld(TestWorlds.SIMPLE_G10_R3);
+        tournament.addWorld(TestWorlds.TUNNEL_A4_G10_R1);
+        tournament.addRandomWorlds(3, 6, 6, 2, 2, 3, 1, 1.0);
+        tournament.addPlayer("ArrayVI", new Tournament.PlayerFactory()
+        {
+            @Override
+            public Player newPlayer()
+            {
+                return new ArrayValueIterationPlayer("ArrayVI");
+            }
+        });
+        tournament.addPlayer("Broken", new Tournament.PlayerFactory()
+        {
+            @Override
+            public Player newPlayer()
+            {
+                return new Player("Broken")
+                {
+                    @Override
+                    public String play(MarkovDecisionProcess mdp)
+                    {
+                        throw new IllegalStateException("broken");
+                    }
+                };
+            }
+        });
+        Map<String, Tournament.Standings> standings = tournament.run(5);
+
+        Tournament.Standings vi = standings.get("ArrayVI");
+        assertEquals(25, vi.games);
+        assertEquals(0, vi.failures);
+        assertNull(vi.firstFailure);
+        assertTrue(vi.meanSteps >= 1);
+        assertTrue(vi.minScore <= vi.medianScore);
+        assertTrue(vi.medianScore <= vi.maxScore);
+        assertTrue(vi.medianSolveMillis >= 0);
+
+        Tournament.Standings broken = standings.get("Broken");
+        assertEquals(0, broken.games);
+        assertEquals(25, broken.failures);
+        assertTrue(broken.firstFailure instanceof IllegalStateException);
+        assertEquals("broken", broken.firstFailure.getMessage());
+        assertTrue(broken.toString().contains("broken"));
+    }
+}
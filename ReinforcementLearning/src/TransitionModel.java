@@ -0,0 +1,423 @@
+import java.util.HashMap;
+
+/**
+ * An immutable, index-based view of an MDP used by the array-based solvers.
+ * States and actions are identified by dense integer indices, and each
+ * concrete model decides how its transitions are stored.
+ * 
+ * @author agent
+ * @version 2026-10-19
+ * 
+ */
+public abstract class TransitionModel
+{
+    private HashMap<String, Integer> nameIndex;
+
+    /**
+     * @return the number of states.
+     */
+    public abstract int numStates();
+
+    /**
+     * @return the number of actions.
+     */
+    public abstract int numActions();
+
+    /**
+     * @return the discount rate.
+     */
+    public abstract double gamma();
+
+    /**
+     * @param s
+     *            the state index.
+     * @return the reward for the state.
+     */
+    public abstract double reward(int s);
+
+    /**
+     * @param s
+     *            the state index.
+     * @return true if the state is a terminal state.
+     */
+    public abstract boolean isTerminal(int s);
+
+    /**
+     * @return the index of the start state.
+     */
+    public abstract int start();
+
+    /**
+     * @param s
+     *            the state index.
+     * @return the name of the state.
+     */
+    public abstract String stateName(int s);
+
+    /**
+     * @param a
+     *            the action index.
+     * @return the name of the action.
+     */
+    public abstract String actionName(int a);
+
+    /**
+     * @return the largest number of successors of any (state, action) pair.
+     */
+    public abstract int maxSuccessors();
+
+    /**
+     * Writes the successors of (s, a) and their probabilities into the given
+     * buffers, which must hold at least maxSuccessors() entries.
+     * 
+     * @param s
+     *            the state index.
+     * @param a
+     *            the action index.
+     * @param next
+     *            receives the successor state indices.
+     * @param prob
+     *            receives the transition probabilities.
+     * @return the number of successors written.
+     */
+    public abstract int successors(int s, int a, int[] next, double[] prob);
+
+    /**
+     * Returns sum over s' of P(s'|s,a) U(s').
+     * 
+     * @param s
+     *            the state index.
+     * @param a
+     *            the action index.
+     * @param u
+     *            the utility of every state.
+     * @return the expected utility of the successors.
+     */
+    public abstract double expectedUtility(int s, int a, double[] u);
+
+    /**
+     * Returns sum over s' of P(s'|s,a) U(s'), accumulated in double precision
+     * from single precision utilities.
+     * 
+     * @param s
+     *            the state index.
+     * @param a
+     *            the action index.
+     * @param u
+     *            the utility of every state.
+     * @return the expected utility of the successors.
+     */
+    public abstract double expectedUtility(int s, int a, float[] u);
+
+    /**
+     * Returns false for indices that do not correspond to a state of the MDP,
+     * such as the rock cells of a grid layout. Such indices are terminal with
+     * no reward and are never reached.
+     * 
+     * @param s
+     *            the state index.
+     * @return true if the index is a state of the MDP.
+     */
+    public boolean isState(int s)
+    {
+        return true;
+    }
+
+    /**
+     * Returns a bound on the utility of every state, found from the rewards
+     * alone. With no positive rewards outside terminal states no state can
+     * do better than the best terminal reward (or 0 if it never ends);
+     * otherwise the bound also covers collecting the best reward forever.
+     * 
+     * @return the bound.
+     * @throws IllegalArgumentException
+     *             if there is a positive reward and no discount.
+     */
+    public double utilityBound()
+    {
+        double maxTerminal = Double.NEGATIVE_INFINITY;
+        double maxReward = Double.NEGATIVE_INFINITY;
+        for (int s = 0; s < numStates(); s++)
+        {
+            if (isTerminal(s))
+            {
+                maxTerminal = Math.max(maxTerminal, reward(s));
+            }
+            else
+            {
+                maxReward = Math.max(maxReward, reward(s));
+            }
+        }
+        if (maxReward <= 0.0)
+        {
+            return Math.max(maxTerminal, 0.0);
+        }
+        if (gamma() >= 1.0)
+        {
+            throw new IllegalArgumentException("Utilities are unbounded with "
+                + "positive rewards and no discount.");
+        }
+        return Math.max(maxTerminal, maxReward / (1 - gamma()));
+    }
+
+    /**
+     * Returns the index of the state with the given name.
+     * 
+     * @param name
+     *            the name of the state.
+     * @return the index of the state, or -1 if there is no such state.
+     */
+    public int indexOf(String name)
+    {
+        if (nameIndex == null)
+        {
+            HashMap<String, Integer> map =
+                new HashMap<String, Integer>(2 * numStates());
+            for (int s = 0; s < numStates(); s++)
+            {
+                map.put(stateName(s), s);
+            }
+            nameIndex = map;
+        }
+        Integer index = nameIndex.get(name);
+        return (index == null) ? -1 : index;
+    }
+
+    /**
+     * Returns the index of the action with the given name.
+     * 
+     * @param name
+     *            the name of the action.
+     * @return the index of the action, or -1 if there is no such action.
+     */
+    public int actionIndex(String name)
+    {
+        for (int a = 0; a < numActions(); a++)
+        {
+            if (actionName(a).equals(name))
+            {
+                return a;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Performs one in-place (Gauss-Seidel) Bellman sweep over every state.
+     * 
+     * @param u
+     *            the utilities, updated in place.
+     * @param policy
+     *            receives the greedy action of every state (-1 if terminal).
+     * @return the maximum change in the utility of any state.
+     */
+    public double sweep(double[] u, int[] policy)
+    {
+        double delta = 0.0;
+        double gamma = gamma();
+        for (int s = 0; s < u.length; s++)
+        {
+            double value = reward(s);
+            int best = -1;
+            if (!isTerminal(s))
+            {
+                double max = Double.NEGATIVE_INFINITY;
+                for (int a = 0; a < numActions(); a++)
+                {
+                    double eu = expectedUtility(s, a, u);
+                    if (eu > max)
+                    {
+                        max = eu;
+                        best = a;
+                    }
+                }
+                value += gamma * max;
+            }
+            policy[s] = best;
+            double change = Math.abs(value - u[s]);
+            if (change > delta)
+            {
+                delta = change;
+            }
+            u[s] = value;
+        }
+        return delta;
+    }
+
+    /**
+     * Performs one in-place (Gauss-Seidel) Bellman sweep over every state,
+     * skipping actions that are known to be suboptimal.
+     * 
+     * @param u
+     *            the utilities, updated in place.
+     * @param policy
+     *            receives the greedy action of every state (-1 if terminal).
+     * @param eliminated
+     *            true at s * numActions() + a for each action a to skip in
+     *            state s; at least one action of each state must be left.
+     * @return the maximum change in the utility of any state.
+     */
+    public double sweep(double[] u, int[] policy, boolean[] eliminated)
+    {
+        double delta = 0.0;
+        double gamma = gamma();
+        int numActions = numActions();
+        for (int s = 0; s < u.length; s++)
+        {
+            double value = reward(s);
+            int best = -1;
+            if (!isTerminal(s))
+            {
+                double max = Double.NEGATIVE_INFINITY;
+                for (int a = 0; a < numActions; a++)
+                {
+                    if (eliminated[s * numActions + a])
+                    {
+                        continue;
+                    }
+                    double eu = expectedUtility(s, a, u);
+                    if (eu > max)
+                    {
+                        max = eu;
+                        best = a;
+                    }
+                }
+                value += gamma * max;
+            }
+            policy[s] = best;
+            double change = Math.abs(value - u[s]);
+            if (change > delta)
+            {
+                delta = change;
+            }
+            u[s] = value;
+        }
+        return delta;
+    }
+
+    /**
+     * Performs one in-place (Gauss-Seidel) Bellman sweep over every state
+     * with single precision utilities. Each backup is accumulated in double
+     * precision and only rounded when it is stored.
+     * 
+     * @param u
+     *            the utilities, updated in place.
+     * @param policy
+     *            receives the greedy action of every state (-1 if terminal).
+     * @return the maximum change in the stored utility of any state.
+     */
+    public double sweep(float[] u, int[] policy)
+    {
+        double delta = 0.0;
+        double gamma = gamma();
+        for (int s = 0; s < u.length; s++)
+        {
+            double value = reward(s);
+            int best = -1;
+            if (!isTerminal(s))
+            {
+                double max = Double.NEGATIVE_INFINITY;
+                for (int a = 0; a < numActions(); a++)
+                {
+                    double eu = expectedUtility(s, a, u);
+                    if (eu > max)
+                    {
+                        max = eu;
+                        best = a;
+                    }
+                }
+                value += gamma * max;
+            }
+            policy[s] = best;
+            float stored = (float) value;
+            double change = Math.abs((double) stored - u[s]);
+            if (change > delta)
+            {
+                delta = change;
+            }
+            u[s] = stored;
+        }
+        return delta;
+    }
+
+    /**
+     * Performs one synchronous (Jacobi) Bellman sweep, reading u and writing
+     * the backed up utilities into next. Unlike sweep() no state reads a value
+     * written in the same sweep, so models can override this with kernels
+     * that process many states at once; this version is a scalar fallback.
+     * 
+     * @param u
+     *            the current utilities.
+     * @param next
+     *            receives the backed up utilities.
+     * @return the maximum change in the utility of any state.
+     */
+    public double jacobiSweep(double[] u, double[] next)
+    {
+        double gamma = gamma();
+        double delta = 0.0;
+        for (int s = 0; s < u.length; s++)
+        {
+            double value = reward(s);
+            if (!isTerminal(s))
+            {
+                double max = Double.NEGATIVE_INFINITY;
+                for (int a = 0; a < numActions(); a++)
+                {
+                    max = Math.max(max, expectedUtility(s, a, u));
+                }
+                value += gamma * max;
+            }
+            next[s] = value;
+            delta = Math.max(delta, Math.abs(value - u[s]));
+        }
+        return delta;
+    }
+
+    /**
+     * Fills in the greedy action of every state for the given utilities.
+     * 
+     * @param u
+     *            the utilities.
+     * @param policy
+     *            receives the greedy action of every state (-1 if terminal).
+     */
+    public void greedyPolicy(double[] u, int[] policy)
+    {
+        for (int s = 0; s < u.length; s++)
+        {
+            int best = -1;
+            if (!isTerminal(s))
+            {
+                double max = Double.NEGATIVE_INFINITY;
+                for (int a = 0; a < numActions(); a++)
+                {
+                    double eu = expectedUtility(s, a, u);
+                    if (eu > max)
+                    {
+                        max = eu;
+                        best = a;
+                    }
+                }
+            }
+            policy[s] = best;
+        }
+    }
+
+    /**
+     * Adds the bytes of the model to a report. The base class only knows of
+     * the map built by indexOf(); subclasses add their own arrays. Names
+     * shared with the world the model was copied from are not counted.
+     * 
+     * @param report
+     *            the report.
+     */
+    public void addMemory(MemoryReport report)
+    {
+        if (nameIndex != null)
+        {
+            report.measure(MemoryReport.MODEL, MemoryReport.CACHES,
+                MemoryReport.nameIndex(nameIndex.size()));
+        }
+    }
+}